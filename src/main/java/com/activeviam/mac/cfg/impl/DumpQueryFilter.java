@@ -0,0 +1,168 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.cfg.impl;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Filter notifying the {@link SourceConfig} of the MDX queries received by the REST services.
+ *
+ * <p>The body of the query is read before the query runs, so that the dumps it mentions can be
+ * loaded or marked as used beforehand. The body is then replayed to the REST service.
+ *
+ * @author ActiveViam
+ */
+public class DumpQueryFilter extends OncePerRequestFilter {
+
+  /**
+   * Pattern of the members of the hierarchies of dumps, whose dimension and hierarchy share their
+   * name. The members can be written with or without their level, by name or by key. The second
+   * group is the name of the dump, whose closing brackets are doubled.
+   */
+  private static final Pattern DUMP_MEMBER_PATTERN =
+      Pattern.compile(
+          "\\[("
+              + Pattern.quote(ManagerDescriptionConfig.CHUNK_DUMP_NAME_LEVEL)
+              + "|"
+              + Pattern.quote(ManagerDescriptionConfig.BASE_DUMP_NAME_DIMENSION)
+              + ")]\\s*\\.\\s*\\[\\1]\\s*\\.\\s*"
+              // The optional level, then the member
+              + "(?:\\[\\1]\\s*\\.\\s*)?&?\\[((?:[^\\]]|]])*)]",
+          Pattern.CASE_INSENSITIVE);
+
+  /** The source configuration to notify. */
+  protected final SourceConfig sourceConfig;
+
+  /**
+   * Constructor.
+   *
+   * @param sourceConfig the source configuration to notify
+   */
+  public DumpQueryFilter(final SourceConfig sourceConfig) {
+    this.sourceConfig = sourceConfig;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      final HttpServletRequest request,
+      final HttpServletResponse response,
+      final FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!"POST".equalsIgnoreCase(request.getMethod())) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    final byte[] body = request.getInputStream().readAllBytes();
+    this.sourceConfig.notifyQuery(new String(body, StandardCharsets.UTF_8));
+    filterChain.doFilter(new ReplayedBodyRequest(request, body), response);
+  }
+
+  /**
+   * Returns the dumps mentioned by an MDX query, as members of the hierarchies of dumps.
+   *
+   * <p>Only explicit members are considered, e.g. {@code [Import info].[Import info].[dump]}.
+   * Queries reading the dumps through member functions such as {@code Members} mention none.
+   *
+   * @param query the text of the query
+   * @return the names of the mentioned dumps
+   */
+  public static Set<String> getMentionedDumps(final String query) {
+    final Set<String> dumpNames = new HashSet<>();
+    final Matcher matcher = DUMP_MEMBER_PATTERN.matcher(query);
+    while (matcher.find()) {
+      dumpNames.add(matcher.group(2).replace("]]", "]"));
+    }
+    return dumpNames;
+  }
+
+  /** Request whose body was already read, replaying it to the next filters. */
+  protected static class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    /**
+     * Constructor.
+     *
+     * @param request the wrapped request
+     * @param body the body read from the request
+     */
+    protected ReplayedBodyRequest(final HttpServletRequest request, final byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      final ByteArrayInputStream input = new ByteArrayInputStream(this.body);
+      return new ServletInputStream() {
+
+        @Override
+        public boolean isFinished() {
+          return input.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(final ReadListener readListener) {
+          throw new UnsupportedOperationException("Asynchronous reads are not supported");
+        }
+
+        @Override
+        public int read() {
+          return input.read();
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) {
+          return input.read(buffer, offset, length);
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      final String encoding = getCharacterEncoding();
+      return new BufferedReader(
+          new InputStreamReader(
+              getInputStream(),
+              encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+    }
+
+    @Override
+    public int getContentLength() {
+      return this.body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return this.body.length;
+    }
+  }
+}
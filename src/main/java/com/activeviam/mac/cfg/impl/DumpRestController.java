@@ -0,0 +1,97 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.cfg.impl;
+
+import com.activeviam.mac.memory.DumpCatalog;
+import com.activeviam.mac.memory.DumpCatalog.CataloguedDump;
+import com.activeviam.mac.memory.LoadedDumpRegistry;
+import com.activeviam.mac.memory.LoadedDumpRegistry.LoadedDump;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST service managing the dumps loaded in the application.
+ *
+ * <p>Dumps are identified by a request parameter rather than a path variable, as the names of the
+ * dumps loaded from nested folders contain slashes.
+ *
+ * @author ActiveViam
+ */
+@RestController
+@RequestMapping(DumpRestController.URL_PREFIX)
+public class DumpRestController {
+
+  /** The URL of the service. */
+  public static final String URL_PREFIX = "/mac/dumps";
+
+  /** Spring configuration of the source files of the Memory Analysis Cube application. */
+  @Autowired protected SourceConfig sourceConfig;
+
+  /** Registry of the loaded dumps. */
+  @Autowired protected LoadedDumpRegistry loadedDumpRegistry;
+
+  /** Catalog of the dumps available in the statistics folder. */
+  @Autowired protected DumpCatalog dumpCatalog;
+
+  /**
+   * Lists the loaded dumps, from the least to the most recently used.
+   *
+   * @return the loaded dumps
+   */
+  @GetMapping
+  public List<LoadedDump> getDumps() {
+    return this.loadedDumpRegistry.getDumps();
+  }
+
+  /**
+   * Lists the dumps found in the statistics folder in catalog mode, loaded or not.
+   *
+   * @return the catalogued dumps, sorted by name
+   */
+  @GetMapping("/catalog")
+  public List<CataloguedDump> getCataloguedDumps() {
+    return this.dumpCatalog.getDumps();
+  }
+
+  /**
+   * Loads a dump listed in the catalog.
+   *
+   * @param name the name of the dump to load
+   * @return message to the user
+   */
+  @PostMapping
+  public String loadDump(@RequestParam("name") final String name) {
+    if (this.dumpCatalog.getFiles(name).isEmpty()) {
+      throw new ResponseStatusException(
+          HttpStatus.NOT_FOUND, "Dump " + name + " is not catalogued");
+    }
+    return this.sourceConfig.loadCataloguedDump(name);
+  }
+
+  /**
+   * Removes a dump from the application.
+   *
+   * @param name the name of the dump to remove
+   * @return message to the user
+   */
+  @DeleteMapping
+  public String unloadDump(@RequestParam("name") final String name) {
+    if (!this.loadedDumpRegistry.contains(name)) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Dump " + name + " is not loaded");
+    }
+    return this.sourceConfig.unloadDump(name);
+  }
+}
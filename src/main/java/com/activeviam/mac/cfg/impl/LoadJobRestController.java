@@ -0,0 +1,107 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.cfg.impl;
+
+import com.activeviam.mac.memory.LoadJob;
+import com.activeviam.mac.memory.LoadJobManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * REST service loading statistics in the background, through {@link LoadJob load jobs}.
+ *
+ * <p>Submitting a path returns the job loading it at once, whose progress can then be polled.
+ *
+ * @author ActiveViam
+ */
+@RestController
+@RequestMapping(LoadJobRestController.URL_PREFIX)
+public class LoadJobRestController {
+
+  /** The URL of the service. */
+  public static final String URL_PREFIX = "/mac/jobs";
+
+  /** Spring configuration of the source files of the Memory Analysis Cube application. */
+  @Autowired protected SourceConfig sourceConfig;
+
+  /** Manager of the load jobs. */
+  @Autowired protected LoadJobManager loadJobManager;
+
+  /**
+   * Lists the running, waiting and last finished jobs, in submission order.
+   *
+   * @return the jobs
+   */
+  @GetMapping
+  public List<LoadJob> getJobs() {
+    return this.loadJobManager.getJobs();
+  }
+
+  /**
+   * Describes a job.
+   *
+   * @param id the identifier of the job
+   * @return the job
+   */
+  @GetMapping("/{id}")
+  public LoadJob getJob(@PathVariable("id") final long id) {
+    return this.loadJobManager.getJob(id).orElseThrow(() -> unknownJob(id));
+  }
+
+  /**
+   * Submits a job loading a statistics directory, or a single statistics file, as a dump.
+   *
+   * @param path the path to the directory or the file to load
+   * @return the submitted job
+   * @throws IOException if the directory cannot be listed
+   */
+  @PostMapping
+  public LoadJob submitJob(@RequestParam("path") final String path) throws IOException {
+    if (!Files.exists(Paths.get(path))) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, path + " does not exist");
+    }
+    try {
+      return Files.isDirectory(Paths.get(path))
+          ? this.sourceConfig.submitDirectoryLoad(path)
+          : this.sourceConfig.submitFileLoad(path);
+    } catch (final IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Cancels a job.
+   *
+   * @param id the identifier of the job
+   * @return the cancelled job
+   */
+  @DeleteMapping("/{id}")
+  public LoadJob cancelJob(@PathVariable("id") final long id) {
+    final LoadJob job = this.loadJobManager.getJob(id).orElseThrow(() -> unknownJob(id));
+    if (!job.cancel()) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " is already over");
+    }
+    return job;
+  }
+
+  private static ResponseStatusException unknownJob(final long id) {
+    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Job " + id + " is unknown");
+  }
+}
@@ -7,6 +7,8 @@
 
 package com.activeviam.mac.cfg.impl;
 
+import static com.qfs.server.cfg.impl.ActivePivotRestServicesConfig.REST_API_URL_PREFIX;
+
 import com.activeviam.mac.cfg.security.impl.SecurityConfig;
 import com.activeviam.mac.cfg.security.impl.UserConfig;
 import com.activeviam.properties.cfg.impl.ActiveViamPropertyFromSpringConfig;
@@ -30,11 +32,13 @@ import com.quartetfs.fwk.monitoring.jmx.impl.JMXEnabler;
 import java.nio.file.Paths;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 
 /**
@@ -81,6 +85,8 @@ import org.springframework.core.env.Environment;
       SecurityConfig.class,
       UserConfig.class,
       SourceConfig.class,
+      DumpRestController.class,
+      LoadJobRestController.class,
     })
 public class MacServerConfig {
 
@@ -133,6 +139,39 @@ public class MacServerConfig {
     this.sourceConfig.watchStatisticDirectory();
   }
 
+  /**
+   * Registers the filter notifying the source of the MDX queries, to load the catalogued dumps
+   * they use on demand.
+   *
+   * @return the registration of the filter
+   */
+  @Bean
+  public FilterRegistrationBean<DumpQueryFilter> dumpQueryFilter() {
+    final FilterRegistrationBean<DumpQueryFilter> registration =
+        new FilterRegistrationBean<>(new DumpQueryFilter(this.sourceConfig));
+    registration.addUrlPatterns(REST_API_URL_PREFIX + "/cube/query/*");
+    // Before the result cache, so that the dumps a query needs are loaded beforehand
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    return registration;
+  }
+
+  /**
+   * Registers the filter answering the MDX queries from the cache of their results, when the
+   * cache is enabled.
+   *
+   * @return the registration of the filter
+   */
+  @Bean
+  public FilterRegistrationBean<QueryResultCacheFilter> queryResultCacheFilter() {
+    final FilterRegistrationBean<QueryResultCacheFilter> registration =
+        new FilterRegistrationBean<>(
+            new QueryResultCacheFilter(this.sourceConfig.queryResultCache()));
+    registration.addUrlPatterns(REST_API_URL_PREFIX + "/cube/query/*");
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+    registration.setEnabled(this.sourceConfig.isQueryCacheEnabled());
+    return registration;
+  }
+
   /**
    * Enables JMX Monitoring for the Source.
    *
@@ -9,11 +9,13 @@ package com.activeviam.mac.cfg.impl;
 
 import com.activeviam.builders.StartBuilding;
 import com.activeviam.comparators.ReverseEpochViewComparator;
+import com.activeviam.copper.HierarchyIdentifier;
 import com.activeviam.copper.ICopperContext;
 import com.activeviam.copper.api.Copper;
 import com.activeviam.copper.api.CopperMeasure;
 import com.activeviam.copper.api.CopperMeasureToAggregateAbove;
 import com.activeviam.copper.api.CopperStore;
+import com.activeviam.copper.store.Mapping.JoinType;
 import com.activeviam.database.api.schema.FieldPath;
 import com.activeviam.desc.build.ICanBuildCubeDescription;
 import com.activeviam.desc.build.ICanStartBuildingMeasures;
@@ -49,9 +51,11 @@ import com.quartetfs.fwk.ordering.impl.ReverseOrderComparator;
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 
 /**
  * Manager Description Config that defines the manager description which contains the cube
@@ -69,6 +73,42 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
   /** The main monitoring schema name. */
   public static final String MONITORING_SCHEMA = "MemorySchema";
 
+  /** The name of the cube of the chunk summaries, without the chunk-level hierarchies. */
+  public static final String SUMMARY_CUBE = "MemorySummaryCube";
+
+  /** The name of the schema of the {@link #SUMMARY_CUBE summary cube}. */
+  public static final String SUMMARY_SCHEMA = "MemorySummarySchema";
+
+  /** The name of the cube of the differences between the chunks of two dumps. */
+  public static final String DIFF_CUBE = "MemoryDiffCube";
+
+  /** The name of the schema of the {@link #DIFF_CUBE diff cube}. */
+  public static final String DIFF_SCHEMA = "MemoryDiffSchema";
+
+  /** The name of the cube of the footprint time series of the applications. */
+  public static final String TREND_CUBE = "MemoryTrendCube";
+
+  /** The name of the schema of the {@link #TREND_CUBE trend cube}. */
+  public static final String TREND_SCHEMA = "MemoryTrendSchema";
+
+  /**
+   * The property enabling the aggregate providers dedicated to the queries of the shipped
+   * bookmarks, instead of answering all the queries just in time.
+   */
+  public static final String BOOKMARK_PROVIDERS_PROPERTY = "cube.bookmarkProviders.enabled";
+
+  /**
+   * The property holding the number of aggregates cached by the memory and summary cubes, {@link
+   * #DEFAULT_AGGREGATES_CACHE_SIZE} by default, {@code 0} disabling their aggregates cache.
+   *
+   * <p>This cache is part of the query engine, so that it serves the MDX queries of the UI sent
+   * through its websocket as well as those of the REST API.
+   */
+  public static final String AGGREGATES_CACHE_SIZE_PROPERTY = "cube.aggregatesCache.size";
+
+  /** The default number of aggregates cached by the memory and summary cubes. */
+  public static final int DEFAULT_AGGREGATES_CACHE_SIZE = 100_000;
+
   /** The {@link QueriesTimeLimit} timeout duration. */
   public static final Duration TIMEOUT_DURATION = Duration.ofSeconds(15);
 
@@ -100,6 +140,10 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
   public static final String PARTITION_DIMENSION = "Partitions";
   /** Name of the used by version dimension. */
   public static final String USED_BY_VERSION_DIMENSION = "Used by Version";
+  /** Name of the dimension of the dumps compared to in the diff cube. */
+  public static final String BASE_DUMP_NAME_DIMENSION = "Base import info";
+  /** Name of the dimension of the applications of the dumps in the trend cube. */
+  public static final String APPLICATION_DIMENSION = "Application";
   // endregion
 
   // region hierarchies
@@ -131,10 +175,14 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
   public static final String BRANCH_HIERARCHY = "Branch";
   /** Name of the internal epoch id hierarchy. */
   public static final String INTERNAL_EPOCH_ID_HIERARCHY = "Internal Epoch Id";
+  /** Name of the hierarchy of the ends of the epoch ranges of the chunks. */
+  public static final String INTERNAL_EPOCH_END_HIERARCHY = "Internal Epoch End";
   /** Name of the epoch id hierarchy. */
   public static final String EPOCH_ID_HIERARCHY = "Epoch Id";
   /** Name of the date hierarchy. */
   public static final String DATE_HIERARCHY = "Date";
+  /** Name of the hierarchy of how the chunks changed between two dumps. */
+  public static final String DIFF_STATUS_HIERARCHY = "Change";
   // endregion
 
   // region levels
@@ -221,6 +269,30 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
   public static final String COMMITTED_CHUNK_MEMORY = "CommittedChunkMemory.SUM";
   /** The ratio of committed rows within chunks. */
   public static final String COMMITTED_ROWS_RATIO = "CommittedRows.Ratio";
+  /** The off-heap memory footprint of the chunks in the base dump of a diff. */
+  public static final String DIRECT_MEMORY_BASE = "DirectMemory.Base";
+  /** The off-heap memory footprint of the chunks in the target dump of a diff. */
+  public static final String DIRECT_MEMORY_TARGET = "DirectMemory.Target";
+  /** The growth of the off-heap memory footprint from the base to the target dump, in bytes. */
+  public static final String DIRECT_MEMORY_DELTA = "DirectMemory.Delta";
+  /** The growth of the off-heap memory footprint, relative to the base dump. */
+  public static final String DIRECT_MEMORY_GROWTH = "DirectMemory.Growth";
+  /** The on-heap memory footprint of the chunks in the base dump of a diff. */
+  public static final String HEAP_MEMORY_BASE = "HeapMemory.Base";
+  /** The on-heap memory footprint of the chunks in the target dump of a diff. */
+  public static final String HEAP_MEMORY_TARGET = "HeapMemory.Target";
+  /** The growth of the on-heap memory footprint from the base to the target dump, in bytes. */
+  public static final String HEAP_MEMORY_DELTA = "HeapMemory.Delta";
+  /** The growth of the on-heap memory footprint, relative to the base dump. */
+  public static final String HEAP_MEMORY_GROWTH = "HeapMemory.Growth";
+  /** The growth of the off-heap memory footprint of the chunks up to a dump, per day. */
+  public static final String DIRECT_MEMORY_GROWTH_PER_DAY = "DirectMemory.GrowthPerDay";
+  /** The growth of the on-heap memory footprint of the chunks up to a dump, per day. */
+  public static final String HEAP_MEMORY_GROWTH_PER_DAY = "HeapMemory.GrowthPerDay";
+  /** The growth of the off-heap memory used by the application up to a dump, per day. */
+  public static final String USED_DIRECT_GROWTH_PER_DAY = "UsedDirectMemory.GrowthPerDay";
+  /** The number of days before the used off-heap memory reaches the maximum, if growing. */
+  public static final String MAX_DIRECT_DAYS_LEFT = "MaxDirectMemory.DaysLeft";
   // endregion
 
   // region folders
@@ -236,6 +308,10 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
   public static final String CHUNK_MEMORY_FOLDER = "Chunk Memory";
   /** The name of the folder for measures related to vectors. */
   public static final String VECTOR_FOLDER = "Vector";
+  /** The name of the folder for measures comparing two dumps. */
+  public static final String DIFF_FOLDER = "Diff";
+  /** The name of the folder for measures on the time series of the applications. */
+  public static final String TREND_FOLDER = "Trend";
   /** The name of the folder for internal measures not intended for regular uses. */
   public static final String INTERNAL_FOLDER = "Internal";
   // endregion
@@ -243,6 +319,10 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
   protected IDatastoreSchemaDescriptionConfig datastoreDescriptionConfig =
       new MemoryAnalysisDatastoreDescriptionConfig();
 
+  /** The environment of the application, absent when the configuration is built by hand. */
+  @Autowired(required = false)
+  protected Environment env;
+
   /**
    * Prefixes a field by another string.
    *
@@ -257,10 +337,32 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
   @Bean
   @Override
   public IActivePivotManagerDescription managerDescription() {
+    return describeManager(
+        this.env != null
+            && this.env.getProperty(BOOKMARK_PROVIDERS_PROPERTY, Boolean.class, false));
+  }
+
+  /**
+   * Describes the manager, with or without the aggregate providers dedicated to the bookmarks.
+   *
+   * @param bookmarkProviders whether the cubes have the aggregate providers dedicated to the
+   *     queries of the shipped bookmarks, see {@link #BOOKMARK_PROVIDERS_PROPERTY}
+   * @return the description of the manager
+   */
+  public IActivePivotManagerDescription describeManager(final boolean bookmarkProviders) {
     return StartBuilding.managerDescription()
         .withSchema(MONITORING_SCHEMA)
         .withSelection(memorySelection())
-        .withCube(memoryCube())
+        .withCube(memoryCube(bookmarkProviders))
+        .withSchema(SUMMARY_SCHEMA)
+        .withSelection(summarySelection())
+        .withCube(summaryCube(bookmarkProviders))
+        .withSchema(DIFF_SCHEMA)
+        .withSelection(diffSelection())
+        .withCube(diffCube())
+        .withSchema(TREND_SCHEMA)
+        .withSelection(trendSelection())
+        .withCube(trendCube())
         .build();
   }
 
@@ -283,22 +385,326 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
         .build();
   }
 
-  private IActivePivotInstanceDescription memoryCube() {
-    return StartBuilding.cube(MONITORING_CUBE)
-        .withCalculations(this::copperCalculations)
+  private IActivePivotInstanceDescription memoryCube(final boolean bookmarkProviders) {
+    final ICanBuildCubeDescription<IActivePivotInstanceDescription> cube =
+        withAggregatesCache(
+            StartBuilding.cube(MONITORING_CUBE)
+                .withCalculations(this::copperCalculations)
+                .withMeasures(this::nativeMeasures)
+                .withDimensions(this::defineDimensions)
+                .withSharedContextValue(
+                    QueriesTimeLimit.of(TIMEOUT_DURATION.getSeconds(), TimeUnit.SECONDS))
+                .withSharedContextValue(QueriesResultLimit.withoutLimit())
+                .withSharedMdxContext()
+                .withDefaultMember()
+                .onHierarchy(
+                    MdxNamingUtil.hierarchyUniqueName(IDimension.MEASURES, IHierarchy.MEASURES))
+                .withMemberPath(CHUNK_COUNT)
+                .end());
+    if (!bookmarkProviders) {
+      return cube.build();
+    }
+    // The bookmarks slice the chunks on these hierarchies, or on hierarchies joined through them.
+    // The chunk IDs are excluded too: with them, the provider would hold about one aggregate per
+    // chunk, so the per-chunk measures are computed just in time from the chunk store
+    return cube.withAggregateProvider()
+        .jit()
+        .withPartialProvider()
+        .bitmap()
+        .excludingHierarchies(
+            new HierarchyIdentifier(CHUNK_DIMENSION, CHUNK_ID_HIERARCHY),
+            new HierarchyIdentifier(CHUNK_DIMENSION, CHUNK_TYPE_LEVEL),
+            new HierarchyIdentifier(CHUNK_DIMENSION, CHUNK_PARENT_ID_LEVEL),
+            new HierarchyIdentifier(CHUNK_DIMENSION, CHUNK_DICO_ID_LEVEL),
+            new HierarchyIdentifier(CHUNK_DIMENSION, CHUNK_REF_ID_LEVEL),
+            new HierarchyIdentifier(CHUNK_DIMENSION, CHUNK_CLASS_LEVEL),
+            new HierarchyIdentifier(PARTITION_DIMENSION, PARTITION_HIERARCHY),
+            new HierarchyIdentifier(CHUNK_DUMP_NAME_LEVEL, DATE_HIERARCHY),
+            new HierarchyIdentifier(AGGREGATE_PROVIDER_DIMENSION, MANAGER_HIERARCHY),
+            new HierarchyIdentifier(AGGREGATE_PROVIDER_DIMENSION, PROVIDER_ID_HIERARCHY),
+            new HierarchyIdentifier(VERSION_DIMENSION, BRANCH_HIERARCHY),
+            new HierarchyIdentifier(VERSION_DIMENSION, USED_BY_VERSION_DIMENSION))
+        .build();
+  }
+
+  private ISelectionDescription summarySelection() {
+    return StartBuilding.selection(
+            datastoreDescriptionConfig.datastoreSchemaDescription().asDatabaseSchema())
+        .fromBaseStore(DatastoreConstants.CHUNK_SUMMARY_STORE)
+        // The summaries reference the epoch range of their owner, like the chunks
+        .withAllReachableFields(ISelectionDescriptionBuilder.FieldsCollisionHandler.CLOSEST::handle)
+        .build();
+  }
+
+  /**
+   * Cube answering the queries on the owners, components, partitions, types and classes of the
+   * chunks from their summaries, see {@link DatastoreConstants#CHUNK_SUMMARY_STORE}.
+   *
+   * <p>Its chunk measures are those of the main cube. They are aggregated per summary record rather
+   * than per chunk, the chunks recorded once in their dump being summed by a single record. Queries
+   * slicing on the other chunk-level hierarchies must target the main cube.
+   *
+   * <p>Its records being few, the dedicated provider aggregates all of them in a bitmap.
+   */
+  private IActivePivotInstanceDescription summaryCube(final boolean bookmarkProviders) {
+    final ICanBuildCubeDescription<IActivePivotInstanceDescription> cube =
+        withAggregatesCache(
+            StartBuilding.cube(SUMMARY_CUBE)
+                .withCalculations(this::summaryCalculations)
+                .withMeasures(this::nativeMeasures)
+                .withDimensions(this::defineSummaryDimensions)
+                .withSharedContextValue(
+                    QueriesTimeLimit.of(TIMEOUT_DURATION.getSeconds(), TimeUnit.SECONDS))
+                .withSharedContextValue(QueriesResultLimit.withoutLimit())
+                .withSharedMdxContext()
+                .withDefaultMember()
+                .onHierarchy(
+                    MdxNamingUtil.hierarchyUniqueName(IDimension.MEASURES, IHierarchy.MEASURES))
+                .withMemberPath(CHUNK_COUNT)
+                .end());
+    return bookmarkProviders ? cube.withAggregateProvider().bitmap().build() : cube.build();
+  }
+
+  /**
+   * Adds the aggregates cache to a cube, unless disabled by {@link
+   * #AGGREGATES_CACHE_SIZE_PROPERTY}.
+   *
+   * <p>The cached aggregates belong to the version of the cube they were computed on, so that the
+   * commit of a loaded, unloaded or diffed dump discards them all.
+   */
+  private ICanBuildCubeDescription<IActivePivotInstanceDescription> withAggregatesCache(
+      final ICanBuildCubeDescription<IActivePivotInstanceDescription> cube) {
+    final int size =
+        this.env == null
+            ? 0
+            : this.env.getProperty(
+                AGGREGATES_CACHE_SIZE_PROPERTY, Integer.class, DEFAULT_AGGREGATES_CACHE_SIZE);
+    return size > 0 ? cube.withAggregatesCache().withSize(size).end() : cube;
+  }
+
+  private ISelectionDescription diffSelection() {
+    return StartBuilding.selection(
+            datastoreDescriptionConfig.datastoreSchemaDescription().asDatabaseSchema())
+        .fromBaseStore(DatastoreConstants.CHUNK_DIFF_STORE)
+        .withAllFields()
+        .build();
+  }
+
+  /**
+   * Cube answering the queries on the growth of the chunks between two dumps, see {@link
+   * DatastoreConstants#CHUNK_DIFF_STORE}.
+   *
+   * <p>Both the target and the base dumps are slicing, each pair of dumps being a separate diff.
+   */
+  private IActivePivotInstanceDescription diffCube() {
+    return StartBuilding.cube(DIFF_CUBE)
+        .withCalculations(this::diffCalculations)
+        .withMeasures(this::nativeMeasures)
+        .withDimensions(this::defineDiffDimensions)
+        .withSharedContextValue(
+            QueriesTimeLimit.of(TIMEOUT_DURATION.getSeconds(), TimeUnit.SECONDS))
+        .withSharedContextValue(QueriesResultLimit.withoutLimit())
+        .withSharedMdxContext()
+        .withDefaultMember()
+        .onHierarchy(MdxNamingUtil.hierarchyUniqueName(IDimension.MEASURES, IHierarchy.MEASURES))
+        .withMemberPath(DIRECT_MEMORY_DELTA)
+        .end()
+        .build();
+  }
+
+  private ICanBuildCubeDescription<IActivePivotInstanceDescription> defineDiffDimensions(
+      final ICanStartBuildingDimensions builder) {
+    return builder
+        .withDimension(CHUNK_DIMENSION)
+        .withHierarchy(CHUNK_ID_HIERARCHY)
+        .hidden()
+        .withHierarchyProperty(
+            "description", "The ID of the chunk, or of the sum of chunks recorded once")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK_ID)
+        .withHierarchy(DIFF_STATUS_HIERARCHY)
+        .withHierarchyProperty(
+            "description", "How the chunk changed (NEW, FREED, RESIZED or UNCHANGED)")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK_DIFF__STATUS)
+        .withHierarchy(CHUNK_CLASS_LEVEL)
+        .withHierarchyProperty("description", "The java class of the chunk")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK__CLASS)
+        .withFormatter(ClassFormatter.KEY)
+        .withDimension(CHUNK_DUMP_NAME_LEVEL)
+        .withHierarchyOfSameName()
+        .slicing()
+        .withHierarchyProperty("description", "The compared dump")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK__DUMP_NAME)
+        .withComparator(NaturalOrderComparator.type)
+        .withDimension(BASE_DUMP_NAME_DIMENSION)
+        .withHierarchyOfSameName()
+        .slicing()
+        .withHierarchyProperty("description", "The dump compared to")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK_DIFF__BASE_DUMP_NAME)
+        .withComparator(NaturalOrderComparator.type)
+        .withDimension(OWNER_DIMENSION)
+        .withHierarchy(OWNER_HIERARCHY)
+        .withHierarchyProperty("description", "The cube(s) or store(s) owning the chunk")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.OWNER__OWNER)
+        .withDimension(COMPONENT_DIMENSION)
+        .withHierarchy(COMPONENT_HIERARCHY)
+        .withHierarchyProperty(
+            "description",
+            "The owning structure associated with the chunk (dictionary, index, ...)")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.OWNER__COMPONENT)
+        .withDimension(FIELD_DIMENSION)
+        .withHierarchy(FIELD_HIERARCHY)
+        .withHierarchyProperty("description", "The field(s) the chunk is attributed to")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK_DIFF__FIELDS)
+        .withDimension(INDEX_DIMENSION)
+        .withHierarchy(INDEXED_FIELDS_HIERARCHY)
+        .withHierarchyProperty("description", "The fields of the index owning the chunk, if any")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK_DIFF__INDEXED_FIELDS);
+  }
+
+  private ISelectionDescription trendSelection() {
+    return StartBuilding.selection(
+            datastoreDescriptionConfig.datastoreSchemaDescription().asDatabaseSchema())
+        .fromBaseStore(DatastoreConstants.TREND_STORE)
+        .withAllFields()
+        .build();
+  }
+
+  /**
+   * Cube answering the queries on the time series of the footprints of the applications, see
+   * {@link DatastoreConstants#TREND_STORE}.
+   *
+   * <p>The applications and dates are slicing, the latest dump of the first application being shown
+   * by default. The time series are read by expanding the dates.
+   */
+  private IActivePivotInstanceDescription trendCube() {
+    return StartBuilding.cube(TREND_CUBE)
+        .withCalculations(this::trendCalculations)
         .withMeasures(this::nativeMeasures)
-        .withDimensions(this::defineDimensions)
+        .withDimensions(this::defineTrendDimensions)
         .withSharedContextValue(
             QueriesTimeLimit.of(TIMEOUT_DURATION.getSeconds(), TimeUnit.SECONDS))
         .withSharedContextValue(QueriesResultLimit.withoutLimit())
         .withSharedMdxContext()
         .withDefaultMember()
         .onHierarchy(MdxNamingUtil.hierarchyUniqueName(IDimension.MEASURES, IHierarchy.MEASURES))
-        .withMemberPath(CHUNK_COUNT)
+        .withMemberPath(DIRECT_MEMORY_SUM)
         .end()
         .build();
   }
 
+  private ICanBuildCubeDescription<IActivePivotInstanceDescription> defineTrendDimensions(
+      final ICanStartBuildingDimensions builder) {
+    return builder
+        .withDimension(APPLICATION_DIMENSION)
+        .withHierarchyOfSameName()
+        .slicing()
+        .withHierarchyProperty("description", "The application of the dumps")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.TREND__APPLICATION)
+        .withComparator(NaturalOrderComparator.type)
+        .withDimension(CHUNK_DUMP_NAME_LEVEL)
+        .withHierarchy(DATE_HIERARCHY)
+        .slicing()
+        .withHierarchyProperty("description", "Date at which statistics were retrieved")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.APPLICATION__DATE)
+        .withType(ILevelInfo.LevelType.TIME)
+        .withComparator(ReverseOrderComparator.type)
+        .withHierarchy(CHUNK_DUMP_NAME_LEVEL)
+        .withHierarchyProperty(
+            "description", "The source folder name from which the statistics were retrieved")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK__DUMP_NAME)
+        .withComparator(NaturalOrderComparator.type)
+        .withDimension(OWNER_DIMENSION)
+        .withHierarchy(OWNER_HIERARCHY)
+        .withHierarchyProperty("description", "The cube(s) or store(s) owning the chunks")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.OWNER__OWNER)
+        .withDimension(COMPONENT_DIMENSION)
+        .withHierarchy(COMPONENT_HIERARCHY)
+        .withHierarchyProperty(
+            "description",
+            "The owning structure associated with the chunks (dictionary, index, ...)")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.OWNER__COMPONENT)
+        .withDimension(FIELD_DIMENSION)
+        .withHierarchy(FIELD_HIERARCHY)
+        .withHierarchyProperty("description", "The field(s) the chunks are attributed to")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.TREND__FIELDS);
+  }
+
+  private ICanBuildCubeDescription<IActivePivotInstanceDescription> defineSummaryDimensions(
+      final ICanStartBuildingDimensions builder) {
+    return builder
+        .withDimension(CHUNK_DIMENSION)
+        .withHierarchy(CHUNK_ID_HIERARCHY)
+        .hidden()
+        .withHierarchyProperty(
+            "description", "The ID of the chunk, or of the summary of chunks recorded once")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK_ID)
+        .withHierarchy(CHUNK_TYPE_LEVEL)
+        .withHierarchyProperty(
+            "description",
+            "The kind of data the chunk holds"
+                + " (e.g. RECORDS, DICTIONARY, INDEX, AGGREGATE_STORE, ...)")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE)
+        .withHierarchy(CHUNK_CLASS_LEVEL)
+        .withHierarchyProperty("description", "The java class of the chunk")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK__CLASS)
+        .withFormatter(ClassFormatter.KEY)
+        .withDimension(PARTITION_DIMENSION)
+        .withDimensionProperty(
+            "description", "The ID of the store or cube partition that holds the chunk")
+        .withHierarchy(PARTITION_HIERARCHY)
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK__PARTITION_ID)
+        .withFormatter(PartitionIdFormatter.KEY)
+        .withDimension(CHUNK_DUMP_NAME_LEVEL)
+        .withHierarchyOfSameName()
+        .slicing()
+        .withHierarchyProperty(
+            "description", "The source folder name from which the statistics were retrieved")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.CHUNK__DUMP_NAME)
+        .withComparator(NaturalOrderComparator.type)
+        .withDimension(VERSION_DIMENSION)
+        .withHierarchy(INTERNAL_EPOCH_ID_HIERARCHY)
+        .hidden()
+        .withLevel(INTERNAL_EPOCH_ID_HIERARCHY)
+        .withPropertyName(DatastoreConstants.VERSION__EPOCH_ID)
+        .withComparator(ReverseOrderComparator.type)
+        .withHierarchy(INTERNAL_EPOCH_END_HIERARCHY)
+        .hidden()
+        .withLevel(INTERNAL_EPOCH_END_HIERARCHY)
+        .withPropertyName(DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID)
+        .withDimension(OWNER_DIMENSION)
+        .withHierarchy(OWNER_HIERARCHY)
+        .withHierarchyProperty("description", "The cube(s) or store(s) owning the chunk")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.OWNER__OWNER)
+        .withDimension(COMPONENT_DIMENSION)
+        .withHierarchy(COMPONENT_HIERARCHY)
+        .withHierarchyProperty(
+            "description",
+            "The owning structure associated with the chunk (dictionary, index, ...)")
+        .withLevelOfSameName()
+        .withPropertyName(DatastoreConstants.OWNER__COMPONENT);
+  }
+
   private ICanBuildCubeDescription<IActivePivotInstanceDescription> defineDimensions(
       final ICanStartBuildingDimensions builder) {
     return builder
@@ -435,6 +841,12 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
             "description",
             "The internal epoch ID of the chunk (may be less than the epoch to view)")
         .withComparator(ReverseOrderComparator.type)
+        .withHierarchy(INTERNAL_EPOCH_END_HIERARCHY)
+        .hidden()
+        .withHierarchyProperty(
+            "description", "The next epoch ID of the owner of the chunk, ending its epoch range")
+        .withLevel(INTERNAL_EPOCH_END_HIERARCHY)
+        .withPropertyName(DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID)
         .withHierarchy(BRANCH_HIERARCHY)
         .withHierarchyProperty("description", "The branch of the chunk")
         .withLevelOfSameName()
@@ -469,14 +881,7 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
         .withPropertyName(DatastoreConstants.OWNER__COMPONENT)
         .withLevelProperty(
             "description",
-            "The owning structure associated with the chunk (dictionary, index, ...)")
-        .withDimension(FIELD_DIMENSION)
-        .withDimensionProperty("description", "The field(s) associated with the chunk, if any")
-        .withHierarchy(FIELD_HIERARCHY)
-        .withHierarchyProperty("description", "The field(s) associated with the chunk, if any")
-        .withLevelOfSameName()
-        .withPropertyName(DatastoreConstants.OWNER__FIELD)
-        .withLevelProperty("description", "The field(s) associated with the chunk, if any");
+            "The owning structure associated with the chunk (dictionary, index, ...)");
   }
 
   private IHasAtLeastOneMeasure nativeMeasures(ICanStartBuildingMeasures builder) {
@@ -494,24 +899,176 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
     bucketingHierarchies(context);
 
     applicationMeasure(context);
-    chunkMeasures(context);
+    chunkMeasures(context, Copper.constant(1L));
+    applicationRatioMeasures(context);
     dictionaryMeasures(context);
     vectorMeasures(context);
   }
 
+  private void summaryCalculations(final ICopperContext context) {
+    joinViewVersion(context);
+    bucketingHierarchies(context);
+
+    chunkMeasures(
+        context,
+        Copper.agg(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT, SingleValueFunction.PLUGIN_KEY));
+  }
+
+  private void diffCalculations(final ICopperContext context) {
+    bucketingHierarchies(context);
+
+    perChunkAggregation(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT)
+        .sum()
+        .as(CHUNK_COUNT)
+        .withinFolder(CHUNK_FOLDER)
+        .withDescription("the number of contributing chunks, in either dump")
+        .publish(context);
+
+    diffMeasures(
+        context,
+        DatastoreConstants.CHUNK_DIFF__BASE_OFF_HEAP_SIZE,
+        DatastoreConstants.CHUNK__OFF_HEAP_SIZE,
+        new String[] {
+          DIRECT_MEMORY_BASE, DIRECT_MEMORY_TARGET, DIRECT_MEMORY_DELTA, DIRECT_MEMORY_GROWTH
+        },
+        "off-heap");
+    diffMeasures(
+        context,
+        DatastoreConstants.CHUNK_DIFF__BASE_ON_HEAP_SIZE,
+        DatastoreConstants.CHUNK__ON_HEAP_SIZE,
+        new String[] {HEAP_MEMORY_BASE, HEAP_MEMORY_TARGET, HEAP_MEMORY_DELTA, HEAP_MEMORY_GROWTH},
+        "on-heap");
+  }
+
+  private void trendCalculations(final ICopperContext context) {
+    bucketingHierarchies(context);
+
+    Copper.sum(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT)
+        .as(CHUNK_COUNT)
+        .withinFolder(CHUNK_FOLDER)
+        .withDescription("the number of contributing chunks")
+        .publish(context);
+    Copper.sum(DatastoreConstants.CHUNK__OFF_HEAP_SIZE)
+        .as(DIRECT_MEMORY_SUM)
+        .withFormatter(ByteFormatter.KEY)
+        .withinFolder(CHUNK_MEMORY_FOLDER)
+        .withDescription("the off-heap size of the chunks")
+        .publish(context);
+    Copper.sum(DatastoreConstants.CHUNK__ON_HEAP_SIZE)
+        .as(HEAP_MEMORY_SUM)
+        .withFormatter(ByteFormatter.KEY)
+        .withinFolder(CHUNK_MEMORY_FOLDER)
+        .withDescription("the on-heap size of the chunks")
+        .publish(context);
+    Copper.sum(DatastoreConstants.TREND__OFF_HEAP_GROWTH)
+        .as(DIRECT_MEMORY_GROWTH_PER_DAY)
+        .withFormatter(NUMBER_FORMATTER)
+        .withinFolder(TREND_FOLDER)
+        .withDescription("the growth of the off-heap size of the chunks up to the dump, per day")
+        .publish(context);
+    Copper.sum(DatastoreConstants.TREND__ON_HEAP_GROWTH)
+        .as(HEAP_MEMORY_GROWTH_PER_DAY)
+        .withFormatter(NUMBER_FORMATTER)
+        .withinFolder(TREND_FOLDER)
+        .withDescription("the growth of the on-heap size of the chunks up to the dump, per day")
+        .publish(context);
+
+    // The application memory is repeated in all the records of a dump
+    Copper.agg(DatastoreConstants.APPLICATION__USED_OFF_HEAP, SingleValueFunction.PLUGIN_KEY)
+        .as(USED_DIRECT)
+        .withFormatter(ByteFormatter.KEY)
+        .withinFolder(APPLICATION_FOLDER)
+        .withDescription("the amount of off-heap memory used by the application")
+        .publish(context);
+    Copper.agg(DatastoreConstants.APPLICATION__MAX_OFF_HEAP, SingleValueFunction.PLUGIN_KEY)
+        .as(MAX_DIRECT)
+        .withFormatter(ByteFormatter.KEY)
+        .withinFolder(APPLICATION_FOLDER)
+        .withDescription("the amount of off-heap memory reserved by the application")
+        .publish(context);
+    Copper.agg(DatastoreConstants.TREND__USED_OFF_HEAP_GROWTH, SingleValueFunction.PLUGIN_KEY)
+        .as(USED_DIRECT_GROWTH_PER_DAY)
+        .withFormatter(NUMBER_FORMATTER)
+        .withinFolder(TREND_FOLDER)
+        .withDescription(
+            "the growth of the off-heap memory used by the application up to the dump, per day")
+        .publish(context);
+    Copper.agg(DatastoreConstants.TREND__DAYS_TO_MAX_OFF_HEAP, SingleValueFunction.PLUGIN_KEY)
+        .as(MAX_DIRECT_DAYS_LEFT)
+        .withFormatter(NumberFormatter.TYPE + "[#,###.#]")
+        .withinFolder(TREND_FOLDER)
+        .withDescription(
+            "the number of days before the used off-heap memory reaches the reserved one, at"
+                + " its growth up to the dump")
+        .publish(context);
+  }
+
+  /**
+   * Publishes the measures comparing a size of the chunks between the base and the target dumps.
+   *
+   * @param context the context to publish the measures in
+   * @param baseField the field of the size in the base dump
+   * @param targetField the field of the size in the target dump
+   * @param names the names of the base, target, delta and growth measures
+   * @param memory the kind of memory of the size, for the descriptions
+   */
+  private void diffMeasures(
+      final ICopperContext context,
+      final String baseField,
+      final String targetField,
+      final String[] names,
+      final String memory) {
+    final CopperMeasure base =
+        perChunkAggregation(baseField)
+            .sum()
+            .as(names[0])
+            .withFormatter(ByteFormatter.KEY)
+            .withinFolder(DIFF_FOLDER)
+            .withDescription("the " + memory + " size of the chunks in the base dump")
+            .publish(context);
+    final CopperMeasure target =
+        perChunkAggregation(targetField)
+            .sum()
+            .as(names[1])
+            .withFormatter(ByteFormatter.KEY)
+            .withinFolder(DIFF_FOLDER)
+            .withDescription("the " + memory + " size of the chunks in the target dump")
+            .publish(context);
+
+    target
+        .minus(base)
+        .as(names[2])
+        .withFormatter(ByteFormatter.KEY)
+        .withinFolder(DIFF_FOLDER)
+        .withDescription("the growth of the " + memory + " size of the chunks, in bytes")
+        .publish(context)
+        .divide(base)
+        .withType(Types.TYPE_DOUBLE)
+        .withFormatter(PERCENT_FORMATTER)
+        .as(names[3])
+        .withinFolder(DIFF_FOLDER)
+        .withDescription(
+            "the growth of the " + memory + " size of the chunks, relative to the base dump")
+        .publish(context);
+  }
+
   private void joinHierarchies(final ICopperContext context) {
     joinViewVersion(context);
     joinReferencesToChunks(context);
     joinIndexesToChunks(context);
+    joinFieldsToChunks(context);
   }
 
   private void joinViewVersion(ICopperContext context) {
+    // The chunks reference the epoch range of their owner, from their epoch to the next epoch of
+    // the owner, which is resolved into the epochs viewing it
     final CopperStore epochViewStore =
         Copper.store(DatastoreConstants.EPOCH_VIEW_STORE)
             .joinToCube()
-            .withMapping(DatastoreConstants.OWNER__OWNER, OWNER_HIERARCHY)
             .withMapping(DatastoreConstants.CHUNK__DUMP_NAME, CHUNK_DUMP_NAME_LEVEL)
-            .withMapping(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID, INTERNAL_EPOCH_ID_HIERARCHY);
+            .withMapping(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID, INTERNAL_EPOCH_ID_HIERARCHY)
+            .withMapping(
+                DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID, INTERNAL_EPOCH_END_HIERARCHY);
 
     Copper.newHierarchy(VERSION_DIMENSION, EPOCH_ID_HIERARCHY)
         .fromField(epochViewStore.field(DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID))
@@ -553,6 +1110,23 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
         .publish(context);
   }
 
+  private void joinFieldsToChunks(ICopperContext context) {
+    // A left join, the chunks attributed to no field being under the default member
+    final CopperStore chunkToFieldStore =
+        Copper.store(DatastoreConstants.CHUNK_TO_FIELD_STORE)
+            .joinToCube(JoinType.LEFT)
+            .withMapping(DatastoreConstants.CHUNK_ID, CHUNK_ID_HIERARCHY)
+            .withMapping(DatastoreConstants.CHUNK__DUMP_NAME, CHUNK_DUMP_NAME_LEVEL)
+            .withMapping(DatastoreConstants.VERSION__EPOCH_ID, INTERNAL_EPOCH_ID_HIERARCHY)
+            .withMapping(DatastoreConstants.OWNER__OWNER, OWNER_HIERARCHY)
+            .withMapping(DatastoreConstants.OWNER__COMPONENT, COMPONENT_HIERARCHY);
+
+    Copper.newHierarchy(FIELD_DIMENSION, FIELD_HIERARCHY)
+        .fromField(chunkToFieldStore.field(DatastoreConstants.OWNER__FIELD))
+        .withLevelOfSameName()
+        .publish(context);
+  }
+
   private void bucketingHierarchies(final ICopperContext context) {
     Copper.newHierarchy(OWNER_DIMENSION, OWNER_TYPE_HIERARCHY)
         .fromValues(Copper.level(OWNER_HIERARCHY).map(ChunkOwner::getType))
@@ -588,8 +1162,14 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
         .publish(context);
   }
 
-  private void chunkMeasures(final ICopperContext context) {
-    perChunkAggregation(Copper.constant(1L))
+  /**
+   * Publishes the measures on the sizes of the chunks, aggregated per chunk.
+   *
+   * @param context the context to publish the measures in
+   * @param chunkCount the number of chunks of each chunk ID
+   */
+  private void chunkMeasures(final ICopperContext context, final CopperMeasure chunkCount) {
+    perChunkAggregation(chunkCount)
         .sum()
         .as(CHUNK_COUNT)
         .withinFolder(CHUNK_FOLDER)
@@ -700,6 +1280,10 @@ public class ManagerDescriptionConfig implements IActivePivotManagerDescriptionC
             "the total ratio of off-heap memory consumed by the chunks relative to the total used "
                 + "chunk memory")
         .publish(context);
+  }
+
+  private void applicationRatioMeasures(final ICopperContext context) {
+    final CopperMeasure directMemory = Copper.measure(DIRECT_MEMORY_SUM);
 
     directMemory
         .divide(Copper.measure(USED_DIRECT))
@@ -0,0 +1,83 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.cfg.impl;
+
+import com.activeviam.mac.memory.QueryResultCache;
+import com.activeviam.mac.memory.QueryResultCache.CachedResult;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Filter answering the queries received by the REST services from a {@link QueryResultCache}.
+ *
+ * <p>The queries are cached per service and normalized text, their results being shared by all
+ * the users: the cubes of the application define no entitlements. Only the successful results are
+ * cached.
+ *
+ * <p>This filter only sees the queries posted to the REST services it is registered on, under
+ * {@code /cube/query/}. The MDX queries of the UI, sent through its websocket, are answered from
+ * the aggregates cache of the cubes instead, see {@link
+ * ManagerDescriptionConfig#AGGREGATES_CACHE_SIZE_PROPERTY}.
+ *
+ * @author ActiveViam
+ */
+public class QueryResultCacheFilter extends OncePerRequestFilter {
+
+  /** The cache of the results. */
+  protected final QueryResultCache cache;
+
+  /**
+   * Constructor.
+   *
+   * @param cache the cache of the results
+   */
+  public QueryResultCacheFilter(final QueryResultCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      final HttpServletRequest request,
+      final HttpServletResponse response,
+      final FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!"POST".equalsIgnoreCase(request.getMethod())) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    final byte[] body = request.getInputStream().readAllBytes();
+    final String query = QueryResultCache.normalize(new String(body, StandardCharsets.UTF_8));
+    final String key = request.getRequestURI() + '\n' + query;
+    final long generation = this.cache.getGeneration();
+    final Optional<CachedResult> cached = this.cache.get(key);
+    if (cached.isPresent()) {
+      response.setContentType(cached.get().getContentType());
+      response.setContentLength(cached.get().getBody().length);
+      response.getOutputStream().write(cached.get().getBody());
+      return;
+    }
+
+    final ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    filterChain.doFilter(new DumpQueryFilter.ReplayedBodyRequest(request, body), wrapper);
+    if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+      this.cache.put(
+          key,
+          new CachedResult(wrapper.getContentType(), wrapper.getContentAsByteArray()),
+          generation);
+    }
+    wrapper.copyBodyToResponse();
+  }
+}
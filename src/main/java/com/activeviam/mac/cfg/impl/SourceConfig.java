@@ -10,19 +10,42 @@ package com.activeviam.mac.cfg.impl;
 import static java.util.stream.Collectors.mapping;
 import static java.util.stream.Collectors.toUnmodifiableList;
 
+import com.activeviam.database.api.schema.FieldPath;
 import com.activeviam.fwk.ActiveViamRuntimeException;
 import com.activeviam.mac.Loggers;
 import com.activeviam.mac.memory.AnalysisDatastoreFeeder;
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.DumpCatalog;
+import com.activeviam.mac.memory.DumpDiffer;
+import com.activeviam.mac.memory.DumpSnapshotFolder;
+import com.activeviam.mac.memory.IngestedFileRegistry;
+import com.activeviam.mac.memory.IngestedFileRegistry.Fingerprint;
+import com.activeviam.mac.memory.LoadJob;
+import com.activeviam.mac.memory.LoadJobManager;
+import com.activeviam.mac.memory.LoadedDumpRegistry;
+import com.activeviam.mac.memory.LoadingMetrics;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.QueryResultCache;
+import com.activeviam.mac.memory.StatisticLoadingPipeline;
+import com.activeviam.mac.memory.StoreRecordCounts;
+import com.activeviam.mac.memory.TrendRecorder;
+import com.activeviam.mac.statistic.memory.visitor.impl.StatisticTreeForker;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.desc.IStoreDescription;
 import com.qfs.jmx.JmxOperation;
 import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
 import com.qfs.msg.csv.ICsvDataProvider;
 import com.qfs.msg.csv.IFileEvent;
 import com.qfs.msg.csv.filesystem.impl.DirectoryCSVTopic;
 import com.qfs.msg.impl.WatcherService;
-import com.qfs.pivot.monitoring.impl.MemoryStatisticSerializerUtil;
+import com.qfs.pool.impl.QFSPools;
 import com.qfs.store.IDatastore;
 import com.qfs.store.impl.Datastore;
+import com.qfs.store.transaction.IDatastoreSchemaTransactionInformation;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URL;
 import java.nio.file.FileSystems;
@@ -33,11 +56,18 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -57,6 +87,110 @@ public class SourceConfig {
   /** The name of the property that holds the path to the statistics folder. */
   public static final String STATISTIC_FOLDER_PROPERTY = "statistic.folder";
 
+  /**
+   * The name of the property enabling the streaming reading of the statistic files, which avoids
+   * building the whole statistic tree of a file in memory.
+   */
+  public static final String STATISTIC_STREAMING_PROPERTY = "statistic.streaming";
+
+  /** The name of the property that holds the number of threads feeding the files of a dump. */
+  public static final String FEEDING_PARALLELISM_PROPERTY = "statistic.feeding.parallelism";
+
+  /**
+   * The name of the property that holds the number of threads visiting the independent subtrees of
+   * a single statistic, {@code 1} to visit each statistic on a single thread.
+   */
+  public static final String FEEDING_SUBTREE_PARALLELISM_PROPERTY =
+      "statistic.feeding.subtreeParallelism";
+
+  /** The name of the property that holds the maximum number of files read at the same time. */
+  public static final String PIPELINE_MAX_FILES_IN_FLIGHT_PROPERTY =
+      "statistic.pipeline.maxFilesInFlight";
+
+  /**
+   * The name of the property that holds the maximum number of decoded statistics waiting to be fed.
+   */
+  public static final String PIPELINE_DECODED_QUEUE_CAPACITY_PROPERTY =
+      "statistic.pipeline.decodedQueueCapacity";
+
+  /**
+   * The name of the property that holds the maximum number of decompressed blocks buffered for each
+   * file being read.
+   */
+  public static final String PIPELINE_DECOMPRESSED_BLOCKS_PROPERTY =
+      "statistic.pipeline.decompressedBlocks";
+
+  /**
+   * The name of the property that holds the path to the folder of the dump snapshots. Dumps are not
+   * snapshotted when this property is not set.
+   */
+  public static final String SNAPSHOT_FOLDER_PROPERTY = "statistic.snapshot.folder";
+
+  /**
+   * The name of the property that holds the maximum number of records of the loaded dumps, above
+   * which the least recently used dumps are unloaded. Dumps are never evicted when this property is
+   * not set.
+   */
+  public static final String EVICTION_MAX_RECORDS_PROPERTY = "statistic.eviction.maxRecords";
+
+  /**
+   * The name of the property enabling the catalog mode, in which the dumps found in the statistics
+   * folder are only catalogued and loaded on demand.
+   */
+  public static final String CATALOG_ENABLED_PROPERTY = "statistic.catalog.enabled";
+
+  /**
+   * The name of the property that holds the number of statistic files committed per transaction
+   * when loading a dump. All the files of a dump are loaded in a single transaction when this
+   * property is not set.
+   */
+  public static final String FILES_PER_TRANSACTION_PROPERTY =
+      "statistic.loading.filesPerTransaction";
+
+  /**
+   * The name of the property that holds the number of tuples the visitors add at once to each
+   * store.
+   */
+  public static final String LOADING_BATCH_SIZE_PROPERTY = "statistic.loading.batchSize";
+
+  /**
+   * The name of the property that holds the path to the file persisting the fingerprints of the
+   * statistic files, so that they are not hashed again after a restart.
+   */
+  public static final String FINGERPRINT_FILE_PROPERTY = "statistic.fingerprint.file";
+
+  /** The name of the property that holds the maximum number of load jobs running at once. */
+  public static final String JOBS_CONCURRENCY_PROPERTY = "statistic.jobs.concurrency";
+
+  /** The name of the property that holds the maximum number of load jobs waiting to run. */
+  public static final String JOBS_QUEUE_CAPACITY_PROPERTY = "statistic.jobs.queueCapacity";
+
+  /**
+   * The name of the property that holds the maximum total size in bytes of the cached query
+   * results, {@link #DEFAULT_QUERY_CACHE_MAX_BYTES} by default. Query results are not cached when
+   * it is {@code 0}.
+   */
+  public static final String QUERY_CACHE_MAX_BYTES_PROPERTY = "statistic.queryCache.maxBytes";
+
+  /** The default maximum total size in bytes of the cached query results. */
+  public static final long DEFAULT_QUERY_CACHE_MAX_BYTES = 64L << 20;
+
+  /**
+   * The name of the property enabling the trend mode, in which the footprint of each loaded dump is
+   * recorded in the time series of its application, kept when the dump is unloaded.
+   */
+  public static final String TREND_ENABLED_PROPERTY = "statistic.trend.enabled";
+
+  /**
+   * The name of the property that holds the pattern of the dump names, whose first group is the
+   * application of the dump in the trend mode.
+   */
+  public static final String TREND_APPLICATION_PATTERN_PROPERTY =
+      "statistic.trend.applicationPattern";
+
+  /** Prefix of the names given to the dumps of files put directly in the statistics folder. */
+  private static final String AUTOLOAD_DUMP_PREFIX = "autoload-";
+
   private static final Logger LOGGER = Logger.getLogger(Loggers.LOADING);
   /** Autowired {@link Datastore} to be fed by this source. */
   @Autowired protected IDatastore datastore;
@@ -101,6 +235,124 @@ public class SourceConfig {
         new WatcherService());
   }
 
+  /**
+   * Provides the {@link StatisticLoadingPipeline pipeline} loading the statistic files of dumps.
+   *
+   * <p>The pipeline owns its threads, sized by the {@code statistic.pipeline.*} and {@code
+   * statistic.feeding.parallelism} properties, and is closed with the application context.
+   *
+   * @return the loading pipeline
+   */
+  @Bean
+  public StatisticLoadingPipeline statisticLoadingPipeline() {
+    return new StatisticLoadingPipeline(
+        this.env.getProperty(PIPELINE_MAX_FILES_IN_FLIGHT_PROPERTY, Integer.class, 2),
+        this.env.getProperty(PIPELINE_DECODED_QUEUE_CAPACITY_PROPERTY, Integer.class, 16),
+        this.env.getProperty(PIPELINE_DECOMPRESSED_BLOCKS_PROPERTY, Integer.class, 16),
+        getFeedingParallelism(),
+        isStreamingEnabled());
+  }
+
+  /**
+   * Provides the registry of the statistic files loaded in the analysis datastore.
+   *
+   * @return the registry of the ingested files
+   */
+  @Bean
+  public IngestedFileRegistry ingestedFileRegistry() {
+    final String file = this.env.getProperty(FINGERPRINT_FILE_PROPERTY);
+    return new IngestedFileRegistry(file == null || file.isBlank() ? null : Paths.get(file));
+  }
+
+  /**
+   * Provides the registry of the dumps loaded in the analysis datastore.
+   *
+   * @return the registry of the loaded dumps
+   */
+  @Bean
+  public LoadedDumpRegistry loadedDumpRegistry() {
+    return new LoadedDumpRegistry();
+  }
+
+  /**
+   * Provides the cache of the results of the queries on the loaded dumps, invalidated as dumps are
+   * loaded and unloaded.
+   *
+   * @return the query result cache
+   */
+  @Bean
+  public QueryResultCache queryResultCache() {
+    return new QueryResultCache(getQueryCacheMaxBytes());
+  }
+
+  /**
+   * Returns whether the results of the queries are cached.
+   *
+   * @return {@code true} if the {@code statistic.queryCache.maxBytes} property is positive
+   */
+  public boolean isQueryCacheEnabled() {
+    return getQueryCacheMaxBytes() > 0;
+  }
+
+  private long getQueryCacheMaxBytes() {
+    return this.env.getProperty(
+        QUERY_CACHE_MAX_BYTES_PROPERTY, Long.class, DEFAULT_QUERY_CACHE_MAX_BYTES);
+  }
+
+  /**
+   * Provides the recorder of the time series of the applications, in the trend mode.
+   *
+   * @return the trend recorder
+   */
+  @Bean
+  public TrendRecorder trendRecorder() {
+    return new TrendRecorder(
+        Pattern.compile(
+            this.env.getProperty(
+                TREND_APPLICATION_PATTERN_PROPERTY, TrendRecorder.DEFAULT_APPLICATION_PATTERN)),
+        getLoadingBatchSize());
+  }
+
+  /**
+   * Provides the manager of the {@link LoadJob jobs} loading statistics asynchronously.
+   *
+   * <p>The number of jobs running and waiting at once is limited by the {@code statistic.jobs.*}
+   * properties.
+   *
+   * @return the load job manager
+   */
+  @Bean(destroyMethod = "close")
+  public LoadJobManager loadJobManager() {
+    return new LoadJobManager(
+        this.env.getProperty(JOBS_CONCURRENCY_PROPERTY, Integer.class, 1),
+        this.env.getProperty(JOBS_QUEUE_CAPACITY_PROPERTY, Integer.class, 100));
+  }
+
+  /**
+   * Provides the {@link StatisticTreeForker forker} visiting the independent subtrees of the
+   * statistics concurrently.
+   *
+   * <p>Its pool is sized by the {@code statistic.feeding.subtreeParallelism} property, and is
+   * shared by the loadings of all the dumps.
+   *
+   * @return the statistic tree forker
+   */
+  @Bean(destroyMethod = "close")
+  public StatisticTreeForker statisticTreeForker() {
+    return new StatisticTreeForker(
+        this.env.getProperty(FEEDING_SUBTREE_PARALLELISM_PROPERTY, Integer.class, 1));
+  }
+
+  /**
+   * Provides the catalog of the dumps found in the statistics folder.
+   *
+   * @return the dump catalog
+   */
+  @Bean
+  public DumpCatalog dumpCatalog() {
+    return new DumpCatalog();
+  }
+
   /**
    * Resolve the directory path.
    *
@@ -173,7 +425,11 @@ public class SourceConfig {
     final var providers = collectProviders(event);
     if (!providers.isEmpty()) {
       final Map<String, List<Path>> dumpNames = collectDumpFiles(providers);
-      loadDumps(dumpNames);
+      if (isCatalogEnabled()) {
+        dumpCatalog().catalog(this.datastore, dumpNames);
+      } else {
+        loadDumps(dumpNames);
+      }
     }
   }
 
@@ -199,7 +455,8 @@ public class SourceConfig {
                   // we assume this is a file
                   final String currentRelFolder = path.relativize(pathEvent.getParent()).toString();
                   return currentRelFolder.equalsIgnoreCase("")
-                      ? "autoload-" + LocalTime.now().toString().replaceAll("\\.[^.]*$", "")
+                      ? AUTOLOAD_DUMP_PREFIX
+                          + LocalTime.now().toString().replaceAll("\\.[^.]*$", "")
                       : currentRelFolder;
                 },
                 mapping(e -> e.getFileInfo().getIdentifier(), toUnmodifiableList())));
@@ -210,34 +467,293 @@ public class SourceConfig {
   }
 
   private void loadDumps(final Map<String, List<Path>> dumpFiles) {
+    loadDumps(dumpFiles, file -> {}, () -> {});
+  }
+
+  /**
+   * Loads dumps, reporting the progress of the loading.
+   *
+   * @param dumpFiles the statistic files of each dump
+   * @param progress action called once each file is loaded or skipped, which may stop the loading
+   *     by throwing an exception
+   * @param beforeCommit action called within each transaction before it is committed, which may
+   *     stop the loading by throwing an exception
+   */
+  private void loadDumps(
+      final Map<String, List<Path>> dumpFiles,
+      final Consumer<Path> progress,
+      final Runnable beforeCommit) {
+    final Optional<DumpSnapshotFolder> snapshots = getSnapshotFolder();
+    final IngestedFileRegistry ingestedFiles = ingestedFileRegistry();
     dumpFiles.forEach(
-        (dumpName, entry) -> {
+        (dumpName, dumpEntry) -> {
           try {
-            final Stream<IMemoryStatistic> inputs =
-                entry.stream().parallel().map(this::readStatisticFile);
-            final String message = feedDatastore(inputs, dumpName);
-            LOGGER.info(message);
+            final Map<Path, Fingerprint> fingerprints = new LinkedHashMap<>();
+            for (final Path file : dumpEntry) {
+              fingerprints.put(file, ingestedFiles.fingerprint(file));
+            }
+            final List<Path> entry = ingestedFiles.claim(dumpName, fingerprints);
+            dumpEntry.stream().filter(file -> !entry.contains(file)).forEach(progress);
+            if (entry.isEmpty()) {
+              return;
+            }
+            boolean loaded = false;
+            try {
+              loaded = loadClaimedFiles(snapshots, dumpName, entry, progress, beforeCommit);
+            } finally {
+              if (!loaded) {
+                ingestedFiles.release(dumpName, entry);
+              }
+            }
           } catch (final Exception e) {
             throw new ActiveViamRuntimeException(e);
           }
         });
   }
 
-  private IMemoryStatistic readStatisticFile(final Path file) {
+  /**
+   * Loads the files of a dump claimed in the {@link IngestedFileRegistry}, from its snapshot if
+   * any.
+   *
+   * @return whether the files were loaded and the dump registered
+   */
+  private boolean loadClaimedFiles(
+      final Optional<DumpSnapshotFolder> snapshots,
+      final String dumpName,
+      final List<Path> entry,
+      final Consumer<Path> progress,
+      final Runnable beforeCommit) {
+    if (snapshots.isPresent()
+        && restoreSnapshot(snapshots.get(), dumpName, entry, beforeCommit)) {
+      entry.forEach(progress);
+      registerLoadedDump(dumpName, countStoredRecords(dumpName));
+      return true;
+    }
+    final long start = System.nanoTime();
+    final LoadingMetrics metrics = new LoadingMetrics(dumpName);
+    final AnalysisDatastoreFeeder feeder =
+        new AnalysisDatastoreFeeder(
+            dumpName, 1, metrics, getLoadingBatchSize(), statisticTreeForker());
+    feeder.setBeforeCommit(beforeCommit);
+    final var info = loadStatisticFiles(feeder, entry, metrics, progress);
+    LOGGER.info(commitMessage(info, dumpName));
+    if (info.isEmpty()) {
+      return false;
+    }
+    recordWrittenStores(dumpName, feeder.getRecordCounts(), metrics, start);
+    snapshots.ifPresent(snapshotFolder -> saveSnapshot(snapshotFolder, dumpName, entry));
+    registerLoadedDump(dumpName, countStoredRecords(dumpName));
+    return true;
+  }
+
+  /**
+   * Counts the records of a dump in the analysis stores once committed, for the eviction budget.
+   *
+   * <p>The records written while loading are not used, as they include the records replaced by
+   * the same key and the records rewritten by the epoch views and the chunk summaries.
+   */
+  private long countStoredRecords(final String dumpName) {
+    return new AnalysisDatastoreUnloader(getStoreDescriptions())
+        .countRecords(this.datastore, dumpName);
+  }
+
+  /**
+   * Publishes the number of records written to each store, as counted by the batchers of the
+   * feeder, and logs the loading throughput.
+   */
+  private void recordWrittenStores(
+      final String dumpName,
+      final StoreRecordCounts recordCounts,
+      final LoadingMetrics metrics,
+      final long start) {
+    final Map<String, Long> records = recordCounts.toMap();
+    final long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    metrics.recordStores(records);
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(
+          "Dump "
+              + dumpName
+              + " loaded in "
+              + elapsedMs
+              + "ms, written records per second per store: "
+              + records.entrySet().stream()
+                  .map(entry -> entry.getKey() + "=" + entry.getValue() * 1000 / elapsedMs)
+                  .collect(Collectors.joining(", ")));
+    }
+  }
+
+  /**
+   * Registers a freshly loaded dump, evicting the least recently used dumps if the loaded dumps
+   * exceed the {@code statistic.eviction.maxRecords} budget.
+   */
+  private void registerLoadedDump(final String dumpName, final long recordCount) {
+    final LoadedDumpRegistry registry = loadedDumpRegistry();
+    registry.register(dumpName, recordCount);
+    dumpCatalog().setLoaded(this.datastore, dumpName, true);
+    queryResultCache().invalidate();
+    if (isTrendEnabled()) {
+      recordTrend(dumpName);
+    }
+
+    final Long maxRecords = this.env.getProperty(EVICTION_MAX_RECORDS_PROPERTY, Long.class);
+    if (maxRecords != null) {
+      for (final String evicted : registry.selectEvictions(maxRecords, dumpName)) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+          LOGGER.info(
+              "Evicting dump " + evicted + " as loaded dumps exceed " + maxRecords + " records");
+        }
+        unloadDump(evicted);
+      }
+    }
+  }
+
+  private Optional<IDatastoreSchemaTransactionInformation> loadStatisticFiles(
+      final AnalysisDatastoreFeeder feeder,
+      final List<Path> files,
+      final LoadingMetrics metrics,
+      final Consumer<Path> progress) {
+    final StatisticLoadingPipeline pipeline = statisticLoadingPipeline();
+    final Integer filesPerTransaction =
+        this.env.getProperty(FILES_PER_TRANSACTION_PROPERTY, Integer.class);
+    if (filesPerTransaction == null || filesPerTransaction >= files.size()) {
+      return feeder.commit(
+          this.datastore,
+          transaction -> {
+            pipeline.run(
+                files, statistic -> feeder.feed(transaction, statistic), metrics, progress);
+            feeder.completeTransaction(transaction);
+          });
+    } else if (filesPerTransaction < 1) {
+      throw new IllegalArgumentException(
+          FILES_PER_TRANSACTION_PROPERTY + " must be positive. Got " + filesPerTransaction);
+    }
+
+    final List<List<Path>> batches = new ArrayList<>();
+    for (int i = 0; i < files.size(); i += filesPerTransaction) {
+      batches.add(files.subList(i, Math.min(i + filesPerTransaction, files.size())));
+    }
+    return feeder.loadInBatches(
+        this.datastore,
+        batches,
+        (transaction, batch) ->
+            pipeline.run(
+                batch, statistic -> feeder.feed(transaction, statistic), metrics, progress),
+        new AnalysisDatastoreUnloader(getStoreDescriptions()));
+  }
+
+  private Optional<DumpSnapshotFolder> getSnapshotFolder() {
+    final String folder = this.env.getProperty(SNAPSHOT_FOLDER_PROPERTY);
+    if (folder == null || folder.isBlank()) {
+      return Optional.empty();
+    }
+    return Optional.of(new DumpSnapshotFolder(Paths.get(folder), getStoreDescriptions()));
+  }
+
+  private boolean isCatalogEnabled() {
+    return this.env.getProperty(CATALOG_ENABLED_PROPERTY, Boolean.class, false);
+  }
+
+  /**
+   * Returns the descriptions of the stores holding the statistics of the dumps, without the stores
+   * whose records outlive the dumps.
+   */
+  private Collection<? extends IStoreDescription> getStoreDescriptions() {
+    final Set<String> kept =
+        Set.of(DatastoreConstants.DUMP_CATALOG_STORE, DatastoreConstants.TREND_STORE);
+    return new MemoryAnalysisDatastoreDescriptionConfig()
+        .getStoreDescriptions().stream()
+        .filter(store -> !kept.contains(store.getName()))
+        .collect(toUnmodifiableList());
+  }
+
+  /**
+   * Restores a dump from its snapshot, if any.
+   *
+   * @return {@code true} if the dump was restored, {@code false} if it must be loaded from its
+   *     statistic files
+   */
+  private boolean restoreSnapshot(
+      final DumpSnapshotFolder snapshots,
+      final String dumpName,
+      final List<Path> files,
+      final Runnable beforeCommit) {
+    if (!snapshots.hasSnapshot(dumpName, files)) {
+      return false;
+    }
     try {
-      if (LOGGER.isLoggable(Level.FINE)) {
-        LOGGER.fine("Reading statistics from " + file.toAbsolutePath());
+      final var info =
+          this.datastore.edit(
+              transaction -> {
+                try {
+                  snapshots.restore(transaction, dumpName);
+                } catch (final IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+                beforeCommit.run();
+              });
+      LOGGER.info(commitMessage(info, dumpName));
+      return info.isPresent();
+    } catch (final CancellationException e) {
+      throw e;
+    } catch (final Exception e) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.log(
+            Level.WARNING,
+            "Cannot restore the snapshot of dump " + dumpName + ", loading its statistic files",
+            e);
       }
-      final IMemoryStatistic read = MemoryStatisticSerializerUtil.readStatisticFile(file.toFile());
-      if (LOGGER.isLoggable(Level.FINE)) {
-        LOGGER.fine("Statistics read from " + file.toAbsolutePath());
+      return false;
+    }
+  }
+
+  private void saveSnapshot(
+      final DumpSnapshotFolder snapshots, final String dumpName, final List<Path> files) {
+    // Such dumps are named after the loading time and would never be restored
+    if (dumpName.startsWith(AUTOLOAD_DUMP_PREFIX)) {
+      return;
+    }
+    try {
+      snapshots.save(this.datastore, dumpName, files);
+    } catch (final IOException | RuntimeException e) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.log(Level.WARNING, "Cannot save the snapshot of dump " + dumpName, e);
       }
-      return read;
-    } catch (final IOException ioe) {
-      throw new RuntimeException("Cannot read statistics from " + file);
     }
   }
 
+  /** Records the footprint of a loaded dump in the time series of its application. */
+  private void recordTrend(final String dumpName) {
+    final TrendRecorder recorder = trendRecorder();
+    final Set<String> written = new HashSet<>();
+    this.datastore.edit(
+        transaction -> written.addAll(recorder.recordWithTransaction(transaction, dumpName)));
+    // The growths of the later dumps of the application may have changed as well
+    if (!written.isEmpty()) {
+      queryResultCache().invalidate();
+    }
+    if (written.isEmpty() && LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine("No application information in dump " + dumpName + ", not recorded in trends");
+    }
+  }
+
+  private boolean isTrendEnabled() {
+    return this.env.getProperty(TREND_ENABLED_PROPERTY, Boolean.class, false);
+  }
+
+  private int getFeedingParallelism() {
+    return this.env.getProperty(
+        FEEDING_PARALLELISM_PROPERTY, Integer.class, QFSPools.getMixedWorkloadThreadCount());
+  }
+
+  private int getLoadingBatchSize() {
+    return this.env.getProperty(
+        LOADING_BATCH_SIZE_PROPERTY, Integer.class, TupleBatcher.DEFAULT_BATCH_SIZE);
+  }
+
+  private boolean isStreamingEnabled() {
+    return this.env.getProperty(STATISTIC_STREAMING_PROPERTY, Boolean.class, false);
+  }
+
   /**
    * Feeds the {@link SourceConfig#datastore datastore} with a stream of {@link IMemoryStatistic}.
    *
@@ -248,7 +764,19 @@ public class SourceConfig {
   public String feedDatastore(
       final Stream<IMemoryStatistic> memoryStatistics, final String dumpName) {
     final var info =
-        new AnalysisDatastoreFeeder(dumpName).loadInto(this.datastore, memoryStatistics);
+        new AnalysisDatastoreFeeder(
+                dumpName,
+                getFeedingParallelism(),
+                new LoadingMetrics(dumpName),
+                getLoadingBatchSize(),
+                statisticTreeForker())
+            .loadInto(this.datastore, memoryStatistics);
+    queryResultCache().invalidate();
+    return commitMessage(info, dumpName);
+  }
+
+  private static String commitMessage(
+      final Optional<IDatastoreSchemaTransactionInformation> info, final String dumpName) {
     if (info.isPresent()) {
       return "Commit successful for dump " + dumpName + " at epoch " + info.get().getId() + ".";
     } else {
@@ -273,10 +801,7 @@ public class SourceConfig {
       LOGGER.info("Loading user data from " + path);
     }
     final long start = System.nanoTime();
-    final Path dirPath = Paths.get(path);
-    final String dumpName = dirPath.getFileName().toString();
-    final List<Path> files = Files.list(dirPath).collect(toUnmodifiableList());
-    loadDumps(Map.of(dumpName, files));
+    loadDumps(collectDirectoryDump(path));
     final long end = System.nanoTime();
 
     if (LOGGER.isLoggable(Level.INFO)) {
@@ -301,8 +826,7 @@ public class SourceConfig {
       LOGGER.info("Loading user data from " + path);
     }
     final long start = System.nanoTime();
-    final String dumpName = Paths.get(path).getFileName().toString().replaceAll("\\.[^.]*$", "");
-    loadDumps(Map.of(dumpName, List.of(Paths.get(path))));
+    loadDumps(collectFileDump(path));
     final long end = System.nanoTime();
 
     if (LOGGER.isLoggable(Level.INFO)) {
@@ -310,4 +834,283 @@ public class SourceConfig {
     }
     return "Done (" + TimeUnit.NANOSECONDS.toMillis(end - start) + "ms)";
   }
+
+  /** Returns the files of the dump named after a directory. */
+  private static Map<String, List<Path>> collectDirectoryDump(final String path)
+      throws IOException {
+    final Path dirPath = Paths.get(path);
+    final String dumpName = dirPath.getFileName().toString();
+    try (final Stream<Path> files = Files.list(dirPath)) {
+      return Map.of(dumpName, files.collect(toUnmodifiableList()));
+    }
+  }
+
+  /** Returns the file of the dump named after a single statistic file. */
+  private static Map<String, List<Path>> collectFileDump(final String path) {
+    final String dumpName = Paths.get(path).getFileName().toString().replaceAll("\\.[^.]*$", "");
+    return Map.of(dumpName, List.of(Paths.get(path)));
+  }
+
+  /**
+   * Submits a job loading a statistics directory into the application datastore.
+   *
+   * @param path path to the statistics directory
+   * @return the submitted job
+   * @throws IOException if the directory cannot be listed
+   */
+  public LoadJob submitDirectoryLoad(final String path) throws IOException {
+    return submitLoad(path, collectDirectoryDump(path));
+  }
+
+  /**
+   * Submits a job loading a statistics file into the application datastore.
+   *
+   * @param path path to the statistics file
+   * @return the submitted job
+   */
+  public LoadJob submitFileLoad(final String path) {
+    return submitLoad(path, collectFileDump(path));
+  }
+
+  private LoadJob submitLoad(final String path, final Map<String, List<Path>> dumpFiles) {
+    final List<Path> files =
+        dumpFiles.values().stream().flatMap(List::stream).collect(toUnmodifiableList());
+    return loadJobManager()
+        .submit(
+            path,
+            files,
+            job -> {
+              final long start = System.nanoTime();
+              loadDumps(dumpFiles, job::fileDone, job::beforeCommit);
+              return "Done (" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms)";
+            });
+  }
+
+  /**
+   * Loads a statistics directory into the application datastore in the background.
+   *
+   * @param path path to the statistics directory
+   * @return message to the user
+   * @throws IOException if the directory cannot be listed
+   */
+  @JmxOperation(
+      name = "Submit statistic directory load",
+      desc = "Load statistics from a full directory in the background, returning the job id.",
+      params = {"path"})
+  public String submitDirectoryLoadJob(final String path) throws IOException {
+    return "Submitted job " + submitDirectoryLoad(path).getId();
+  }
+
+  /**
+   * Loads a statistics file into the application datastore in the background.
+   *
+   * @param path path to the statistics file
+   * @return message to the user
+   */
+  @JmxOperation(
+      name = "Submit statistic file load",
+      desc = "Load statistic from a single file in the background, returning the job id.",
+      params = {"path"})
+  public String submitFileLoadJob(final String path) {
+    return "Submitted job " + submitFileLoad(path).getId();
+  }
+
+  /**
+   * Describes a load job.
+   *
+   * @param id the identifier of the job
+   * @return the status and the progress of the job
+   */
+  @JmxOperation(
+      name = "Load job status",
+      desc = "Show the status and the progress of a load job.",
+      params = {"id"})
+  public String getLoadJobStatus(final long id) {
+    return loadJobManager().getJob(id).map(LoadJob::toString).orElse("Unknown job " + id);
+  }
+
+  /**
+   * Lists the load jobs.
+   *
+   * @return the status and the progress of the known jobs
+   */
+  @JmxOperation(name = "List load jobs", desc = "List the running, waiting and last load jobs.")
+  public String listLoadJobs() {
+    return loadJobManager().getJobs().stream()
+        .map(LoadJob::toString)
+        .collect(Collectors.joining(System.lineSeparator()));
+  }
+
+  /**
+   * Cancels a load job.
+   *
+   * <p>The files of the dump being loaded by the job are discarded.
+   *
+   * @param id the identifier of the job
+   * @return message to the user
+   */
+  @JmxOperation(
+      name = "Cancel load job",
+      desc = "Stop a running or waiting load job.",
+      params = {"id"})
+  public String cancelLoadJob(final long id) {
+    return loadJobManager().cancel(id)
+        ? "Job " + id + " cancelled"
+        : "Job " + id + " is unknown or already over";
+  }
+
+  /**
+   * Removes a dump from the application datastore.
+   *
+   * @param dumpName the name of the dump to remove
+   * @return message to the user
+   */
+  @JmxOperation(
+      name = "Unload dump",
+      desc = "Remove all the statistics of a dump from the application.",
+      params = {"dumpName"})
+  public String unloadDump(final String dumpName) {
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Unloading dump " + dumpName);
+    }
+    final long start = System.nanoTime();
+    final var info =
+        new AnalysisDatastoreUnloader(getStoreDescriptions()).unload(this.datastore, dumpName);
+    final boolean loaded = loadedDumpRegistry().unregister(dumpName);
+    ingestedFileRegistry().unregister(dumpName);
+    LoadingMetrics.removeDumpMeters(dumpName);
+    dumpCatalog().setLoaded(this.datastore, dumpName, false);
+    queryResultCache().invalidate();
+    final long end = System.nanoTime();
+
+    if (info.isEmpty()) {
+      return "Issue during the commit";
+    } else if (!loaded) {
+      return "Dump " + dumpName + " was not loaded";
+    }
+    return "Dump "
+        + dumpName
+        + " unloaded at epoch "
+        + info.get().getId()
+        + " ("
+        + TimeUnit.NANOSECONDS.toMillis(end - start)
+        + "ms)";
+  }
+
+  /**
+   * Compares the chunks of a loaded dump to those of another loaded dump, replacing their previous
+   * diff in {@link DatastoreConstants#CHUNK_DIFF_STORE}.
+   *
+   * @param baseDumpName the name of the dump to compare to
+   * @param targetDumpName the name of the dump to compare
+   * @return message to the user
+   */
+  @JmxOperation(
+      name = "Diff dumps",
+      desc = "Compare the chunks of a target dump to those of a base dump of the same application.",
+      params = {"baseDumpName", "targetDumpName"})
+  public String diffDumps(final String baseDumpName, final String targetDumpName) {
+    for (final String dumpName : List.of(baseDumpName, targetDumpName)) {
+      if (!loadedDumpRegistry().contains(dumpName)) {
+        return "Dump " + dumpName + " is not loaded";
+      }
+    }
+    if (baseDumpName.equals(targetDumpName)) {
+      return "Cannot compare dump " + baseDumpName + " to itself";
+    }
+
+    final long start = System.nanoTime();
+    final DumpDiffer differ = new DumpDiffer(baseDumpName, targetDumpName, getLoadingBatchSize());
+    final var info = this.datastore.edit(differ::diffWithTransaction);
+    queryResultCache().invalidate();
+    final long end = System.nanoTime();
+
+    if (info.isEmpty()) {
+      return "Issue during the commit";
+    }
+    return "Dump "
+        + targetDumpName
+        + " compared to dump "
+        + baseDumpName
+        + " at epoch "
+        + info.get().getId()
+        + " ("
+        + TimeUnit.NANOSECONDS.toMillis(end - start)
+        + "ms)";
+  }
+
+  /**
+   * Removes the time series of an application from the trend store.
+   *
+   * @param application the name of the application
+   * @return message to the user
+   */
+  @JmxOperation(
+      name = "Clear trend",
+      desc = "Remove the time series of an application recorded in the trend mode.",
+      params = {"application"})
+  public String clearTrend(final String application) {
+    final var info =
+        this.datastore.edit(
+            transaction ->
+                transaction.removeWhere(
+                    DatastoreConstants.TREND_STORE,
+                    BaseConditions.equal(
+                        FieldPath.of(DatastoreConstants.TREND__APPLICATION), application)));
+    queryResultCache().invalidate();
+    return info.isEmpty()
+        ? "Issue during the commit"
+        : "Trend of application " + application + " cleared at epoch " + info.get().getId();
+  }
+
+  /**
+   * Loads the statistics of a catalogued dump, if not already loaded.
+   *
+   * @param dumpName the name of the dump
+   * @return message to the user
+   */
+  @JmxOperation(
+      name = "Load catalogued dump",
+      desc = "Load the statistics of a dump listed in the catalog.",
+      params = {"dumpName"})
+  public synchronized String loadCataloguedDump(final String dumpName) {
+    final DumpCatalog catalog = dumpCatalog();
+    final Optional<List<Path>> files = catalog.getFiles(dumpName);
+    if (files.isEmpty()) {
+      return "Dump " + dumpName + " is not catalogued";
+    } else if (catalog.isLoaded(dumpName)) {
+      return "Dump " + dumpName + " is already loaded";
+    }
+
+    final long start = System.nanoTime();
+    loadDumps(Map.of(dumpName, files.get()));
+    final long end = System.nanoTime();
+    return "Done (" + TimeUnit.NANOSECONDS.toMillis(end - start) + "ms)";
+  }
+
+  /**
+   * Notifies this source that a query was received.
+   *
+   * <p>The catalogued dumps mentioned by the query are loaded if needed, and the loaded ones are
+   * marked as used. Dumps are considered as mentioned when they appear as members of a dump
+   * hierarchy, see {@link DumpQueryFilter#getMentionedDumps(String)}.
+   *
+   * @param query the text of the query
+   */
+  public void notifyQuery(final String query) {
+    final Set<String> mentioned = DumpQueryFilter.getMentionedDumps(query);
+    if (mentioned.isEmpty()) {
+      return;
+    }
+    final Set<String> unloaded = dumpCatalog().getUnloadedDumpNames();
+    for (final String dumpName : mentioned) {
+      if (unloaded.contains(dumpName)) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+          LOGGER.info("Loading catalogued dump " + dumpName + " for a query");
+        }
+        loadCataloguedDump(dumpName);
+      }
+    }
+    mentioned.forEach(loadedDumpRegistry()::touch);
+  }
 }
@@ -14,6 +14,8 @@ import static com.qfs.server.cfg.impl.ActivePivotRemotingServicesConfig.LONG_POL
 import static com.qfs.server.cfg.impl.ActivePivotRestServicesConfig.PING_SUFFIX;
 import static com.qfs.server.cfg.impl.ActivePivotRestServicesConfig.REST_API_URL_PREFIX;
 
+import com.activeviam.mac.cfg.impl.DumpRestController;
+import com.activeviam.mac.cfg.impl.LoadJobRestController;
 import com.qfs.server.cfg.IActivePivotConfig;
 import com.quartetfs.biz.pivot.security.impl.UserDetailsServiceWrapper;
 import com.quartetfs.fwk.security.IUserDetailsService;
@@ -112,6 +114,14 @@ public class SecurityConfig extends ASecurityConfig {
           // REST services
           .antMatchers(REST_API_URL_PREFIX + "/**")
           .hasAnyAuthority(ROLE_USER)
+          // Only administrators can unload dumps
+          .antMatchers(HttpMethod.DELETE, DumpRestController.URL_PREFIX + "/**")
+          .hasAuthority(ROLE_ADMIN)
+          // Only administrators can load server paths and cancel loadings
+          .antMatchers(HttpMethod.POST, LoadJobRestController.URL_PREFIX + "/**")
+          .hasAuthority(ROLE_ADMIN)
+          .antMatchers(HttpMethod.DELETE, LoadJobRestController.URL_PREFIX + "/**")
+          .hasAuthority(ROLE_ADMIN)
           // One has to be a user for all the other URLs
           .antMatchers("/**")
           .hasAuthority(ROLE_USER)
@@ -8,6 +8,7 @@
 package com.activeviam.mac.memory;
 
 import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.fwk.ActiveViamRuntimeException;
 import com.activeviam.mac.Loggers;
 import com.activeviam.mac.entities.ChunkOwner;
 import com.activeviam.mac.entities.DistributedCubeOwner;
@@ -15,6 +16,9 @@ import com.activeviam.mac.statistic.memory.visitor.impl.DistributedEpochView;
 import com.activeviam.mac.statistic.memory.visitor.impl.EpochView;
 import com.activeviam.mac.statistic.memory.visitor.impl.FeedVisitor;
 import com.activeviam.mac.statistic.memory.visitor.impl.RegularEpochView;
+import com.activeviam.mac.statistic.memory.visitor.impl.StatisticTreeForker;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.qfs.condition.ICondition;
 import com.qfs.condition.impl.BaseConditions;
 import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
 import com.qfs.store.IDatastore;
@@ -23,14 +27,25 @@ import com.qfs.store.record.IRecordFormat;
 import com.qfs.store.record.IRecordReader;
 import com.qfs.store.transaction.IDatastoreSchemaTransactionInformation;
 import com.qfs.store.transaction.IOpenedTransaction;
-import java.util.Collection;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -43,54 +58,111 @@ public class AnalysisDatastoreFeeder {
   /** The dump name associated with this feeder. */
   private final String dumpName;
 
-  /** The set of datastore epochs. */
-  private final Set<Long> datastoreEpochs;
+  /** The number of threads visiting the statistics, {@code 1} to use the calling thread. */
+  private final int parallelism;
+
+  /** The metrics of the loading. */
+  private final LoadingMetrics metrics;
+
+  /** The number of tuples added at once to each store. */
+  private final int batchSize;
+
+  /** The forker visiting the independent subtrees of each statistic. */
+  private final StatisticTreeForker forker;
+
+  /** The interner canonicalizing the values repeated across the records of the dump. */
+  private final ValueInterner interner = new ValueInterner();
+
+  /** The epochs of the chunks of each owner of the dump, recorded as the chunks are added. */
+  private final OwnerEpochs epochs = new OwnerEpochs();
+
+  /** The number of records written to each store by this feeder, counted by its batchers. */
+  private final StoreRecordCounts recordCounts = new StoreRecordCounts();
+
+  /** The summarizer of the chunks of the dump, given their IDs by the batchers. */
+  private final ChunkSummarizer summarizer;
+
+  /** Whether the loading was completed once, the epoch ranges of the dump being written. */
+  private boolean completed;
+
+  /** The action run within each transaction of this feeder, before it is committed. */
+  private volatile Runnable beforeCommit = () -> {};
 
   /**
-   * A mapping giving for each non-distributed owner the epochs that were expressed in their
-   * statistics.
+   * Constructor.
+   *
+   * @param dumpName the dump name to assign to the statistic
    */
-  private final Map<ChunkOwner, SortedSet<Long>> regularEpochsPerOwner;
+  public AnalysisDatastoreFeeder(final String dumpName) {
+    this(dumpName, 1);
+  }
+
   /**
-   * A mapping giving for each distributed owner the epochs that were expressed in their statistics.
+   * Constructor.
+   *
+   * @param dumpName the dump name to assign to the statistic
+   * @param parallelism the number of threads visiting the statistics concurrently
    */
-  private final Map<ChunkOwner, Set<Long>> distributedEpochsPerOwner;
+  public AnalysisDatastoreFeeder(final String dumpName, final int parallelism) {
+    this(dumpName, parallelism, new LoadingMetrics(dumpName));
+  }
 
   /**
    * Constructor.
    *
    * @param dumpName the dump name to assign to the statistic
+   * @param parallelism the number of threads visiting the statistics concurrently
+   * @param metrics the metrics recording the visits and the commits of the loading
    */
-  public AnalysisDatastoreFeeder(final String dumpName) {
-    this.dumpName = dumpName;
+  public AnalysisDatastoreFeeder(
+      final String dumpName, final int parallelism, final LoadingMetrics metrics) {
+    this(dumpName, parallelism, metrics, TupleBatcher.DEFAULT_BATCH_SIZE);
+  }
 
-    this.datastoreEpochs = new HashSet<>();
-    this.regularEpochsPerOwner = new HashMap<>();
-    this.distributedEpochsPerOwner = new HashMap<>();
+  /**
+   * Constructor.
+   *
+   * @param dumpName the dump name to assign to the statistic
+   * @param parallelism the number of threads visiting the statistics concurrently
+   * @param metrics the metrics recording the visits and the commits of the loading
+   * @param batchSize the number of tuples added at once to each store
+   */
+  public AnalysisDatastoreFeeder(
+      final String dumpName,
+      final int parallelism,
+      final LoadingMetrics metrics,
+      final int batchSize) {
+    this(dumpName, parallelism, metrics, batchSize, StatisticTreeForker.SEQUENTIAL);
   }
 
   /**
-   * Generates a record to put into the epoch view store.
+   * Constructor.
    *
-   * @param recordFormat the format of the epoch view store
-   * @param owner the owner field of the record
-   * @param dumpName the dump name field of the record
-   * @param baseEpochId the base epoch id field of the record
-   * @param epochView the epoch view field of the record
-   * @return the record
+   * @param dumpName the dump name to assign to the statistic
+   * @param parallelism the number of threads visiting the statistics concurrently
+   * @param metrics the metrics recording the visits and the commits of the loading
+   * @param batchSize the number of tuples added at once to each store
+   * @param forker the forker visiting the independent subtrees of each statistic, owned by the
+   *     caller
    */
-  private static Object[] generateEpochViewTuple(
-      final IRecordFormat recordFormat,
-      final ChunkOwner owner,
+  public AnalysisDatastoreFeeder(
       final String dumpName,
-      final long baseEpochId,
-      final EpochView epochView) {
-    final Object[] tuple = new Object[recordFormat.getFieldCount()];
-    tuple[recordFormat.getFieldIndex(DatastoreConstants.EPOCH_VIEW__OWNER)] = owner;
-    tuple[recordFormat.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = dumpName;
-    tuple[recordFormat.getFieldIndex(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID)] = baseEpochId;
-    tuple[recordFormat.getFieldIndex(DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID)] = epochView;
-    return tuple;
+      final int parallelism,
+      final LoadingMetrics metrics,
+      final int batchSize,
+      final StatisticTreeForker forker) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be positive. Got " + parallelism);
+    }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be positive. Got " + batchSize);
+    }
+    this.dumpName = dumpName;
+    this.parallelism = parallelism;
+    this.metrics = metrics;
+    this.batchSize = batchSize;
+    this.forker = forker;
+    this.summarizer = new ChunkSummarizer(dumpName, batchSize, this.recordCounts);
   }
 
   /**
@@ -100,19 +172,172 @@ public class AnalysisDatastoreFeeder {
    */
   public Optional<IDatastoreSchemaTransactionInformation> loadInto(
       final IDatastore datastore, final Stream<? extends IMemoryStatistic> stats) {
-    return datastore.edit(transaction -> loadWithTransaction(transaction, stats));
+    return commit(datastore, transaction -> loadWithTransaction(transaction, stats));
   }
 
-  /** Loads the provided statistics within an open transaction. */
+  /**
+   * Loads the dump into the datastore, committing each batch in its own transaction.
+   *
+   * <p>This bounds the size of the transactions to the size of a batch. The epoch views are only
+   * committed by the last transaction, see {@link #completeLoading(IDatastore)}. If a batch cannot
+   * be committed, the batches committed before are removed, the dump being incomplete.
+   *
+   * @param datastore the datastore to load the dump into
+   * @param batches the batches of the dump, typically of statistic files
+   * @param feedBatch the action feeding a batch into its transaction, through {@link
+   *     #feed(IOpenedTransaction, IMemoryStatistic)}
+   * @param unloader the unloader removing the committed batches on failure
+   * @param <B> the type of the batches
+   * @return the result of the last transaction
+   */
+  public <B> Optional<IDatastoreSchemaTransactionInformation> loadInBatches(
+      final IDatastore datastore,
+      final List<B> batches,
+      final BiConsumer<IOpenedTransaction, B> feedBatch,
+      final AnalysisDatastoreUnloader unloader) {
+    try {
+      for (int i = 0; i < batches.size(); ++i) {
+        final B batch = batches.get(i);
+        commit(datastore, transaction -> feedBatch.accept(transaction, batch));
+        if (LOGGER.isLoggable(Level.FINE)) {
+          LOGGER.fine(
+              "Committed batch " + (i + 1) + "/" + batches.size() + " of dump " + this.dumpName);
+        }
+      }
+      return completeLoading(datastore);
+    } catch (final RuntimeException e) {
+      unloader.unload(datastore, this.dumpName);
+      throw e;
+    }
+  }
+
+  /**
+   * Completes a loading whose statistics were committed by previous transactions, computing the
+   * viewed epochs in a last transaction.
+   *
+   * <p>The cube only shows the chunks of a dump through its epoch views. The dump hence becomes
+   * visible at once when this transaction is committed, even if its statistics were committed by
+   * several transactions before.
+   *
+   * @param datastore the datastore the statistics of the dump were committed into
+   * @return the result of the transaction
+   */
+  public Optional<IDatastoreSchemaTransactionInformation> completeLoading(
+      final IDatastore datastore) {
+    return commit(datastore, this::completeTransaction);
+  }
+
+  /**
+   * Sets the action run within each transaction committed by this feeder, once it is filled.
+   *
+   * <p>The action may stop the loading by throwing an exception, the transaction being rolled back.
+   *
+   * @param beforeCommit the action to run before each commit
+   */
+  public void setBeforeCommit(final Runnable beforeCommit) {
+    this.beforeCommit = beforeCommit;
+  }
+
+  /**
+   * Runs an action in a new transaction, recording the time spent committing it.
+   *
+   * @param datastore the datastore to edit
+   * @param action the action filling the transaction
+   * @return the result of the transaction
+   */
+  public Optional<IDatastoreSchemaTransactionInformation> commit(
+      final IDatastore datastore, final Consumer<IOpenedTransaction> action) {
+    final AtomicLong filled = new AtomicLong();
+    final Optional<IDatastoreSchemaTransactionInformation> info =
+        datastore.edit(
+            transaction -> {
+              action.accept(transaction);
+              this.beforeCommit.run();
+              filled.set(System.nanoTime());
+            });
+    if (info.isPresent()) {
+      this.metrics.recordCommit(System.nanoTime() - filled.get());
+    }
+    return info;
+  }
+
+  /**
+   * Loads the provided statistics within an open transaction.
+   *
+   * <p>When this feeder has a parallelism greater than one, the statistics are visited by a
+   * dedicated pool of workers, all adding their tuples to the given transaction.
+   */
   public void loadWithTransaction(
       final IOpenedTransaction transaction, final Stream<? extends IMemoryStatistic> stats) {
-    stats.forEach(stat -> feedChunk(transaction, stat));
+    final long start = System.nanoTime();
+    if (this.parallelism > 1) {
+      feedConcurrently(transaction, stats);
+    } else {
+      stats.forEach(stat -> feedChunk(transaction, stat));
+    }
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(
+          "Statistics of dump "
+              + this.dumpName
+              + " visited in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+              + "ms using "
+              + this.parallelism
+              + " thread(s)");
+    }
     completeTransaction(transaction);
   }
 
+  /**
+   * Visits the statistics with a pool of {@link #parallelism} workers.
+   *
+   * @param transaction the transaction to add facts to
+   * @param stats the statistics to visit
+   */
+  private void feedConcurrently(
+      final IOpenedTransaction transaction, final Stream<? extends IMemoryStatistic> stats) {
+    // Parallel streams run their tasks in the pool of the thread executing the terminal operation
+    final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    try {
+      pool.submit(() -> stats.parallel().forEach(stat -> feedChunk(transaction, stat))).get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ActiveViamRuntimeException("Interrupted while feeding dump " + this.dumpName, e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ActiveViamRuntimeException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Visits a single statistic within an open transaction.
+   *
+   * <p>This method can be called concurrently for different statistics of the same dump. Once all
+   * statistics are fed, the loading must be completed with {@link
+   * #completeTransaction(IOpenedTransaction)}.
+   *
+   * @param transaction the transaction to add facts to
+   * @param statistic the statistic to visit
+   */
+  public void feed(final IOpenedTransaction transaction, final IMemoryStatistic statistic) {
+    feedChunk(transaction, statistic);
+  }
+
   /**
    * Adds the chunks of this feeder's statistics to the transaction.
    *
+   * <p>The tuples of the statistic are added to each store in batches, all added by the end of the
+   * visit. Their repeated values are canonicalized by the interner of this feeder, shared by all
+   * the statistics of the dump, and the epochs of their chunks are recorded for the epoch views.
+   *
+   * <p>The independent subtrees of the statistic, such as the aggregate providers of a pivot or the
+   * partitions of a store, are visited concurrently when this feeder has a parallel {@link
+   * StatisticTreeForker forker}.
+   *
    * @param transaction the transaction to add facts to
    */
   private void feedChunk(final IOpenedTransaction transaction, final IMemoryStatistic statistic) {
@@ -120,117 +345,304 @@ public class AnalysisDatastoreFeeder {
       LOGGER.fine("Start feeding the application with " + statistic);
     }
 
-    statistic.accept(new FeedVisitor(transaction.getMetadata(), transaction, this.dumpName));
+    final long start = System.nanoTime();
+    final TupleBatcher batcher = newBatcher(transaction);
+    statistic.accept(
+        new FeedVisitor(transaction.getMetadata(), batcher, this.dumpName, this.forker));
+    batcher.flush();
+    this.metrics.recordVisit(System.nanoTime() - start);
 
     if (LOGGER.isLoggable(Level.FINE)) {
       LOGGER.fine("Application processed " + statistic);
     }
   }
 
-  /** Completes the loading, computing the viewed epochs. */
-  private void completeTransaction(final IOpenedTransaction transaction) {
-    collectEpochsFromOpenedTransaction(transaction);
+  /**
+   * Creates the batcher adding the tuples of a statistic to a transaction.
+   *
+   * <p>The batcher canonicalizes the values of the tuples with the interner of this feeder, records
+   * the epochs of the chunks added through it for the epoch views of the dump, collects the IDs
+   * of these chunks for the chunk summary and counts the records it adds to each store.
+   *
+   * @param transaction the transaction to add the tuples to
+   * @return the batcher
+   */
+  public TupleBatcher newBatcher(final IOpenedTransaction transaction) {
+    return new TupleBatcher(
+        transaction,
+        this.batchSize,
+        this.interner,
+        this.epochs,
+        this.recordCounts,
+        this.summarizer);
+  }
+
+  /**
+   * Returns the number of records written to each store by this feeder, in all its transactions.
+   *
+   * @return the counts of the added records
+   */
+  public StoreRecordCounts getRecordCounts() {
+    return this.recordCounts;
+  }
+
+  /**
+   * Completes the loading, computing the viewed epochs and the summary of the chunks of the dump.
+   *
+   * <p>The summary is built in a single read of the chunk store, the chunks recorded several times
+   * being told by their IDs, which the batchers of this feeder collect. When the dump also has
+   * chunks loaded by other feeders, these IDs are read from the chunk store first.
+   *
+   * @param transaction the transaction all the statistics of the dump were fed into, or any
+   *     transaction opened after they were committed
+   */
+  public void completeTransaction(final IOpenedTransaction transaction) {
+    final long start = System.nanoTime();
+    final boolean previousChunks = collectPreviousEpochs(transaction);
     replicateChunksForMissingEpochs(transaction);
+    this.metrics.recordEpochViews(System.nanoTime() - start);
+
+    final long summaryStart = System.nanoTime();
+    if (previousChunks) {
+      this.summarizer.readChunkIds(transaction);
+    }
+    this.summarizer.summarizeWithTransaction(transaction);
+    this.completed = true;
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine(
+          "Chunks of dump "
+              + this.dumpName
+              + " summarized in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - summaryStart)
+              + "ms");
+    }
   }
 
   /**
-   * Collects the epochs per owner in the given already open transaction.
+   * Collects the epochs of the chunks of the dump loaded before this feeder, by other feeders.
    *
-   * @param transaction the transaction to collect the epochs from
+   * <p>The epochs of the chunks fed by this feeder are recorded as they are visited. Those of the
+   * chunks loaded before are read from the epoch ranges of the dump rather than from its chunks:
+   * the bases of the ranges of an owner are exactly the epochs of its chunks, and there are far
+   * fewer ranges than chunks.
+   *
+   * @param transaction the transaction to read the epoch ranges from
+   * @return {@code true} if the dump has chunks loaded by other feeders, which are not summarized
    */
-  private void collectEpochsFromOpenedTransaction(final IOpenedTransaction transaction) {
+  private boolean collectPreviousEpochs(final IOpenedTransaction transaction) {
     final ICursor result =
         transaction
             .getQueryRunner()
-            .forStore(DatastoreConstants.CHUNK_STORE)
-            .withCondition(
-                BaseConditions.equal(
-                    FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), this.dumpName))
-            .selecting(DatastoreConstants.OWNER__OWNER, DatastoreConstants.VERSION__EPOCH_ID)
+            .forStore(DatastoreConstants.EPOCH_RANGE_STORE)
+            .withCondition(dumpCondition())
+            .selecting(
+                DatastoreConstants.EPOCH_RANGE__OWNER, DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID)
             .run();
 
+    boolean previousChunks = false;
     for (final IRecordReader reader : result) {
-      final ChunkOwner owner = (ChunkOwner) reader.read(0);
-      final long epoch = reader.readLong(1);
-      if (owner instanceof DistributedCubeOwner) {
-        this.distributedEpochsPerOwner.computeIfAbsent(owner, key -> new HashSet<>()).add(epoch);
-      } else {
-        this.datastoreEpochs.add(epoch);
-        this.regularEpochsPerOwner.computeIfAbsent(owner, key -> new TreeSet<>()).add(epoch);
-      }
+      // Until the loading is completed once, all the ranges of the dump are from other feeders
+      final boolean added = this.epochs.add((ChunkOwner) reader.read(0), reader.readLong(1));
+      previousChunks |= added || !this.completed;
     }
+    return previousChunks;
   }
 
   /**
-   * Fills the epoch view store in the given transaction according to the collected epochs from the
-   * statistic.
+   * Fills the epoch range and epoch view stores in the given transaction according to the
+   * collected epochs from the statistic.
+   *
+   * <p>Each epoch of an owner is stored as a range, from that epoch to the next epoch of the owner.
+   * The chunks reference the range of their owner and epoch, and the views of each distinct range
+   * are stored once for all the owners with this range, the cube joining them at query time. The
+   * views of the dump are all computed again, the new epochs changing the ranges of the owners.
    *
    * @param transaction the transaction to add records to
    */
   private void replicateChunksForMissingEpochs(final IOpenedTransaction transaction) {
-    replicateDatastoreEpochs(transaction);
-    replicateDistributedEpochs(transaction);
+    final Map<ChunkOwner, long[]> regularEpochsPerOwner = new HashMap<>();
+    final Map<ChunkOwner, long[]> distributedEpochsPerOwner = new HashMap<>();
+    final TLongSet datastoreEpochs = new TLongHashSet();
+    this.epochs.forEach(
+        (owner, ownerEpochs) -> {
+          if (owner instanceof DistributedCubeOwner) {
+            distributedEpochsPerOwner.put(owner, ownerEpochs);
+          } else {
+            regularEpochsPerOwner.put(owner, ownerEpochs);
+            datastoreEpochs.addAll(ownerEpochs);
+          }
+        });
+
+    final long[] viewEpochIds = datastoreEpochs.toArray();
+    Arrays.sort(viewEpochIds);
+    transaction.removeWhere(DatastoreConstants.EPOCH_VIEW_STORE, dumpCondition());
+    final TupleBatcher batcher =
+        new TupleBatcher(transaction, this.batchSize, null, null, this.recordCounts);
+    final EpochTuples tuples = new EpochTuples(transaction, this.dumpName);
+    replicateDatastoreEpochs(batcher, tuples, viewEpochIds, regularEpochsPerOwner);
+    replicateDistributedEpochs(batcher, tuples, distributedEpochsPerOwner);
+    batcher.flush();
   }
 
-  private void replicateDatastoreEpochs(final IOpenedTransaction transaction) {
-    final IRecordFormat epochViewRecordFormat =
-        transaction
-            .getMetadata()
-            .getStoreMetadata(DatastoreConstants.EPOCH_VIEW_STORE)
-            .getStoreFormat()
-            .getRecordFormat();
-
-    for (final var datastoreEpochId : this.datastoreEpochs) {
-      for (final ChunkOwner owner : this.regularEpochsPerOwner.keySet()) {
-        final SortedSet<Long> epochs = this.regularEpochsPerOwner.get(owner);
-        if (!epochs.contains(datastoreEpochId)) {
-
-          final SortedSet<Long> priorEpochs = epochs.headSet(datastoreEpochId);
-          if (!priorEpochs.isEmpty()) {
-            final long baseEpochId = priorEpochs.last();
-            transaction.add(
-                DatastoreConstants.EPOCH_VIEW_STORE,
-                generateEpochViewTuple(
-                    epochViewRecordFormat,
-                    owner,
-                    this.dumpName,
-                    baseEpochId,
-                    new RegularEpochView(datastoreEpochId)));
-          }
-        } else {
-          transaction.add(
+  /**
+   * Adds the epoch ranges of the regular owners, and the views of the datastore epochs on them.
+   *
+   * <p>A range is viewed by all the datastore epochs from its base epoch to its end, excluded. The
+   * last range of an owner ends at {@link Long#MAX_VALUE}.
+   *
+   * @param batcher the batcher adding the records to the transaction
+   * @param tuples the tuples of the records
+   * @param viewEpochIds the datastore epochs, in ascending order
+   * @param epochsPerOwner the epochs of each regular owner, in ascending order
+   */
+  private static void replicateDatastoreEpochs(
+      final TupleBatcher batcher,
+      final EpochTuples tuples,
+      final long[] viewEpochIds,
+      final Map<ChunkOwner, long[]> epochsPerOwner) {
+    final TLongObjectMap<TLongSet> endsPerBase = new TLongObjectHashMap<>();
+    for (final Map.Entry<ChunkOwner, long[]> entry : epochsPerOwner.entrySet()) {
+      final long[] baseEpochIds = entry.getValue();
+      for (int i = 0; i < baseEpochIds.length; ++i) {
+        final long endEpochId = i + 1 < baseEpochIds.length ? baseEpochIds[i + 1] : Long.MAX_VALUE;
+        batcher.add(
+            DatastoreConstants.EPOCH_RANGE_STORE,
+            tuples.range(entry.getKey(), baseEpochIds[i], endEpochId));
+
+        TLongSet ends = endsPerBase.get(baseEpochIds[i]);
+        if (ends == null) {
+          ends = new TLongHashSet();
+          endsPerBase.put(baseEpochIds[i], ends);
+        }
+        ends.add(endEpochId);
+      }
+    }
+
+    // The views are shared by all the ranges
+    final EpochView[] views = new EpochView[viewEpochIds.length];
+    for (int i = 0; i < views.length; ++i) {
+      views[i] = new RegularEpochView(viewEpochIds[i]);
+    }
+    for (final TLongObjectIterator<TLongSet> range = endsPerBase.iterator(); range.hasNext(); ) {
+      range.advance();
+      // The epochs of the owners are datastore epochs, none of them views the earlier ones
+      final int first = Arrays.binarySearch(viewEpochIds, range.key());
+      for (final TLongIterator ends = range.value().iterator(); ends.hasNext(); ) {
+        final long endEpochId = ends.next();
+        for (int view = first; view < views.length && viewEpochIds[view] < endEpochId; ++view) {
+          batcher.add(
               DatastoreConstants.EPOCH_VIEW_STORE,
-              generateEpochViewTuple(
-                  epochViewRecordFormat,
-                  owner,
-                  this.dumpName,
-                  datastoreEpochId,
-                  new RegularEpochView(datastoreEpochId)));
+              tuples.view(range.key(), endEpochId, views[view]));
         }
       }
     }
   }
 
-  private void replicateDistributedEpochs(final IOpenedTransaction transaction) {
-    final IRecordFormat epochViewRecordFormat =
-        transaction
-            .getMetadata()
-            .getStoreMetadata(DatastoreConstants.EPOCH_VIEW_STORE)
-            .getStoreFormat()
-            .getRecordFormat();
-
-    for (final ChunkOwner owner : this.distributedEpochsPerOwner.keySet()) {
-      final Collection<Long> epochs = this.distributedEpochsPerOwner.get(owner);
-      for (final Long epochId : epochs) {
-        transaction.add(
+  /**
+   * Adds the epoch ranges of the distributed owners, and their views.
+   *
+   * <p>An epoch of a distributed owner is only viewed by the distributed view of this epoch. The
+   * ranges of a distributed owner are told apart from those of the other owners by their end, an
+   * epoch below {@link DatastoreConstants#NO_EPOCH_ID} unique to the owner within the dump.
+   *
+   * @param batcher the batcher adding the records to the transaction
+   * @param tuples the tuples of the records
+   * @param epochsPerOwner the epochs of each distributed owner
+   */
+  private static void replicateDistributedEpochs(
+      final TupleBatcher batcher,
+      final EpochTuples tuples,
+      final Map<ChunkOwner, long[]> epochsPerOwner) {
+    // Sorted so that loading the same dump gives the same ends
+    final List<ChunkOwner> owners = new ArrayList<>(epochsPerOwner.keySet());
+    owners.sort(Comparator.comparing(ChunkOwner::getName));
+    for (int i = 0; i < owners.size(); ++i) {
+      final ChunkOwner owner = owners.get(i);
+      final long endEpochId = DatastoreConstants.NO_EPOCH_ID - 1 - i;
+      for (final long epochId : epochsPerOwner.get(owner)) {
+        batcher.add(
+            DatastoreConstants.EPOCH_RANGE_STORE, tuples.range(owner, epochId, endEpochId));
+        batcher.add(
             DatastoreConstants.EPOCH_VIEW_STORE,
-            generateEpochViewTuple(
-                epochViewRecordFormat,
-                owner,
-                this.dumpName,
-                epochId,
-                new DistributedEpochView(owner.getName(), epochId)));
+            tuples.view(epochId, endEpochId, new DistributedEpochView(owner.getName(), epochId)));
       }
     }
   }
+
+  private ICondition dumpCondition() {
+    return BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), this.dumpName);
+  }
+
+  /** The tuples of the epoch range and epoch view stores, reused for all their records. */
+  private static class EpochTuples {
+
+    private final Object[] range;
+    private final int rangeOwnerIndex;
+    private final int rangeBaseIndex;
+    private final int rangeEndIndex;
+
+    private final Object[] view;
+    private final int viewBaseIndex;
+    private final int viewEndIndex;
+    private final int viewEpochIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param transaction the transaction the records are added to
+     * @param dumpName the name of the dump of the records
+     */
+    EpochTuples(final IOpenedTransaction transaction, final String dumpName) {
+      final IRecordFormat rangeFormat =
+          getRecordFormat(transaction, DatastoreConstants.EPOCH_RANGE_STORE);
+      this.range = new Object[rangeFormat.getFieldCount()];
+      this.range[rangeFormat.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = dumpName;
+      this.rangeOwnerIndex = rangeFormat.getFieldIndex(DatastoreConstants.EPOCH_RANGE__OWNER);
+      this.rangeBaseIndex = rangeFormat.getFieldIndex(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID);
+      this.rangeEndIndex = rangeFormat.getFieldIndex(DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID);
+
+      final IRecordFormat viewFormat =
+          getRecordFormat(transaction, DatastoreConstants.EPOCH_VIEW_STORE);
+      this.view = new Object[viewFormat.getFieldCount()];
+      this.view[viewFormat.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = dumpName;
+      this.viewBaseIndex = viewFormat.getFieldIndex(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID);
+      this.viewEndIndex = viewFormat.getFieldIndex(DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID);
+      this.viewEpochIndex = viewFormat.getFieldIndex(DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID);
+    }
+
+    /**
+     * Fills the tuple of an epoch range.
+     *
+     * @param owner the owner of the range
+     * @param baseEpochId the first epoch of the range
+     * @param endEpochId the end of the range, excluded
+     * @return the tuple, reused by the next call
+     */
+    Object[] range(final ChunkOwner owner, final long baseEpochId, final long endEpochId) {
+      this.range[this.rangeOwnerIndex] = owner;
+      this.range[this.rangeBaseIndex] = baseEpochId;
+      this.range[this.rangeEndIndex] = endEpochId;
+      return this.range;
+    }
+
+    /**
+     * Fills the tuple of a view on an epoch range.
+     *
+     * @param baseEpochId the first epoch of the range
+     * @param endEpochId the end of the range, excluded
+     * @param epochView the view on the range
+     * @return the tuple, reused by the next call
+     */
+    Object[] view(final long baseEpochId, final long endEpochId, final EpochView epochView) {
+      this.view[this.viewBaseIndex] = baseEpochId;
+      this.view[this.viewEndIndex] = endEpochId;
+      this.view[this.viewEpochIndex] = epochView;
+      return this.view;
+    }
+
+    private static IRecordFormat getRecordFormat(
+        final IOpenedTransaction transaction, final String store) {
+      return transaction.getMetadata().getStoreMetadata(store).getStoreFormat().getRecordFormat();
+    }
+  }
 }
@@ -0,0 +1,138 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.Loggers;
+import com.qfs.condition.ICondition;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.desc.IStoreDescription;
+import com.qfs.store.IDatastore;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IDatastoreSchemaTransactionInformation;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * This class is responsible for removing dumps from an analysis datastore.
+ *
+ * <p>All the stores of the analysis datastore hold the name of the dump of their records in their
+ * {@link DatastoreConstants#CHUNK__DUMP_NAME} field. The records of the {@link
+ * DatastoreConstants#CHUNK_DIFF_STORE chunk diff store} comparing another dump to the removed one
+ * are removed as well.
+ *
+ * @author ActiveViam
+ */
+public class AnalysisDatastoreUnloader {
+
+  private static final Logger LOGGER = Logger.getLogger(Loggers.DATASTORE_LOADING);
+
+  /** The names of the stores to remove the dumps from. */
+  protected final List<String> stores;
+
+  /**
+   * Constructor.
+   *
+   * @param stores the descriptions of the stores of the analysis datastore
+   */
+  public AnalysisDatastoreUnloader(final Collection<? extends IStoreDescription> stores) {
+    this.stores =
+        stores.stream().map(IStoreDescription::getName).collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * Removes all the records of a dump in a single transaction.
+   *
+   * @param datastore the analysis datastore
+   * @param dumpName the name of the dump to remove
+   * @return the result of the transaction
+   */
+  public Optional<IDatastoreSchemaTransactionInformation> unload(
+      final IDatastore datastore, final String dumpName) {
+    return datastore.edit(transaction -> unloadWithTransaction(transaction, dumpName));
+  }
+
+  /**
+   * Removes all the records of a dump within an open transaction.
+   *
+   * @param transaction the transaction to remove the records in
+   * @param dumpName the name of the dump to remove
+   */
+  public void unloadWithTransaction(final IOpenedTransaction transaction, final String dumpName) {
+    if (LOGGER.isLoggable(Level.FINE)) {
+      LOGGER.fine("Removing the records of dump " + dumpName);
+    }
+    for (final String store : this.stores) {
+      transaction.removeWhere(store, dumpCondition(dumpName));
+    }
+    if (this.stores.contains(DatastoreConstants.CHUNK_DIFF_STORE)) {
+      transaction.removeWhere(
+          DatastoreConstants.CHUNK_DIFF_STORE,
+          BaseConditions.equal(
+              FieldPath.of(DatastoreConstants.CHUNK_DIFF__BASE_DUMP_NAME), dumpName));
+    }
+  }
+
+  /**
+   * Counts the records of a dump in all the stores.
+   *
+   * @param datastore the analysis datastore
+   * @param dumpName the name of the dump
+   * @return the number of records of the dump
+   */
+  public long countRecords(final IDatastore datastore, final String dumpName) {
+    return countRecordsPerStore(datastore, dumpName).values().stream()
+        .mapToLong(Long::longValue)
+        .sum();
+  }
+
+  /**
+   * Counts the records of a dump in each store.
+   *
+   * @param datastore the analysis datastore
+   * @param dumpName the name of the dump
+   * @return the number of records of the dump per store name
+   */
+  public Map<String, Long> countRecordsPerStore(
+      final IDatastore datastore, final String dumpName) {
+    final Map<String, Long> counts = new LinkedHashMap<>();
+    for (final String store : this.stores) {
+      final ListQuery query =
+          datastore
+              .getQueryManager()
+              .listQuery()
+              .forTable(store)
+              .withCondition(dumpCondition(dumpName))
+              .withAliasedFields(AliasedField.fromFieldName(DatastoreConstants.CHUNK__DUMP_NAME))
+              .toQuery();
+      long count = 0;
+      try (final ICursor cursor =
+          datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+        for (final IRecordReader ignored : cursor) {
+          ++count;
+        }
+      }
+      counts.put(store, count);
+    }
+    return counts;
+  }
+
+  private static ICondition dumpCondition(final String dumpName) {
+    return BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), dumpName);
+  }
+}
@@ -9,25 +9,32 @@ package com.activeviam.mac.memory;
 
 import com.qfs.chunk.impl.TombStoneChunk;
 import com.qfs.desc.IDuplicateKeyHandler;
+import com.qfs.dic.IDictionary;
 import com.qfs.dic.IWritableDictionary;
 import com.qfs.store.IStoreMetadata;
 import com.qfs.store.record.IRecordFormat;
 import com.qfs.store.record.IRecordReader;
 import com.qfs.store.record.IWritableRecord;
 import com.qfs.store.record.impl.IDictionaryProvider;
+import java.util.Arrays;
 
 /**
  * {@link IDuplicateKeyHandler} implementation defining the process of dealing with duplicated
  * entries of the same Chunk in the Memory Analysis Cube application.
  *
+ * <p>This handler runs for every chunk shared between partitions. The indices of the fields it
+ * reads and the dictionary codes it compares are hence resolved once per store, and whether a chunk
+ * class is a {@link TombStoneChunk} is remembered per dictionary code of the class.
+ *
  * @author ActiveViam
  */
 public class ChunkRecordHandler implements IDuplicateKeyHandler {
 
-  private int sharedPartitionId = MemoryAnalysisDatastoreDescriptionConfig.MANY_PARTITIONS;
-  private int defaultDicId = -1;
-  private int defaultRefId = -1;
-  private int defaultIdxId = -1;
+  /** The name of the class of the chunks that are never merged. */
+  private static final String TOMB_STONE_CLASS = TombStoneChunk.class.getName();
+
+  /** The resolved fields and codes of the chunk store, {@code null} until the first merge. */
+  private volatile Resolution resolution;
 
   @Override
   public IRecordReader selectDuplicateKeyInDatastore(
@@ -45,130 +52,68 @@ public class ChunkRecordHandler implements IDuplicateKeyHandler {
       IRecordReader previousRecord,
       IStoreMetadata storeMetadata,
       IDictionaryProvider dictionaryProvider) {
-    init(storeMetadata, dictionaryProvider);
-
-    final int currentPartition = getPartition(previousRecord);
-    final long currentDicId = getDicId(previousRecord);
-    final long currentRefId = getRefId(previousRecord);
-    final long currentIdxId = getIdxId(previousRecord);
+    final Resolution resolved = resolve(storeMetadata, dictionaryProvider);
 
-    if (currentPartition == this.sharedPartitionId) {
+    final int currentPartition = previousRecord.readInt(resolved.partitionIndex);
+    if (currentPartition == resolved.sharedPartition) {
       // We cannot make any change
       return previousRecord;
-    } else {
-      final int newPartition = getPartition(duplicateRecord);
-      final long newDicId = getDicId(duplicateRecord);
-      final long newRefId = getRefId(duplicateRecord);
-      final long newIdxId = getIdxId(duplicateRecord);
-
-      if (newPartition == currentPartition) {
-        // Nothing to change
-        return duplicateRecord;
-      } else {
-        // We ignore TombStoneChunks as they are a singleton that has minimal memory footprint
-        // but don't work with the current MAC data model
-        if (getChunkClassName(duplicateRecord, dictionaryProvider, storeMetadata)
-            .contains(TombStoneChunk.class.getName())) {
-          return duplicateRecord;
-        }
-        final IWritableRecord newRecord = copyRecord(duplicateRecord);
-
-        assert newPartition != MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
-        assert currentPartition != MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
-        final int partitionIdx =
-            storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID);
-        newRecord.writeInt(partitionIdx, this.sharedPartitionId);
-
-        // Sanity check in case two Chunks have different parents which should never happen
-        if (currentDicId != newDicId) {
-          throw new IllegalStateException(
-              "Cannot merge a chunk record coming from two different "
-                  + "dictionaries. Something went wrong");
-        }
-        if (currentRefId != newRefId) {
-          throw new IllegalStateException(
-              "Cannot merge a chunk record coming from two different "
-                  + "references. Something went wrong");
-        }
-        if (currentIdxId != newIdxId) {
-          throw new IllegalStateException(
-              "Cannot merge a chunk record coming from two different "
-                  + "indexes. Something went wrong");
-        }
-        return newRecord;
-      }
     }
-  }
 
-  private void init(
-      final IStoreMetadata storeMetadata, final IDictionaryProvider dictionaryProvider) {
-    if (this.sharedPartitionId < 0) {
-      final int partitionIdx = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID);
-      @SuppressWarnings("unchecked")
-      final IWritableDictionary<Object> partitionDictionary =
-          (IWritableDictionary<Object>) dictionaryProvider.getDictionary(partitionIdx);
-      this.sharedPartitionId =
-          partitionDictionary.map(MemoryAnalysisDatastoreDescriptionConfig.MANY_PARTITIONS);
-    }
-    if (this.defaultDicId < 0) {
-      final int dicIdIdx = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARENT_DICO_ID);
-      @SuppressWarnings("unchecked")
-      final IWritableDictionary<Object> dicIdDictionary =
-          (IWritableDictionary<Object>) dictionaryProvider.getDictionary(dicIdIdx);
-      this.defaultDicId =
-          dicIdDictionary.map(MemoryAnalysisDatastoreDescriptionConfig.DEFAULT_COMPONENT_ID_VALUE);
+    final int newPartition = duplicateRecord.readInt(resolved.partitionIndex);
+    if (newPartition == currentPartition) {
+      // Nothing to change
+      return duplicateRecord;
     }
 
-    if (this.defaultIdxId < 0) {
-      final int idxIdIdx = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARENT_INDEX_ID);
-      @SuppressWarnings("unchecked")
-      final IWritableDictionary<Object> idxIdDictionary =
-          (IWritableDictionary<Object>) dictionaryProvider.getDictionary(idxIdIdx);
-      this.defaultIdxId =
-          idxIdDictionary.map(MemoryAnalysisDatastoreDescriptionConfig.DEFAULT_COMPONENT_ID_VALUE);
+    // We ignore TombStoneChunks as they are a singleton that has minimal memory footprint
+    // but don't work with the current MAC data model
+    if (resolved.isTombStone(duplicateRecord.readInt(resolved.classIndex))) {
+      return duplicateRecord;
     }
 
-    if (this.defaultRefId < 0) {
-      final int refIdIdx = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARENT_REF_ID);
-      @SuppressWarnings("unchecked")
-      final IWritableDictionary<Object> refIdDictionary =
-          (IWritableDictionary<Object>) dictionaryProvider.getDictionary(refIdIdx);
-      this.defaultRefId =
-          refIdDictionary.map(MemoryAnalysisDatastoreDescriptionConfig.DEFAULT_COMPONENT_ID_VALUE);
+    // Sanity check in case two Chunks have different parents which should never happen
+    if (previousRecord.readLong(resolved.dictionaryIdIndex)
+        != duplicateRecord.readLong(resolved.dictionaryIdIndex)) {
+      throw new IllegalStateException(
+          "Cannot merge a chunk record coming from two different "
+              + "dictionaries. Something went wrong");
+    }
+    if (previousRecord.readLong(resolved.referenceIdIndex)
+        != duplicateRecord.readLong(resolved.referenceIdIndex)) {
+      throw new IllegalStateException(
+          "Cannot merge a chunk record coming from two different "
+              + "references. Something went wrong");
+    }
+    if (previousRecord.readLong(resolved.indexIdIndex)
+        != duplicateRecord.readLong(resolved.indexIdIndex)) {
+      throw new IllegalStateException(
+          "Cannot merge a chunk record coming from two different "
+              + "indexes. Something went wrong");
     }
-  }
-
-  private int getPartition(final IRecordReader record) {
-    final int idx = record.getFormat().getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID);
-    return record.readInt(idx);
-  }
-
-  private long getDicId(final IRecordReader record) {
-    final int idx = record.getFormat().getFieldIndex(DatastoreConstants.CHUNK__PARENT_DICO_ID);
-    return record.readLong(idx);
-  }
-
-  private long getIdxId(final IRecordReader record) {
-    final int idx = record.getFormat().getFieldIndex(DatastoreConstants.CHUNK__PARENT_INDEX_ID);
-    return record.readLong(idx);
-  }
 
-  private long getRefId(final IRecordReader record) {
-    final int idx = record.getFormat().getFieldIndex(DatastoreConstants.CHUNK__PARENT_REF_ID);
-    return record.readLong(idx);
+    assert newPartition != MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
+    assert currentPartition != MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
+    final IWritableRecord newRecord;
+    if (duplicateRecord instanceof IWritableRecord) {
+      // The duplicate record is discarded once merged, it can hold the merged values
+      newRecord = (IWritableRecord) duplicateRecord;
+    } else {
+      newRecord = copyRecord(duplicateRecord);
+    }
+    newRecord.writeInt(resolved.partitionIndex, resolved.sharedPartition);
+    return newRecord;
   }
 
-  private String getChunkClassName(
-      final IRecordReader record,
-      final IDictionaryProvider dictionaryProvider,
-      final IStoreMetadata storeMetadata) {
-    final int partitionIdx = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__CLASS);
-    final int idx = record.getFormat().getFieldIndex(DatastoreConstants.CHUNK__CLASS);
-    @SuppressWarnings("unchecked")
-    final IWritableDictionary<Object> refIdDictionary =
-        (IWritableDictionary<Object>) dictionaryProvider.getDictionary(partitionIdx);
-
-    return (String) refIdDictionary.read((Integer) record.read(idx));
+  private Resolution resolve(
+      final IStoreMetadata storeMetadata, final IDictionaryProvider dictionaryProvider) {
+    Resolution resolved = this.resolution;
+    if (resolved == null || resolved.dictionaryProvider != dictionaryProvider) {
+      // Racing threads resolve the same values
+      resolved = new Resolution(storeMetadata, dictionaryProvider);
+      this.resolution = resolved;
+    }
+    return resolved;
   }
 
   private IWritableRecord copyRecord(final IRecordReader record) {
@@ -180,4 +125,72 @@ public class ChunkRecordHandler implements IDuplicateKeyHandler {
 
     return newRecord;
   }
+
+  /** The fields and dictionary codes of the chunk store read by the handler. */
+  private static final class Resolution {
+
+    private static final byte UNKNOWN_CLASS = 0;
+    private static final byte TOMB_STONE = 1;
+    private static final byte OTHER_CLASS = 2;
+
+    /** The provider of the dictionaries the codes were resolved with. */
+    private final IDictionaryProvider dictionaryProvider;
+
+    private final int partitionIndex;
+    private final int classIndex;
+    private final int dictionaryIdIndex;
+    private final int referenceIdIndex;
+    private final int indexIdIndex;
+
+    /** The dictionary code of {@link MemoryAnalysisDatastoreDescriptionConfig#MANY_PARTITIONS}. */
+    private final int sharedPartition;
+
+    /** The dictionary of the chunk classes. */
+    private final IDictionary<?> classDictionary;
+
+    /** The kind of each chunk class already met, indexed by dictionary code. */
+    private volatile byte[] classKinds = new byte[0];
+
+    private Resolution(
+        final IStoreMetadata storeMetadata, final IDictionaryProvider dictionaryProvider) {
+      this.dictionaryProvider = dictionaryProvider;
+      this.partitionIndex = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID);
+      this.classIndex = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__CLASS);
+      this.dictionaryIdIndex =
+          storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARENT_DICO_ID);
+      this.referenceIdIndex = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARENT_REF_ID);
+      this.indexIdIndex = storeMetadata.getFieldIndex(DatastoreConstants.CHUNK__PARENT_INDEX_ID);
+
+      @SuppressWarnings("unchecked")
+      final IWritableDictionary<Object> partitionDictionary =
+          (IWritableDictionary<Object>) dictionaryProvider.getDictionary(this.partitionIndex);
+      this.sharedPartition =
+          partitionDictionary.map(MemoryAnalysisDatastoreDescriptionConfig.MANY_PARTITIONS);
+      this.classDictionary = dictionaryProvider.getDictionary(this.classIndex);
+    }
+
+    /**
+     * Tells whether a chunk class is a {@link TombStoneChunk}, decoding its name only the first
+     * time the class is met.
+     *
+     * @param classCode the dictionary code of the chunk class
+     * @return {@code true} for tombstone chunks
+     */
+    private boolean isTombStone(final int classCode) {
+      byte[] kinds = this.classKinds;
+      if (classCode < kinds.length && kinds[classCode] != UNKNOWN_CLASS) {
+        return kinds[classCode] == TOMB_STONE;
+      }
+
+      final boolean tombStone =
+          String.valueOf(this.classDictionary.read(classCode)).contains(TOMB_STONE_CLASS);
+      // Concurrent updates may be lost, the class is then decoded again
+      if (classCode >= kinds.length) {
+        kinds = Arrays.copyOf(kinds, Math.max(classCode + 1, 2 * kinds.length));
+      }
+      kinds[classCode] = tombStone ? TOMB_STONE : OTHER_CLASS;
+      this.classKinds = kinds;
+      return tombStone;
+    }
+  }
 }
@@ -0,0 +1,177 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.StringArrayObject;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IOpenedTransaction;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The latest state of a chunk in a dump, read from the latest epoch the chunk was recorded in.
+ *
+ * @author ActiveViam
+ */
+class ChunkState {
+
+  /** The fields of the chunk store read for each chunk. */
+  private static final String[] CHUNK_FIELDS = {
+    DatastoreConstants.CHUNK_ID,
+    DatastoreConstants.VERSION__EPOCH_ID,
+    DatastoreConstants.OWNER__OWNER,
+    DatastoreConstants.OWNER__COMPONENT,
+    DatastoreConstants.CHUNK__CLASS,
+    DatastoreConstants.CHUNK__PARENT_INDEX_ID,
+    DatastoreConstants.CHUNK__OFF_HEAP_SIZE,
+    DatastoreConstants.CHUNK__ON_HEAP_SIZE
+  };
+
+  /** The fields of the chunk field store read for each chunk. */
+  private static final String[] CHUNK_TO_FIELD_FIELDS = {
+    DatastoreConstants.CHUNK_ID,
+    DatastoreConstants.VERSION__EPOCH_ID,
+    DatastoreConstants.OWNER__OWNER,
+    DatastoreConstants.OWNER__COMPONENT,
+    DatastoreConstants.OWNER__FIELD
+  };
+
+  /** The latest epoch the chunk was recorded in. */
+  final long epochId;
+
+  /** The class of the chunk. */
+  final String chunkClass;
+
+  /** The ID of the index owning the chunk, if any. */
+  final long indexId;
+
+  /** The owners and components of the chunk, as lists of two elements. */
+  final List<List<Object>> owners = new ArrayList<>(1);
+
+  /** The sorted fields of the chunk, per owner and component. */
+  final Map<List<Object>, StringArrayObject> fields = new HashMap<>(1);
+
+  /** The fields of the index owning the chunk, if any. */
+  Object indexedFields = MemoryAnalysisDatastoreDescriptionConfig.NO_FIELDS;
+
+  /** The off-heap size of the chunk. */
+  long offHeapSize;
+
+  /** The on-heap size of the chunk. */
+  long onHeapSize;
+
+  private ChunkState(final long epochId, final String chunkClass, final long indexId) {
+    this.epochId = epochId;
+    this.chunkClass = chunkClass;
+    this.indexId = indexId;
+  }
+
+  /**
+   * Returns the fields of the chunk for one of its owners.
+   *
+   * @param owner the owner and component, as a list of two elements
+   * @return the sorted fields, or {@link MemoryAnalysisDatastoreDescriptionConfig#NO_FIELDS}
+   */
+  StringArrayObject getFields(final List<Object> owner) {
+    return this.fields.getOrDefault(owner, MemoryAnalysisDatastoreDescriptionConfig.NO_FIELDS);
+  }
+
+  /**
+   * Reads the latest state of each chunk of a dump.
+   *
+   * @param transaction the transaction to read the chunks from
+   * @param dumpName the name of the dump
+   * @return the states of the chunks per chunk ID
+   */
+  static TLongObjectMap<ChunkState> readLatest(
+      final IOpenedTransaction transaction, final String dumpName) {
+    final TLongObjectMap<ChunkState> chunks = new TLongObjectHashMap<>();
+    for (final IRecordReader reader :
+        query(transaction, DatastoreConstants.CHUNK_STORE, dumpName, CHUNK_FIELDS)) {
+      final long chunkId = reader.readLong(0);
+      final long epochId = reader.readLong(1);
+      ChunkState chunk = chunks.get(chunkId);
+      if (chunk == null || chunk.epochId < epochId) {
+        chunk = new ChunkState(epochId, (String) reader.read(4), reader.readLong(5));
+        chunk.offHeapSize = reader.readLong(6);
+        chunk.onHeapSize = reader.readLong(7);
+        chunks.put(chunkId, chunk);
+      }
+      if (chunk.epochId == epochId) {
+        final List<Object> owner = Arrays.asList(reader.read(2), reader.read(3));
+        if (!chunk.owners.contains(owner)) {
+          chunk.owners.add(owner);
+        }
+      }
+    }
+
+    final Map<List<Object>, Set<String>> fields = new HashMap<>();
+    final String chunkToFieldStore = DatastoreConstants.CHUNK_TO_FIELD_STORE;
+    for (final IRecordReader reader :
+        query(transaction, chunkToFieldStore, dumpName, CHUNK_TO_FIELD_FIELDS)) {
+      final ChunkState chunk = chunks.get(reader.readLong(0));
+      if (chunk != null && chunk.epochId == reader.readLong(1)) {
+        fields
+            .computeIfAbsent(
+                Arrays.asList(reader.readLong(0), reader.read(2), reader.read(3)),
+                k -> new TreeSet<>())
+            .add((String) reader.read(4));
+      }
+    }
+    fields.forEach(
+        (key, names) ->
+            chunks
+                .get((Long) key.get(0))
+                .fields
+                .put(key.subList(1, 3), new StringArrayObject(names.toArray(new String[0]))));
+
+    final TLongObjectMap<Object> indexedFields = new TLongObjectHashMap<>();
+    for (final IRecordReader reader :
+        query(
+            transaction,
+            DatastoreConstants.INDEX_STORE,
+            dumpName,
+            DatastoreConstants.INDEX_ID,
+            DatastoreConstants.INDEX__FIELDS)) {
+      indexedFields.put(reader.readLong(0), reader.read(1));
+    }
+    chunks.forEachValue(
+        chunk -> {
+          final Object indexFields = indexedFields.get(chunk.indexId);
+          if (indexFields != null) {
+            chunk.indexedFields = indexFields;
+          }
+          return true;
+        });
+    return chunks;
+  }
+
+  private static ICursor query(
+      final IOpenedTransaction transaction,
+      final String store,
+      final String dumpName,
+      final String... fields) {
+    return transaction
+        .getQueryRunner()
+        .forStore(store)
+        .withCondition(
+            BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), dumpName))
+        .selecting(fields)
+        .run();
+  }
+}
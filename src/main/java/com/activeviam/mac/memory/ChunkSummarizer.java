@@ -0,0 +1,317 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.qfs.condition.ICondition;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordFormat;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IOpenedTransaction;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the {@link DatastoreConstants#CHUNK_SUMMARY_STORE chunk summary store} of a dump from its
+ * chunks.
+ *
+ * <p>The chunks recorded once in the dump are summed per epoch, owner, component, partition, type
+ * and class. Such a chunk only ever contributes to the cells of its record, so that these sums can
+ * be added up without counting a chunk twice. The chunks recorded several times are copied as is,
+ * to be counted once per chunk ID like in the chunk store.
+ *
+ * <p>The IDs of the chunks are collected as they are added to the chunk store, by the {@link
+ * TupleBatcher batchers} given this summarizer, so that the chunk store is read once, when the
+ * summary is written. Not to hold a set of all the chunk IDs of the dump, the IDs met once are only
+ * remembered by a {@link ChunkIdFilter filter}, which may take a new ID for an ID already met. The
+ * IDs it reports as met again are kept exactly: a few chunks recorded once are then copied as is,
+ * which leaves the summed sizes unchanged. The IDs of a dump with chunks added by several
+ * summarizers are collected from the chunk store instead, see {@link
+ * #readChunkIds(IOpenedTransaction)}.
+ *
+ * <p>The chunks can be added concurrently by all the threads feeding the dump.
+ *
+ * @author ActiveViam
+ */
+public class ChunkSummarizer {
+
+  /** The fields of the chunk store summarized for each chunk, the summed sizes last. */
+  private static final String[] CHUNK_FIELDS = {
+    DatastoreConstants.CHUNK_ID,
+    DatastoreConstants.VERSION__EPOCH_ID,
+    DatastoreConstants.OWNER__OWNER,
+    DatastoreConstants.OWNER__COMPONENT,
+    DatastoreConstants.CHUNK__PARTITION_ID,
+    DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE,
+    DatastoreConstants.CHUNK__CLASS,
+    DatastoreConstants.CHUNK__OFF_HEAP_SIZE,
+    DatastoreConstants.CHUNK__ON_HEAP_SIZE,
+    DatastoreConstants.CHUNK__SIZE,
+    DatastoreConstants.CHUNK__NON_WRITTEN_ROWS,
+    DatastoreConstants.CHUNK__FREE_ROWS
+  };
+
+  /** The index of the first summed size in {@link #CHUNK_FIELDS}. */
+  private static final int FIRST_SIZE = 7;
+
+  /** The name of the summarized dump. */
+  protected final String dumpName;
+
+  /** The number of records added at once to the summary store. */
+  protected final int batchSize;
+
+  /** The counts of the added records, {@code null} not to count them. */
+  protected final StoreRecordCounts recordCounts;
+
+  /** The filter of the IDs of the chunks met so far. */
+  protected ChunkIdFilter metChunkIds = new ChunkIdFilter();
+
+  /** The IDs of the chunks possibly recorded several times, copied as is in the summary. */
+  protected final TLongSet repeatedChunkIds = new TLongHashSet();
+
+  /**
+   * Constructor.
+   *
+   * @param dumpName the name of the dump to summarize
+   * @param batchSize the number of records added at once to the summary store
+   */
+  public ChunkSummarizer(final String dumpName, final int batchSize) {
+    this(dumpName, batchSize, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param dumpName the name of the dump to summarize
+   * @param batchSize the number of records added at once to the summary store
+   * @param recordCounts the counts to add the number of summary records to, {@code null} not to
+   *     count them
+   */
+  public ChunkSummarizer(
+      final String dumpName, final int batchSize, final StoreRecordCounts recordCounts) {
+    this.dumpName = dumpName;
+    this.batchSize = batchSize;
+    this.recordCounts = recordCounts;
+  }
+
+  /**
+   * Collects the IDs of chunks added to the chunk store.
+   *
+   * @param format the record format of the chunk store
+   * @param tuples the tuples of the chunks, only the first {@code count} ones being collected
+   * @param count the number of tuples to collect
+   */
+  public void addAll(final IRecordFormat format, final Object[][] tuples, final int count) {
+    final int chunkIdIndex = format.getFieldIndex(DatastoreConstants.CHUNK_ID);
+    synchronized (this) {
+      for (int t = 0; t < count; ++t) {
+        add(((Number) tuples[t][chunkIdIndex]).longValue());
+      }
+    }
+  }
+
+  /**
+   * Replaces the collected IDs with the IDs of all the chunks of the dump in the chunk store.
+   *
+   * <p>This reads the chunk IDs of the whole dump, and is only needed when some of its chunks were
+   * added without this summarizer, like those loaded before by other feeders.
+   *
+   * @param transaction the transaction to read the chunks from
+   */
+  public synchronized void readChunkIds(final IOpenedTransaction transaction) {
+    this.metChunkIds = new ChunkIdFilter();
+    this.repeatedChunkIds.clear();
+    for (final IRecordReader reader : queryChunks(transaction, DatastoreConstants.CHUNK_ID)) {
+      add(reader.readLong(0));
+    }
+  }
+
+  /**
+   * Replaces the summary of the chunks of the dump, reading them once from the chunk store.
+   *
+   * @param transaction the transaction all the chunks of the dump were fed into, or any transaction
+   *     opened after they were committed
+   */
+  public synchronized void summarizeWithTransaction(final IOpenedTransaction transaction) {
+    transaction.removeWhere(DatastoreConstants.CHUNK_SUMMARY_STORE, dumpCondition());
+
+    final IRecordFormat format =
+        transaction
+            .getMetadata()
+            .getStoreMetadata(DatastoreConstants.CHUNK_SUMMARY_STORE)
+            .getStoreFormat()
+            .getRecordFormat();
+    final int[] indexes = new int[CHUNK_FIELDS.length];
+    for (int i = 0; i < indexes.length; ++i) {
+      indexes[i] = format.getFieldIndex(CHUNK_FIELDS[i]);
+    }
+    final int dumpNameIndex = format.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME);
+    final int countIndex = format.getFieldIndex(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT);
+
+    final TupleBatcher batcher =
+        new TupleBatcher(transaction, this.batchSize, null, null, this.recordCounts);
+    final Object[] tuple = new Object[format.getFieldCount()];
+    tuple[dumpNameIndex] = this.dumpName;
+    // The sums of the chunks recorded once, per values of the other fields
+    final Map<List<Object>, long[]> sums = new HashMap<>();
+    for (final IRecordReader reader : queryChunks(transaction, CHUNK_FIELDS)) {
+      if (this.repeatedChunkIds.contains(reader.readLong(0))) {
+        for (int i = 0; i < CHUNK_FIELDS.length; ++i) {
+          tuple[indexes[i]] = reader.read(i);
+        }
+        tuple[countIndex] = 1L;
+        batcher.add(DatastoreConstants.CHUNK_SUMMARY_STORE, tuple);
+      } else {
+        final Object[] key = new Object[FIRST_SIZE - 1];
+        for (int i = 1; i < FIRST_SIZE; ++i) {
+          key[i - 1] = reader.read(i);
+        }
+        final long[] sum =
+            sums.computeIfAbsent(
+                Arrays.asList(key), k -> new long[CHUNK_FIELDS.length - FIRST_SIZE + 1]);
+        for (int i = FIRST_SIZE; i < CHUNK_FIELDS.length; ++i) {
+          sum[i - FIRST_SIZE] += reader.readLong(i);
+        }
+        ++sum[sum.length - 1];
+      }
+    }
+
+    long summaryId = MemoryAnalysisDatastoreDescriptionConfig.FIRST_SUMMARY_ID;
+    for (final Map.Entry<List<Object>, long[]> entry : sums.entrySet()) {
+      tuple[indexes[0]] = summaryId++;
+      final List<Object> key = entry.getKey();
+      for (int i = 1; i < FIRST_SIZE; ++i) {
+        tuple[indexes[i]] = key.get(i - 1);
+      }
+      final long[] sum = entry.getValue();
+      for (int i = FIRST_SIZE; i < CHUNK_FIELDS.length; ++i) {
+        tuple[indexes[i]] = sum[i - FIRST_SIZE];
+      }
+      tuple[countIndex] = sum[sum.length - 1];
+      batcher.add(DatastoreConstants.CHUNK_SUMMARY_STORE, tuple);
+    }
+    batcher.flush();
+  }
+
+  private void add(final long chunkId) {
+    if (!this.metChunkIds.add(chunkId)) {
+      this.repeatedChunkIds.add(chunkId);
+    }
+  }
+
+  private ICursor queryChunks(final IOpenedTransaction transaction, final String... fields) {
+    return transaction
+        .getQueryRunner()
+        .forStore(DatastoreConstants.CHUNK_STORE)
+        .withCondition(dumpCondition())
+        .selecting(fields)
+        .run();
+  }
+
+  private ICondition dumpCondition() {
+    return BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), this.dumpName);
+  }
+
+  /**
+   * Bloom filter of chunk IDs, growing with the number of added IDs.
+   *
+   * <p>The filter never misses an added ID, but may report an ID as added when it is not. Each
+   * time its last bit array is full, a bit array twice as large is added: the filter uses two to
+   * four bytes per added ID, and reports less than one percent of the new IDs as added.
+   */
+  protected static class ChunkIdFilter {
+
+    /** The number of IDs the first bit array holds. */
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    /** The number of bits per ID of each bit array. */
+    private static final int BITS_PER_ID = 16;
+
+    /** The number of bits set per ID. */
+    private static final int HASHES = 8;
+
+    /** The bit arrays, from the oldest to the one the IDs are added to. */
+    private final List<long[]> bitArrays = new ArrayList<>();
+
+    /** The number of IDs the last bit array holds. */
+    private int capacity = INITIAL_CAPACITY;
+
+    /** The number of IDs added to the last bit array. */
+    private int count;
+
+    /** Constructor. */
+    protected ChunkIdFilter() {
+      this.bitArrays.add(new long[INITIAL_CAPACITY * BITS_PER_ID / Long.SIZE]);
+    }
+
+    /**
+     * Adds an ID to the filter.
+     *
+     * @param chunkId the ID to add
+     * @return {@code false} if the ID is possibly already added, {@code true} if it surely is not
+     */
+    protected boolean add(final long chunkId) {
+      final long hash = mix(chunkId);
+      for (final long[] bits : this.bitArrays) {
+        if (contains(bits, hash)) {
+          return false;
+        }
+      }
+
+      if (this.count == this.capacity) {
+        this.capacity *= 2;
+        this.count = 0;
+        this.bitArrays.add(new long[this.capacity / Long.SIZE * BITS_PER_ID]);
+      }
+      final long[] bits = this.bitArrays.get(this.bitArrays.size() - 1);
+      final long bitCount = (long) bits.length * Long.SIZE;
+      for (int i = 0; i < HASHES; ++i) {
+        final long bit = bitIndex(hash, i, bitCount);
+        bits[(int) (bit >>> 6)] |= 1L << bit;
+      }
+      ++this.count;
+      return true;
+    }
+
+    private static boolean contains(final long[] bits, final long hash) {
+      final long bitCount = (long) bits.length * Long.SIZE;
+      for (int i = 0; i < HASHES; ++i) {
+        final long bit = bitIndex(hash, i, bitCount);
+        if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static long bitIndex(final long hash, final int i, final long bitCount) {
+      // Double hashing, from the two halves of the mixed ID
+      final int high = (int) (hash >>> 32);
+      final int low = (int) hash;
+      return Math.floorMod(high + (long) i * (low | 1), bitCount);
+    }
+
+    private static long mix(final long value) {
+      // The finalizer of MurmurHash3, spreading the consecutive chunk IDs
+      long hash = value;
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      hash *= 0xc4ceb9fe1a85ec53L;
+      hash ^= hash >>> 33;
+      return hash;
+    }
+  }
+}
@@ -22,6 +22,10 @@ public class DatastoreConstants {
   public static final long LONG_IF_NOT_EXIST = -1L;
   /** Default int value. */
   public static final int INT_IF_NOT_EXIST = -1;
+  /** Epoch id of the statistics read before any epoch is known, epoch ids being non-negative. */
+  public static final long NO_EPOCH_ID = LONG_IF_NOT_EXIST;
+  /** Provider id of the chunks held by no aggregate provider. */
+  public static final long NO_PROVIDER_ID = LONG_IF_NOT_EXIST;
 
   // ALL STORES
 
@@ -52,6 +56,9 @@ public class DatastoreConstants {
   /** Name of the store related to the application. */
   public static final String VERSION_STORE = "Version";
 
+  /** Name of the store listing the dumps found in the statistics folder. */
+  public static final String DUMP_CATALOG_STORE = "DumpCatalog";
+
   // Field names
 
   /** Field containing debug data for the memory statistics. */
@@ -199,13 +206,50 @@ public class DatastoreConstants {
   public static final String CHUNK_TO_LEVEL__HIERARCHY = "hierarchy";
   /** level field. */
   public static final String CHUNK_TO_LEVEL__LEVEL = "level";
+  /** Name of the store linking the chunks to the fields they are attributed to. */
+  public static final String CHUNK_TO_FIELD_STORE = "ChunkToField";
+  /** Name of the store summarizing the chunks of each dump, computed once the dump is loaded. */
+  public static final String CHUNK_SUMMARY_STORE = "ChunkSummary";
+  /** The number of chunks summarized by a record of the chunk summary store. */
+  public static final String CHUNK_SUMMARY__CHUNK_COUNT = "chunkCount";
+  /** Name of the store of the differences between the chunks of two dumps. */
+  public static final String CHUNK_DIFF_STORE = "ChunkDiff";
+  /** The name of the dump compared to, the field of the compared dump being the dump name. */
+  public static final String CHUNK_DIFF__BASE_DUMP_NAME = "baseDumpName";
+  /** The sorted names of the fields the chunks are attributed to. */
+  public static final String CHUNK_DIFF__FIELDS = "chunkFields";
+  /** The sorted names of the fields of the index owning the chunks, if any. */
+  public static final String CHUNK_DIFF__INDEXED_FIELDS = "indexedFields";
+  /** How the chunks changed from the base dump. */
+  public static final String CHUNK_DIFF__STATUS = "status";
+  /** The off-heap size of the chunks in the base dump. */
+  public static final String CHUNK_DIFF__BASE_OFF_HEAP_SIZE = "baseOffHeapSize";
+  /** The on-heap size of the chunks in the base dump. */
+  public static final String CHUNK_DIFF__BASE_ON_HEAP_SIZE = "baseOnHeapSize";
+  /**
+   * Name of the store of the footprint time series of the applications, kept when their dumps are
+   * unloaded.
+   */
+  public static final String TREND_STORE = "Trend";
+  /** The application of the dumps of a time series. */
+  public static final String TREND__APPLICATION = "application";
+  /** The sorted names of the fields the chunks of a time series are attributed to. */
+  public static final String TREND__FIELDS = CHUNK_DIFF__FIELDS;
+  /** The growth of the off-heap size of a time series up to a dump, in bytes per day. */
+  public static final String TREND__OFF_HEAP_GROWTH = "offHeapGrowth";
+  /** The growth of the on-heap size of a time series up to a dump, in bytes per day. */
+  public static final String TREND__ON_HEAP_GROWTH = "onHeapGrowth";
+  /** The growth of the direct memory used by the application up to a dump, in bytes per day. */
+  public static final String TREND__USED_OFF_HEAP_GROWTH = "usedOffHeapGrowth";
+  /** The number of days before the used direct memory reaches the maximum, if growing. */
+  public static final String TREND__DAYS_TO_MAX_OFF_HEAP = "daysToMaxOffHeap";
   /** The chunk ID field in the store of chunk owners. */
   public static final String OWNER__CHUNK_ID = CHUNK_ID;
   /** The owner field in the store of chunk owners. */
   public static final String OWNER__OWNER = "owner";
   /** The component field in the store of chunk owners. */
   public static final String OWNER__COMPONENT = "component";
-  /** The field name field in the store of chunk owners. */
+  /** The field name field in the store linking the chunks to their fields. */
   public static final String OWNER__FIELD = "field";
   /** Class of the aggregate provider compoent. */
   public static final String PROVIDER_COMPONENT__CLASS = "class";
@@ -225,16 +269,24 @@ public class DatastoreConstants {
   public static final String APPLICATION__USED_OFF_HEAP = "usedOffHeap";
   /** Maximum Application direct memory. */
   public static final String APPLICATION__MAX_OFF_HEAP = "maxOffHeap";
+  /** Number of statistic files of a dump in the catalog store. */
+  public static final String DUMP_CATALOG__FILE_COUNT = "fileCount";
+  /** Whether the statistics of a dump are loaded, in the catalog store. */
+  public static final String DUMP_CATALOG__LOADED = "loaded";
   /** The dump name field in the branch store. */
   public static final String VERSION__DUMP_NAME = "dumpName";
   /** The branch name field in the branch store. */
   public static final String VERSION__BRANCH_NAME = "branch";
+  /** The name of the epoch range store. */
+  public static final String EPOCH_RANGE_STORE = "EpochRange";
+  /** The owner field in the epoch range store. */
+  public static final String EPOCH_RANGE__OWNER = "owner";
+  /** The end epoch id field in the epoch range and epoch view stores, excluded from the range. */
+  public static final String EPOCH_RANGE__END_EPOCH_ID = "endEpochId";
   /** The name of the epoch view store. */
   public static final String EPOCH_VIEW_STORE = "EpochView";
-  /** The base epoch id field in the epoch view store. */
+  /** The base epoch id field in the epoch range and epoch view stores. */
   public static final String EPOCH_VIEW__BASE_EPOCH_ID = "baseEpochId";
-  /** The owner field in the epoch view store. */
-  public static final String EPOCH_VIEW__OWNER = "owner";
   /** The view epoch id field in the epoch view store. */
   public static final String EPOCH_VIEW__VIEW_EPOCH_ID = "viewEpochId";
 
@@ -0,0 +1,286 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.mac.Loggers;
+import com.qfs.monitoring.statistic.IStatisticAttribute;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
+import com.qfs.store.IDatastore;
+import com.qfs.store.record.IRecordFormat;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import lombok.Value;
+
+/**
+ * Catalog of the dumps available in the statistics folder, loaded or not.
+ *
+ * <p>Cataloguing a dump only reads the root statistic of each of its files, to fill the {@link
+ * DatastoreConstants#DUMP_CATALOG_STORE catalog store} with the export date and the memory totals
+ * of the application. The statistics of the dump can then be loaded on demand.
+ *
+ * <p>Cataloguing a dump again, e.g. when new files are added to its folder, adds the new files to
+ * those already catalogued and keeps whether the dump is loaded.
+ *
+ * @author ActiveViam
+ */
+public class DumpCatalog {
+
+  private static final Logger LOGGER = Logger.getLogger(Loggers.DATASTORE_LOADING);
+
+  /** The statistic files of the catalogued dumps. */
+  protected final Map<String, List<Path>> dumpFiles = new ConcurrentHashMap<>();
+
+  /** The catalogued dumps whose statistics are loaded. */
+  protected final Set<String> loadedDumps = ConcurrentHashMap.newKeySet();
+
+  /** The last catalog record of each dump. */
+  protected final Map<String, Object[]> records = new ConcurrentHashMap<>();
+
+  /** The description of each catalogued dump, matching its last catalog record. */
+  protected final Map<String, CataloguedDump> dumps = new ConcurrentHashMap<>();
+
+  /**
+   * Catalogs dumps without loading their statistics.
+   *
+   * @param datastore the analysis datastore
+   * @param dumps the statistic files of each dump
+   */
+  public void catalog(final IDatastore datastore, final Map<String, List<Path>> dumps) {
+    final long start = System.nanoTime();
+    datastore.edit(
+        transaction -> {
+          final IRecordFormat format = getRecordFormat(transaction);
+          dumps.forEach(
+              (dumpName, files) -> {
+                final List<Path> allFiles = mergeFiles(this.dumpFiles.get(dumpName), files);
+                final Object[] record = readRecord(format, dumpName, allFiles);
+                record[format.getFieldIndex(DatastoreConstants.DUMP_CATALOG__LOADED)] =
+                    this.loadedDumps.contains(dumpName);
+                this.dumpFiles.put(dumpName, allFiles);
+                this.records.put(dumpName, record);
+                this.dumps.put(dumpName, CataloguedDump.of(format, record));
+                transaction.add(DatastoreConstants.DUMP_CATALOG_STORE, record);
+              });
+        });
+
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(
+          dumps.size()
+              + " dump(s) catalogued in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+              + "ms");
+    }
+  }
+
+  private static List<Path> mergeFiles(final List<Path> catalogued, final List<Path> files) {
+    if (catalogued == null) {
+      return files;
+    }
+    final Set<Path> merged = new LinkedHashSet<>(catalogued);
+    merged.addAll(files);
+    return List.copyOf(merged);
+  }
+
+  /**
+   * Lists the catalogued dumps, sorted by name.
+   *
+   * @return the descriptions of the catalogued dumps
+   */
+  public List<CataloguedDump> getDumps() {
+    return this.dumps.values().stream()
+        .sorted(Comparator.comparing(CataloguedDump::getDumpName))
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  /**
+   * Returns the statistic files of a catalogued dump.
+   *
+   * @param dumpName the name of the dump
+   * @return the files of the dump, empty if it is not catalogued
+   */
+  public Optional<List<Path>> getFiles(final String dumpName) {
+    return Optional.ofNullable(this.dumpFiles.get(dumpName));
+  }
+
+  /**
+   * Returns the names of the catalogued dumps whose statistics are not loaded.
+   *
+   * @return the names of the unloaded dumps
+   */
+  public Set<String> getUnloadedDumpNames() {
+    return this.dumpFiles.keySet().stream()
+        .filter(dumpName -> !this.loadedDumps.contains(dumpName))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Returns whether the statistics of a catalogued dump are loaded.
+   *
+   * @param dumpName the name of the dump
+   * @return {@code true} if the dump is catalogued and loaded
+   */
+  public boolean isLoaded(final String dumpName) {
+    return this.loadedDumps.contains(dumpName);
+  }
+
+  /**
+   * Records whether the statistics of a catalogued dump are loaded.
+   *
+   * <p>Nothing is done if the dump is not catalogued.
+   *
+   * @param datastore the analysis datastore
+   * @param dumpName the name of the dump
+   * @param loaded whether the statistics of the dump are loaded
+   */
+  public void setLoaded(final IDatastore datastore, final String dumpName, final boolean loaded) {
+    final Object[] record = this.records.get(dumpName);
+    if (record == null) {
+      return;
+    }
+    if (loaded) {
+      this.loadedDumps.add(dumpName);
+    } else {
+      this.loadedDumps.remove(dumpName);
+    }
+    datastore.edit(
+        transaction -> {
+          final IRecordFormat format = getRecordFormat(transaction);
+          final Object[] updated = record.clone();
+          updated[format.getFieldIndex(DatastoreConstants.DUMP_CATALOG__LOADED)] = loaded;
+          this.records.put(dumpName, updated);
+          this.dumps.put(dumpName, CataloguedDump.of(format, updated));
+          transaction.add(DatastoreConstants.DUMP_CATALOG_STORE, updated);
+        });
+  }
+
+  private static IRecordFormat getRecordFormat(final IOpenedTransaction transaction) {
+    return transaction
+        .getMetadata()
+        .getStoreMetadata(DatastoreConstants.DUMP_CATALOG_STORE)
+        .getStoreFormat()
+        .getRecordFormat();
+  }
+
+  /**
+   * Builds the catalog record of a dump from the root statistics of its files.
+   *
+   * @param format the format of the catalog store
+   * @param dumpName the name of the dump
+   * @param files the statistic files of the dump
+   * @return the catalog record
+   */
+  protected static Object[] readRecord(
+      final IRecordFormat format, final String dumpName, final List<Path> files) {
+    final Object[] record = new Object[format.getFieldCount()];
+    record[format.getFieldIndex(DatastoreConstants.APPLICATION__DUMP_NAME)] = dumpName;
+    record[format.getFieldIndex(DatastoreConstants.DUMP_CATALOG__FILE_COUNT)] = files.size();
+    record[format.getFieldIndex(DatastoreConstants.DUMP_CATALOG__LOADED)] = false;
+
+    for (final Path file : files) {
+      final IMemoryStatistic root;
+      try {
+        root = StreamingStatisticReader.readRoot(file);
+      } catch (final IOException e) {
+        throw new UncheckedIOException("Cannot read the header of " + file, e);
+      }
+      final int dateIndex = format.getFieldIndex(DatastoreConstants.APPLICATION__DATE);
+      final IStatisticAttribute date = root.getAttribute(MemoryStatisticConstants.ATTR_NAME_DATE);
+      if (record[dateIndex] == null && date != null) {
+        record[dateIndex] = Instant.ofEpochSecond(date.asLong());
+      }
+      setMemory(
+          record,
+          format,
+          DatastoreConstants.APPLICATION__USED_ON_HEAP,
+          root.getAttribute(MemoryStatisticConstants.STAT_NAME_GLOBAL_USED_HEAP_MEMORY));
+      setMemory(
+          record,
+          format,
+          DatastoreConstants.APPLICATION__MAX_ON_HEAP,
+          root.getAttribute(MemoryStatisticConstants.STAT_NAME_GLOBAL_MAX_HEAP_MEMORY));
+      setMemory(
+          record,
+          format,
+          DatastoreConstants.APPLICATION__USED_OFF_HEAP,
+          root.getAttribute(MemoryStatisticConstants.STAT_NAME_GLOBAL_USED_DIRECT_MEMORY));
+      setMemory(
+          record,
+          format,
+          DatastoreConstants.APPLICATION__MAX_OFF_HEAP,
+          root.getAttribute(MemoryStatisticConstants.STAT_NAME_GLOBAL_MAX_DIRECT_MEMORY));
+    }
+    return record;
+  }
+
+  private static void setMemory(
+      final Object[] record,
+      final IRecordFormat format,
+      final String field,
+      final IStatisticAttribute attribute) {
+    final int index = format.getFieldIndex(field);
+    if (record[index] == null && attribute != null) {
+      record[index] = attribute.asLong();
+    }
+  }
+
+  /** Description of a catalogued dump. */
+  @Value
+  public static class CataloguedDump {
+
+    /** The name of the dump. */
+    String dumpName;
+
+    /** The number of statistic files of the dump. */
+    int fileCount;
+
+    /** Whether the statistics of the dump are loaded. */
+    boolean loaded;
+
+    /** The export date of the dump, if known. */
+    Instant date;
+
+    /** The heap memory used by the application, in bytes, if known. */
+    Long usedOnHeap;
+
+    /** The maximum heap memory of the application, in bytes, if known. */
+    Long maxOnHeap;
+
+    /** The direct memory used by the application, in bytes, if known. */
+    Long usedOffHeap;
+
+    /** The maximum direct memory of the application, in bytes, if known. */
+    Long maxOffHeap;
+
+    private static CataloguedDump of(final IRecordFormat format, final Object[] record) {
+      return new CataloguedDump(
+          (String) record[format.getFieldIndex(DatastoreConstants.APPLICATION__DUMP_NAME)],
+          (Integer) record[format.getFieldIndex(DatastoreConstants.DUMP_CATALOG__FILE_COUNT)],
+          (Boolean) record[format.getFieldIndex(DatastoreConstants.DUMP_CATALOG__LOADED)],
+          (Instant) record[format.getFieldIndex(DatastoreConstants.APPLICATION__DATE)],
+          (Long) record[format.getFieldIndex(DatastoreConstants.APPLICATION__USED_ON_HEAP)],
+          (Long) record[format.getFieldIndex(DatastoreConstants.APPLICATION__MAX_ON_HEAP)],
+          (Long) record[format.getFieldIndex(DatastoreConstants.APPLICATION__USED_OFF_HEAP)],
+          (Long) record[format.getFieldIndex(DatastoreConstants.APPLICATION__MAX_OFF_HEAP)]);
+    }
+  }
+}
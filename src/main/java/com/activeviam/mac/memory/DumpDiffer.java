@@ -0,0 +1,216 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.DiffStatus;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.qfs.condition.ICondition;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.store.record.IRecordFormat;
+import com.qfs.store.transaction.IOpenedTransaction;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the {@link DatastoreConstants#CHUNK_DIFF_STORE chunk diff store} with the differences
+ * between the chunks of a base dump and those of a target dump.
+ *
+ * <p>The chunks are matched by ID, each dump being represented by the latest epoch each chunk was
+ * recorded in. A chunk only in the target dump is {@link DiffStatus#NEW new}, a chunk only in the
+ * base dump is {@link DiffStatus#FREED freed}, and a chunk in both is {@link DiffStatus#RESIZED
+ * resized} if its sizes changed. The chunk IDs being only unique within an application run, the
+ * diff is only meaningful between dumps of the same run.
+ *
+ * <p>The chunks are described by their owner, component, fields, class and indexed fields in the
+ * target dump, or in the base dump for the freed chunks. Like in the {@link ChunkSummarizer chunk
+ * summary}, the chunks recorded once are summed per description and status, and the chunks
+ * recorded for several owners or components are kept one record each.
+ *
+ * <p>The diff is computed from all the chunks of both dumps, replacing the previous one.
+ *
+ * @author ActiveViam
+ */
+public class DumpDiffer {
+
+  /** The name of the dump compared to. */
+  protected final String baseDumpName;
+
+  /** The name of the compared dump. */
+  protected final String targetDumpName;
+
+  /** The number of records added at once to the diff store. */
+  protected final int batchSize;
+
+  /**
+   * Constructor.
+   *
+   * @param baseDumpName the name of the dump to compare to
+   * @param targetDumpName the name of the dump to compare
+   * @param batchSize the number of records added at once to the diff store
+   */
+  public DumpDiffer(final String baseDumpName, final String targetDumpName, final int batchSize) {
+    if (baseDumpName.equals(targetDumpName)) {
+      throw new IllegalArgumentException(
+          "The base and target dumps must be different. Got " + baseDumpName);
+    }
+    this.baseDumpName = baseDumpName;
+    this.targetDumpName = targetDumpName;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Replaces the diff between the chunks of the dumps.
+   *
+   * @param transaction the transaction to write the diff in
+   */
+  public void diffWithTransaction(final IOpenedTransaction transaction) {
+    transaction.removeWhere(
+        DatastoreConstants.CHUNK_DIFF_STORE,
+        BaseConditions.and(
+            dumpCondition(DatastoreConstants.CHUNK__DUMP_NAME, this.targetDumpName),
+            dumpCondition(DatastoreConstants.CHUNK_DIFF__BASE_DUMP_NAME, this.baseDumpName)));
+    final TLongObjectMap<ChunkState> baseChunks =
+        ChunkState.readLatest(transaction, this.baseDumpName);
+    final TLongObjectMap<ChunkState> targetChunks =
+        ChunkState.readLatest(transaction, this.targetDumpName);
+
+    final IRecordFormat format =
+        transaction
+            .getMetadata()
+            .getStoreMetadata(DatastoreConstants.CHUNK_DIFF_STORE)
+            .getStoreFormat()
+            .getRecordFormat();
+    final TupleBatcher batcher = new TupleBatcher(transaction, this.batchSize);
+    final DiffWriter writer = new DiffWriter(format, batcher);
+
+    // The sums of the chunks recorded once, per description and status
+    final Map<List<Object>, long[]> sums = new HashMap<>();
+    final TLongSet chunkIds = new TLongHashSet(baseChunks.keySet());
+    chunkIds.addAll(targetChunks.keySet());
+    chunkIds.forEach(
+        chunkId -> {
+          final ChunkState base = baseChunks.get(chunkId);
+          final ChunkState target = targetChunks.get(chunkId);
+          final ChunkState described = target != null ? target : base;
+          final DiffStatus status = status(base, target);
+          final long[] sizes = {
+            1L,
+            base == null ? 0L : base.offHeapSize,
+            base == null ? 0L : base.onHeapSize,
+            target == null ? 0L : target.offHeapSize,
+            target == null ? 0L : target.onHeapSize
+          };
+          for (final List<Object> owner : described.owners) {
+            final List<Object> key =
+                Arrays.asList(
+                    owner.get(0),
+                    owner.get(1),
+                    described.getFields(owner),
+                    described.chunkClass,
+                    described.indexedFields,
+                    status);
+            if (described.owners.size() > 1) {
+              writer.write(chunkId, key, sizes);
+            } else {
+              final long[] sum = sums.computeIfAbsent(key, k -> new long[sizes.length]);
+              for (int i = 0; i < sizes.length; ++i) {
+                sum[i] += sizes[i];
+              }
+            }
+          }
+          return true;
+        });
+
+    long summaryId = MemoryAnalysisDatastoreDescriptionConfig.FIRST_SUMMARY_ID;
+    for (final Map.Entry<List<Object>, long[]> entry : sums.entrySet()) {
+      writer.write(summaryId++, entry.getKey(), entry.getValue());
+    }
+    batcher.flush();
+  }
+
+  private static DiffStatus status(final ChunkState base, final ChunkState target) {
+    if (base == null) {
+      return DiffStatus.NEW;
+    } else if (target == null) {
+      return DiffStatus.FREED;
+    } else if (base.offHeapSize != target.offHeapSize || base.onHeapSize != target.onHeapSize) {
+      return DiffStatus.RESIZED;
+    }
+    return DiffStatus.UNCHANGED;
+  }
+
+  private static ICondition dumpCondition(final String field, final String dumpName) {
+    return BaseConditions.equal(FieldPath.of(field), dumpName);
+  }
+
+  /** Writer of the records of the diff store. */
+  private class DiffWriter {
+
+    /** The batcher adding the records to the diff store. */
+    private final TupleBatcher batcher;
+
+    /** The reused tuple, holding the names of the dumps. */
+    private final Object[] tuple;
+
+    /** The index of the chunk ID in the tuples. */
+    private final int idIndex;
+
+    /** The indexes of the described fields in the tuples, in the order of the keys. */
+    private final int[] keyIndexes;
+
+    /** The indexes of the chunk count and sizes in the tuples, in the order of the sizes. */
+    private final int[] sizeIndexes;
+
+    private DiffWriter(final IRecordFormat format, final TupleBatcher batcher) {
+      this.batcher = batcher;
+      this.tuple = new Object[format.getFieldCount()];
+      this.tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = targetDumpName;
+      this.tuple[format.getFieldIndex(DatastoreConstants.CHUNK_DIFF__BASE_DUMP_NAME)] =
+          baseDumpName;
+      this.idIndex = format.getFieldIndex(DatastoreConstants.CHUNK_ID);
+      this.keyIndexes =
+          indexes(
+              format,
+              DatastoreConstants.OWNER__OWNER,
+              DatastoreConstants.OWNER__COMPONENT,
+              DatastoreConstants.CHUNK_DIFF__FIELDS,
+              DatastoreConstants.CHUNK__CLASS,
+              DatastoreConstants.CHUNK_DIFF__INDEXED_FIELDS,
+              DatastoreConstants.CHUNK_DIFF__STATUS);
+      this.sizeIndexes =
+          indexes(
+              format,
+              DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT,
+              DatastoreConstants.CHUNK_DIFF__BASE_OFF_HEAP_SIZE,
+              DatastoreConstants.CHUNK_DIFF__BASE_ON_HEAP_SIZE,
+              DatastoreConstants.CHUNK__OFF_HEAP_SIZE,
+              DatastoreConstants.CHUNK__ON_HEAP_SIZE);
+    }
+
+    private void write(final long chunkId, final List<Object> key, final long[] sizes) {
+      this.tuple[this.idIndex] = chunkId;
+      for (int i = 0; i < this.keyIndexes.length; ++i) {
+        this.tuple[this.keyIndexes[i]] = key.get(i);
+      }
+      for (int i = 0; i < this.sizeIndexes.length; ++i) {
+        this.tuple[this.sizeIndexes[i]] = sizes[i];
+      }
+      this.batcher.add(DatastoreConstants.CHUNK_DIFF_STORE, this.tuple);
+    }
+
+    private int[] indexes(final IRecordFormat format, final String... fields) {
+      return Arrays.stream(fields).mapToInt(format::getFieldIndex).toArray();
+    }
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.Loggers;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.desc.IFieldDescription;
+import com.qfs.desc.IStoreDescription;
+import com.qfs.store.IDatastore;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordFormat;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Folder of snapshots of the loaded dumps.
+ *
+ * <p>Once a dump is loaded from its statistic files, the content of all the analysis stores for
+ * this dump can be {@link #save saved} into a columnar binary file. When the same dump is loaded
+ * again, e.g. after a restart, the snapshot is {@link #restore restored} in bulk instead of parsing
+ * and visiting the statistics again.
+ *
+ * <p>A snapshot is only used if it was written for the same statistic files, compared through
+ * their number and total size, and for the same store layout: the names of the stores, and the
+ * names, types and keys of their fields. A snapshot written before a change of the stores is
+ * ignored, the dump being loaded from its statistic files again.
+ *
+ * @author ActiveViam
+ */
+public class DumpSnapshotFolder {
+
+  private static final Logger LOGGER = Logger.getLogger(Loggers.DATASTORE_LOADING);
+
+  /** Extension of the snapshot files. */
+  public static final String SNAPSHOT_EXTENSION = ".macsnap";
+
+  /** The folder containing the snapshots. */
+  protected final Path folder;
+
+  /** The fields of each saved store, in the order of the snapshot columns. */
+  protected final Map<String, List<String>> storeFields;
+
+  /** The description of the layout of the saved stores, written in the header of the snapshots. */
+  protected final String layout;
+
+  /**
+   * Constructor.
+   *
+   * @param folder the folder containing the snapshots, created if needed
+   * @param stores the descriptions of the stores to save
+   */
+  public DumpSnapshotFolder(
+      final Path folder, final Collection<? extends IStoreDescription> stores) {
+    this.folder = folder;
+    this.storeFields = new LinkedHashMap<>();
+    for (final IStoreDescription store : stores) {
+      this.storeFields.put(
+          store.getName(),
+          store.getFields().stream()
+              .map(IFieldDescription::getName)
+              .collect(Collectors.toUnmodifiableList()));
+    }
+    this.layout = describeLayout(stores);
+  }
+
+  /**
+   * Describes the layout of stores, so that a snapshot is not restored in stores whose fields or
+   * keys changed since it was saved.
+   *
+   * @param stores the descriptions of the stores
+   * @return a description of the names, types and keys of the fields of each store
+   */
+  static String describeLayout(final Collection<? extends IStoreDescription> stores) {
+    return stores.stream()
+        .map(
+            store ->
+                store.getName()
+                    + store.getFields().stream()
+                        .map(field -> field.getName() + ":" + field.getDataType())
+                        .collect(Collectors.joining(",", "(", ")"))
+                    + store.getKeyFields())
+        .collect(Collectors.joining(";"));
+  }
+
+  /**
+   * Returns the file holding the snapshot of a dump.
+   *
+   * @param dumpName the name of the dump
+   * @return the path of the snapshot, that may not exist
+   */
+  public Path getSnapshotFile(final String dumpName) {
+    return this.folder.resolve(dumpName.replaceAll("[^\\w.-]", "_") + SNAPSHOT_EXTENSION);
+  }
+
+  /**
+   * Returns whether this folder holds a snapshot of the dump built from the given files.
+   *
+   * @param dumpName the name of the dump
+   * @param sources the statistic files of the dump
+   * @return {@code true} if the dump can be {@link #restore restored}
+   */
+  public boolean hasSnapshot(final String dumpName, final Collection<Path> sources) {
+    final Path file = getSnapshotFile(dumpName);
+    if (!Files.isRegularFile(file)) {
+      return false;
+    }
+    try {
+      final ByteBuffer buffer = map(file);
+      return buffer.getInt() == DumpSnapshotFormat.MAGIC
+          && buffer.getInt() == DumpSnapshotFormat.VERSION
+          && DumpSnapshotFormat.readString(buffer).equals(this.layout)
+          && DumpSnapshotFormat.readString(buffer).equals(dumpName)
+          && buffer.getInt() == sources.size()
+          && buffer.getLong() == totalSize(sources);
+    } catch (final IOException | RuntimeException e) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.log(Level.WARNING, "Ignoring unreadable snapshot " + file, e);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Saves the content of the stores for a dump.
+   *
+   * <p>The snapshot is first written to a temporary file, then moved, so that a partially written
+   * snapshot is never used.
+   *
+   * @param datastore the datastore containing the loaded dump
+   * @param dumpName the name of the dump
+   * @param sources the statistic files the dump was loaded from
+   * @throws IOException if the snapshot cannot be written
+   */
+  public void save(
+      final IDatastore datastore, final String dumpName, final Collection<Path> sources)
+      throws IOException {
+    final long start = System.nanoTime();
+    Files.createDirectories(this.folder);
+    final Path file = getSnapshotFile(dumpName);
+    final Path temporary = Files.createTempFile(this.folder, "snapshot", ".tmp");
+    try {
+      try (final DataOutputStream output =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        output.writeInt(DumpSnapshotFormat.MAGIC);
+        output.writeInt(DumpSnapshotFormat.VERSION);
+        DumpSnapshotFormat.writeString(output, this.layout);
+        DumpSnapshotFormat.writeString(output, dumpName);
+        output.writeInt(sources.size());
+        output.writeLong(totalSize(sources));
+        output.writeInt(this.storeFields.size());
+        for (final Map.Entry<String, List<String>> store : this.storeFields.entrySet()) {
+          writeStore(output, datastore, dumpName, store.getKey(), store.getValue());
+        }
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(
+          "Snapshot of dump "
+              + dumpName
+              + " saved to "
+              + file
+              + " in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+              + "ms");
+    }
+  }
+
+  private static void writeStore(
+      final DataOutputStream output,
+      final IDatastore datastore,
+      final String dumpName,
+      final String store,
+      final List<String> fields)
+      throws IOException {
+    final List<Object[]> rows = readRows(datastore, dumpName, store, fields);
+    DumpSnapshotFormat.writeString(output, store);
+    output.writeInt(rows.size());
+    output.writeInt(fields.size());
+    for (int i = 0; i < fields.size(); ++i) {
+      DumpSnapshotFormat.writeString(output, fields.get(i));
+      DumpSnapshotFormat.writeColumn(output, rows, i);
+    }
+  }
+
+  private static List<Object[]> readRows(
+      final IDatastore datastore,
+      final String dumpName,
+      final String store,
+      final List<String> fields) {
+    final ListQuery query =
+        datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(store)
+            .withCondition(
+                BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), dumpName))
+            .withAliasedFields(
+                fields.stream().map(AliasedField::fromFieldName).toArray(AliasedField[]::new))
+            .toQuery();
+
+    final List<Object[]> rows = new ArrayList<>();
+    try (final ICursor cursor =
+        datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      for (final IRecordReader reader : cursor) {
+        final Object[] row = new Object[fields.size()];
+        for (int i = 0; i < row.length; ++i) {
+          row[i] = reader.read(i);
+        }
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Restores the snapshot of a dump within an open transaction.
+   *
+   * <p>The snapshot file is memory-mapped and each store is added in bulk.
+   *
+   * @param transaction the transaction to add the records to
+   * @param dumpName the name of the dump
+   * @throws IOException if the snapshot cannot be read
+   * @throws IllegalStateException if the snapshot does not match the current stores
+   */
+  public void restore(final IOpenedTransaction transaction, final String dumpName)
+      throws IOException {
+    final long start = System.nanoTime();
+    final Path file = getSnapshotFile(dumpName);
+    final ByteBuffer buffer = map(file);
+    if (buffer.getInt() != DumpSnapshotFormat.MAGIC
+        || buffer.getInt() != DumpSnapshotFormat.VERSION) {
+      throw new IllegalStateException(file + " is not a snapshot of the current version");
+    }
+    if (!DumpSnapshotFormat.readString(buffer).equals(this.layout)) {
+      throw new IllegalStateException(file + " was saved for a different layout of the stores");
+    }
+    DumpSnapshotFormat.readString(buffer);
+    buffer.getInt();
+    buffer.getLong();
+
+    long recordCount = 0;
+    final int storeCount = buffer.getInt();
+    for (int s = 0; s < storeCount; ++s) {
+      recordCount += restoreStore(transaction, buffer);
+    }
+
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(
+          "Snapshot of dump "
+              + dumpName
+              + " restored from "
+              + file
+              + " in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+              + "ms ("
+              + recordCount
+              + " records)");
+    }
+  }
+
+  private int restoreStore(final IOpenedTransaction transaction, final ByteBuffer buffer) {
+    final String store = DumpSnapshotFormat.readString(buffer);
+    final List<String> expectedFields = this.storeFields.get(store);
+    if (expectedFields == null) {
+      throw new IllegalStateException("Unknown store " + store + " in snapshot");
+    }
+    final IRecordFormat format =
+        transaction.getMetadata().getStoreMetadata(store).getStoreFormat().getRecordFormat();
+
+    final Object[][] rows = new Object[buffer.getInt()][format.getFieldCount()];
+    final int fieldCount = buffer.getInt();
+    if (fieldCount != expectedFields.size()) {
+      throw new IllegalStateException("The fields of store " + store + " changed since snapshot");
+    }
+    for (int f = 0; f < fieldCount; ++f) {
+      final String field = DumpSnapshotFormat.readString(buffer);
+      if (!expectedFields.contains(field)) {
+        throw new IllegalStateException("Unknown field " + field + " of " + store + " in snapshot");
+      }
+      DumpSnapshotFormat.readColumn(buffer, rows, format.getFieldIndex(field));
+    }
+
+    if (rows.length > 0) {
+      transaction.addAll(store, Arrays.asList(rows));
+    }
+    return rows.length;
+  }
+
+  private static ByteBuffer map(final Path file) throws IOException {
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot " + file + " is too large to be mapped");
+      }
+      // The mapping remains valid after the channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  private static long totalSize(final Collection<Path> sources) throws IOException {
+    long size = 0;
+    for (final Path source : sources) {
+      size += Files.size(source);
+    }
+    return size;
+  }
+}
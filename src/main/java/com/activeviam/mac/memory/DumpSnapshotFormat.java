@@ -0,0 +1,305 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.mac.entities.CubeOwner;
+import com.activeviam.mac.entities.DistributedCubeOwner;
+import com.activeviam.mac.entities.NoOwner;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.StringArrayObject;
+import com.activeviam.mac.statistic.memory.visitor.impl.DistributedEpochView;
+import com.activeviam.mac.statistic.memory.visitor.impl.RegularEpochView;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary format of the dump snapshots written by {@link DumpSnapshotFolder}.
+ *
+ * <p>A snapshot starts with a header identifying the dump, the statistic files it was built from
+ * and the layout of the stores it was written for, followed by the content of each store, column
+ * by column. Columns holding only {@code long} or only {@code int} values are written as primitive
+ * arrays. Other columns are dictionary-encoded: their distinct values are written once, followed by
+ * the index of the value of each row.
+ *
+ * <p>Snapshots are written with a {@link DataOutputStream} and read back from a memory-mapped
+ * {@link ByteBuffer}, both using the big-endian byte order.
+ *
+ * @author ActiveViam
+ */
+final class DumpSnapshotFormat {
+
+  /** Magic number starting all snapshots, {@code MACS} in ASCII. */
+  static final int MAGIC = 0x4D414353;
+
+  /**
+   * Version of the format, to increase on any change of the layout of the files. Changes of the
+   * stores are detected through the store layout written in the header.
+   */
+  static final int VERSION = 2;
+
+  /** Column of {@code long} values. */
+  static final byte LONG_COLUMN = 1;
+  /** Column of {@code int} values. */
+  static final byte INT_COLUMN = 2;
+  /** Dictionary-encoded column of arbitrary values. */
+  static final byte DICTIONARY_COLUMN = 3;
+
+  private static final byte NULL = 0;
+  private static final byte STRING = 1;
+  private static final byte LONG = 2;
+  private static final byte INT = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte BOOLEAN = 5;
+  private static final byte INSTANT = 6;
+  private static final byte ENUM = 7;
+  private static final byte STORE_OWNER = 8;
+  private static final byte CUBE_OWNER = 9;
+  private static final byte DISTRIBUTED_CUBE_OWNER = 10;
+  private static final byte NO_OWNER = 11;
+  private static final byte REGULAR_EPOCH_VIEW = 12;
+  private static final byte DISTRIBUTED_EPOCH_VIEW = 13;
+  private static final byte STRING_ARRAY = 14;
+
+  private DumpSnapshotFormat() {}
+
+  /**
+   * Writes a column of values.
+   *
+   * @param output the output to write to
+   * @param rows the rows of the store
+   * @param column the index of the column to write in each row
+   */
+  static void writeColumn(
+      final DataOutputStream output, final List<Object[]> rows, final int column)
+      throws IOException {
+    final byte columnType = columnType(rows, column);
+    output.writeByte(columnType);
+    switch (columnType) {
+      case LONG_COLUMN:
+        for (final Object[] row : rows) {
+          output.writeLong((Long) row[column]);
+        }
+        break;
+      case INT_COLUMN:
+        for (final Object[] row : rows) {
+          output.writeInt((Integer) row[column]);
+        }
+        break;
+      default:
+        final Map<Object, Integer> dictionary = new LinkedHashMap<>();
+        for (final Object[] row : rows) {
+          dictionary.putIfAbsent(row[column], dictionary.size());
+        }
+        output.writeInt(dictionary.size());
+        for (final Object value : dictionary.keySet()) {
+          writeValue(output, value);
+        }
+        for (final Object[] row : rows) {
+          output.writeInt(dictionary.get(row[column]));
+        }
+    }
+  }
+
+  private static byte columnType(final List<Object[]> rows, final int column) {
+    boolean allLongs = true;
+    boolean allInts = true;
+    for (final Object[] row : rows) {
+      final Object value = row[column];
+      allLongs &= value instanceof Long;
+      allInts &= value instanceof Integer;
+      if (!allLongs && !allInts) {
+        return DICTIONARY_COLUMN;
+      }
+    }
+    return allLongs ? LONG_COLUMN : INT_COLUMN;
+  }
+
+  /**
+   * Reads a column of values, storing them in the given rows.
+   *
+   * @param input the buffer to read from
+   * @param rows the rows to fill
+   * @param column the index of the column to fill in each row
+   */
+  static void readColumn(final ByteBuffer input, final Object[][] rows, final int column) {
+    final byte columnType = input.get();
+    switch (columnType) {
+      case LONG_COLUMN:
+        final long[] longs = new long[rows.length];
+        input.asLongBuffer().get(longs);
+        input.position(input.position() + Long.BYTES * rows.length);
+        for (int i = 0; i < rows.length; ++i) {
+          rows[i][column] = longs[i];
+        }
+        break;
+      case INT_COLUMN:
+        final int[] ints = new int[rows.length];
+        input.asIntBuffer().get(ints);
+        input.position(input.position() + Integer.BYTES * rows.length);
+        for (int i = 0; i < rows.length; ++i) {
+          rows[i][column] = ints[i];
+        }
+        break;
+      case DICTIONARY_COLUMN:
+        final Object[] dictionary = new Object[input.getInt()];
+        for (int i = 0; i < dictionary.length; ++i) {
+          dictionary[i] = readValue(input);
+        }
+        final int[] codes = new int[rows.length];
+        input.asIntBuffer().get(codes);
+        input.position(input.position() + Integer.BYTES * rows.length);
+        for (int i = 0; i < rows.length; ++i) {
+          rows[i][column] = dictionary[codes[i]];
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unknown snapshot column type " + columnType);
+    }
+  }
+
+  /**
+   * Writes a string, without the 64KB limit of {@link DataOutputStream#writeUTF(String)}.
+   *
+   * @param output the output to write to
+   * @param value the string to write
+   */
+  static void writeString(final DataOutputStream output, final String value) throws IOException {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  /**
+   * Reads a string written by {@link #writeString(DataOutputStream, String)}.
+   *
+   * @param input the buffer to read from
+   * @return the read string
+   */
+  static String readString(final ByteBuffer input) {
+    final byte[] bytes = new byte[input.getInt()];
+    input.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeValue(final DataOutputStream output, final Object value)
+      throws IOException {
+    if (value == null) {
+      output.writeByte(NULL);
+    } else if (value instanceof String) {
+      output.writeByte(STRING);
+      writeString(output, (String) value);
+    } else if (value instanceof Long) {
+      output.writeByte(LONG);
+      output.writeLong((Long) value);
+    } else if (value instanceof Integer) {
+      output.writeByte(INT);
+      output.writeInt((Integer) value);
+    } else if (value instanceof Double) {
+      output.writeByte(DOUBLE);
+      output.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      output.writeByte(BOOLEAN);
+      output.writeBoolean((Boolean) value);
+    } else if (value instanceof Instant) {
+      output.writeByte(INSTANT);
+      output.writeLong(((Instant) value).getEpochSecond());
+      output.writeInt(((Instant) value).getNano());
+    } else if (value instanceof Enum) {
+      output.writeByte(ENUM);
+      writeString(output, ((Enum<?>) value).getDeclaringClass().getName());
+      writeString(output, ((Enum<?>) value).name());
+    } else if (value instanceof StoreOwner) {
+      output.writeByte(STORE_OWNER);
+      writeString(output, ((StoreOwner) value).getName());
+    } else if (value instanceof CubeOwner) {
+      output.writeByte(CUBE_OWNER);
+      writeString(output, ((CubeOwner) value).getId());
+    } else if (value instanceof DistributedCubeOwner) {
+      output.writeByte(DISTRIBUTED_CUBE_OWNER);
+      writeString(output, ((DistributedCubeOwner) value).getId());
+    } else if (value instanceof NoOwner) {
+      output.writeByte(NO_OWNER);
+    } else if (value instanceof RegularEpochView) {
+      output.writeByte(REGULAR_EPOCH_VIEW);
+      output.writeLong(((RegularEpochView) value).getEpochId());
+    } else if (value instanceof DistributedEpochView) {
+      output.writeByte(DISTRIBUTED_EPOCH_VIEW);
+      writeString(output, ((DistributedEpochView) value).getDistributedCubeId());
+      output.writeLong(((DistributedEpochView) value).getEpochId());
+    } else if (value instanceof StringArrayObject) {
+      final String[] strings = ((StringArrayObject) value).fieldNames;
+      output.writeByte(STRING_ARRAY);
+      output.writeInt(strings.length);
+      for (final String string : strings) {
+        writeString(output, string);
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Values of " + value.getClass() + " cannot be written in a snapshot: " + value);
+    }
+  }
+
+  private static Object readValue(final ByteBuffer input) {
+    final byte type = input.get();
+    switch (type) {
+      case NULL:
+        return null;
+      case STRING:
+        return readString(input);
+      case LONG:
+        return input.getLong();
+      case INT:
+        return input.getInt();
+      case DOUBLE:
+        return input.getDouble();
+      case BOOLEAN:
+        return input.get() != 0;
+      case INSTANT:
+        final long seconds = input.getLong();
+        return Instant.ofEpochSecond(seconds, input.getInt());
+      case ENUM:
+        return readEnum(readString(input), readString(input));
+      case STORE_OWNER:
+        return new StoreOwner(readString(input));
+      case CUBE_OWNER:
+        return new CubeOwner(readString(input));
+      case DISTRIBUTED_CUBE_OWNER:
+        return new DistributedCubeOwner(readString(input));
+      case NO_OWNER:
+        return NoOwner.getInstance();
+      case REGULAR_EPOCH_VIEW:
+        return new RegularEpochView(input.getLong());
+      case DISTRIBUTED_EPOCH_VIEW:
+        final String cubeId = readString(input);
+        return new DistributedEpochView(cubeId, input.getLong());
+      case STRING_ARRAY:
+        final String[] strings = new String[input.getInt()];
+        for (int i = 0; i < strings.length; ++i) {
+          strings[i] = readString(input);
+        }
+        return new StringArrayObject(strings);
+      default:
+        throw new IllegalStateException("Unknown snapshot value type " + type);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object readEnum(final String className, final String name) {
+    try {
+      return Enum.valueOf((Class) Class.forName(className), name);
+    } catch (final ClassNotFoundException e) {
+      throw new IllegalStateException("Unknown enum class in snapshot: " + className, e);
+    }
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.mac.Loggers;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lombok.Value;
+
+/**
+ * Registry of the statistic files ingested in the analysis datastore, identified by the size and
+ * the hash of their content.
+ *
+ * <p>It allows skipping the dumps whose files are all already loaded, whatever their path and the
+ * name of the dump they are loaded into. As hashing large files is costly, the fingerprint of each
+ * file is cached with its size and modification time, and this cache can be persisted across
+ * restarts. The cached fingerprints of the files of a dump are pruned once it is unloaded.
+ *
+ * @author ActiveViam
+ */
+public class IngestedFileRegistry {
+
+  private static final Logger LOGGER = Logger.getLogger(Loggers.LOADING);
+
+  /** The algorithm hashing the content of the files. */
+  protected static final String HASH_ALGORITHM = "SHA-256";
+
+  /** The size of the buffer used to hash files. */
+  protected static final int BUFFER_SIZE = 1 << 16;
+
+  /** The separator of the fields of a line of the persisted cache. */
+  protected static final String SEPARATOR = "\t";
+
+  /** The file where the fingerprints are persisted, if any. */
+  protected final Path file;
+
+  /** The fingerprints of the known files, with the modification time they were computed at. */
+  protected final Map<Path, CachedFingerprint> fingerprints = new HashMap<>();
+
+  /** The names of the dumps each ingested file was loaded into. */
+  protected final Map<Fingerprint, Set<String>> ingestedFiles = new HashMap<>();
+
+  /** The fingerprints of the files ingested in each dump, per path. */
+  protected final Map<String, Map<Path, Fingerprint>> dumpFiles = new HashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param file the file to persist the fingerprints into, {@code null} to keep them in memory
+   */
+  public IngestedFileRegistry(final Path file) {
+    this.file = file;
+    if (file != null && Files.exists(file)) {
+      loadFingerprints(file);
+    }
+  }
+
+  /**
+   * Computes the fingerprint of a statistic file, reusing the cached one if the file did not change
+   * since it was computed.
+   *
+   * @param path the path to the file
+   * @return the fingerprint of the file
+   * @throws IOException if the file cannot be read
+   */
+  public synchronized Fingerprint fingerprint(final Path path) throws IOException {
+    final Path key = path.toAbsolutePath().normalize();
+    final long size = Files.size(key);
+    final long lastModified = Files.getLastModifiedTime(key).toMillis();
+    final CachedFingerprint cached = this.fingerprints.get(key);
+    if (cached != null
+        && cached.getLastModified() == lastModified
+        && cached.getFingerprint().getSize() == size) {
+      return cached.getFingerprint();
+    }
+
+    final Fingerprint fingerprint = new Fingerprint(size, hash(key));
+    this.fingerprints.put(key, new CachedFingerprint(fingerprint, lastModified));
+    return fingerprint;
+  }
+
+  /**
+   * Returns the name of a dump a file was ingested in.
+   *
+   * @param fingerprint the fingerprint of the file
+   * @return the name of the dump, empty if the file was not ingested
+   */
+  public synchronized Optional<String> getIngestingDump(final Fingerprint fingerprint) {
+    return this.ingestedFiles.getOrDefault(fingerprint, Set.of()).stream().findFirst();
+  }
+
+  /**
+   * Registers the files of a dump about to be loaded, unless their content is already loaded.
+   *
+   * <p>The files already ingested in the same dump are left out. The other files are registered
+   * and must all be loaded, unless all of them were already ingested in other dumps: the dump is
+   * then a copy of loaded dumps and nothing is registered. A dump sharing only some of its files
+   * with other dumps is loaded whole, so that it does not miss any file.
+   *
+   * <p>The files are checked and registered at once, so that concurrent loadings never ingest the
+   * same files. They must be {@link #release released} if their loading fails.
+   *
+   * @param dumpName the name of the dump
+   * @param files the fingerprints of the files of the dump, per path
+   * @return the registered files to load, in the order of the given files, empty if there is
+   *     nothing to load
+   */
+  public synchronized List<Path> claim(
+      final String dumpName, final Map<Path, Fingerprint> files) {
+    final Map<Path, Fingerprint> ingested = this.dumpFiles.getOrDefault(dumpName, Map.of());
+    final Map<Path, Fingerprint> claimed = new LinkedHashMap<>();
+    final Set<String> otherDumps = new TreeSet<>();
+    files.forEach(
+        (path, fingerprint) -> {
+          final Set<String> dumps = this.ingestedFiles.getOrDefault(fingerprint, Set.of());
+          if (!dumps.contains(dumpName)) {
+            claimed.put(path, fingerprint);
+            otherDumps.addAll(dumps);
+          }
+        });
+    final long copies =
+        claimed.values().stream().filter(this.ingestedFiles::containsKey).count();
+    if (claimed.isEmpty() || (ingested.isEmpty() && copies == claimed.size())) {
+      if (!claimed.isEmpty() && LOGGER.isLoggable(Level.INFO)) {
+        LOGGER.info(
+            "Skipping dump " + dumpName + ", its files were already loaded in " + otherDumps);
+      }
+      return List.of();
+    }
+    if (copies > 0 && LOGGER.isLoggable(Level.WARNING)) {
+      LOGGER.warning(
+          copies
+              + " file(s) of dump "
+              + dumpName
+              + " were already loaded in "
+              + otherDumps
+              + ", loading all its files");
+    }
+
+    final Map<Path, Fingerprint> registered =
+        this.dumpFiles.computeIfAbsent(dumpName, k -> new HashMap<>());
+    claimed.forEach(
+        (path, fingerprint) -> {
+          registered.put(path, fingerprint);
+          this.ingestedFiles.computeIfAbsent(fingerprint, k -> new HashSet<>()).add(dumpName);
+        });
+    saveFingerprints();
+    return List.copyOf(claimed.keySet());
+  }
+
+  /**
+   * Releases files claimed for a dump, typically when their loading failed.
+   *
+   * @param dumpName the name of the dump
+   * @param paths the paths of the claimed files
+   */
+  public synchronized void release(final String dumpName, final Collection<Path> paths) {
+    final Map<Path, Fingerprint> registered = this.dumpFiles.get(dumpName);
+    if (registered == null) {
+      return;
+    }
+    for (final Path path : paths) {
+      final Fingerprint fingerprint = registered.remove(path);
+      if (fingerprint != null && !registered.containsValue(fingerprint)) {
+        final Set<String> dumps = this.ingestedFiles.get(fingerprint);
+        dumps.remove(dumpName);
+        if (dumps.isEmpty()) {
+          this.ingestedFiles.remove(fingerprint);
+        }
+      }
+    }
+    if (registered.isEmpty()) {
+      this.dumpFiles.remove(dumpName);
+    }
+  }
+
+  /**
+   * Forgets the files ingested in a dump once it is unloaded, pruning their cached fingerprints.
+   *
+   * @param dumpName the name of the dump
+   */
+  public synchronized void unregister(final String dumpName) {
+    final Map<Path, Fingerprint> registered = this.dumpFiles.get(dumpName);
+    if (registered == null) {
+      return;
+    }
+    final Set<Path> paths = Set.copyOf(registered.keySet());
+    release(dumpName, paths);
+    for (final Path path : paths) {
+      if (this.dumpFiles.values().stream().noneMatch(files -> files.containsKey(path))) {
+        this.fingerprints.remove(path.toAbsolutePath().normalize());
+      }
+    }
+    saveFingerprints();
+  }
+
+  /**
+   * Hashes the content of a file.
+   *
+   * @param path the path to the file
+   * @return the hexadecimal representation of the hash
+   * @throws IOException if the file cannot be read
+   */
+  protected static String hash(final Path path) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(HASH_ALGORITHM + " is not supported", e);
+    }
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    try (final InputStream input = Files.newInputStream(path)) {
+      int read;
+      while ((read = input.read(buffer)) > 0) {
+        digest.update(buffer, 0, read);
+      }
+    }
+
+    final StringBuilder builder = new StringBuilder();
+    for (final byte b : digest.digest()) {
+      builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+      builder.append(Character.forDigit(b & 0xF, 16));
+    }
+    return builder.toString();
+  }
+
+  private void loadFingerprints(final Path file) {
+    try {
+      for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+        // size, modification time, hash, path, the path being last as it may contain separators
+        final String[] fields = line.split(SEPARATOR, 4);
+        if (fields.length == 4) {
+          this.fingerprints.put(
+              Paths.get(fields[3]),
+              new CachedFingerprint(
+                  new Fingerprint(Long.parseLong(fields[0]), fields[2]),
+                  Long.parseLong(fields[1])));
+        }
+      }
+    } catch (final IOException | RuntimeException e) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.log(Level.WARNING, "Cannot read the file fingerprints from " + file, e);
+      }
+      this.fingerprints.clear();
+    }
+  }
+
+  private void saveFingerprints() {
+    if (this.file == null) {
+      return;
+    }
+    final List<String> lines = new ArrayList<>(this.fingerprints.size());
+    this.fingerprints.forEach(
+        (path, cached) ->
+            lines.add(
+                cached.getFingerprint().getSize()
+                    + SEPARATOR
+                    + cached.getLastModified()
+                    + SEPARATOR
+                    + cached.getFingerprint().getHash()
+                    + SEPARATOR
+                    + path));
+    try {
+      final Path parent = this.file.toAbsolutePath().getParent();
+      Files.createDirectories(parent);
+      final Path temporary = Files.createTempFile(parent, "fingerprints", ".tmp");
+      try (final BufferedWriter writer =
+          Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+        for (final String line : lines) {
+          writer.write(line);
+          writer.newLine();
+        }
+      }
+      Files.move(temporary, this.file, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final IOException e) {
+      if (LOGGER.isLoggable(Level.WARNING)) {
+        LOGGER.log(Level.WARNING, "Cannot save the file fingerprints to " + this.file, e);
+      }
+    }
+  }
+
+  /** Identity of the content of a statistic file. */
+  @Value
+  public static class Fingerprint {
+
+    /** The size of the file, in bytes. */
+    long size;
+
+    /** The hexadecimal representation of the hash of the content of the file. */
+    String hash;
+  }
+
+  /** Fingerprint of a file, with the modification time of the file it was computed on. */
+  @Value
+  protected static class CachedFingerprint {
+
+    /** The fingerprint of the file. */
+    Fingerprint fingerprint;
+
+    /** The modification time of the file, in milliseconds since the epoch. */
+    long lastModified;
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Asynchronous loading of statistic files, submitted to a {@link LoadJobManager}.
+ *
+ * <p>The progress of the job is updated by the loading as each file is decoded.
+ *
+ * <p>The loading calls {@link #beforeCommit()} before committing its transactions. A job can no
+ * longer be cancelled once it commits, until it reports its next file: a cancellation racing with
+ * the last commit of a job is refused rather than reported over a loaded dump. Each transition to
+ * a final status is a single atomic update, so that a job ends with exactly one of them.
+ *
+ * @author ActiveViam
+ */
+public class LoadJob {
+
+  /** Status of a job. */
+  public enum Status {
+    /** The job waits for a free slot. */
+    QUEUED,
+    /** The job is loading its files. */
+    RUNNING,
+    /** The job is committing, or has just committed, loaded files and cannot be cancelled. */
+    COMMITTING,
+    /** The job loaded all its files. */
+    DONE,
+    /** The job stopped on an error. */
+    FAILED,
+    /** The job was cancelled before its end. */
+    CANCELLED;
+
+    /**
+     * Returns whether a job with this status is over.
+     *
+     * @return {@code true} if the status is final
+     */
+    public boolean isOver() {
+      return this == DONE || this == FAILED || this == CANCELLED;
+    }
+  }
+
+  /** The identifier of the job. */
+  protected final long id;
+
+  /** The path the job loads, as submitted. */
+  protected final String path;
+
+  /** The number of files of the job. */
+  protected final int totalFiles;
+
+  /** The total size of the files of the job, in bytes. */
+  protected final long totalBytes;
+
+  /** The time the job was submitted. */
+  protected final Instant submissionTime;
+
+  /** The status of the job. */
+  protected final AtomicReference<Status> status = new AtomicReference<>(Status.QUEUED);
+
+  /** The number of files already loaded. */
+  protected final AtomicInteger doneFiles = new AtomicInteger();
+
+  /** The size of the files already loaded, in bytes. */
+  protected final AtomicLong doneBytes = new AtomicLong();
+
+  /** The outcome of the job, once over. */
+  protected volatile String message;
+
+  /** The execution of the job, once submitted. */
+  protected volatile Future<?> execution;
+
+  /**
+   * Constructor.
+   *
+   * @param id the identifier of the job
+   * @param path the path the job loads
+   * @param files the files of the job
+   */
+  public LoadJob(final long id, final String path, final List<Path> files) {
+    this.id = id;
+    this.path = path;
+    this.totalFiles = files.size();
+    this.totalBytes = files.stream().mapToLong(LoadJob::size).sum();
+    this.submissionTime = Instant.now();
+  }
+
+  private static long size(final Path file) {
+    try {
+      return Files.size(file);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Records that a file of the job was loaded.
+   *
+   * <p>This stops the loading of a cancelled job whose execution was not interrupted yet, and makes
+   * a job that committed cancellable again.
+   *
+   * @param file the loaded file
+   * @throws CancellationException if the job was cancelled
+   */
+  public void fileDone(final Path file) {
+    this.status.compareAndSet(Status.COMMITTING, Status.RUNNING);
+    if (isCancelled()) {
+      throw new CancellationException("Load job " + this.id + " was cancelled");
+    }
+    this.doneFiles.incrementAndGet();
+    this.doneBytes.addAndGet(size(file));
+  }
+
+  /**
+   * Marks the job as committing, so that it can no longer be cancelled.
+   *
+   * <p>This must be called by the loading within its transactions, once they are filled, so that
+   * the transaction of a cancelled job is rolled back.
+   *
+   * @throws CancellationException if the job was cancelled
+   */
+  public void beforeCommit() {
+    final Status previous =
+        this.status.getAndUpdate(
+            current -> current == Status.RUNNING ? Status.COMMITTING : current);
+    if (previous == Status.CANCELLED) {
+      throw new CancellationException("Load job " + this.id + " was cancelled");
+    }
+  }
+
+  /**
+   * Cancels the job, interrupting its loading if it already started.
+   *
+   * @return {@code true} if the job was cancelled, {@code false} if it was already over or is
+   *     committing its loaded files
+   */
+  public boolean cancel() {
+    final Status previous =
+        this.status.getAndUpdate(
+            current ->
+                current == Status.QUEUED || current == Status.RUNNING ? Status.CANCELLED : current);
+    if (previous == Status.QUEUED || previous == Status.RUNNING) {
+      final Future<?> future = this.execution;
+      if (future != null) {
+        future.cancel(true);
+      }
+      this.message = "Cancelled";
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether the job was cancelled.
+   *
+   * @return {@code true} if the job was cancelled
+   */
+  public boolean isCancelled() {
+    return this.status.get() == Status.CANCELLED;
+  }
+
+  /**
+   * Marks the job as started.
+   *
+   * @return {@code false} if the job was cancelled before starting
+   */
+  boolean start() {
+    return this.status.compareAndSet(Status.QUEUED, Status.RUNNING);
+  }
+
+  /**
+   * Marks the job as over.
+   *
+   * @param status the final status of the job
+   * @param message the outcome of the job
+   */
+  void complete(final Status status, final String message) {
+    final Status previous =
+        this.status.getAndUpdate(
+            current ->
+                current == Status.RUNNING || current == Status.COMMITTING ? status : current);
+    if (previous == Status.RUNNING || previous == Status.COMMITTING) {
+      this.message = message;
+    }
+  }
+
+  /**
+   * Returns the identifier of the job.
+   *
+   * @return the identifier
+   */
+  public long getId() {
+    return this.id;
+  }
+
+  /**
+   * Returns the path the job loads.
+   *
+   * @return the path
+   */
+  public String getPath() {
+    return this.path;
+  }
+
+  /**
+   * Returns the status of the job.
+   *
+   * @return the status
+   */
+  public Status getStatus() {
+    return this.status.get();
+  }
+
+  /**
+   * Returns the number of files of the job.
+   *
+   * @return the number of files
+   */
+  public int getTotalFiles() {
+    return this.totalFiles;
+  }
+
+  /**
+   * Returns the number of files already loaded.
+   *
+   * @return the number of loaded files
+   */
+  public int getDoneFiles() {
+    return this.doneFiles.get();
+  }
+
+  /**
+   * Returns the total size of the files of the job.
+   *
+   * @return the size in bytes
+   */
+  public long getTotalBytes() {
+    return this.totalBytes;
+  }
+
+  /**
+   * Returns the size of the files already loaded.
+   *
+   * @return the size in bytes
+   */
+  public long getDoneBytes() {
+    return this.doneBytes.get();
+  }
+
+  /**
+   * Returns the time the job was submitted.
+   *
+   * @return the submission time
+   */
+  public Instant getSubmissionTime() {
+    return this.submissionTime;
+  }
+
+  /**
+   * Returns the outcome of the job.
+   *
+   * @return the outcome, {@code null} while the job is not over
+   */
+  public String getMessage() {
+    return this.message;
+  }
+
+  @Override
+  public String toString() {
+    return "Job "
+        + this.id
+        + " ("
+        + this.path
+        + "): "
+        + getStatus()
+        + ", "
+        + getDoneFiles()
+        + "/"
+        + this.totalFiles
+        + " files, "
+        + getDoneBytes()
+        + "/"
+        + this.totalBytes
+        + " bytes"
+        + (this.message == null ? "" : ", " + this.message);
+  }
+}
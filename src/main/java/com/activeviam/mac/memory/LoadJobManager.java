@@ -0,0 +1,174 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.mac.Loggers;
+import com.activeviam.mac.memory.LoadJob.Status;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs {@link LoadJob load jobs} asynchronously, with a bounded number of concurrent jobs.
+ *
+ * <p>Jobs beyond the concurrency limit wait in a bounded queue, in submission order, so that
+ * loading many dumps in a row does not make them compete for the CPU. The manager keeps the last
+ * finished jobs to report their outcome.
+ *
+ * @author ActiveViam
+ */
+public class LoadJobManager implements AutoCloseable {
+
+  private static final Logger LOGGER = Logger.getLogger(Loggers.LOADING);
+
+  /** The maximum number of finished jobs kept to report their outcome. */
+  protected static final int MAX_FINISHED_JOBS = 100;
+
+  /** The executor running the jobs. */
+  protected final ThreadPoolExecutor executor;
+
+  /** The generator of job identifiers. */
+  protected final AtomicLong idGenerator = new AtomicLong();
+
+  /** The known jobs, in submission order. */
+  protected final Map<Long, LoadJob> jobs = new LinkedHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param concurrency the maximum number of jobs running at the same time
+   * @param queueCapacity the maximum number of jobs waiting for a free slot
+   */
+  public LoadJobManager(final int concurrency, final int queueCapacity) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("The concurrency must be positive. Got " + concurrency);
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException(
+          "The queue capacity must be positive. Got " + queueCapacity);
+    }
+    final AtomicInteger counter = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              final Thread thread =
+                  new Thread(runnable, "mac-load-job-" + counter.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Submits a job loading files.
+   *
+   * @param path the path loaded by the job, as given by the user
+   * @param files the files of the job
+   * @param load the loading of the files, returning a message to the user
+   * @return the submitted job
+   * @throws IllegalStateException if too many jobs are already waiting
+   */
+  public synchronized LoadJob submit(
+      final String path, final List<Path> files, final Function<LoadJob, String> load) {
+    final LoadJob job = new LoadJob(this.idGenerator.incrementAndGet(), path, files);
+    try {
+      job.execution = this.executor.submit(() -> run(job, load));
+    } catch (final RejectedExecutionException e) {
+      throw new IllegalStateException(
+          "Too many load jobs are waiting, cannot load " + path + " for now", e);
+    }
+    this.jobs.put(job.getId(), job);
+    evictFinishedJobs();
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Submitted " + job);
+    }
+    return job;
+  }
+
+  private void run(final LoadJob job, final Function<LoadJob, String> load) {
+    if (!job.start()) {
+      return;
+    }
+    try {
+      job.complete(Status.DONE, load.apply(job));
+    } catch (final RuntimeException e) {
+      if (LOGGER.isLoggable(Level.WARNING) && !job.isCancelled()) {
+        LOGGER.log(Level.WARNING, "Load job " + job.getId() + " failed", e);
+      }
+      job.complete(Status.FAILED, String.valueOf(e.getMessage()));
+    } finally {
+      // Clear the interruption of a cancellation before running the next job
+      Thread.interrupted();
+    }
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info("Finished " + job);
+    }
+  }
+
+  private void evictFinishedJobs() {
+    long finished = this.jobs.values().stream().filter(job -> job.getStatus().isOver()).count();
+    final Iterator<LoadJob> iterator = this.jobs.values().iterator();
+    while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+      if (iterator.next().getStatus().isOver()) {
+        iterator.remove();
+        --finished;
+      }
+    }
+  }
+
+  /**
+   * Returns a job.
+   *
+   * @param id the identifier of the job
+   * @return the job, empty if it is unknown
+   */
+  public synchronized Optional<LoadJob> getJob(final long id) {
+    return Optional.ofNullable(this.jobs.get(id));
+  }
+
+  /**
+   * Lists the known jobs, in submission order.
+   *
+   * @return the jobs
+   */
+  public synchronized List<LoadJob> getJobs() {
+    return new ArrayList<>(this.jobs.values());
+  }
+
+  /**
+   * Cancels a job.
+   *
+   * @param id the identifier of the job
+   * @return {@code true} if the job was cancelled, {@code false} if it is unknown or already over
+   */
+  public boolean cancel(final long id) {
+    return getJob(id).map(LoadJob::cancel).orElse(false);
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+}
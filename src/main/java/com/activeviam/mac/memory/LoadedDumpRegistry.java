@@ -0,0 +1,129 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Value;
+
+/**
+ * Registry of the dumps loaded in the analysis datastore, ordered from the least to the most
+ * recently used.
+ *
+ * <p>The registry keeps the number of records of each dump, used as an estimate of the memory it
+ * takes, and selects the dumps to evict when the total exceeds a budget.
+ *
+ * @author ActiveViam
+ */
+public class LoadedDumpRegistry {
+
+  /** The loaded dumps, in access order. */
+  protected final LinkedHashMap<String, LoadedDump> dumps = new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Registers a loaded dump, making it the most recently used one.
+   *
+   * @param dumpName the name of the dump
+   * @param recordCount the number of records of the dump in the analysis datastore
+   */
+  public synchronized void register(final String dumpName, final long recordCount) {
+    this.dumps.put(dumpName, new LoadedDump(dumpName, recordCount, Instant.now()));
+  }
+
+  /**
+   * Marks a dump as used.
+   *
+   * @param dumpName the name of the dump
+   */
+  public synchronized void touch(final String dumpName) {
+    final LoadedDump dump = this.dumps.get(dumpName);
+    if (dump != null) {
+      this.dumps.put(dumpName, new LoadedDump(dumpName, dump.getRecordCount(), Instant.now()));
+    }
+  }
+
+  /**
+   * Removes a dump from the registry.
+   *
+   * @param dumpName the name of the dump
+   * @return {@code true} if the dump was registered
+   */
+  public synchronized boolean unregister(final String dumpName) {
+    return this.dumps.remove(dumpName) != null;
+  }
+
+  /**
+   * Returns whether a dump is registered.
+   *
+   * @param dumpName the name of the dump
+   * @return {@code true} if the dump is loaded
+   */
+  public synchronized boolean contains(final String dumpName) {
+    return this.dumps.containsKey(dumpName);
+  }
+
+  /**
+   * Lists the registered dumps, from the least to the most recently used.
+   *
+   * @return the loaded dumps
+   */
+  public synchronized List<LoadedDump> getDumps() {
+    return new ArrayList<>(this.dumps.values());
+  }
+
+  /**
+   * Returns the total number of records of the registered dumps.
+   *
+   * @return the number of records
+   */
+  public synchronized long getRecordCount() {
+    return this.dumps.values().stream().mapToLong(LoadedDump::getRecordCount).sum();
+  }
+
+  /**
+   * Selects the least recently used dumps to evict to fit in the given budget.
+   *
+   * <p>The selected dumps are not unregistered by this method.
+   *
+   * @param maxRecordCount the maximum number of records to keep
+   * @param keptDumpName the name of a dump never to select, typically the one just loaded
+   * @return the names of the dumps to evict, from the least recently used
+   */
+  public synchronized List<String> selectEvictions(
+      final long maxRecordCount, final String keptDumpName) {
+    final List<String> evicted = new ArrayList<>();
+    long recordCount = getRecordCount();
+    final Iterator<Map.Entry<String, LoadedDump>> iterator = this.dumps.entrySet().iterator();
+    while (recordCount > maxRecordCount && iterator.hasNext()) {
+      final Map.Entry<String, LoadedDump> entry = iterator.next();
+      if (!entry.getKey().equals(keptDumpName)) {
+        evicted.add(entry.getKey());
+        recordCount -= entry.getValue().getRecordCount();
+      }
+    }
+    return evicted;
+  }
+
+  /** Description of a loaded dump. */
+  @Value
+  public static class LoadedDump {
+
+    /** The name of the dump. */
+    String dumpName;
+
+    /** The number of records of the dump in the analysis datastore. */
+    long recordCount;
+
+    /** The last time the dump was loaded or used. */
+    Instant lastAccess;
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the loading of a dump, published to a Micrometer {@link MeterRegistry}.
+ *
+ * <p>The meters are tagged with the name of the dump, and the ones measuring files are recorded
+ * once per file. By default, they are published to the {@link Metrics#globalRegistry global
+ * registry}, to which Spring Boot adds the registries exposed by the actuator. The meters of a dump
+ * must be {@link #removeDumpMeters removed} once it is unloaded, so that the registry does not keep
+ * the meters of all the dumps ever loaded.
+ *
+ * <p>The time spent in each visitor is measured by {@link #visitorTimer(Class)}, shared by all the
+ * dumps. As visitors start other visitors, these times are inclusive.
+ *
+ * @author ActiveViam
+ */
+public class LoadingMetrics {
+
+  /** Prefix of the names of all the loading meters. */
+  public static final String PREFIX = "mac.loading.";
+
+  /** Tag holding the name of the dump. */
+  public static final String DUMP_TAG = "dump";
+
+  /** Tag holding the name of the store records are added to. */
+  public static final String STORE_TAG = "store";
+
+  /** Tag holding the type of the visitor. */
+  public static final String VISITOR_TAG = "visitor";
+
+  /** The registry the meters are published to. */
+  protected final MeterRegistry registry;
+
+  /** The name of the loaded dump. */
+  protected final String dumpName;
+
+  /** Size of the statistic files, as stored on disk. */
+  protected final DistributionSummary fileBytes;
+
+  /** Size of the statistic files once decompressed. */
+  protected final DistributionSummary decompressedBytes;
+
+  /** Time spent reading and decompressing each file. */
+  protected final Timer readTime;
+
+  /** Time spent decoding the JSON of each file. */
+  protected final Timer decodeTime;
+
+  /** Time spent visiting each decoded statistic. */
+  protected final Timer visitTime;
+
+  /** Time spent computing the epoch views of the dump. */
+  protected final Timer epochViewTime;
+
+  /** Time spent committing the transactions of the dump. */
+  protected final Timer commitTime;
+
+  /**
+   * Constructor publishing the metrics to the global registry.
+   *
+   * @param dumpName the name of the loaded dump
+   */
+  public LoadingMetrics(final String dumpName) {
+    this(Metrics.globalRegistry, dumpName);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param registry the registry to publish the metrics to
+   * @param dumpName the name of the loaded dump
+   */
+  public LoadingMetrics(final MeterRegistry registry, final String dumpName) {
+    this.registry = registry;
+    this.dumpName = dumpName;
+    this.fileBytes =
+        DistributionSummary.builder(PREFIX + "file.bytes")
+            .description("Size of the statistic files on disk")
+            .baseUnit("bytes")
+            .tag(DUMP_TAG, dumpName)
+            .register(registry);
+    this.decompressedBytes =
+        DistributionSummary.builder(PREFIX + "file.decompressed.bytes")
+            .description("Size of the decompressed statistic files")
+            .baseUnit("bytes")
+            .tag(DUMP_TAG, dumpName)
+            .register(registry);
+    this.readTime = timer(registry, "file.read", "Time spent reading and decompressing a file");
+    this.decodeTime = timer(registry, "file.decode", "Time spent decoding the JSON of a file");
+    this.visitTime = timer(registry, "visit", "Time spent visiting a decoded statistic");
+    this.epochViewTime = timer(registry, "epochViews", "Time spent computing the epoch views");
+    this.commitTime = timer(registry, "commit", "Time spent committing a transaction");
+  }
+
+  private Timer timer(final MeterRegistry registry, final String name, final String description) {
+    return Timer.builder(PREFIX + name)
+        .description(description)
+        .tag(DUMP_TAG, this.dumpName)
+        .register(registry);
+  }
+
+  /**
+   * Returns the timer measuring the time spent in a type of visitor.
+   *
+   * @param visitorType the type of the visitor
+   * @return the timer of the visitor
+   */
+  public static Timer visitorTimer(final Class<?> visitorType) {
+    return Timer.builder(PREFIX + "visitor")
+        .description("Time spent in a statistic visitor, including the visitors it starts")
+        .tag(VISITOR_TAG, visitorType.getSimpleName())
+        .register(Metrics.globalRegistry);
+  }
+
+  /**
+   * Records a statistic file to load.
+   *
+   * @param fileSize the size of the file on disk
+   */
+  public void recordFile(final long fileSize) {
+    this.fileBytes.record(fileSize);
+  }
+
+  /**
+   * Records the reading of a file, when it is read separately from its decoding.
+   *
+   * @param decompressedSize the size of the decompressed content of the file
+   * @param nanos the time spent reading and decompressing the file
+   */
+  public void recordRead(final long decompressedSize, final long nanos) {
+    this.decompressedBytes.record(decompressedSize);
+    this.readTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the decoding of a file.
+   *
+   * <p>When streaming is disabled, this time includes the reading of the file.
+   *
+   * @param nanos the time spent decoding the file
+   */
+  public void recordDecode(final long nanos) {
+    this.decodeTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the visit of a statistic.
+   *
+   * @param nanos the time spent visiting the statistic
+   */
+  public void recordVisit(final long nanos) {
+    this.visitTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the computation of the epoch views.
+   *
+   * @param nanos the time spent computing the epoch views
+   */
+  public void recordEpochViews(final long nanos) {
+    this.epochViewTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the commit of a transaction.
+   *
+   * @param nanos the time spent committing the transaction
+   */
+  public void recordCommit(final long nanos) {
+    this.commitTime.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records the records written to each store by the loading of the dump.
+   *
+   * @param recordsPerStore the number of records of the dump written to each store
+   */
+  public void recordStores(final Map<String, Long> recordsPerStore) {
+    recordsPerStore.forEach(
+        (store, count) ->
+            Counter.builder(PREFIX + "records")
+                .description("Number of records written to a store")
+                .tag(DUMP_TAG, this.dumpName)
+                .tag(STORE_TAG, store)
+                .register(this.registry)
+                .increment(count));
+  }
+
+  /**
+   * Removes the meters of a dump from the global registry.
+   *
+   * @param dumpName the name of the dump
+   */
+  public static void removeDumpMeters(final String dumpName) {
+    removeDumpMeters(Metrics.globalRegistry, dumpName);
+  }
+
+  /**
+   * Removes the meters of a dump from a registry, and from its children if it is a composite one.
+   *
+   * @param registry the registry the meters were published to
+   * @param dumpName the name of the dump
+   */
+  public static void removeDumpMeters(final MeterRegistry registry, final String dumpName) {
+    for (final Meter meter : List.copyOf(registry.getMeters())) {
+      if (meter.getId().getName().startsWith(PREFIX)
+          && dumpName.equals(meter.getId().getTag(DUMP_TAG))) {
+        registry.remove(meter);
+      }
+    }
+    if (registry instanceof CompositeMeterRegistry) {
+      for (final MeterRegistry child : ((CompositeMeterRegistry) registry).getRegistries()) {
+        removeDumpMeters(child, dumpName);
+      }
+    }
+  }
+
+  /**
+   * Returns the name of the loaded dump.
+   *
+   * @return the name of the dump
+   */
+  public String getDumpName() {
+    return this.dumpName;
+  }
+}
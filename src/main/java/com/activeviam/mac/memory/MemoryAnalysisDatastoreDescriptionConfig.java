@@ -50,6 +50,12 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
   /** Name of the chunk -> branch reference. */
   public static final String CHUNK_TO_VERSION = "epochViewToVersion";
 
+  /** Name of the chunk -> epoch range reference. */
+  public static final String CHUNK_TO_EPOCH_RANGE = "chunkToEpochRange";
+
+  /** Name of the chunk summary -> epoch range reference. */
+  public static final String CHUNK_SUMMARY_TO_EPOCH_RANGE = "chunkSummaryToEpochRange";
+
   /** Default value for component-specific ids. */
   public static final Long DEFAULT_COMPONENT_ID_VALUE = -1L;
 
@@ -58,6 +64,15 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
   /** Partition value for chunks held by multiple partitions. */
   public static final int MANY_PARTITIONS = -2;
 
+  /**
+   * ID of the first record of the chunk summary and diff stores summing several chunks, the next
+   * ones counting up from it.
+   */
+  public static final long FIRST_SUMMARY_ID = Long.MIN_VALUE;
+
+  /** Fields of the records of the chunk diff store attributed to no field. */
+  public static final StringArrayObject NO_FIELDS = new StringArrayObject("N/A");
+
   /**
    * Returns the value with which to do modulo partitioning on the chunk store.
    *
@@ -90,8 +105,6 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
         .asKeyField()
         .withField(DatastoreConstants.OWNER__OWNER, ILiteralType.OBJECT)
         .asKeyField()
-        .withField(DatastoreConstants.OWNER__FIELD, ILiteralType.STRING)
-        .asKeyField()
         .withField(DatastoreConstants.OWNER__COMPONENT, ILiteralType.OBJECT)
         .asKeyField()
 
@@ -137,20 +150,46 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
         .build();
   }
 
+  /**
+   * Description of the epoch range store.
+   *
+   * <p>Each epoch of an owner is the base of a range, ending at the next epoch of the owner. The
+   * chunks reference the range of their owner and epoch.
+   *
+   * @return description of {@link DatastoreConstants#EPOCH_RANGE_STORE}
+   */
+  protected IStoreDescription epochRangeStore() {
+    return StartBuilding.store()
+        .withStoreName(DatastoreConstants.EPOCH_RANGE_STORE)
+        .withField(DatastoreConstants.EPOCH_RANGE__OWNER, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__DUMP_NAME)
+        .asKeyField()
+        .withField(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID, ILiteralType.LONG)
+        .asKeyField()
+        .withField(
+            DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID,
+            ILiteralType.LONG,
+            DatastoreConstants.NO_EPOCH_ID)
+        .build();
+  }
+
   /**
    * Description of the epoch view store.
    *
+   * <p>The views of a range are shared by all the owners with this range.
+   *
    * @return description of {@link DatastoreConstants#EPOCH_VIEW_STORE}
    */
   protected IStoreDescription epochViewStore() {
     return StartBuilding.store()
         .withStoreName(DatastoreConstants.EPOCH_VIEW_STORE)
-        .withField(DatastoreConstants.EPOCH_VIEW__OWNER, ILiteralType.OBJECT)
-        .asKeyField()
         .withField(DatastoreConstants.CHUNK__DUMP_NAME)
         .asKeyField()
         .withField(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID, ILiteralType.LONG)
         .asKeyField()
+        .withField(DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID, ILiteralType.LONG)
+        .asKeyField()
         .withField(DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID, ILiteralType.OBJECT)
         .asKeyField()
         .build();
@@ -292,6 +331,109 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
         .build();
   }
 
+  /**
+   * Returns the description of {@link DatastoreConstants#CHUNK_TO_FIELD_STORE}.
+   *
+   * <p>A chunk shared by several fields of its owner, such as the chunks of a dictionary or of an
+   * index on several fields, is recorded once in the chunk store and once per field in this store.
+   *
+   * @return description of {@link DatastoreConstants#CHUNK_TO_FIELD_STORE}
+   */
+  protected IStoreDescription chunkToFieldStore() {
+    return StartBuilding.store()
+        .withStoreName(DatastoreConstants.CHUNK_TO_FIELD_STORE)
+        .withField(DatastoreConstants.CHUNK_ID, ILiteralType.LONG)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__DUMP_NAME, ILiteralType.STRING)
+        .asKeyField()
+        .withField(DatastoreConstants.VERSION__EPOCH_ID, ILiteralType.LONG)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__OWNER, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__COMPONENT, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__FIELD, ILiteralType.STRING)
+        .asKeyField()
+        .build();
+  }
+
+  /**
+   * Returns the description of {@link DatastoreConstants#CHUNK_SUMMARY_STORE}.
+   *
+   * <p>The chunks recorded once in their dump are summed per record of this store. The chunks
+   * recorded several times, for several owners, components or epochs, are kept one record each,
+   * under their actual chunk ID, so that they can still be counted once per chunk. The summed
+   * records are given distinct IDs from {@link #FIRST_SUMMARY_ID}, below any chunk ID.
+   *
+   * @return description of {@link DatastoreConstants#CHUNK_SUMMARY_STORE}
+   */
+  protected IStoreDescription chunkSummaryStore() {
+    return StartBuilding.store()
+        .withStoreName(DatastoreConstants.CHUNK_SUMMARY_STORE)
+        .withField(DatastoreConstants.CHUNK_ID, ILiteralType.LONG)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__DUMP_NAME, ILiteralType.STRING)
+        .asKeyField()
+        .withField(DatastoreConstants.VERSION__EPOCH_ID, ILiteralType.LONG)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__OWNER, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__COMPONENT, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__PARTITION_ID, ILiteralType.INT, NO_PARTITION)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__CLASS)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__OFF_HEAP_SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__ON_HEAP_SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__NON_WRITTEN_ROWS, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__FREE_ROWS, ILiteralType.LONG)
+        .build();
+  }
+
+  /**
+   * Returns the description of {@link DatastoreConstants#CHUNK_DIFF_STORE}.
+   *
+   * <p>Its records compare the chunks of a target dump, held by its dump name field, to those of
+   * a base dump. Like in {@link #chunkSummaryStore()}, the chunks recorded once are summed per
+   * record, under IDs counting up from {@link #FIRST_SUMMARY_ID}, and the chunks recorded several
+   * times are kept one record each under their actual chunk ID.
+   *
+   * @return description of {@link DatastoreConstants#CHUNK_DIFF_STORE}
+   */
+  protected IStoreDescription chunkDiffStore() {
+    return StartBuilding.store()
+        .withStoreName(DatastoreConstants.CHUNK_DIFF_STORE)
+        .withField(DatastoreConstants.CHUNK_ID, ILiteralType.LONG)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__DUMP_NAME, ILiteralType.STRING)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK_DIFF__BASE_DUMP_NAME, ILiteralType.STRING)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__OWNER, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__COMPONENT, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK_DIFF__FIELDS, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__CLASS)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK_DIFF__INDEXED_FIELDS, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK_DIFF__STATUS, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK_DIFF__BASE_OFF_HEAP_SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK_DIFF__BASE_ON_HEAP_SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__OFF_HEAP_SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__ON_HEAP_SIZE, ILiteralType.LONG)
+        .build();
+  }
+
   /**
    * Returns the description of {@link DatastoreConstants#VERSION_STORE}.
    *
@@ -369,6 +511,68 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
         .build();
   }
 
+  /**
+   * Returns the description of {@link DatastoreConstants#TREND_STORE}.
+   *
+   * <p>Each record holds the footprint of the chunks of an owner, component and set of fields in
+   * a dump, along with the memory used by the application of the dump. The growths are the slopes
+   * of the least-squares lines of the time series over the dumps of the application up to the
+   * dump of the record.
+   *
+   * @return description of {@link DatastoreConstants#TREND_STORE}
+   */
+  protected IStoreDescription trendStore() {
+    return StartBuilding.store()
+        .withStoreName(DatastoreConstants.TREND_STORE)
+        .withField(DatastoreConstants.TREND__APPLICATION, ILiteralType.STRING)
+        .asKeyField()
+        .withField(DatastoreConstants.CHUNK__DUMP_NAME, ILiteralType.STRING)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__OWNER, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.OWNER__COMPONENT, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(DatastoreConstants.TREND__FIELDS, ILiteralType.OBJECT)
+        .asKeyField()
+        .withField(
+            DatastoreConstants.APPLICATION__DATE,
+            IParser.DATE + "[" + DatastoreConstants.DATE_PATTERN + "]")
+        .withField(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__OFF_HEAP_SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.CHUNK__ON_HEAP_SIZE, ILiteralType.LONG)
+        .withField(DatastoreConstants.TREND__OFF_HEAP_GROWTH, ILiteralType.DOUBLE)
+        .withField(DatastoreConstants.TREND__ON_HEAP_GROWTH, ILiteralType.DOUBLE)
+        .withField(DatastoreConstants.APPLICATION__USED_OFF_HEAP, ILiteralType.LONG)
+        .withField(DatastoreConstants.APPLICATION__MAX_OFF_HEAP, ILiteralType.LONG)
+        .withField(DatastoreConstants.TREND__USED_OFF_HEAP_GROWTH, ILiteralType.DOUBLE)
+        .withNullableField(DatastoreConstants.TREND__DAYS_TO_MAX_OFF_HEAP, ILiteralType.DOUBLE)
+        .withDuplicateKeyHandler(DuplicateKeyHandlers.ALWAYS_UPDATE)
+        .build();
+  }
+
+  /**
+   * Returns the description of {@link DatastoreConstants#DUMP_CATALOG_STORE}.
+   *
+   * @return description of {@link DatastoreConstants#DUMP_CATALOG_STORE}
+   */
+  protected IStoreDescription dumpCatalogStore() {
+    return StartBuilding.store()
+        .withStoreName(DatastoreConstants.DUMP_CATALOG_STORE)
+        .withField(DatastoreConstants.APPLICATION__DUMP_NAME)
+        .asKeyField()
+        .withField(
+            DatastoreConstants.APPLICATION__DATE,
+            IParser.DATE + "[" + DatastoreConstants.DATE_PATTERN + "]")
+        .withField(DatastoreConstants.APPLICATION__USED_ON_HEAP, ILiteralType.LONG)
+        .withField(DatastoreConstants.APPLICATION__MAX_ON_HEAP, ILiteralType.LONG)
+        .withField(DatastoreConstants.APPLICATION__USED_OFF_HEAP, ILiteralType.LONG)
+        .withField(DatastoreConstants.APPLICATION__MAX_OFF_HEAP, ILiteralType.LONG)
+        .withField(DatastoreConstants.DUMP_CATALOG__FILE_COUNT, ILiteralType.INT)
+        .withField(DatastoreConstants.DUMP_CATALOG__LOADED, ILiteralType.BOOLEAN)
+        .withDuplicateKeyHandler(DuplicateKeyHandlers.ALWAYS_UPDATE)
+        .build();
+  }
+
   public Collection<? extends IStoreDescription> getStoreDescriptions() {
     return Arrays.asList(
         chunkStore(),
@@ -379,9 +583,15 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
         providerStore(),
         pivotStore(),
         chunkTolevelStore(),
+        chunkToFieldStore(),
+        chunkSummaryStore(),
+        chunkDiffStore(),
+        epochRangeStore(),
         epochViewStore(),
         versionStore(),
-        applicationStore());
+        applicationStore(),
+        dumpCatalogStore(),
+        trendStore());
   }
 
   public Collection<? extends IReferenceDescription> getReferenceDescriptions() {
@@ -394,6 +604,8 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
     return List.of(
         Set.of(
             new StoreField(DatastoreConstants.CHUNK_STORE, DatastoreConstants.CHUNK__DUMP_NAME),
+            new StoreField(
+                DatastoreConstants.EPOCH_RANGE_STORE, DatastoreConstants.CHUNK__DUMP_NAME),
             new StoreField(
                 DatastoreConstants.EPOCH_VIEW_STORE, DatastoreConstants.CHUNK__DUMP_NAME),
             new StoreField(
@@ -406,15 +618,32 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
                 DatastoreConstants.LEVEL_STORE, DatastoreConstants.APPLICATION__DUMP_NAME),
             new StoreField(
                 DatastoreConstants.CHUNK_TO_LEVEL_STORE, DatastoreConstants.CHUNK__DUMP_NAME),
+            new StoreField(
+                DatastoreConstants.CHUNK_TO_FIELD_STORE, DatastoreConstants.CHUNK__DUMP_NAME),
+            new StoreField(
+                DatastoreConstants.CHUNK_SUMMARY_STORE, DatastoreConstants.CHUNK__DUMP_NAME),
+            new StoreField(
+                DatastoreConstants.CHUNK_DIFF_STORE, DatastoreConstants.CHUNK__DUMP_NAME),
+            new StoreField(
+                DatastoreConstants.CHUNK_DIFF_STORE, DatastoreConstants.CHUNK_DIFF__BASE_DUMP_NAME),
             new StoreField(DatastoreConstants.VERSION_STORE, DatastoreConstants.VERSION__DUMP_NAME),
             new StoreField(
                 DatastoreConstants.PROVIDER_STORE, DatastoreConstants.APPLICATION__DUMP_NAME),
             new StoreField(
                 DatastoreConstants.PIVOT_STORE, DatastoreConstants.APPLICATION__DUMP_NAME),
             new StoreField(
-                DatastoreConstants.APPLICATION_STORE, DatastoreConstants.APPLICATION__DUMP_NAME)),
+                DatastoreConstants.APPLICATION_STORE, DatastoreConstants.APPLICATION__DUMP_NAME),
+            new StoreField(
+                DatastoreConstants.DUMP_CATALOG_STORE, DatastoreConstants.APPLICATION__DUMP_NAME),
+            new StoreField(DatastoreConstants.TREND_STORE, DatastoreConstants.CHUNK__DUMP_NAME)),
         Set.of(
             new StoreField(DatastoreConstants.CHUNK_STORE, DatastoreConstants.VERSION__EPOCH_ID),
+            new StoreField(
+                DatastoreConstants.CHUNK_TO_FIELD_STORE, DatastoreConstants.VERSION__EPOCH_ID),
+            new StoreField(
+                DatastoreConstants.CHUNK_SUMMARY_STORE, DatastoreConstants.VERSION__EPOCH_ID),
+            new StoreField(
+                DatastoreConstants.EPOCH_RANGE_STORE, DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID),
             new StoreField(
                 DatastoreConstants.EPOCH_VIEW_STORE, DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID),
             new StoreField(
@@ -427,7 +656,17 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
         Set.of(
             new StoreField(DatastoreConstants.CHUNK_STORE, DatastoreConstants.OWNER__OWNER),
             new StoreField(
-                DatastoreConstants.EPOCH_VIEW_STORE, DatastoreConstants.EPOCH_VIEW__OWNER)),
+                DatastoreConstants.CHUNK_TO_FIELD_STORE, DatastoreConstants.OWNER__OWNER),
+            new StoreField(DatastoreConstants.CHUNK_SUMMARY_STORE, DatastoreConstants.OWNER__OWNER),
+            new StoreField(DatastoreConstants.CHUNK_DIFF_STORE, DatastoreConstants.OWNER__OWNER),
+            new StoreField(DatastoreConstants.TREND_STORE, DatastoreConstants.OWNER__OWNER),
+            new StoreField(
+                DatastoreConstants.EPOCH_RANGE_STORE, DatastoreConstants.EPOCH_RANGE__OWNER)),
+        Set.of(
+            new StoreField(
+                DatastoreConstants.EPOCH_RANGE_STORE, DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID),
+            new StoreField(
+                DatastoreConstants.EPOCH_VIEW_STORE, DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID)),
         Set.of(
             new StoreField(DatastoreConstants.CHUNK_STORE, DatastoreConstants.CHUNK__PROVIDER_ID),
             new StoreField(
@@ -470,6 +709,24 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
             .withName(CHUNK_TO_VERSION)
             .withMapping(DatastoreConstants.CHUNK__DUMP_NAME, DatastoreConstants.VERSION__DUMP_NAME)
             .withMapping(DatastoreConstants.VERSION__EPOCH_ID, DatastoreConstants.VERSION__EPOCH_ID)
+            .build(),
+        StartBuilding.reference()
+            .fromStore(DatastoreConstants.CHUNK_STORE)
+            .toStore(DatastoreConstants.EPOCH_RANGE_STORE)
+            .withName(CHUNK_TO_EPOCH_RANGE)
+            .withMapping(DatastoreConstants.OWNER__OWNER, DatastoreConstants.EPOCH_RANGE__OWNER)
+            .withMapping(DatastoreConstants.CHUNK__DUMP_NAME, DatastoreConstants.CHUNK__DUMP_NAME)
+            .withMapping(
+                DatastoreConstants.VERSION__EPOCH_ID, DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID)
+            .build(),
+        StartBuilding.reference()
+            .fromStore(DatastoreConstants.CHUNK_SUMMARY_STORE)
+            .toStore(DatastoreConstants.EPOCH_RANGE_STORE)
+            .withName(CHUNK_SUMMARY_TO_EPOCH_RANGE)
+            .withMapping(DatastoreConstants.OWNER__OWNER, DatastoreConstants.EPOCH_RANGE__OWNER)
+            .withMapping(DatastoreConstants.CHUNK__DUMP_NAME, DatastoreConstants.CHUNK__DUMP_NAME)
+            .withMapping(
+                DatastoreConstants.VERSION__EPOCH_ID, DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID)
             .build());
   }
 
@@ -540,6 +797,18 @@ public class MemoryAnalysisDatastoreDescriptionConfig implements IDatastoreSchem
     UNKNOWN
   }
 
+  /** How a chunk changed between the base and the target dumps of a diff. */
+  public enum DiffStatus {
+    /** Only in the target dump. */
+    NEW,
+    /** Only in the base dump. */
+    FREED,
+    /** In both dumps, with different sizes. */
+    RESIZED,
+    /** In both dumps, with the same sizes. */
+    UNCHANGED
+  }
+
   /**
    * Wrapper class around String[] (for equals, hashcode and toString).
    *
@@ -0,0 +1,74 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.mac.entities.ChunkOwner;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * The epochs of the chunks of each owner of a dump, recorded as the chunks are added to the
+ * transaction.
+ *
+ * <p>The epoch views of a dump are computed from these epochs once all its statistics are visited,
+ * without reading back the chunk store. The epochs are kept in primitive sets, whose size is the
+ * number of distinct epochs of each owner.
+ *
+ * <p>The epochs can be recorded concurrently by all the threads feeding the dump.
+ *
+ * @author ActiveViam
+ */
+public class OwnerEpochs {
+
+  /** The distinct epochs of each owner, each set guarded by its own monitor. */
+  protected final ConcurrentHashMap<ChunkOwner, TLongSet> epochsPerOwner =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Records that an owner has chunks in an epoch.
+   *
+   * @param owner the owner of the chunks
+   * @param epochId the epoch of the chunks
+   * @return {@code true} if the epoch of the owner was not recorded yet
+   */
+  public boolean add(final ChunkOwner owner, final long epochId) {
+    final TLongSet epochs = this.epochsPerOwner.computeIfAbsent(owner, key -> new TLongHashSet());
+    synchronized (epochs) {
+      return epochs.add(epochId);
+    }
+  }
+
+  /**
+   * Calls an action for each owner, with its epochs.
+   *
+   * @param action the action, given an owner and its distinct epochs in ascending order
+   */
+  public void forEach(final BiConsumer<? super ChunkOwner, long[]> action) {
+    this.epochsPerOwner.forEach(
+        (owner, epochs) -> {
+          final long[] sorted;
+          synchronized (epochs) {
+            sorted = epochs.toArray();
+          }
+          Arrays.sort(sorted);
+          action.accept(owner, sorted);
+        });
+  }
+
+  /**
+   * Returns whether no epoch was recorded.
+   *
+   * @return {@code true} if no owner has any epoch
+   */
+  public boolean isEmpty() {
+    return this.epochsPerOwner.isEmpty();
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Value;
+
+/**
+ * Cache of the results of the queries on the loaded dumps, from the least to the most recently
+ * used.
+ *
+ * <p>The statistics of a dump never change once it is loaded, so that the result of a query only
+ * changes when a dump is loaded or unloaded, or when the records derived from the loaded dumps,
+ * such as their diffs, are written. All the entries are {@link #invalidate() invalidated} on each
+ * of these changes, so that an entry is never answered for another set of loaded dumps. The text
+ * of the queries is not inspected to only invalidate the queries on a dump: a query may read a
+ * dump without naming it, through the default member of the dump hierarchy or a calculated member.
+ *
+ * <p>A result computed during an invalidation may be stale. Such results are not cached: each
+ * invalidation starts a new generation, and a result is only cached if no invalidation happened
+ * since its query started.
+ *
+ * <p>The total size of the cached results is bounded, the least recently used ones being evicted
+ * first.
+ *
+ * @author ActiveViam
+ */
+public class QueryResultCache {
+
+  /** The maximum total size of the cached results, in bytes. */
+  protected final long maxBytes;
+
+  /** The cached results per query, in access order. */
+  protected final LinkedHashMap<String, CachedResult> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /** The total size of the cached entries, in bytes. */
+  protected long bytes;
+
+  /** The number of invalidations so far. */
+  protected long generation;
+
+  /**
+   * Constructor.
+   *
+   * @param maxBytes the maximum total size of the cached results, in bytes, {@code 0} caching no
+   *     result
+   */
+  public QueryResultCache(final long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException(
+          "The maximum size of the cache must be positive or zero. Got " + maxBytes);
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Normalizes the text of a query, so that the queries only differing by their layout share
+   * their cache entry.
+   *
+   * <p>The runs of whitespaces, including the escaped ones of JSON strings, are replaced by a
+   * single space, except within MDX identifiers and string literals.
+   *
+   * @param query the text of the query
+   * @return the normalized text
+   */
+  public static String normalize(final String query) {
+    final StringBuilder builder = new StringBuilder(query.length());
+    // The character closing the identifier or literal being read, if any
+    char closing = 0;
+    boolean whitespace = false;
+    for (int i = 0; i < query.length(); ++i) {
+      final char c = query.charAt(i);
+      if (closing != 0) {
+        builder.append(c);
+        if (c == closing) {
+          closing = 0;
+        }
+        continue;
+      }
+      final int escapedWhitespace = escapedWhitespaceLength(query, i);
+      if (Character.isWhitespace(c) || escapedWhitespace > 0) {
+        whitespace = true;
+        i += Math.max(0, escapedWhitespace - 1);
+        continue;
+      }
+      if (whitespace && builder.length() > 0) {
+        builder.append(' ');
+      }
+      whitespace = false;
+      builder.append(c);
+      if (c == '[') {
+        closing = ']';
+      } else if (c == '\'') {
+        closing = '\'';
+      }
+    }
+    return builder.toString();
+  }
+
+  private static int escapedWhitespaceLength(final String query, final int index) {
+    if (query.charAt(index) != '\\' || index + 1 >= query.length()) {
+      return 0;
+    }
+    final char escaped = query.charAt(index + 1);
+    return escaped == 'n' || escaped == 'r' || escaped == 't' ? 2 : 0;
+  }
+
+  /**
+   * Returns the current generation, to be given back when caching a result.
+   *
+   * @return the number of invalidations so far
+   */
+  public synchronized long getGeneration() {
+    return this.generation;
+  }
+
+  /**
+   * Returns the cached result of a query, making it the most recently used one.
+   *
+   * @param query the query, including its normalized text
+   * @return the cached result, if any
+   */
+  public synchronized Optional<CachedResult> get(final String query) {
+    return Optional.ofNullable(this.entries.get(query));
+  }
+
+  /**
+   * Caches the result of a query, unless an invalidation happened since the given generation.
+   *
+   * <p>The least recently used results are evicted to fit in the maximum size. Results larger
+   * than the maximum size are not cached.
+   *
+   * @param query the query, including its normalized text
+   * @param result the result of the query
+   * @param generation the {@link #getGeneration() generation} when the query started
+   * @return {@code true} if the result was cached
+   */
+  public synchronized boolean put(
+      final String query, final CachedResult result, final long generation) {
+    final long size = sizeOf(query, result);
+    if (generation != this.generation || size > this.maxBytes) {
+      return false;
+    }
+    final CachedResult previous = this.entries.put(query, result);
+    if (previous != null) {
+      this.bytes -= sizeOf(query, previous);
+    }
+    this.bytes += size;
+
+    final Iterator<Map.Entry<String, CachedResult>> iterator = this.entries.entrySet().iterator();
+    while (this.bytes > this.maxBytes) {
+      final Map.Entry<String, CachedResult> evicted = iterator.next();
+      this.bytes -= sizeOf(evicted.getKey(), evicted.getValue());
+      iterator.remove();
+    }
+    return true;
+  }
+
+  /**
+   * Invalidates all the results, after a dump was loaded or unloaded or the records derived from
+   * the loaded dumps were written.
+   */
+  public synchronized void invalidate() {
+    ++this.generation;
+    this.entries.clear();
+    this.bytes = 0;
+  }
+
+  /**
+   * Returns the number of cached results.
+   *
+   * @return the number of entries
+   */
+  public synchronized int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Returns the total size of the cached results.
+   *
+   * @return the size of the entries, in bytes
+   */
+  public synchronized long getBytes() {
+    return this.bytes;
+  }
+
+  private static long sizeOf(final String query, final CachedResult result) {
+    return 2L * query.length() + result.getBody().length;
+  }
+
+  /** The result of a query, as returned to the client. */
+  @Value
+  public static class CachedResult {
+
+    /** The content type of the result. */
+    String contentType;
+
+    /** The serialized result. */
+    byte[] body;
+  }
+}
@@ -0,0 +1,523 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.fwk.ActiveViamRuntimeException;
+import com.activeviam.mac.Loggers;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.monitoring.statistic.memory.impl.DefaultMemoryStatistic;
+import com.qfs.pivot.monitoring.impl.MemoryStatisticSerializerUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
+
+/**
+ * Staged pipeline loading the statistic files of a dump.
+ *
+ * <p>Files go through three stages, each running on its own executor:
+ *
+ * <ol>
+ *   <li>reading and Snappy decompression, producing blocks of JSON bytes,
+ *   <li>JSON decoding, producing statistics,
+ *   <li>feeding, visiting the statistics into the ongoing transaction.
+ * </ol>
+ *
+ * <p>The stages are connected by bounded queues: at most {@code maxFilesInFlight} files are read
+ * and decoded at the same time, each of them buffering at most {@code decompressedBlocks} blocks
+ * of decompressed bytes, and at most {@code decodedQueueCapacity} decoded statistics wait for the
+ * feeders. A slow stage blocks the previous ones instead of letting data pile up in memory.
+ *
+ * <p>When streaming is disabled, the first two stages are merged as the whole statistic tree of a
+ * file is built by {@link MemoryStatisticSerializerUtil}.
+ *
+ * @author ActiveViam
+ */
+public class StatisticLoadingPipeline implements AutoCloseable {
+
+  private static final Logger LOGGER = Logger.getLogger(Loggers.LOADING);
+
+  /** Size of the blocks of decompressed bytes passed from the reading stage to the decoding one. */
+  protected static final int BLOCK_SIZE = 1 << 16;
+
+  /** Marker signaling the feeders that no more statistics will come. */
+  private static final IMemoryStatistic END_OF_STATISTICS = new DefaultMemoryStatistic();
+
+  /** Delay between two checks of the pipeline failure when a stage is blocked. */
+  private static final long POLL_DELAY_MS = 100;
+
+  /** Maximum number of files read and decoded at the same time. */
+  protected final int maxFilesInFlight;
+  /** Maximum number of decoded statistics waiting to be fed. */
+  protected final int decodedQueueCapacity;
+  /** Maximum number of decompressed blocks buffered per file. */
+  protected final int decompressedBlocks;
+  /** Number of threads feeding the statistics. */
+  protected final int feederCount;
+  /** Whether the files are decoded in bounded parts with {@link StreamingStatisticReader}. */
+  protected final boolean streaming;
+
+  /** Executor of the reading stage. */
+  protected final ExecutorService readers;
+  /** Executor of the decoding stage. */
+  protected final ExecutorService decoders;
+  /** Executor of the feeding stage. */
+  protected final ExecutorService feeders;
+
+  /**
+   * Constructor.
+   *
+   * @param maxFilesInFlight maximum number of files read and decoded at the same time
+   * @param decodedQueueCapacity maximum number of decoded statistics waiting to be fed
+   * @param decompressedBlocks maximum number of decompressed blocks buffered per file
+   * @param feederCount number of threads feeding the statistics
+   * @param streaming whether the files are decoded in bounded parts
+   */
+  public StatisticLoadingPipeline(
+      final int maxFilesInFlight,
+      final int decodedQueueCapacity,
+      final int decompressedBlocks,
+      final int feederCount,
+      final boolean streaming) {
+    checkPositive("maxFilesInFlight", maxFilesInFlight);
+    checkPositive("decodedQueueCapacity", decodedQueueCapacity);
+    checkPositive("decompressedBlocks", decompressedBlocks);
+    checkPositive("feederCount", feederCount);
+    this.maxFilesInFlight = maxFilesInFlight;
+    this.decodedQueueCapacity = decodedQueueCapacity;
+    this.decompressedBlocks = decompressedBlocks;
+    this.feederCount = feederCount;
+    this.streaming = streaming;
+
+    this.readers = Executors.newFixedThreadPool(maxFilesInFlight, threadFactory("mac-read-"));
+    this.decoders = Executors.newFixedThreadPool(maxFilesInFlight, threadFactory("mac-decode-"));
+    this.feeders = Executors.newFixedThreadPool(feederCount, threadFactory("mac-feed-"));
+  }
+
+  private static void checkPositive(final String name, final int value) {
+    if (value < 1) {
+      throw new IllegalArgumentException(name + " must be positive. Got " + value);
+    }
+  }
+
+  private static ThreadFactory threadFactory(final String prefix) {
+    final AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      final Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  /**
+   * Runs the given files through the pipeline, blocking until all their statistics are fed.
+   *
+   * <p>The first failure of any stage stops the pipeline and is rethrown.
+   *
+   * @param files the statistic files to load
+   * @param feed action feeding a statistic, called concurrently by the feeders
+   */
+  public void run(final List<Path> files, final Consumer<IMemoryStatistic> feed) {
+    run(files, feed, new LoadingMetrics(new SimpleMeterRegistry(), ""));
+  }
+
+  /**
+   * Runs the given files through the pipeline, blocking until all their statistics are fed.
+   *
+   * <p>The first failure of any stage stops the pipeline and is rethrown.
+   *
+   * @param files the statistic files to load
+   * @param feed action feeding a statistic, called concurrently by the feeders
+   * @param metrics the metrics recording the reading and the decoding of the files
+   */
+  public void run(
+      final List<Path> files, final Consumer<IMemoryStatistic> feed, final LoadingMetrics metrics) {
+    run(files, feed, metrics, file -> {});
+  }
+
+  /**
+   * Runs the given files through the pipeline, blocking until all their statistics are fed.
+   *
+   * <p>The first failure of any stage stops the pipeline and is rethrown, including a failure of
+   * the progress action.
+   *
+   * @param files the statistic files to load
+   * @param feed action feeding a statistic, called concurrently by the feeders
+   * @param metrics the metrics recording the reading and the decoding of the files
+   * @param progress action called concurrently by the decoders once each file is decoded
+   */
+  public void run(
+      final List<Path> files,
+      final Consumer<IMemoryStatistic> feed,
+      final LoadingMetrics metrics,
+      final Consumer<Path> progress) {
+    final long start = System.nanoTime();
+    final Run run = new Run(feed, metrics, progress);
+    try {
+      run.execute(files);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      run.fail(e);
+    }
+
+    final Throwable failure = run.failure.get();
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    } else if (failure != null) {
+      throw new ActiveViamRuntimeException("Failed to load the statistic files " + files, failure);
+    }
+
+    if (LOGGER.isLoggable(Level.INFO)) {
+      LOGGER.info(
+          files.size()
+              + " file(s) loaded in "
+              + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+              + "ms");
+    }
+  }
+
+  @Override
+  public void close() {
+    this.readers.shutdownNow();
+    this.decoders.shutdownNow();
+    this.feeders.shutdownNow();
+  }
+
+  /** State of a single execution of the pipeline. */
+  protected class Run {
+
+    /** Action feeding a statistic. */
+    protected final Consumer<IMemoryStatistic> feed;
+    /** Metrics of the loading. */
+    protected final LoadingMetrics metrics;
+    /** Action called once each file is decoded. */
+    protected final Consumer<Path> progress;
+    /** Queue between the decoding and the feeding stages. */
+    protected final BlockingQueue<IMemoryStatistic> decoded;
+    /** Permits of the files in flight. */
+    protected final Semaphore filesInFlight;
+    /** First failure of the run. */
+    protected final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Constructor.
+     *
+     * @param feed action feeding a statistic
+     * @param metrics metrics of the loading
+     * @param progress action called once each file is decoded
+     */
+    protected Run(
+        final Consumer<IMemoryStatistic> feed,
+        final LoadingMetrics metrics,
+        final Consumer<Path> progress) {
+      this.feed = feed;
+      this.metrics = metrics;
+      this.progress = progress;
+      this.decoded = new ArrayBlockingQueue<>(StatisticLoadingPipeline.this.decodedQueueCapacity);
+      this.filesInFlight = new Semaphore(StatisticLoadingPipeline.this.maxFilesInFlight);
+    }
+
+    /**
+     * Executes the run.
+     *
+     * @param files the files to load
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    protected void execute(final List<Path> files) throws InterruptedException {
+      final List<Future<?>> feeding = new ArrayList<>();
+      for (int i = 0; i < StatisticLoadingPipeline.this.feederCount; ++i) {
+        feeding.add(StatisticLoadingPipeline.this.feeders.submit(this::feedUntilEnd));
+      }
+
+      final CountDownLatch decodedFiles = new CountDownLatch(files.size());
+      for (final Path file : files) {
+        if (isFailed()) {
+          decodedFiles.countDown();
+          continue;
+        }
+        this.filesInFlight.acquire();
+        StatisticLoadingPipeline.this.decoders.execute(
+            () -> {
+              try {
+                decode(file);
+                if (!isFailed()) {
+                  this.progress.accept(file);
+                }
+              } catch (final Throwable e) {
+                fail(e);
+              } finally {
+                this.filesInFlight.release();
+                decodedFiles.countDown();
+              }
+            });
+      }
+      decodedFiles.await();
+
+      for (int i = 0; i < feeding.size(); ++i) {
+        if (!offer(this.decoded, END_OF_STATISTICS)) {
+          break;
+        }
+      }
+      for (final Future<?> feeder : feeding) {
+        if (isFailed()) {
+          feeder.cancel(true);
+        } else {
+          try {
+            feeder.get();
+          } catch (final ExecutionException e) {
+            fail(e.getCause());
+          }
+        }
+      }
+    }
+
+    private void feedUntilEnd() {
+      try {
+        while (!isFailed()) {
+          final IMemoryStatistic statistic =
+              this.decoded.poll(POLL_DELAY_MS, TimeUnit.MILLISECONDS);
+          if (statistic == END_OF_STATISTICS) {
+            return;
+          } else if (statistic != null) {
+            this.feed.accept(statistic);
+          }
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fail(e);
+      } catch (final Throwable e) {
+        fail(e);
+      }
+    }
+
+    private void decode(final Path file) throws IOException, InterruptedException {
+      if (LOGGER.isLoggable(Level.FINE)) {
+        LOGGER.fine("Decoding statistics from " + file.toAbsolutePath());
+      }
+      this.metrics.recordFile(Files.size(file));
+      if (StatisticLoadingPipeline.this.streaming) {
+        final BlockInputStream blocks =
+            new BlockInputStream(StatisticLoadingPipeline.this.decompressedBlocks);
+        StatisticLoadingPipeline.this.readers.execute(() -> read(file, blocks));
+        // Time spent waiting for the blocks of the reader is included
+        long decodeNanos = 0;
+        try (final StreamingStatisticReader reader = new StreamingStatisticReader(blocks)) {
+          while (true) {
+            final long start = System.nanoTime();
+            final IMemoryStatistic statistic = reader.hasNext() ? reader.next() : null;
+            decodeNanos += System.nanoTime() - start;
+            if (statistic == null || !offer(this.decoded, statistic)) {
+              break;
+            }
+          }
+        } finally {
+          blocks.close();
+          this.metrics.recordDecode(decodeNanos);
+        }
+      } else {
+        final long start = System.nanoTime();
+        final IMemoryStatistic statistic =
+            MemoryStatisticSerializerUtil.readStatisticFile(file.toFile());
+        this.metrics.recordDecode(System.nanoTime() - start);
+        offer(this.decoded, statistic);
+      }
+    }
+
+    private void read(final Path file, final BlockInputStream blocks) {
+      long readNanos = 0;
+      long decompressedSize = 0;
+      try (final InputStream input = openDecompressed(file)) {
+        while (true) {
+          final long start = System.nanoTime();
+          final byte[] block = input.readNBytes(BLOCK_SIZE);
+          readNanos += System.nanoTime() - start;
+          decompressedSize += block.length;
+          if (block.length == 0 || !blocks.offer(block, this)) {
+            break;
+          }
+        }
+        blocks.complete();
+      } catch (final IOException e) {
+        blocks.fail(e);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        blocks.fail(new InterruptedIOException("Interrupted while reading " + file));
+      } finally {
+        this.metrics.recordRead(decompressedSize, readNanos);
+      }
+    }
+
+    /**
+     * Puts an element into a queue, giving up if the run fails.
+     *
+     * @return whether the element was added
+     */
+    protected <T> boolean offer(final BlockingQueue<T> queue, final T element)
+        throws InterruptedException {
+      while (!isFailed()) {
+        if (queue.offer(element, POLL_DELAY_MS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Returns whether a stage failed.
+     *
+     * @return {@code true} if the run failed
+     */
+    protected boolean isFailed() {
+      return this.failure.get() != null;
+    }
+
+    /**
+     * Records a failure, stopping all the stages.
+     *
+     * @param cause the failure
+     */
+    protected void fail(final Throwable cause) {
+      if (!this.failure.compareAndSet(null, cause)) {
+        this.failure.get().addSuppressed(cause);
+      }
+    }
+  }
+
+  private static InputStream openDecompressed(final Path file) throws IOException {
+    final InputStream raw = new BufferedInputStream(Files.newInputStream(file));
+    if (file.toString().endsWith("." + MemoryStatisticSerializerUtil.COMPRESSED_FILE_EXTENSION)) {
+      try {
+        return new FramedSnappyCompressorInputStream(raw);
+      } catch (final IOException e) {
+        raw.close();
+        throw e;
+      }
+    }
+    return raw;
+  }
+
+  /** Input stream over blocks of bytes produced by another thread through a bounded queue. */
+  protected static class BlockInputStream extends InputStream {
+
+    /** Marker of the end of the blocks. */
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> blocks;
+    private volatile boolean closed = false;
+    private volatile IOException producerFailure = null;
+    private byte[] current = null;
+    private int position = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity maximum number of buffered blocks
+     */
+    protected BlockInputStream(final int capacity) {
+      this.blocks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Adds a block, waiting for the consumer to make room for it.
+     *
+     * @return {@code false} if the consumer stopped reading or the run failed
+     */
+    boolean offer(final byte[] block, final Run run) throws InterruptedException {
+      while (!this.closed && !run.isFailed()) {
+        if (this.blocks.offer(block, POLL_DELAY_MS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** Signals that all the blocks were produced. */
+    void complete() throws InterruptedException {
+      while (!this.closed) {
+        if (this.blocks.offer(END, POLL_DELAY_MS, TimeUnit.MILLISECONDS)) {
+          return;
+        }
+      }
+    }
+
+    /** Signals that the producer failed. */
+    void fail(final IOException cause) {
+      this.producerFailure = cause;
+      this.blocks.clear();
+      this.blocks.offer(END);
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (!nextBlock()) {
+        return -1;
+      }
+      return this.current[this.position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      if (!nextBlock()) {
+        return -1;
+      }
+      final int count = Math.min(length, this.current.length - this.position);
+      System.arraycopy(this.current, this.position, buffer, offset, count);
+      this.position += count;
+      return count;
+    }
+
+    private boolean nextBlock() throws IOException {
+      while (this.current == null || this.position == this.current.length) {
+        if (this.current == END) {
+          return false;
+        }
+        try {
+          this.current = this.blocks.take();
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for statistic bytes");
+        }
+        this.position = 0;
+        if (this.current == END && this.producerFailure != null) {
+          throw this.producerFailure;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void close() {
+      this.closed = true;
+      this.blocks.clear();
+    }
+  }
+}
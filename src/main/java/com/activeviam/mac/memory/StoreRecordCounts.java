@@ -0,0 +1,61 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The number of records written to each store by the loading of a dump, counted as the batches of
+ * tuples are added to the transaction.
+ *
+ * <p>These are the records written, not the records stored: the records replacing records with
+ * the same key, and the records rewritten by the epoch views and the chunk summaries, are all
+ * counted. They measure the loading throughput, not the size of the dump.
+ *
+ * <p>The records can be counted concurrently by all the threads feeding the dump.
+ *
+ * @author ActiveViam
+ */
+public class StoreRecordCounts {
+
+  /** The number of records written to each store. */
+  protected final ConcurrentHashMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+  /**
+   * Records that records were written to a store.
+   *
+   * @param store the name of the store
+   * @param count the number of written records
+   */
+  public void add(final String store, final long count) {
+    this.counts.computeIfAbsent(store, key -> new LongAdder()).add(count);
+  }
+
+  /**
+   * Returns the number of records written to each store.
+   *
+   * @return the number of records per store name, sorted by store name
+   */
+  public Map<String, Long> toMap() {
+    final Map<String, Long> map = new TreeMap<>();
+    this.counts.forEach((store, count) -> map.put(store, count.sum()));
+    return map;
+  }
+
+  /**
+   * Returns the number of records written to all the stores.
+   *
+   * @return the total number of written records
+   */
+  public long getTotal() {
+    return this.counts.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+}
@@ -0,0 +1,566 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.qfs.distribution.IMultiVersionDistributedActivePivot;
+import com.qfs.monitoring.statistic.IStatisticAttribute;
+import com.qfs.monitoring.statistic.impl.BooleanStatisticAttribute;
+import com.qfs.monitoring.statistic.impl.DoubleStatisticAttribute;
+import com.qfs.monitoring.statistic.impl.IntegerStatisticAttribute;
+import com.qfs.monitoring.statistic.impl.LongStatisticAttribute;
+import com.qfs.monitoring.statistic.impl.StringArrayStatisticAttribute;
+import com.qfs.monitoring.statistic.impl.StringStatisticAttribute;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
+import com.qfs.monitoring.statistic.memory.impl.ChunkSetStatistic;
+import com.qfs.monitoring.statistic.memory.impl.ChunkStatistic;
+import com.qfs.monitoring.statistic.memory.impl.DefaultMemoryStatistic;
+import com.qfs.monitoring.statistic.memory.impl.DictionaryStatistic;
+import com.qfs.monitoring.statistic.memory.impl.IndexStatistic;
+import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
+import com.qfs.pivot.monitoring.impl.MemoryStatisticSerializerUtil;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
+
+/**
+ * Pull-parser reading a memory statistic file without building its whole {@link IMemoryStatistic}
+ * tree.
+ *
+ * <p>The reader walks the JSON document produced by {@link MemoryStatisticSerializerUtil} and only
+ * materializes bounded sub-trees: chunk sets, chunks, dictionaries, indexes, references, levels and
+ * chunk entries. Each of them is returned attached to shallow copies of its ancestors, whose
+ * children are restricted to the path leading to the sub-tree. The returned statistics can be fed
+ * one by one to {@link AnalysisDatastoreFeeder}, while the heap used for reading depends on the
+ * depth of the tree rather than on the size of the file.
+ *
+ * <p>Only the first copy of an ancestor is fed as is. The next ones are flagged as {@link
+ * #isReplayed(IMemoryStatistic) replayed}: the visitors only read from them the context of the
+ * sub-tree they lead to, such as its owner or epoch, without adding the tuples of the ancestor
+ * again. The datastore thus receives the same tuples as when feeding the full tree.
+ *
+ * <p>The only look-ahead needed by the visitors is the detection of distributed pivots. The
+ * sub-trees of a pivot read before its first provider are buffered until the provider tells
+ * whether the pivot is distributed, which is then flagged on the copies of the pivot statistic.
+ *
+ * @author ActiveViam
+ */
+public class StreamingStatisticReader implements Iterator<IMemoryStatistic>, Closeable {
+
+  /** Shared factory, thread-safe once configured. */
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final String NAME_FIELD = "name";
+  private static final String ON_HEAP_FIELD = "onheap";
+  private static final String OFF_HEAP_FIELD = "offheap";
+  private static final String CLASS_FIELD = "statisticClass";
+  private static final String ATTRIBUTES_FIELD = "attributes";
+  private static final String CHILDREN_FIELD = "children";
+
+  /** Separator between the attribute name and its content type in the serialized keys. */
+  private static final String CONTENT_TYPE_SEPARATOR = "@contentType:";
+  /** Content type the serializer uses for int attributes, longs being used otherwise. */
+  private static final String INT_CONTENT_TYPE = "48";
+
+  /** Attribute flagging the copies of an ancestor already returned with an earlier sub-tree. */
+  private static final String REPLAYED_ATTRIBUTE = "mac.replayed";
+
+  /** Underlying JSON parser. */
+  protected final JsonParser parser;
+
+  /** Containers currently opened, the innermost first. */
+  protected final Deque<Frame> path = new ArrayDeque<>();
+  /** Statistics ready to be returned. */
+  protected final Deque<IMemoryStatistic> ready = new ArrayDeque<>();
+
+  private boolean started = false;
+  private boolean finished = false;
+
+  /**
+   * Constructor.
+   *
+   * @param input stream of the uncompressed JSON document
+   * @throws IOException if the parser cannot be created
+   */
+  public StreamingStatisticReader(final InputStream input) throws IOException {
+    this.parser = JSON_FACTORY.createParser(input);
+  }
+
+  /**
+   * Opens a reader on the given statistic file, compressed or not.
+   *
+   * @param file path to the statistic file
+   * @return the reader, to be closed by the caller
+   * @throws IOException if the file cannot be opened
+   */
+  public static StreamingStatisticReader open(final Path file) throws IOException {
+    final InputStream raw = new BufferedInputStream(Files.newInputStream(file));
+    try {
+      final boolean compressed =
+          file.toString().endsWith("." + MemoryStatisticSerializerUtil.COMPRESSED_FILE_EXTENSION);
+      return new StreamingStatisticReader(
+          compressed ? new FramedSnappyCompressorInputStream(raw) : raw);
+    } catch (final IOException e) {
+      raw.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the stream of the statistics read from the given file.
+   *
+   * <p>The file is closed once the stream is consumed or closed.
+   *
+   * @param file path to the statistic file
+   * @return the stream of statistics
+   * @throws IOException if the file cannot be opened
+   */
+  public static Stream<IMemoryStatistic> stream(final Path file) throws IOException {
+    final StreamingStatisticReader reader = open(file);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(reader::close);
+  }
+
+  /**
+   * Reads the root statistic of the given file, without its children.
+   *
+   * <p>Only the beginning of the file is read, as the serializer writes the children of a
+   * statistic after its attributes.
+   *
+   * @param file path to the statistic file
+   * @return the root statistic, with no children
+   * @throws IOException if the file cannot be read
+   */
+  public static IMemoryStatistic readRoot(final Path file) throws IOException {
+    try (final StreamingStatisticReader reader = open(file)) {
+      if (reader.parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalStateException("Expected a statistic at the beginning of " + file);
+      }
+      return reader.readHeader().create(new ArrayList<>(), false, false);
+    }
+  }
+
+  /**
+   * Returns whether a statistic is a copy of an ancestor already returned with an earlier sub-tree.
+   *
+   * <p>The tuples describing such a statistic itself were already fed with its first copy, only
+   * its attributes giving the context of its children are to be read.
+   *
+   * @param statistic the statistic
+   * @return {@code true} for the replayed copies of an ancestor
+   */
+  public static boolean isReplayed(final IMemoryStatistic statistic) {
+    return statistic.getAttribute(REPLAYED_ATTRIBUTE) != null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      while (this.ready.isEmpty() && !this.finished) {
+        step();
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (this.ready.isEmpty()) {
+      close();
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public IMemoryStatistic next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return this.ready.poll();
+  }
+
+  @Override
+  public void close() {
+    try {
+      this.parser.close();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Consumes the next structural element of the document.
+   *
+   * @throws IOException if the document cannot be read
+   */
+  protected void step() throws IOException {
+    if (!this.started) {
+      this.started = true;
+      if (this.parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalStateException(
+            "Expected a statistic at " + this.parser.getTokenLocation());
+      }
+      openNode(readHeader());
+      return;
+    }
+    if (this.path.isEmpty()) {
+      this.finished = true;
+      return;
+    }
+
+    final JsonToken token = this.parser.nextToken();
+    if (token == JsonToken.START_OBJECT) {
+      openNode(readHeader());
+    } else if (token == JsonToken.END_ARRAY) {
+      closeFrame();
+    } else {
+      throw new IllegalStateException(
+          "Unexpected token " + token + " at " + this.parser.getTokenLocation());
+    }
+  }
+
+  private void openNode(final Header header) throws IOException {
+    final Frame parent = this.path.peek();
+    if (parent != null && parent.isUnresolvedPivot() && isProvider(header.name)) {
+      resolvePivot(parent, isDistributedProvider(header));
+    }
+
+    if (header.hasChildren && !isBoundedSubTree(header)) {
+      this.path.push(new Frame(header));
+    } else {
+      emit(readSubTree(header));
+    }
+  }
+
+  private void closeFrame() throws IOException {
+    final Frame frame = this.path.pop();
+    readTrailingFields(frame.header);
+    if (frame.isUnresolvedPivot()) {
+      resolvePivot(frame, false);
+    }
+    if (!frame.hasEmitted) {
+      // Leaf container, still visited for the tuples it produces by itself
+      emit(frame.header.create(new ArrayList<>(), false, false));
+    }
+  }
+
+  private void emit(final IMemoryStatistic statistic) {
+    Frame unresolvedPivot = null;
+    for (final Frame frame : this.path) {
+      frame.hasEmitted = true;
+      if (frame.isUnresolvedPivot()) {
+        unresolvedPivot = frame;
+      }
+    }
+
+    final List<Frame> ancestors = new ArrayList<>(this.path);
+    if (unresolvedPivot != null) {
+      unresolvedPivot.pending.add(new PendingSubTree(ancestors, statistic));
+    } else {
+      this.ready.add(attachToAncestors(ancestors, statistic));
+    }
+  }
+
+  private void resolvePivot(final Frame pivot, final boolean distributed) {
+    pivot.distributed = distributed;
+    for (final PendingSubTree pending : pivot.pending) {
+      this.ready.add(attachToAncestors(pending.ancestors, pending.statistic));
+    }
+    pivot.pending.clear();
+  }
+
+  private static IMemoryStatistic attachToAncestors(
+      final List<Frame> ancestors, final IMemoryStatistic statistic) {
+    IMemoryStatistic current = statistic;
+    for (final Frame ancestor : ancestors) {
+      final List<IMemoryStatistic> children = new ArrayList<>(1);
+      children.add(current);
+      current =
+          ancestor.header.create(
+              children, Boolean.TRUE.equals(ancestor.distributed), ancestor.attached);
+      ancestor.attached = true;
+    }
+    return current;
+  }
+
+  /**
+   * Reads the fields of a statistic up to its children.
+   *
+   * <p>The parser must be positioned on the {@link JsonToken#START_OBJECT} of the statistic. It is
+   * left on the {@link JsonToken#START_ARRAY} of the children, or on the {@link
+   * JsonToken#END_OBJECT} of the statistic if it has none.
+   */
+  private Header readHeader() throws IOException {
+    final Header header = new Header();
+    while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+      if (readField(header)) {
+        header.hasChildren = true;
+        break;
+      }
+    }
+    return header;
+  }
+
+  private void readTrailingFields(final Header header) throws IOException {
+    while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+      if (readField(header)) {
+        this.parser.skipChildren();
+      }
+    }
+  }
+
+  /** Reads the current field into the header, returning whether it starts the children array. */
+  private boolean readField(final Header header) throws IOException {
+    final String field = this.parser.getCurrentName();
+    final JsonToken value = this.parser.nextToken();
+    switch (field) {
+      case NAME_FIELD:
+        header.name = this.parser.getText();
+        break;
+      case ON_HEAP_FIELD:
+        header.onHeap = this.parser.getLongValue();
+        break;
+      case OFF_HEAP_FIELD:
+        header.offHeap = this.parser.getLongValue();
+        break;
+      case CLASS_FIELD:
+        header.statisticClass = this.parser.getText();
+        break;
+      case ATTRIBUTES_FIELD:
+        readAttributes(header.attributes);
+        break;
+      case CHILDREN_FIELD:
+        return value == JsonToken.START_ARRAY;
+      default:
+        this.parser.skipChildren();
+    }
+    return false;
+  }
+
+  private void readAttributes(final Map<String, IStatisticAttribute> attributes)
+      throws IOException {
+    while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String key = this.parser.getCurrentName();
+      this.parser.nextToken();
+      final int separator = key.indexOf(CONTENT_TYPE_SEPARATOR);
+      final String name = separator < 0 ? key : key.substring(0, separator);
+      final String contentType =
+          separator < 0 ? null : key.substring(separator + CONTENT_TYPE_SEPARATOR.length());
+      final IStatisticAttribute attribute = readAttributeValue(contentType);
+      if (attribute != null) {
+        attributes.put(name, attribute);
+      }
+    }
+  }
+
+  private IStatisticAttribute readAttributeValue(final String contentType) throws IOException {
+    switch (this.parser.currentToken()) {
+      case VALUE_TRUE:
+      case VALUE_FALSE:
+        return new BooleanStatisticAttribute(this.parser.getBooleanValue());
+      case VALUE_NUMBER_INT:
+        return INT_CONTENT_TYPE.equals(contentType)
+            ? new IntegerStatisticAttribute(this.parser.getIntValue())
+            : new LongStatisticAttribute(this.parser.getLongValue());
+      case VALUE_NUMBER_FLOAT:
+        return new DoubleStatisticAttribute(this.parser.getDoubleValue());
+      case VALUE_STRING:
+        return new StringStatisticAttribute(this.parser.getText());
+      case START_ARRAY:
+        final List<String> values = new ArrayList<>();
+        while (this.parser.nextToken() != JsonToken.END_ARRAY) {
+          values.add(this.parser.getText());
+        }
+        return new StringArrayStatisticAttribute(values.toArray(new String[0]));
+      default:
+        this.parser.skipChildren();
+        return null;
+    }
+  }
+
+  /** Fully reads the statistic whose header was just read, including all its descendants. */
+  private IMemoryStatistic readSubTree(final Header header) throws IOException {
+    final List<IMemoryStatistic> children = new ArrayList<>();
+    if (header.hasChildren) {
+      while (this.parser.nextToken() == JsonToken.START_OBJECT) {
+        children.add(readSubTree(readHeader()));
+      }
+      readTrailingFields(header);
+    }
+    return header.create(children, false, false);
+  }
+
+  /**
+   * Returns whether the statistic described by the header is read at once.
+   *
+   * <p>Those statistics are either small or visited by dedicated visitors looking at their whole
+   * sub-tree.
+   */
+  private static boolean isBoundedSubTree(final Header header) {
+    return !DefaultMemoryStatistic.class.getName().equals(header.statisticClass)
+        || MemoryStatisticConstants.STAT_NAME_LEVEL.equals(header.name)
+        || MemoryStatisticConstants.STAT_NAME_CHUNK_ENTRY.equals(header.name);
+  }
+
+  private static boolean isProvider(final String name) {
+    return MemoryStatisticConstants.STAT_NAME_PROVIDER.equals(name)
+        || MemoryStatisticConstants.STAT_NAME_PARTIAL_PROVIDER.equals(name)
+        || MemoryStatisticConstants.STAT_NAME_FULL_PROVIDER.equals(name);
+  }
+
+  private static boolean isDistributedProvider(final Header header) {
+    final IStatisticAttribute providerType =
+        header.attributes.get(MemoryStatisticConstants.ATTR_NAME_PROVIDER_TYPE);
+    return MemoryStatisticConstants.STAT_NAME_PROVIDER.equals(header.name)
+        && providerType != null
+        && IMultiVersionDistributedActivePivot.PLUGIN_KEY.equals(providerType.asText());
+  }
+
+  /** Fields of a statistic, except its children. */
+  protected static class Header {
+
+    /** Name of the statistic. */
+    protected String name;
+    /** Class of the statistic. */
+    protected String statisticClass;
+    /** Shallow on-heap size. */
+    protected long onHeap;
+    /** Shallow off-heap size. */
+    protected long offHeap;
+    /** Attributes of the statistic. */
+    protected final Map<String, IStatisticAttribute> attributes = new HashMap<>();
+    /** Whether the statistic has a children array. */
+    protected boolean hasChildren;
+
+    /**
+     * Creates a new statistic from this header.
+     *
+     * @param children children of the statistic
+     * @param distributedPivot whether the statistic must be flagged as a distributed pivot
+     * @param replayed whether the statistic must be flagged as {@link
+     *     StreamingStatisticReader#isReplayed replayed}
+     * @return the statistic
+     */
+    protected IMemoryStatistic create(
+        final List<IMemoryStatistic> children,
+        final boolean distributedPivot,
+        final boolean replayed) {
+      final IMemoryStatistic statistic = newStatistic(this.statisticClass);
+      statistic.setName(this.name);
+      statistic.setShallowOnHeap(this.onHeap);
+      statistic.setShallowOffHeap(this.offHeap);
+      final Map<String, IStatisticAttribute> statisticAttributes = new HashMap<>(this.attributes);
+      if (distributedPivot) {
+        statisticAttributes.put(
+            MemoryStatisticConstants.ATTR_NAME_PROVIDER_TYPE,
+            new StringStatisticAttribute(IMultiVersionDistributedActivePivot.PLUGIN_KEY));
+      }
+      if (replayed) {
+        statisticAttributes.put(REPLAYED_ATTRIBUTE, new BooleanStatisticAttribute(true));
+      }
+      statistic.setAttributes(statisticAttributes);
+      statistic.setChildren(children);
+      for (final IMemoryStatistic child : children) {
+        child.setParent(statistic);
+      }
+      return statistic;
+    }
+
+    private static IMemoryStatistic newStatistic(final String statisticClass) {
+      if (ChunkStatistic.class.getName().equals(statisticClass)) {
+        return new ChunkStatistic();
+      } else if (ChunkSetStatistic.class.getName().equals(statisticClass)) {
+        return new ChunkSetStatistic();
+      } else if (DictionaryStatistic.class.getName().equals(statisticClass)) {
+        return new DictionaryStatistic();
+      } else if (IndexStatistic.class.getName().equals(statisticClass)) {
+        return new IndexStatistic();
+      } else if (ReferenceStatistic.class.getName().equals(statisticClass)) {
+        return new ReferenceStatistic();
+      } else {
+        return new DefaultMemoryStatistic();
+      }
+    }
+  }
+
+  /** Container statistic whose children are being read. */
+  protected static class Frame {
+
+    /** Header of the container. */
+    protected final Header header;
+    /** Whether a sub-tree of this container was already emitted. */
+    protected boolean hasEmitted = false;
+    /** Whether a copy of this container was already returned, with the first emitted sub-tree. */
+    protected boolean attached = false;
+    /**
+     * For pivots, whether the pivot is distributed, {@code null} until its first provider is read.
+     */
+    protected Boolean distributed;
+    /** Sub-trees of a pivot waiting for {@link #distributed} to be known. */
+    protected final List<PendingSubTree> pending = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param header header of the container
+     */
+    protected Frame(final Header header) {
+      this.header = header;
+    }
+
+    /**
+     * Returns whether this container is a pivot whose distribution is not yet known.
+     *
+     * @return {@code true} for an unresolved pivot
+     */
+    protected boolean isUnresolvedPivot() {
+      return this.distributed == null
+          && MemoryStatisticConstants.STAT_NAME_PIVOT.equals(this.header.name);
+    }
+  }
+
+  /** Sub-tree buffered until its pivot is resolved. */
+  protected static class PendingSubTree {
+
+    /** Ancestors of the sub-tree, the innermost first. */
+    protected final List<Frame> ancestors;
+    /** Root of the sub-tree. */
+    protected final IMemoryStatistic statistic;
+
+    /**
+     * Constructor.
+     *
+     * @param ancestors ancestors of the sub-tree, the innermost first
+     * @param statistic root of the sub-tree
+     */
+    protected PendingSubTree(final List<Frame> ancestors, final IMemoryStatistic statistic) {
+      this.ancestors = ancestors;
+      this.statistic = statistic;
+    }
+  }
+}
@@ -0,0 +1,369 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.qfs.condition.ICondition;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordFormat;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Records the footprint of the loaded dumps in the {@link DatastoreConstants#TREND_STORE trend
+ * store}, as time series per application.
+ *
+ * <p>The application of a dump is the first group of a pattern matching its name, the dump name
+ * itself if the pattern does not match. The dumps of an application are ordered by their export
+ * date, read from the {@link DatastoreConstants#APPLICATION_STORE application store}.
+ *
+ * <p>The latest state of each chunk of a dump is summed per owner, component and set of fields,
+ * so that the records of a dump are far fewer than its chunks and can be kept once the dump is
+ * unloaded. A chunk shared by several owners or components is counted for each of them.
+ *
+ * <p>The growths of a time series at a dump are the slopes of the least-squares lines of the series
+ * over the dumps up to that one. Recording a dump older than the latest one of its application
+ * updates the growths of the later dumps.
+ *
+ * @author ActiveViam
+ */
+public class TrendRecorder {
+
+  /** The default pattern of the dump names, whose application is their parent folder. */
+  public static final String DEFAULT_APPLICATION_PATTERN = "(.+)[/\\\\][^/\\\\]+";
+
+  /** The fields of the trend store read for each record, in the order of {@link TrendRecord}. */
+  private static final String[] TREND_FIELDS = {
+    DatastoreConstants.CHUNK__DUMP_NAME,
+    DatastoreConstants.APPLICATION__DATE,
+    DatastoreConstants.OWNER__OWNER,
+    DatastoreConstants.OWNER__COMPONENT,
+    DatastoreConstants.TREND__FIELDS,
+    DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT,
+    DatastoreConstants.CHUNK__OFF_HEAP_SIZE,
+    DatastoreConstants.CHUNK__ON_HEAP_SIZE,
+    DatastoreConstants.APPLICATION__USED_OFF_HEAP,
+    DatastoreConstants.APPLICATION__MAX_OFF_HEAP
+  };
+
+  private static final double SECONDS_PER_DAY = 24 * 60 * 60;
+
+  private static final Comparator<TrendRecord> DUMP_ORDER =
+      Comparator.comparing((TrendRecord record) -> record.date)
+          .thenComparing(record -> record.dumpName);
+
+  /** The pattern of the dump names, whose first group is the application. */
+  protected final Pattern applicationPattern;
+
+  /** The number of records added at once to the trend store. */
+  protected final int batchSize;
+
+  /**
+   * Constructor.
+   *
+   * @param applicationPattern the pattern of the dump names, whose first group is the application
+   * @param batchSize the number of records added at once to the trend store
+   */
+  public TrendRecorder(final Pattern applicationPattern, final int batchSize) {
+    if (applicationPattern.matcher("").groupCount() < 1) {
+      throw new IllegalArgumentException(
+          "The application pattern must have a group. Got " + applicationPattern);
+    }
+    this.applicationPattern = applicationPattern;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Returns the application of a dump.
+   *
+   * @param dumpName the name of the dump
+   * @return the first group of the application pattern, or the dump name if it does not match
+   */
+  public String getApplication(final String dumpName) {
+    final Matcher matcher = this.applicationPattern.matcher(dumpName);
+    return matcher.matches() && matcher.group(1) != null ? matcher.group(1) : dumpName;
+  }
+
+  /**
+   * Records the footprint of a loaded dump, replacing its previous records.
+   *
+   * @param transaction the transaction to write the records in
+   * @param dumpName the name of the dump
+   * @return the names of the dumps whose records were written, empty if the dump has no
+   *     application information
+   */
+  public Set<String> recordWithTransaction(
+      final IOpenedTransaction transaction, final String dumpName) {
+    final String application = getApplication(dumpName);
+    transaction.removeWhere(
+        DatastoreConstants.TREND_STORE, condition(DatastoreConstants.CHUNK__DUMP_NAME, dumpName));
+    final List<TrendRecord> added = readDumpFootprint(transaction, dumpName);
+    if (added.isEmpty()) {
+      return Set.of();
+    }
+
+    final List<TrendRecord> records = new ArrayList<>(added);
+    for (final IRecordReader reader :
+        query(
+            transaction,
+            DatastoreConstants.TREND_STORE,
+            condition(DatastoreConstants.TREND__APPLICATION, application),
+            TREND_FIELDS)) {
+      if (!dumpName.equals(reader.read(0))) {
+        records.add(new TrendRecord(reader));
+      }
+    }
+    computeGrowths(records);
+
+    final TrendWriter writer = new TrendWriter(transaction, application);
+    final TrendRecord first = added.get(0);
+    final Set<String> written = new TreeSet<>();
+    for (final TrendRecord record : records) {
+      if (DUMP_ORDER.compare(record, first) >= 0) {
+        writer.write(record);
+        written.add(record.dumpName);
+      }
+    }
+    writer.flush();
+    return written;
+  }
+
+  /**
+   * Sums the latest state of the chunks of a dump per owner, component and set of fields.
+   *
+   * @param transaction the transaction to read the dump from
+   * @param dumpName the name of the dump
+   * @return the records of the dump, empty if it has no application information
+   */
+  private List<TrendRecord> readDumpFootprint(
+      final IOpenedTransaction transaction, final String dumpName) {
+    Object[] application = null;
+    for (final IRecordReader reader :
+        query(
+            transaction,
+            DatastoreConstants.APPLICATION_STORE,
+            condition(DatastoreConstants.APPLICATION__DUMP_NAME, dumpName),
+            DatastoreConstants.APPLICATION__DATE,
+            DatastoreConstants.APPLICATION__USED_OFF_HEAP,
+            DatastoreConstants.APPLICATION__MAX_OFF_HEAP)) {
+      application = new Object[] {reader.read(0), reader.readLong(1), reader.readLong(2)};
+    }
+    if (application == null) {
+      return List.of();
+    }
+
+    final Map<List<Object>, long[]> footprints = new LinkedHashMap<>();
+    ChunkState.readLatest(transaction, dumpName)
+        .forEachValue(
+            chunk -> {
+              for (final List<Object> owner : chunk.owners) {
+                final long[] footprint =
+                    footprints.computeIfAbsent(
+                        Arrays.asList(owner.get(0), owner.get(1), chunk.getFields(owner)),
+                        k -> new long[3]);
+                ++footprint[0];
+                footprint[1] += chunk.offHeapSize;
+                footprint[2] += chunk.onHeapSize;
+              }
+              return true;
+            });
+
+    final List<TrendRecord> records = new ArrayList<>(footprints.size());
+    for (final Map.Entry<List<Object>, long[]> entry : footprints.entrySet()) {
+      final TrendRecord record = new TrendRecord();
+      record.dumpName = dumpName;
+      record.date = (Instant) application[0];
+      record.series = entry.getKey();
+      record.chunkCount = entry.getValue()[0];
+      record.offHeapSize = entry.getValue()[1];
+      record.onHeapSize = entry.getValue()[2];
+      record.usedOffHeap = (long) application[1];
+      record.maxOffHeap = (long) application[2];
+      records.add(record);
+    }
+    return records;
+  }
+
+  /**
+   * Computes the growths of the records of an application, from the dumps up to theirs.
+   *
+   * @param records all the records of the application
+   */
+  private static void computeGrowths(final List<TrendRecord> records) {
+    records.sort(DUMP_ORDER);
+    final Instant origin = records.get(0).date;
+
+    // The application memory, once per dump
+    final LeastSquares used = new LeastSquares();
+    TrendRecord previous = null;
+    for (final TrendRecord record : records) {
+      if (previous == null || !previous.dumpName.equals(record.dumpName)) {
+        used.add(days(origin, record), record.usedOffHeap);
+        previous = record;
+      }
+      record.usedOffHeapGrowth = used.slope();
+      record.daysToMaxOffHeap =
+          record.usedOffHeapGrowth > 0
+              ? (record.maxOffHeap - record.usedOffHeap) / record.usedOffHeapGrowth
+              : null;
+    }
+
+    final Map<List<Object>, LeastSquares[]> series = new HashMap<>();
+    for (final TrendRecord record : records) {
+      final LeastSquares[] growths =
+          series.computeIfAbsent(
+              record.series, k -> new LeastSquares[] {new LeastSquares(), new LeastSquares()});
+      final double days = days(origin, record);
+      growths[0].add(days, record.offHeapSize);
+      growths[1].add(days, record.onHeapSize);
+      record.offHeapGrowth = growths[0].slope();
+      record.onHeapGrowth = growths[1].slope();
+    }
+  }
+
+  private static double days(final Instant origin, final TrendRecord record) {
+    return (record.date.getEpochSecond() - origin.getEpochSecond()) / SECONDS_PER_DAY;
+  }
+
+  private static ICondition condition(final String field, final String value) {
+    return BaseConditions.equal(FieldPath.of(field), value);
+  }
+
+  private static ICursor query(
+      final IOpenedTransaction transaction,
+      final String store,
+      final ICondition condition,
+      final String... fields) {
+    return transaction
+        .getQueryRunner()
+        .forStore(store)
+        .withCondition(condition)
+        .selecting(fields)
+        .run();
+  }
+
+  /** Running least-squares fit of a line through points. */
+  private static class LeastSquares {
+
+    private long count;
+    private double sumX;
+    private double sumY;
+    private double sumXx;
+    private double sumXy;
+
+    private void add(final double x, final double y) {
+      ++this.count;
+      this.sumX += x;
+      this.sumY += y;
+      this.sumXx += x * x;
+      this.sumXy += x * y;
+    }
+
+    /** Returns the slope of the line, {@code 0} if the points do not span several abscissas. */
+    private double slope() {
+      final double denominator = this.count * this.sumXx - this.sumX * this.sumX;
+      return denominator > 0 ? (this.count * this.sumXy - this.sumX * this.sumY) / denominator : 0;
+    }
+  }
+
+  /** A record of the trend store. */
+  private static class TrendRecord {
+
+    private String dumpName;
+    private Instant date;
+    /** The owner, component and fields of the time series. */
+    private List<Object> series;
+
+    private long chunkCount;
+    private long offHeapSize;
+    private long onHeapSize;
+    private long usedOffHeap;
+    private long maxOffHeap;
+
+    private double offHeapGrowth;
+    private double onHeapGrowth;
+    private double usedOffHeapGrowth;
+    private Double daysToMaxOffHeap;
+
+    private TrendRecord() {}
+
+    private TrendRecord(final IRecordReader reader) {
+      this.dumpName = (String) reader.read(0);
+      this.date = (Instant) reader.read(1);
+      this.series = Arrays.asList(reader.read(2), reader.read(3), reader.read(4));
+      this.chunkCount = reader.readLong(5);
+      this.offHeapSize = reader.readLong(6);
+      this.onHeapSize = reader.readLong(7);
+      this.usedOffHeap = reader.readLong(8);
+      this.maxOffHeap = reader.readLong(9);
+    }
+  }
+
+  /** Writer of the records of the trend store. */
+  private class TrendWriter {
+
+    private final TupleBatcher batcher;
+
+    private final IRecordFormat format;
+
+    /** The reused tuple, holding the application. */
+    private final Object[] tuple;
+
+    private TrendWriter(final IOpenedTransaction transaction, final String application) {
+      this.batcher = new TupleBatcher(transaction, batchSize);
+      this.format =
+          transaction
+              .getMetadata()
+              .getStoreMetadata(DatastoreConstants.TREND_STORE)
+              .getStoreFormat()
+              .getRecordFormat();
+      this.tuple = new Object[this.format.getFieldCount()];
+      set(DatastoreConstants.TREND__APPLICATION, application);
+    }
+
+    private void write(final TrendRecord record) {
+      set(DatastoreConstants.CHUNK__DUMP_NAME, record.dumpName);
+      set(DatastoreConstants.APPLICATION__DATE, record.date);
+      set(DatastoreConstants.OWNER__OWNER, record.series.get(0));
+      set(DatastoreConstants.OWNER__COMPONENT, record.series.get(1));
+      set(DatastoreConstants.TREND__FIELDS, record.series.get(2));
+      set(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT, record.chunkCount);
+      set(DatastoreConstants.CHUNK__OFF_HEAP_SIZE, record.offHeapSize);
+      set(DatastoreConstants.CHUNK__ON_HEAP_SIZE, record.onHeapSize);
+      set(DatastoreConstants.TREND__OFF_HEAP_GROWTH, record.offHeapGrowth);
+      set(DatastoreConstants.TREND__ON_HEAP_GROWTH, record.onHeapGrowth);
+      set(DatastoreConstants.APPLICATION__USED_OFF_HEAP, record.usedOffHeap);
+      set(DatastoreConstants.APPLICATION__MAX_OFF_HEAP, record.maxOffHeap);
+      set(DatastoreConstants.TREND__USED_OFF_HEAP_GROWTH, record.usedOffHeapGrowth);
+      set(DatastoreConstants.TREND__DAYS_TO_MAX_OFF_HEAP, record.daysToMaxOffHeap);
+      this.batcher.add(DatastoreConstants.TREND_STORE, this.tuple);
+    }
+
+    private void set(final String field, final Object value) {
+      this.tuple[this.format.getFieldIndex(field)] = value;
+    }
+
+    private void flush() {
+      this.batcher.flush();
+    }
+  }
+}
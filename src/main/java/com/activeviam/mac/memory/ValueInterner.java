@@ -0,0 +1,81 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.memory;
+
+import com.activeviam.mac.entities.ChunkOwner;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.StringArrayObject;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonicalizes the values repeated across the records of a loading, such as the classes of the
+ * chunks, the ids of their parents, the names of the fields or the owners.
+ *
+ * <p>The decoded statistics hold a new instance of each of these values. Replacing them by a single
+ * instance before they reach the transaction lets the duplicates be collected with their
+ * statistics, and lets the dictionaries of the stores compare the values by reference.
+ *
+ * <p>An interner is scoped to the loading of a dump, and can be used concurrently by all the
+ * threads feeding it.
+ *
+ * @author ActiveViam
+ */
+public class ValueInterner {
+
+  /** The canonical instance of each value, keyed by content. */
+  protected final ConcurrentHashMap<Object, Object> values = new ConcurrentHashMap<>();
+
+  /**
+   * Tells whether a value is worth canonicalizing.
+   *
+   * @param value the value of a record field
+   * @return {@code true} for the strings, the owners and the field name arrays
+   */
+  public static boolean isInterned(final Object value) {
+    return value instanceof String
+        || value instanceof ChunkOwner
+        || value instanceof StringArrayObject;
+  }
+
+  /**
+   * Returns the canonical instance of a value.
+   *
+   * @param value the value to canonicalize, can be {@code null}
+   * @param <T> the type of the value
+   * @return the first instance equal to the value given to this interner
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T intern(final T value) {
+    if (value == null) {
+      return null;
+    }
+    final Object existing = this.values.putIfAbsent(value, value);
+    return existing == null ? value : (T) existing;
+  }
+
+  /**
+   * Canonicalizes in place the values of a tuple that are worth it.
+   *
+   * @param tuple the tuple whose values to canonicalize
+   */
+  public void internAll(final Object[] tuple) {
+    for (int i = 0; i < tuple.length; ++i) {
+      if (isInterned(tuple[i])) {
+        tuple[i] = intern(tuple[i]);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of distinct values canonicalized by this interner.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    return this.values.size();
+  }
+}
@@ -8,7 +8,6 @@
 package com.activeviam.mac.statistic.memory.visitor.impl;
 
 import com.qfs.store.IDatastoreSchemaMetadata;
-import com.qfs.store.transaction.IOpenedTransaction;
 import java.util.Collection;
 
 /**
@@ -34,7 +33,7 @@ public abstract class ADatastoreFeedVisitor<R> extends AFeedVisitorWithDictionar
    * @param dumpName dumpName of the ongoing import
    */
   public ADatastoreFeedVisitor(
-      IOpenedTransaction transaction, IDatastoreSchemaMetadata storageMetadata, String dumpName) {
+      TupleBatcher transaction, IDatastoreSchemaMetadata storageMetadata, String dumpName) {
     super(transaction, storageMetadata, dumpName);
   }
 }
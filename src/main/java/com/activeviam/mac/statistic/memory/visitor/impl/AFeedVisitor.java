@@ -13,7 +13,6 @@ import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
 import com.qfs.monitoring.statistic.memory.visitor.IMemoryStatisticVisitor;
 import com.qfs.store.IDatastoreSchemaMetadata;
 import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
 
 /**
  * Abstract class for {@link IMemoryStatisticVisitor memory statistic visitors}.
@@ -23,8 +22,8 @@ import com.qfs.store.transaction.IOpenedTransaction;
  */
 public abstract class AFeedVisitor<R> implements IMemoryStatisticVisitor<R> {
 
-  /** Ongoing transaction. */
-  protected final IOpenedTransaction transaction;
+  /** Ongoing transaction, to which the tuples are added in batches. */
+  protected final TupleBatcher transaction;
   /** Metadata of the Analysis Datastore. */
   protected final IDatastoreSchemaMetadata storageMetadata;
   /** Name of the import. */
@@ -40,7 +39,7 @@ public abstract class AFeedVisitor<R> implements IMemoryStatisticVisitor<R> {
    * @param dumpName Name of the import
    */
   public AFeedVisitor(
-      final IOpenedTransaction transaction,
+      final TupleBatcher transaction,
       final IDatastoreSchemaMetadata storageMetadata,
       final String dumpName) {
     this.transaction = transaction;
@@ -118,6 +117,91 @@ public abstract class AFeedVisitor<R> implements IMemoryStatisticVisitor<R> {
     return FeedVisitor.getRecordFormat(storageMetadata, DatastoreConstants.DICTIONARY_STORE);
   }
 
+  /**
+   * Returns the {@link ChunkTupleWriter writer} of the Chunk store.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#CHUNK_STORE} tuples
+   */
+  protected static ChunkTupleWriter getChunkWriter(IDatastoreSchemaMetadata storageMetadata) {
+    return ChunkTupleWriter.of(getChunkFormat(storageMetadata));
+  }
+
+  /**
+   * Returns the {@link ChunkToFieldTupleWriter writer} of the store linking the chunks to their
+   * fields.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#CHUNK_TO_FIELD_STORE} tuples
+   */
+  protected static ChunkToFieldTupleWriter getChunkToFieldWriter(
+      IDatastoreSchemaMetadata storageMetadata) {
+    return ChunkToFieldTupleWriter.of(
+        FeedVisitor.getRecordFormat(storageMetadata, DatastoreConstants.CHUNK_TO_FIELD_STORE));
+  }
+
+  /**
+   * Returns the {@link ProviderTupleWriter writer} of the Provider store.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#PROVIDER_STORE} tuples
+   */
+  protected static ProviderTupleWriter getProviderWriter(IDatastoreSchemaMetadata storageMetadata) {
+    return ProviderTupleWriter.of(getProviderFormat(storageMetadata));
+  }
+
+  /**
+   * Returns the {@link LevelTupleWriter writer} of the Level store.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#LEVEL_STORE} tuples
+   */
+  protected static LevelTupleWriter getLevelWriter(IDatastoreSchemaMetadata storageMetadata) {
+    return LevelTupleWriter.of(getLevelFormat(storageMetadata));
+  }
+
+  /**
+   * Returns the {@link IndexTupleWriter writer} of the Index store.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#INDEX_STORE} tuples
+   */
+  protected static IndexTupleWriter getIndexWriter(IDatastoreSchemaMetadata storageMetadata) {
+    return IndexTupleWriter.of(getIndexFormat(storageMetadata));
+  }
+
+  /**
+   * Returns the {@link ReferenceTupleWriter writer} of the Reference store.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#REFERENCE_STORE} tuples
+   */
+  protected static ReferenceTupleWriter getReferenceWriter(
+      IDatastoreSchemaMetadata storageMetadata) {
+    return ReferenceTupleWriter.of(getReferenceFormat(storageMetadata));
+  }
+
+  /**
+   * Returns the {@link VersionTupleWriter writer} of the Branch store.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#VERSION_STORE} tuples
+   */
+  protected static VersionTupleWriter getVersionWriter(IDatastoreSchemaMetadata storageMetadata) {
+    return VersionTupleWriter.of(getVersionStoreFormat(storageMetadata));
+  }
+
+  /**
+   * Returns the {@link DictionaryTupleWriter writer} of the Dictionary store.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @return the writer of the {@link DatastoreConstants#DICTIONARY_STORE} tuples
+   */
+  protected static DictionaryTupleWriter getDictionaryWriter(
+      IDatastoreSchemaMetadata storageMetadata) {
+    return DictionaryTupleWriter.of(getDictionaryFormat(storageMetadata));
+  }
+
   @Override
   public R visit(final IMemoryStatistic memoryStatistic) {
     visitChildren(memoryStatistic);
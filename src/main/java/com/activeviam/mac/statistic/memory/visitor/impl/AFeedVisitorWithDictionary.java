@@ -17,8 +17,6 @@ import com.qfs.monitoring.statistic.IStatisticAttribute;
 import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
 import com.qfs.monitoring.statistic.memory.impl.DictionaryStatistic;
 import com.qfs.store.IDatastoreSchemaMetadata;
-import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
 import java.util.logging.Logger;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -40,7 +38,7 @@ public abstract class AFeedVisitorWithDictionary<R> extends AFeedVisitor<R> {
    * @param dumpName Name of the import
    */
   public AFeedVisitorWithDictionary(
-      IOpenedTransaction transaction, IDatastoreSchemaMetadata storageMetadata, String dumpName) {
+      TupleBatcher transaction, IDatastoreSchemaMetadata storageMetadata, String dumpName) {
     super(transaction, storageMetadata, dumpName);
   }
 
@@ -53,7 +51,7 @@ public abstract class AFeedVisitorWithDictionary<R> extends AFeedVisitor<R> {
    * @return the
    */
   protected DictionaryAttributes processDictionaryStatistic(
-      DictionaryStatistic statistic, Long epochId) {
+      DictionaryStatistic statistic, long epochId) {
     final var previousAttributes = this.dictionaryAttributes;
     this.dictionaryAttributes = new DictionaryAttributes(previousAttributes);
     if (!statistic.getName().equals(MemoryStatisticConstants.STAT_NAME_DICTIONARY_UNDERLYING)) {
@@ -88,17 +86,15 @@ public abstract class AFeedVisitorWithDictionary<R> extends AFeedVisitor<R> {
       if (!this.dictionaryAttributes
           .getDictionaryClass()
           .equals(StructureDictionaryManager.class.getName())) {
-        final IRecordFormat format = getDictionaryFormat(this.storageMetadata);
+        final DictionaryTupleWriter writer = getDictionaryWriter(this.storageMetadata);
         final Object[] tuple =
-            FeedVisitor.buildDictionaryTupleFrom(
-                format,
+            writer.newTuple(
                 this.dictionaryAttributes.getDictionaryId(),
                 this.dictionaryAttributes.getDictionaryClass(),
                 this.dictionaryAttributes.getDictionarySize(),
                 this.dictionaryAttributes.getDictionaryOrder());
-        FeedVisitor.setTupleElement(
-            tuple, format, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-        FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__EPOCH_ID, epochId);
+        writer.setDumpName(tuple, this.dumpName);
+        writer.setEpochId(tuple, epochId);
 
         FeedVisitor.add(statistic, this.transaction, DatastoreConstants.DICTIONARY_STORE, tuple);
       }
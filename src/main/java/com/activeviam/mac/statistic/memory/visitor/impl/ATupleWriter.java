@@ -0,0 +1,152 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Base class of the writers filling the tuples of a store of the analysis datastore.
+ *
+ * <p>A writer resolves the indices of the fields of its store once, when created from the record
+ * format of the store, instead of looking them up by name for every record. Writers hold no state
+ * besides these indices and can be shared by concurrent visitors.
+ *
+ * @author ActiveViam
+ */
+public abstract class ATupleWriter {
+
+  /** The record format of the store. */
+  protected final IRecordFormat format;
+
+  /** Index of the name of the dump. */
+  protected final int dumpNameIndex;
+
+  /** Index of the epoch id, negative if the store has no such field. */
+  protected final int epochIdIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the store
+   */
+  protected ATupleWriter(final IRecordFormat format) {
+    this.format = format;
+    this.dumpNameIndex = index(DatastoreConstants.CHUNK__DUMP_NAME);
+    this.epochIdIndex = format.getFieldIndex(DatastoreConstants.VERSION__EPOCH_ID);
+  }
+
+  /**
+   * Returns the writer of a record format, reusing the last created one if it has the same format.
+   *
+   * <p>The analysis datastore being created once, this avoids resolving the indices again for each
+   * visitor.
+   *
+   * @param cache the last created writer
+   * @param format the record format of the store
+   * @param factory the constructor of the writer
+   * @param <W> the type of the writer
+   * @return the writer of the format
+   */
+  protected static <W extends ATupleWriter> W cached(
+      final AtomicReference<W> cache,
+      final IRecordFormat format,
+      final Function<IRecordFormat, W> factory) {
+    final W writer = cache.get();
+    if (writer != null && writer.format == format) {
+      return writer;
+    }
+    final W created = factory.apply(format);
+    cache.set(created);
+    return created;
+  }
+
+  /**
+   * Resolves the index of a field of the store.
+   *
+   * @param field the name of the field
+   * @return the index of the field
+   * @throws IllegalArgumentException if the store has no such field
+   */
+  protected int index(final String field) {
+    final int index = this.format.getFieldIndex(field);
+    if (index < 0) {
+      throw new IllegalArgumentException("No field " + field + " in " + this.format);
+    }
+    return index;
+  }
+
+  /**
+   * Writes a mandatory value in a tuple.
+   *
+   * @param tuple the tuple to fill
+   * @param index the index of the field
+   * @param value the value of the field
+   */
+  protected void write(final Object[] tuple, final int index, final Object value) {
+    if (value == null) {
+      throw missingValue(index);
+    }
+    tuple[index] = value;
+  }
+
+  /**
+   * Creates the exception thrown when a mandatory value is missing.
+   *
+   * @param index the index of the field
+   * @return the exception to throw
+   */
+  protected RuntimeException missingValue(final int index) {
+    return new RuntimeException(
+        "Expected a non-null value for field " + this.format.getFieldName(index));
+  }
+
+  /**
+   * Creates an empty tuple of the store.
+   *
+   * @return the tuple
+   */
+  public Object[] newTuple() {
+    return new Object[this.format.getFieldCount()];
+  }
+
+  /**
+   * Sets the name of the dump of a tuple.
+   *
+   * @param tuple the tuple to fill
+   * @param dumpName the name of the dump
+   */
+  public void setDumpName(final Object[] tuple, final String dumpName) {
+    write(tuple, this.dumpNameIndex, dumpName);
+  }
+
+  /**
+   * Sets the epoch id of a tuple, for the stores having one.
+   *
+   * @param tuple the tuple to fill
+   * @param epochId the epoch id
+   * @throws RuntimeException if the epoch id is {@link DatastoreConstants#NO_EPOCH_ID}
+   */
+  public void setEpochId(final Object[] tuple, final long epochId) {
+    if (epochId == DatastoreConstants.NO_EPOCH_ID) {
+      throw missingValue(this.epochIdIndex);
+    }
+    tuple[this.epochIdIndex] = epochId;
+  }
+
+  /**
+   * Returns the record format of the store.
+   *
+   * @return the record format
+   */
+  public IRecordFormat getFormat() {
+    return this.format;
+  }
+}
@@ -10,6 +10,7 @@ package com.activeviam.mac.statistic.memory.visitor.impl;
 import com.activeviam.mac.Workaround;
 import com.activeviam.mac.entities.ChunkOwner;
 import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.LoadingMetrics;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.UsedByVersion;
@@ -25,11 +26,11 @@ import com.qfs.monitoring.statistic.memory.impl.IndexStatistic;
 import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
 import com.qfs.store.IDatastoreSchemaMetadata;
 import com.qfs.store.impl.ChunkSet;
-import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of the {@link com.qfs.monitoring.statistic.memory.visitor.IMemoryStatisticVisitor}
@@ -39,27 +40,40 @@ import java.util.Collections;
  */
 public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
 
-  /** The record format of the store that stores the chunks. */
-  protected final IRecordFormat chunkRecordFormat;
+  /** Timer measuring the time spent in this visitor. */
+  static final Timer TIMER = LoadingMetrics.visitorTimer(ChunkSetStatisticVisitor.class);
+
+  /** The writer of the tuples of the store that stores the chunks. */
+  protected final ChunkTupleWriter chunkWriter;
+  /** The writer of the tuples of the store linking the chunks to their fields. */
+  protected final ChunkToFieldTupleWriter fieldWriter;
+  /** The tuple reused for all the visited chunks, created with the first one. */
+  protected Object[] chunkTuple;
+  /** Whether {@link #chunkTuple} holds the attributes of the current chunkset. */
+  protected boolean chunkTupleFilled;
+  /** The visitor of the vector blocks, reused for all the blocks of the visited chunksets. */
+  protected VectorStatisticVisitor vectorVisitor;
 
   /** The export date, found on the first statistics we read. */
   protected final Instant current;
 
   /** Type of the root structure. */
-  protected final ParentType rootComponent;
+  protected ParentType rootComponent;
   /** Type of the direct parent structure. */
-  protected final ParentType directParentType;
+  protected ParentType directParentType;
   /** id of the direct parent structure. */
-  protected final String directParentId;
-  /** Aggregate provider being currently visited. */
-  protected final Long providerId;
+  protected String directParentId;
+  /**
+   * Aggregate provider being currently visited, {@link DatastoreConstants#NO_PROVIDER_ID} if none.
+   */
+  protected long providerId;
 
   /** The partition id of the visited statistic. */
-  protected final int partitionId;
+  protected int partitionId;
   /** Whether or not to ignore the field attributes of the visited statistics. */
-  protected final boolean ignoreFieldSpecifications;
+  protected boolean ignoreFieldSpecifications;
   /** The epoch id we are currently reading statistics for. */
-  protected Long epochId;
+  protected long epochId;
   /**
    * Whether or not the currently visited statistics were flagged as used by the current version.
    */
@@ -67,9 +81,28 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
   /** ID of the current {@link ChunkSet}. */
   protected Long chunkSetId = null;
 
-  private Integer chunkSize;
-  private Integer freeRows;
-  private Integer nonWrittenRows;
+  private int chunkSize = DatastoreConstants.INT_IF_NOT_EXIST;
+  private int freeRows = DatastoreConstants.INT_IF_NOT_EXIST;
+  private int nonWrittenRows = DatastoreConstants.INT_IF_NOT_EXIST;
+
+  /**
+   * Constructor of a visitor to {@link #reset reset} before visiting each chunkset.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @param transaction ongoing transaction
+   * @param dumpName name of the ongoing import
+   * @param current current time
+   */
+  public ChunkSetStatisticVisitor(
+      final IDatastoreSchemaMetadata storageMetadata,
+      final TupleBatcher transaction,
+      final String dumpName,
+      final Instant current) {
+    super(transaction, storageMetadata, dumpName);
+    this.current = current;
+    this.chunkWriter = getChunkWriter(this.storageMetadata);
+    this.fieldWriter = getChunkToFieldWriter(this.storageMetadata);
+  }
 
   /**
    * Constructor.
@@ -85,7 +118,7 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
    * @param partitionId partition id of the parent of the ChunkSet
    * @param indexId index id of the Chunkset
    * @param referenceId reference id of the chunkset
-   * @param providerId id of the parent provider
+   * @param providerId id of the parent provider, {@link DatastoreConstants#NO_PROVIDER_ID} if none
    * @param epochId the epoch id of the chunkset
    * @param usedByVersion the used by version flag for the Chunkset
    * @param ignoreFieldSpecifications whether or not to attribute the visited chunkset's chunks to
@@ -93,7 +126,7 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
    */
   public ChunkSetStatisticVisitor(
       final IDatastoreSchemaMetadata storageMetadata,
-      final IOpenedTransaction transaction,
+      final TupleBatcher transaction,
       final String dumpName,
       final Instant current,
       final ChunkOwner owner,
@@ -103,12 +136,54 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
       final int partitionId,
       final Long indexId,
       final Long referenceId,
-      final Long providerId,
-      final Long epochId,
+      final long providerId,
+      final long epochId,
+      final UsedByVersion usedByVersion,
+      final boolean ignoreFieldSpecifications) {
+    this(storageMetadata, transaction, dumpName, current);
+    reset(
+        owner,
+        rootComponent,
+        parentType,
+        parentId,
+        partitionId,
+        indexId,
+        referenceId,
+        providerId,
+        epochId,
+        usedByVersion,
+        ignoreFieldSpecifications);
+  }
+
+  /**
+   * Prepares this visitor to visit another chunkset, reusing its tuple.
+   *
+   * @param owner owner being visited
+   * @param rootComponent highest component holding the ChunkSet
+   * @param parentType structure type of the parent of the Chunkset
+   * @param parentId id of the parent of the ChunkSet
+   * @param partitionId partition id of the parent of the ChunkSet
+   * @param indexId index id of the Chunkset
+   * @param referenceId reference id of the chunkset
+   * @param providerId id of the parent provider, {@link DatastoreConstants#NO_PROVIDER_ID} if none
+   * @param epochId the epoch id of the chunkset
+   * @param usedByVersion the used by version flag for the Chunkset
+   * @param ignoreFieldSpecifications whether or not to attribute the visited chunkset's chunks to
+   *     the encountered fields
+   * @return this visitor
+   */
+  public ChunkSetStatisticVisitor reset(
+      final ChunkOwner owner,
+      final ParentType rootComponent,
+      final ParentType parentType,
+      final String parentId,
+      final int partitionId,
+      final Long indexId,
+      final Long referenceId,
+      final long providerId,
+      final long epochId,
       final UsedByVersion usedByVersion,
       final boolean ignoreFieldSpecifications) {
-    super(transaction, storageMetadata, dumpName);
-    this.current = current;
     this.owner = owner;
     this.rootComponent = rootComponent;
     this.directParentType = parentType;
@@ -121,11 +196,40 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
     this.usedByVersion = usedByVersion;
     this.ignoreFieldSpecifications = ignoreFieldSpecifications;
 
-    this.chunkRecordFormat =
-        this.storageMetadata
-            .getStoreMetadata(DatastoreConstants.CHUNK_STORE)
-            .getStoreFormat()
-            .getRecordFormat();
+    this.fields = null;
+    this.chunkSetId = null;
+    this.chunkSize = DatastoreConstants.INT_IF_NOT_EXIST;
+    this.freeRows = DatastoreConstants.INT_IF_NOT_EXIST;
+    this.nonWrittenRows = DatastoreConstants.INT_IF_NOT_EXIST;
+    this.chunkTupleFilled = false;
+    return this;
+  }
+
+  private Object[] getChunkTuple() {
+    if (this.chunkTupleFilled) {
+      return this.chunkTuple;
+    }
+    final ChunkTupleWriter writer = this.chunkWriter;
+    if (this.chunkTuple == null) {
+      this.chunkTuple = writer.newTuple();
+    }
+    final Object[] tuple = this.chunkTuple;
+    writer.setParent(tuple, this.directParentType, this.directParentId);
+    writer.setOwner(tuple, this.owner, this.rootComponent);
+
+    writer.setDumpName(tuple, this.dumpName);
+    writer.setEpochId(tuple, this.epochId);
+
+    writer.setPartitionId(tuple, this.partitionId);
+    writer.setParentStructures(
+        tuple, this.referenceId, this.indexId, this.dictionaryAttributes.getDictionaryId());
+    if (this.providerId != DatastoreConstants.NO_PROVIDER_ID) {
+      writer.setProviderId(tuple, this.providerId);
+    } else {
+      writer.clearProviderId(tuple);
+    }
+    this.chunkTupleFilled = true;
+    return tuple;
   }
 
   @Override
@@ -159,12 +263,12 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
     } else if (memoryStatistic.getName().equals(MemoryStatisticConstants.STAT_NAME_CHUNK_ENTRY)) {
 
       // Remove this stat for a subchunk, particularly for vector chunks
-      final Integer previousSize = this.chunkSize;
-      final Integer previousFree = this.freeRows;
-      final Integer previousNonWritten = this.nonWrittenRows;
-      this.chunkSize = null;
-      this.freeRows = null;
-      this.nonWrittenRows = null;
+      final int previousSize = this.chunkSize;
+      final int previousFree = this.freeRows;
+      final int previousNonWritten = this.nonWrittenRows;
+      this.chunkSize = DatastoreConstants.INT_IF_NOT_EXIST;
+      this.freeRows = DatastoreConstants.INT_IF_NOT_EXIST;
+      this.nonWrittenRows = DatastoreConstants.INT_IF_NOT_EXIST;
 
       FeedVisitor.visitChildren(this, memoryStatistic);
 
@@ -203,9 +307,9 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
 
     // Reset
     this.chunkSetId = null;
-    this.chunkSize = null;
-    this.freeRows = null;
-    this.nonWrittenRows = null;
+    this.chunkSize = DatastoreConstants.INT_IF_NOT_EXIST;
+    this.freeRows = DatastoreConstants.INT_IF_NOT_EXIST;
+    this.nonWrittenRows = DatastoreConstants.INT_IF_NOT_EXIST;
     this.usedByVersion = previousUsedByVersion;
 
     return null;
@@ -227,64 +331,28 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
         this.fields = Collections.singleton(fieldAttribute.asText());
       }
 
-      final IRecordFormat format = this.chunkRecordFormat;
-      final Object[] tuple = FeedVisitor.buildChunkTupleFrom(format, chunkStatistic);
-
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE, this.directParentType);
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.CHUNK__PARENT_ID, this.directParentId);
-      FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.OWNER__OWNER, this.owner);
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.OWNER__COMPONENT, this.rootComponent);
-
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.VERSION__EPOCH_ID, this.epochId);
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.CHUNK__USED_BY_VERSION, this.usedByVersion);
-
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.CHUNK__PARTITION_ID, this.partitionId);
-      if (this.referenceId != null) {
-        FeedVisitor.setTupleElement(
-            tuple, format, DatastoreConstants.CHUNK__PARENT_REF_ID, this.referenceId);
-      }
-      if (this.indexId != null) {
-        FeedVisitor.setTupleElement(
-            tuple, format, DatastoreConstants.CHUNK__PARENT_INDEX_ID, this.indexId);
-      }
-      final Long dictionaryId = this.dictionaryAttributes.getDictionaryId();
-      if (dictionaryId != null) {
-        FeedVisitor.setTupleElement(
-            tuple, format, DatastoreConstants.CHUNK__PARENT_DICO_ID, dictionaryId);
-      }
-      if (this.providerId != null) {
-        FeedVisitor.setTupleElement(
-            tuple, format, DatastoreConstants.CHUNK__PROVIDER_ID, this.providerId);
-      }
+      final ChunkTupleWriter writer = this.chunkWriter;
+      final Object[] tuple = getChunkTuple();
+      writer.setChunk(tuple, chunkStatistic);
+      writer.setUsedByVersion(tuple, this.usedByVersion);
+
       // Complete chunk info regarding size and usage if not defined by a parent
-      if (this.chunkSize != null) {
-        FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__SIZE, this.chunkSize);
+      if (this.chunkSize != DatastoreConstants.INT_IF_NOT_EXIST) {
+        writer.setSize(tuple, this.chunkSize);
       }
-      if (this.freeRows != null) {
-        FeedVisitor.setTupleElement(
-            tuple, format, DatastoreConstants.CHUNK__FREE_ROWS, this.freeRows);
+      if (this.freeRows != DatastoreConstants.INT_IF_NOT_EXIST) {
+        writer.setFreeRows(tuple, this.freeRows);
       }
-      if (this.nonWrittenRows != null) {
-        FeedVisitor.setTupleElement(
-            tuple, format, DatastoreConstants.CHUNK__NON_WRITTEN_ROWS, this.nonWrittenRows);
+      if (this.nonWrittenRows != DatastoreConstants.INT_IF_NOT_EXIST) {
+        writer.setNonWrittenRows(tuple, this.nonWrittenRows);
       }
 
       // Debug
       if (MemoryAnalysisDatastoreDescriptionConfig.ADD_DEBUG_TREE) {
-        tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DEBUG_TREE)] =
-            StatisticTreePrinter.getTreeAsString(chunkStatistic);
+        writer.setDebugTree(tuple, chunkStatistic);
       }
       // Set the chunk data to be added to the Chunk store
-      FeedVisitor.writeChunkTupleForFields(
-          chunkStatistic, this.transaction, this.fields, format, tuple);
+      writer.addForFields(this.transaction, this.fieldWriter, this.fields, tuple);
 
       visitChildren(chunkStatistic);
 
@@ -314,18 +382,19 @@ public class ChunkSetStatisticVisitor extends ADatastoreFeedVisitor<Void> {
   // endregion
 
   private void visitVectorBlock(final IMemoryStatistic memoryStatistic) {
-    final VectorStatisticVisitor subVisitor =
-        new VectorStatisticVisitor(
-            this.storageMetadata,
-            this.transaction,
-            this.dumpName,
-            this.current,
-            this.owner,
-            this.fields,
-            this.partitionId,
-            this.epochId,
-            this.usedByVersion);
-    subVisitor.process(memoryStatistic);
+    if (this.vectorVisitor == null) {
+      this.vectorVisitor =
+          new VectorStatisticVisitor(
+              this.storageMetadata, this.transaction, this.dumpName, this.current);
+    }
+    this.vectorVisitor.reset(
+        this.owner, this.fields, this.partitionId, this.epochId, this.usedByVersion);
+    final long start = System.nanoTime();
+    try {
+      this.vectorVisitor.process(memoryStatistic);
+    } finally {
+      VectorStatisticVisitor.TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
   }
 
   @Workaround(
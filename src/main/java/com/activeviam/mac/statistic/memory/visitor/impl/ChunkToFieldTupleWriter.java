@@ -0,0 +1,86 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#CHUNK_TO_FIELD_STORE store} linking the
+ * chunks to the fields they are attributed to.
+ *
+ * @author ActiveViam
+ */
+public class ChunkToFieldTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<ChunkToFieldTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int chunkIdIndex;
+  private final int ownerIndex;
+  private final int componentIndex;
+  private final int fieldIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the chunk-to-field store
+   */
+  public ChunkToFieldTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.chunkIdIndex = index(DatastoreConstants.CHUNK_ID);
+    this.ownerIndex = index(DatastoreConstants.OWNER__OWNER);
+    this.componentIndex = index(DatastoreConstants.OWNER__COMPONENT);
+    this.fieldIndex = index(DatastoreConstants.OWNER__FIELD);
+  }
+
+  /**
+   * Returns the writer of a record format of the chunk-to-field store.
+   *
+   * @param format the record format of the chunk-to-field store
+   * @return the writer
+   */
+  public static ChunkToFieldTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, ChunkToFieldTupleWriter::new);
+  }
+
+  /**
+   * Creates the tuple linking a chunk to its fields, whose field is to be {@link #setField set}.
+   *
+   * @param chunkId the id of the chunk
+   * @param dumpName the name of the dump
+   * @param epochId the epoch id of the chunk
+   * @param owner the owner of the chunk
+   * @param component the component of the owner holding the chunk
+   * @return the tuple
+   */
+  public Object[] newTuple(
+      final Object chunkId,
+      final Object dumpName,
+      final Object epochId,
+      final Object owner,
+      final Object component) {
+    final Object[] tuple = newTuple();
+    write(tuple, this.chunkIdIndex, chunkId);
+    write(tuple, this.dumpNameIndex, dumpName);
+    write(tuple, this.epochIdIndex, epochId);
+    write(tuple, this.ownerIndex, owner);
+    write(tuple, this.componentIndex, component);
+    return tuple;
+  }
+
+  /**
+   * Sets the field a chunk is attributed to.
+   *
+   * @param tuple the tuple to fill
+   * @param field the name of the field
+   */
+  public void setField(final Object[] tuple, final String field) {
+    write(tuple, this.fieldIndex, field);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#CHUNK_TO_LEVEL_STORE store} linking the
+ * structures holding chunks to the levels.
+ *
+ * @author ActiveViam
+ */
+public class ChunkToLevelTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<ChunkToLevelTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int managerIdIndex;
+  private final int pivotIdIndex;
+  private final int dimensionIndex;
+  private final int hierarchyIndex;
+  private final int levelIndex;
+  private final int parentTypeIndex;
+  private final int parentIdIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the chunk-to-level store
+   */
+  public ChunkToLevelTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.managerIdIndex = index(DatastoreConstants.CHUNK_TO_LEVEL__MANAGER_ID);
+    this.pivotIdIndex = index(DatastoreConstants.CHUNK_TO_LEVEL__PIVOT_ID);
+    this.dimensionIndex = index(DatastoreConstants.CHUNK_TO_LEVEL__DIMENSION);
+    this.hierarchyIndex = index(DatastoreConstants.CHUNK_TO_LEVEL__HIERARCHY);
+    this.levelIndex = index(DatastoreConstants.CHUNK_TO_LEVEL__LEVEL);
+    this.parentTypeIndex = index(DatastoreConstants.CHUNK_TO_LEVEL__PARENT_TYPE);
+    this.parentIdIndex = index(DatastoreConstants.CHUNK_TO_LEVEL__PARENT_ID);
+  }
+
+  /**
+   * Returns the writer of a record format of the chunk-to-level store.
+   *
+   * @param format the record format of the chunk-to-level store
+   * @return the writer
+   */
+  public static ChunkToLevelTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, ChunkToLevelTupleWriter::new);
+  }
+
+  /**
+   * Creates the tuple linking a structure to a level.
+   *
+   * @param dumpName the name of the dump
+   * @param managerId the id of the manager of the cube
+   * @param pivotId the id of the cube
+   * @param dimension the dimension of the level
+   * @param hierarchy the hierarchy of the level
+   * @param level the name of the level
+   * @param parentType the type of the structure
+   * @param parentId the id of the structure
+   * @return the tuple
+   */
+  public Object[] newTuple(
+      final String dumpName,
+      final String managerId,
+      final String pivotId,
+      final String dimension,
+      final String hierarchy,
+      final String level,
+      final ParentType parentType,
+      final String parentId) {
+    final Object[] tuple = newTuple();
+    setDumpName(tuple, dumpName);
+    write(tuple, this.managerIdIndex, managerId);
+    write(tuple, this.pivotIdIndex, pivotId);
+    write(tuple, this.dimensionIndex, dimension);
+    write(tuple, this.hierarchyIndex, hierarchy);
+    write(tuple, this.levelIndex, level);
+    write(tuple, this.parentTypeIndex, parentType);
+    write(tuple, this.parentIdIndex, parentId);
+    return tuple;
+  }
+}
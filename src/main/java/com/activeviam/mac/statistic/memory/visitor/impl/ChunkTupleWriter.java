@@ -0,0 +1,319 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import static com.qfs.monitoring.statistic.memory.MemoryStatisticConstants.ATTR_NAME_CREATOR_CLASS;
+
+import com.activeviam.mac.entities.ChunkOwner;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.UsedByVersion;
+import com.qfs.monitoring.statistic.IStatisticAttribute;
+import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
+import com.qfs.monitoring.statistic.memory.impl.ChunkStatistic;
+import com.qfs.store.record.IRecordFormat;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#CHUNK_STORE chunk store}.
+ *
+ * <p>As a transaction copies the tuples it is given, a visitor reuses a single tuple for all its
+ * chunks: the attributes of its context are written once, and {@link #setChunk(Object[],
+ * ChunkStatistic)} overwrites the attributes specific to each chunk.
+ *
+ * @author ActiveViam
+ */
+public class ChunkTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<ChunkTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int chunkIdIndex;
+  private final int classIndex;
+  private final int offHeapSizeIndex;
+  private final int onHeapSizeIndex;
+  private final int sizeIndex;
+  private final int nonWrittenRowsIndex;
+  private final int freeRowsIndex;
+  private final int ownerIndex;
+  private final int componentIndex;
+  private final int parentTypeIndex;
+  private final int parentIdIndex;
+  private final int parentReferenceIdIndex;
+  private final int parentIndexIdIndex;
+  private final int parentDictionaryIdIndex;
+  private final int providerIdIndex;
+  private final int partitionIdIndex;
+  private final int usedByVersionIndex;
+  private final int vectorBlockLengthIndex;
+  private final int vectorBlockRefCountIndex;
+  private final int debugTreeIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the chunk store
+   */
+  public ChunkTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.chunkIdIndex = index(DatastoreConstants.CHUNK_ID);
+    this.classIndex = index(DatastoreConstants.CHUNK__CLASS);
+    this.offHeapSizeIndex = index(DatastoreConstants.CHUNK__OFF_HEAP_SIZE);
+    this.onHeapSizeIndex = index(DatastoreConstants.CHUNK__ON_HEAP_SIZE);
+    this.sizeIndex = index(DatastoreConstants.CHUNK__SIZE);
+    this.nonWrittenRowsIndex = index(DatastoreConstants.CHUNK__NON_WRITTEN_ROWS);
+    this.freeRowsIndex = index(DatastoreConstants.CHUNK__FREE_ROWS);
+    this.ownerIndex = index(DatastoreConstants.OWNER__OWNER);
+    this.componentIndex = index(DatastoreConstants.OWNER__COMPONENT);
+    this.parentTypeIndex = index(DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE);
+    this.parentIdIndex = index(DatastoreConstants.CHUNK__PARENT_ID);
+    this.parentReferenceIdIndex = index(DatastoreConstants.CHUNK__PARENT_REF_ID);
+    this.parentIndexIdIndex = index(DatastoreConstants.CHUNK__PARENT_INDEX_ID);
+    this.parentDictionaryIdIndex = index(DatastoreConstants.CHUNK__PARENT_DICO_ID);
+    this.providerIdIndex = index(DatastoreConstants.CHUNK__PROVIDER_ID);
+    this.partitionIdIndex = index(DatastoreConstants.CHUNK__PARTITION_ID);
+    this.usedByVersionIndex = index(DatastoreConstants.CHUNK__USED_BY_VERSION);
+    this.vectorBlockLengthIndex = index(DatastoreConstants.CHUNK__VECTOR_BLOCK_LENGTH);
+    this.vectorBlockRefCountIndex = index(DatastoreConstants.CHUNK__VECTOR_BLOCK_REF_COUNT);
+    this.debugTreeIndex = format.getFieldIndex(DatastoreConstants.CHUNK__DEBUG_TREE);
+  }
+
+  /**
+   * Returns the writer of a record format of the chunk store.
+   *
+   * @param format the record format of the chunk store
+   * @return the writer
+   */
+  public static ChunkTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, ChunkTupleWriter::new);
+  }
+
+  /**
+   * Fills a tuple with the attributes of a chunk statistic.
+   *
+   * <p>This resets the attributes specific to a chunk, so that the tuple of the previous chunk can
+   * be reused.
+   *
+   * @param tuple the tuple to fill
+   * @param statistic the chunk statistic
+   */
+  public void setChunk(final Object[] tuple, final ChunkStatistic statistic) {
+    tuple[this.chunkIdIndex] = FeedVisitor.getChunkId(statistic);
+    tuple[this.classIndex] = statistic.getAttribute(ATTR_NAME_CREATOR_CLASS).asText();
+    tuple[this.offHeapSizeIndex] = statistic.getShallowOffHeap();
+    tuple[this.onHeapSizeIndex] = statistic.getShallowOnHeap();
+
+    final IStatisticAttribute sizeAttribute =
+        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_LENGTH);
+    tuple[this.sizeIndex] = sizeAttribute == null ? 0 : sizeAttribute.asInt();
+
+    // TODO(ope) we may want to do the same for chunk whenever possible
+    tuple[this.nonWrittenRowsIndex] = 0;
+    tuple[this.freeRowsIndex] = 0;
+  }
+
+  /**
+   * Sets the owner of a chunk.
+   *
+   * @param tuple the tuple to fill
+   * @param owner the owner of the chunk
+   * @param component the component of the owner holding the chunk
+   */
+  public void setOwner(final Object[] tuple, final ChunkOwner owner, final ParentType component) {
+    write(tuple, this.ownerIndex, owner);
+    write(tuple, this.componentIndex, component);
+  }
+
+  /**
+   * Sets the closest parent of a chunk.
+   *
+   * @param tuple the tuple to fill
+   * @param parentType the type of the parent
+   * @param parentId the id of the parent
+   */
+  public void setParent(final Object[] tuple, final ParentType parentType, final String parentId) {
+    write(tuple, this.parentTypeIndex, parentType);
+    write(tuple, this.parentIdIndex, parentId);
+  }
+
+  /**
+   * Sets the ids of the reference, the index and the dictionary holding a chunk.
+   *
+   * <p>A {@code null} id leaves the default value of the field to the store.
+   *
+   * @param tuple the tuple to fill
+   * @param referenceId the id of the parent reference, {@code null} if none
+   * @param indexId the id of the parent index, {@code null} if none
+   * @param dictionaryId the id of the parent dictionary, {@code null} if none
+   */
+  public void setParentStructures(
+      final Object[] tuple, final Long referenceId, final Long indexId, final Long dictionaryId) {
+    tuple[this.parentReferenceIdIndex] = referenceId;
+    tuple[this.parentIndexIdIndex] = indexId;
+    tuple[this.parentDictionaryIdIndex] = dictionaryId;
+  }
+
+  /**
+   * Sets the id of the aggregate provider holding a chunk.
+   *
+   * @param tuple the tuple to fill
+   * @param providerId the id of the provider
+   * @throws RuntimeException if the id is {@link DatastoreConstants#NO_PROVIDER_ID}
+   */
+  public void setProviderId(final Object[] tuple, final long providerId) {
+    if (providerId == DatastoreConstants.NO_PROVIDER_ID) {
+      throw missingValue(this.providerIdIndex);
+    }
+    tuple[this.providerIdIndex] = providerId;
+  }
+
+  /**
+   * Clears the id of the aggregate provider of a chunk, leaving the default value of the field to
+   * the store.
+   *
+   * @param tuple the tuple to fill
+   */
+  public void clearProviderId(final Object[] tuple) {
+    tuple[this.providerIdIndex] = null;
+  }
+
+  /**
+   * Sets the partition of a chunk.
+   *
+   * @param tuple the tuple to fill
+   * @param partitionId the id of the partition, {@link
+   *     MemoryAnalysisDatastoreDescriptionConfig#NO_PARTITION} if none
+   */
+  public void setPartitionId(final Object[] tuple, final int partitionId) {
+    tuple[this.partitionIdIndex] = partitionId;
+  }
+
+  /**
+   * Sets whether a chunk is used by the exported version.
+   *
+   * @param tuple the tuple to fill
+   * @param usedByVersion whether the chunk is used by the version
+   */
+  public void setUsedByVersion(final Object[] tuple, final UsedByVersion usedByVersion) {
+    tuple[this.usedByVersionIndex] = usedByVersion;
+  }
+
+  /**
+   * Sets the size of a chunk.
+   *
+   * @param tuple the tuple to fill
+   * @param size the number of rows of the chunk
+   */
+  public void setSize(final Object[] tuple, final int size) {
+    tuple[this.sizeIndex] = size;
+  }
+
+  /**
+   * Sets the number of freed rows of a chunk.
+   *
+   * @param tuple the tuple to fill
+   * @param freeRows the number of freed rows
+   */
+  public void setFreeRows(final Object[] tuple, final int freeRows) {
+    tuple[this.freeRowsIndex] = freeRows;
+  }
+
+  /**
+   * Sets the number of rows of a chunk that were never written.
+   *
+   * @param tuple the tuple to fill
+   * @param nonWrittenRows the number of non-written rows
+   */
+  public void setNonWrittenRows(final Object[] tuple, final int nonWrittenRows) {
+    tuple[this.nonWrittenRowsIndex] = nonWrittenRows;
+  }
+
+  /**
+   * Sets the attributes of a chunk holding a block of vectors.
+   *
+   * @param tuple the tuple to fill
+   * @param length the length of the block
+   * @param referenceCount the number of references to the block
+   */
+  public void setVectorBlock(final Object[] tuple, final long length, final long referenceCount) {
+    tuple[this.vectorBlockLengthIndex] = length;
+    tuple[this.vectorBlockRefCountIndex] = referenceCount;
+  }
+
+  /**
+   * Sets the printed statistic tree of a chunk, when the debug tree is part of the store.
+   *
+   * @param tuple the tuple to fill
+   * @param statistic the chunk statistic
+   */
+  public void setDebugTree(final Object[] tuple, final ChunkStatistic statistic) {
+    tuple[this.debugTreeIndex] = StatisticTreePrinter.getTreeAsString(statistic);
+  }
+
+  /**
+   * Adds a chunk to the chunk store, and links it to each of the fields it is attributed to.
+   *
+   * <p>The chunk is added once whatever its number of fields, the fields being recorded in the
+   * {@link DatastoreConstants#CHUNK_TO_FIELD_STORE chunk-to-field store}.
+   *
+   * @param transaction the ongoing transaction
+   * @param fieldWriter the writer of the chunk-to-field store
+   * @param fields the fields the chunk is attributed to, {@code null} or empty if none
+   * @param tuple the tuple of the chunk
+   */
+  public void addForFields(
+      final TupleBatcher transaction,
+      final ChunkToFieldTupleWriter fieldWriter,
+      final Collection<String> fields,
+      final Object[] tuple) {
+    addChunk(transaction, tuple);
+    if (fields != null && !fields.isEmpty()) {
+      final Object[] fieldTuple = newFieldTuple(fieldWriter, tuple);
+      for (final String field : fields) {
+        fieldWriter.setField(fieldTuple, field);
+        transaction.add(DatastoreConstants.CHUNK_TO_FIELD_STORE, fieldTuple);
+      }
+    }
+  }
+
+  /**
+   * Adds a chunk to the chunk store, and links it to the field it is attributed to.
+   *
+   * @param transaction the ongoing transaction
+   * @param fieldWriter the writer of the chunk-to-field store
+   * @param field the field the chunk is attributed to, {@code null} if none
+   * @param tuple the tuple of the chunk
+   */
+  public void addForField(
+      final TupleBatcher transaction,
+      final ChunkToFieldTupleWriter fieldWriter,
+      final String field,
+      final Object[] tuple) {
+    addChunk(transaction, tuple);
+    if (field != null) {
+      final Object[] fieldTuple = newFieldTuple(fieldWriter, tuple);
+      fieldWriter.setField(fieldTuple, field);
+      transaction.add(DatastoreConstants.CHUNK_TO_FIELD_STORE, fieldTuple);
+    }
+  }
+
+  private void addChunk(final TupleBatcher transaction, final Object[] tuple) {
+    transaction.add(DatastoreConstants.CHUNK_STORE, tuple);
+    transaction.recordEpoch((ChunkOwner) tuple[this.ownerIndex], (Long) tuple[this.epochIdIndex]);
+  }
+
+  private Object[] newFieldTuple(final ChunkToFieldTupleWriter fieldWriter, final Object[] tuple) {
+    return fieldWriter.newTuple(
+        tuple[this.chunkIdIndex],
+        tuple[this.dumpNameIndex],
+        tuple[this.epochIdIndex],
+        tuple[this.ownerIndex],
+        tuple[this.componentIndex]);
+  }
+}
@@ -11,9 +11,11 @@ import static com.activeviam.mac.statistic.memory.visitor.impl.DebugVisitor.DEBU
 
 import com.activeviam.mac.entities.StoreOwner;
 import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.LoadingMetrics;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.UsedByVersion;
+import com.activeviam.mac.memory.StreamingStatisticReader;
 import com.qfs.monitoring.statistic.IStatisticAttribute;
 import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
 import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
@@ -25,14 +27,14 @@ import com.qfs.monitoring.statistic.memory.impl.IndexStatistic;
 import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
 import com.qfs.store.IDatastoreSchemaMetadata;
 import com.qfs.store.IStore;
-import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This visitor is not reusable.
@@ -44,8 +46,19 @@ import java.util.Objects;
  */
 public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
 
-  /** The record format of the store that stores the chunks. */
-  protected final IRecordFormat chunkRecordFormat;
+  /** Timer measuring the time spent in this visitor. */
+  static final Timer TIMER = LoadingMetrics.visitorTimer(DatastoreFeederVisitor.class);
+
+  /** The writer of the tuples of the store that stores the chunks. */
+  protected final ChunkTupleWriter chunkWriter;
+  /** The writer of the tuples of the store linking the chunks to their fields. */
+  protected final ChunkToFieldTupleWriter fieldWriter;
+  /** The tuple reused for all the visited chunks. */
+  protected final Object[] chunkTuple;
+  /** The forker visiting the partitions of the stores concurrently. */
+  protected final StatisticTreeForker forker;
+  /** The visitor of the chunksets, reused for all the visited chunksets. */
+  protected ChunkSetStatisticVisitor chunkSetVisitor;
   /**
    * A boolean that if true tells us that the currently visited component is responsible for storing
    * versioning data.
@@ -54,8 +67,11 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
   protected boolean isVersionColumn = false;
   /** The export date, found on the first statistics we read. */
   protected Instant current = null;
-  /** The epoch id we are currently reading statistics for. */
-  protected Long epochId = null;
+  /**
+   * The epoch id we are currently reading statistics for, {@link DatastoreConstants#NO_EPOCH_ID}
+   * if not known yet.
+   */
+  protected long epochId = DatastoreConstants.NO_EPOCH_ID;
   /** Branch owning {@link #epochId}. */
   protected String branch = null;
 
@@ -70,8 +86,11 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
   protected ParentType directParentType;
   /** Id of the direct parent owning the chunk. */
   protected String directParentId;
-  /** The partition id of the visited statistic. */
-  protected Integer partitionId = null;
+  /**
+   * The partition id of the visited statistic, {@link
+   * MemoryAnalysisDatastoreDescriptionConfig#NO_PARTITION} outside of partitions.
+   */
+  protected int partitionId = MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
 
   /** Type of the currently visited index. */
   private IndexType indexType = null;
@@ -85,34 +104,59 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
    */
   public DatastoreFeederVisitor(
       final IDatastoreSchemaMetadata storageMetadata,
-      final IOpenedTransaction transaction,
+      final TupleBatcher transaction,
       final String dumpName) {
-    super(transaction, storageMetadata, dumpName);
-    this.chunkRecordFormat =
-        this.storageMetadata
-            .getStoreMetadata(DatastoreConstants.CHUNK_STORE)
-            .getStoreFormat()
-            .getRecordFormat();
+    this(storageMetadata, transaction, dumpName, StatisticTreeForker.SEQUENTIAL);
   }
 
-  private static Object[] buildIndexTupleFrom(
-      final IRecordFormat format, final IndexStatistic stat) {
-    final Object[] tuple = new Object[format.getFieldCount()];
-    tuple[format.getFieldIndex(DatastoreConstants.INDEX_ID)] =
-        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_INDEX_ID).asLong();
-
-    final String[] fieldNames =
-        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_FIELDS).asStringArray();
-    assert fieldNames != null && fieldNames.length > 0
-        : "Cannot find fields in the attributes of " + stat;
-    Arrays.sort(fieldNames);
-    tuple[format.getFieldIndex(DatastoreConstants.INDEX__FIELDS)] =
-        new MemoryAnalysisDatastoreDescriptionConfig.StringArrayObject(fieldNames);
-
-    tuple[format.getFieldIndex(DatastoreConstants.INDEX_CLASS)] =
-        stat.getAttribute(DatastoreConstants.INDEX_CLASS).asText();
+  /**
+   * Constructor.
+   *
+   * @param storageMetadata structure of the metadata
+   * @param transaction the open transaction to use to fill the datastore with the visited data
+   * @param dumpName The name of the off-heap dump. Can be null.
+   * @param forker the forker visiting the independent subtrees of the stores
+   */
+  public DatastoreFeederVisitor(
+      final IDatastoreSchemaMetadata storageMetadata,
+      final TupleBatcher transaction,
+      final String dumpName,
+      final StatisticTreeForker forker) {
+    super(transaction, storageMetadata, dumpName);
+    this.chunkWriter = getChunkWriter(this.storageMetadata);
+    this.fieldWriter = getChunkToFieldWriter(this.storageMetadata);
+    this.chunkTuple = this.chunkWriter.newTuple();
+    this.forker = forker;
+  }
 
-    return tuple;
+  /**
+   * Constructor of a copy visiting a subtree of the statistic visited by another visitor.
+   *
+   * @param parent the visitor of the parent statistic, whose context is copied
+   * @param transaction the batcher of the thread visiting the subtree
+   */
+  protected DatastoreFeederVisitor(
+      final DatastoreFeederVisitor parent, final TupleBatcher transaction) {
+    super(transaction, parent.storageMetadata, parent.dumpName);
+    this.chunkWriter = parent.chunkWriter;
+    this.fieldWriter = parent.fieldWriter;
+    this.chunkTuple = this.chunkWriter.newTuple();
+    this.forker = parent.forker;
+    this.owner = parent.owner;
+    this.dictionaryAttributes = parent.dictionaryAttributes;
+    this.fields = parent.fields;
+    this.indexId = parent.indexId;
+    this.referenceId = parent.referenceId;
+    this.isVersionColumn = parent.isVersionColumn;
+    this.current = parent.current;
+    this.epochId = parent.epochId;
+    this.branch = parent.branch;
+    this.usedByVersion = parent.usedByVersion;
+    this.rootComponent = parent.rootComponent;
+    this.directParentType = parent.directParentType;
+    this.directParentId = parent.directParentId;
+    this.partitionId = parent.partitionId;
+    this.indexType = parent.indexType;
   }
 
   /**
@@ -131,7 +175,7 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
 
       readEpochAndBranchIfAny(stat);
       assert stat.getName().equalsIgnoreCase(MemoryStatisticConstants.STAT_NAME_MULTIVERSION_STORE)
-          || this.epochId != null;
+          || this.epochId != DatastoreConstants.NO_EPOCH_ID;
 
       FeedVisitor.includeApplicationInfoIfAny(this.transaction, this.current, this.dumpName, stat);
 
@@ -159,54 +203,27 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
           usedByVersionAttribute.asBoolean() ? UsedByVersion.TRUE : UsedByVersion.FALSE;
     }
 
-    final Object[] tuple = FeedVisitor.buildChunkTupleFrom(this.chunkRecordFormat, chunkStatistic);
+    final ChunkTupleWriter writer = this.chunkWriter;
+    final Object[] tuple = this.chunkTuple;
+    writer.setChunk(tuple, chunkStatistic);
     if (this.isVersionColumn) {
-      FeedVisitor.setTupleElement(
+      writer.setNonWrittenRows(
           tuple,
-          this.chunkRecordFormat,
-          DatastoreConstants.CHUNK__NON_WRITTEN_ROWS,
           chunkStatistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_NOT_WRITTEN_ROWS).asInt());
     }
-    FeedVisitor.setTupleElement(
-        tuple, this.chunkRecordFormat, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(
-        tuple, this.chunkRecordFormat, DatastoreConstants.VERSION__EPOCH_ID, this.epochId);
-    FeedVisitor.setTupleElement(
-        tuple, this.chunkRecordFormat, DatastoreConstants.OWNER__OWNER, this.owner);
-    FeedVisitor.setTupleElement(
-        tuple, this.chunkRecordFormat, DatastoreConstants.OWNER__COMPONENT, this.rootComponent);
-
-    FeedVisitor.setTupleElement(
-        tuple,
-        this.chunkRecordFormat,
-        DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE,
-        this.directParentType);
-    FeedVisitor.setTupleElement(
-        tuple, this.chunkRecordFormat, DatastoreConstants.CHUNK__PARENT_ID, this.directParentId);
-    if (this.referenceId != null) {
-      FeedVisitor.setTupleElement(
-          tuple, this.chunkRecordFormat, DatastoreConstants.CHUNK__PARENT_REF_ID, this.referenceId);
-    }
-    if (this.indexId != null) {
-      FeedVisitor.setTupleElement(
-          tuple, this.chunkRecordFormat, DatastoreConstants.CHUNK__PARENT_INDEX_ID, this.indexId);
-    }
-    final Long dictionaryId = this.dictionaryAttributes.getDictionaryId();
-    if (dictionaryId != null) {
-      FeedVisitor.setTupleElement(
-          tuple, this.chunkRecordFormat, DatastoreConstants.CHUNK__PARENT_DICO_ID, dictionaryId);
-    }
-    tuple[this.chunkRecordFormat.getFieldIndex(DatastoreConstants.CHUNK__USED_BY_VERSION)] =
-        this.usedByVersion;
-    tuple[this.chunkRecordFormat.getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID)] =
-        this.partitionId;
+    writer.setDumpName(tuple, this.dumpName);
+    writer.setEpochId(tuple, this.epochId);
+    writer.setOwner(tuple, this.owner, this.rootComponent);
+    writer.setParent(tuple, this.directParentType, this.directParentId);
+    writer.setParentStructures(
+        tuple, this.referenceId, this.indexId, this.dictionaryAttributes.getDictionaryId());
+    writer.setUsedByVersion(tuple, this.usedByVersion);
+    writer.setPartitionId(tuple, this.partitionId);
     if (MemoryAnalysisDatastoreDescriptionConfig.ADD_DEBUG_TREE) {
-      tuple[this.chunkRecordFormat.getFieldIndex(DatastoreConstants.CHUNK__DEBUG_TREE)] =
-          StatisticTreePrinter.getTreeAsString(chunkStatistic);
+      writer.setDebugTree(tuple, chunkStatistic);
     }
 
-    FeedVisitor.writeChunkTupleForFields(
-        chunkStatistic, this.transaction, this.fields, this.chunkRecordFormat, tuple);
+    writer.addForFields(this.transaction, this.fieldWriter, this.fields, tuple);
 
     visitChildren(chunkStatistic);
 
@@ -216,14 +233,13 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
   @Override
   @SuppressWarnings("deprecation")
   public Void visit(final DefaultMemoryStatistic stat) {
-    final Long initialEpoch = this.epochId;
+    final long initialEpoch = this.epochId;
     final String initialBranch = this.branch;
 
-    if (readEpochAndBranchIfAny(stat)) {
-      final IRecordFormat versionStoreFormat = getVersionStoreFormat(this.storageMetadata);
+    if (readEpochAndBranchIfAny(stat) && !StreamingStatisticReader.isReplayed(stat)) {
       final Object[] tuple =
-          FeedVisitor.buildVersionTupleFrom(
-              versionStoreFormat, stat, this.dumpName, this.epochId, this.branch);
+          getVersionWriter(this.storageMetadata)
+              .newTuple(this.dumpName, this.epochId, this.branch);
       FeedVisitor.add(stat, this.transaction, DatastoreConstants.VERSION_STORE, tuple);
     }
 
@@ -266,11 +282,13 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
 
   @Override
   public Void visit(final ChunkSetStatistic stat) {
-    return new ChunkSetStatisticVisitor(
-            this.storageMetadata,
-            this.transaction,
-            this.dumpName,
-            this.current,
+    if (this.chunkSetVisitor == null) {
+      this.chunkSetVisitor =
+          new ChunkSetStatisticVisitor(
+              this.storageMetadata, this.transaction, this.dumpName, this.current);
+    }
+    final ChunkSetStatisticVisitor visitor =
+        this.chunkSetVisitor.reset(
             this.owner,
             this.rootComponent,
             this.directParentType,
@@ -278,31 +296,25 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
             this.partitionId,
             this.indexId,
             this.referenceId,
-            null,
+            DatastoreConstants.NO_PROVIDER_ID,
             this.epochId,
             this.usedByVersion,
-            false)
-        .visit(stat);
+            false);
+    final long start = System.nanoTime();
+    try {
+      return visitor.visit(stat);
+    } finally {
+      ChunkSetStatisticVisitor.TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
   }
 
   @Override
   public Void visit(final ReferenceStatistic referenceStatistic) {
-    final Object[] tuple = buildPartOfReferenceStatisticTuple(referenceStatistic);
-    final IRecordFormat refStoreFormat = getReferenceFormat(this.storageMetadata);
-
-    // fill out the tuple
-    this.referenceId =
-        referenceStatistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_REFERENCE_ID).asLong();
-
-    tuple[refStoreFormat.getFieldIndex(DatastoreConstants.REFERENCE_ID)] = this.referenceId;
-    tuple[refStoreFormat.getFieldIndex(DatastoreConstants.REFERENCE_NAME)] =
-        referenceStatistic.getAttribute(DatastoreConstants.REFERENCE_NAME).asText();
-    tuple[refStoreFormat.getFieldIndex(DatastoreConstants.REFERENCE_CLASS)] =
-        referenceStatistic.getAttribute(DatastoreConstants.REFERENCE_CLASS).asText();
-    FeedVisitor.setTupleElement(
-        tuple, refStoreFormat, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(
-        tuple, refStoreFormat, DatastoreConstants.VERSION__EPOCH_ID, this.epochId);
+    final ReferenceTupleWriter writer = getReferenceWriter(this.storageMetadata);
+    final Object[] tuple = writer.newTuple(referenceStatistic);
+    this.referenceId = writer.getId(tuple);
+    writer.setDumpName(tuple, this.dumpName);
+    writer.setEpochId(tuple, this.epochId);
 
     FeedVisitor.add(
         referenceStatistic, this.transaction, DatastoreConstants.REFERENCE_STORE, tuple);
@@ -325,8 +337,8 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
 
   @Override
   public Void visit(final IndexStatistic stat) {
-    final IRecordFormat format = getIndexFormat(this.storageMetadata);
-    final Object[] tuple = buildIndexTupleFrom(format, stat);
+    final IndexTupleWriter writer = getIndexWriter(this.storageMetadata);
+    final Object[] tuple = writer.newTuple(stat);
 
     this.indexId = stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_INDEX_ID).asLong();
     final boolean isKeyIndex = stat.getName().equals(MemoryStatisticConstants.STAT_NAME_KEY_INDEX);
@@ -334,9 +346,9 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
       this.indexType = IndexType.KEY;
     }
 
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.INDEX_TYPE, this.indexType);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__EPOCH_ID, this.epochId);
+    writer.setType(tuple, this.indexType);
+    writer.setDumpName(tuple, this.dumpName);
+    writer.setEpochId(tuple, this.epochId);
     FeedVisitor.add(stat, this.transaction, DatastoreConstants.INDEX_STORE, tuple);
 
     final ParentType previousParentType = this.directParentType;
@@ -437,8 +449,8 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
             () -> "No store name in stat " + stat);
     this.owner = new StoreOwner(nameAttr.asText());
 
-    // Explore the store children
-    visitChildren(stat);
+    // Explore the store children, its partitions being independent from each other
+    this.forker.visitChildren(stat, this, DatastoreFeederVisitor::new);
 
     this.owner = null;
   }
@@ -457,7 +469,7 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
 
     visitChildren(stat);
 
-    this.partitionId = null;
+    this.partitionId = MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
   }
 
   private void processRecords(final IMemoryStatistic stat) {
@@ -546,29 +558,4 @@ public class DatastoreFeederVisitor extends ADatastoreFeedVisitor<Void> {
       }
     }
   }
-
-  /**
-   * Build an object array that represents a reference.
-   *
-   * @param referenceStatistic the {@link ReferenceStatistic} from which the array must be built.
-   * @return the object array.
-   */
-  protected Object[] buildPartOfReferenceStatisticTuple(
-      final ReferenceStatistic referenceStatistic) {
-    final IRecordFormat refStoreFormat = getReferenceFormat(this.storageMetadata);
-
-    final Object[] tuple = new Object[refStoreFormat.getFieldCount()];
-    tuple[refStoreFormat.getFieldIndex(DatastoreConstants.REFERENCE_FROM_STORE)] =
-        referenceStatistic.getAttribute(DatastoreConstants.REFERENCE_FROM_STORE).asText();
-    tuple[refStoreFormat.getFieldIndex(DatastoreConstants.REFERENCE_FROM_STORE_PARTITION_ID)] =
-        referenceStatistic
-            .getAttribute(DatastoreConstants.REFERENCE_FROM_STORE_PARTITION_ID)
-            .asInt();
-    tuple[refStoreFormat.getFieldIndex(DatastoreConstants.REFERENCE_TO_STORE)] =
-        referenceStatistic.getAttribute(DatastoreConstants.REFERENCE_TO_STORE).asText();
-    tuple[refStoreFormat.getFieldIndex(DatastoreConstants.REFERENCE_TO_STORE_PARTITION_ID)] =
-        referenceStatistic.getAttribute(DatastoreConstants.REFERENCE_TO_STORE_PARTITION_ID).asInt();
-
-    return tuple;
-  }
 }
@@ -0,0 +1,72 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#DICTIONARY_STORE dictionary store}.
+ *
+ * @author ActiveViam
+ */
+public class DictionaryTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<DictionaryTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int idIndex;
+  private final int classIndex;
+  private final int sizeIndex;
+  private final int orderIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the dictionary store
+   */
+  public DictionaryTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.idIndex = index(DatastoreConstants.DICTIONARY_ID);
+    this.classIndex = index(DatastoreConstants.DICTIONARY_CLASS);
+    this.sizeIndex = index(DatastoreConstants.DICTIONARY_SIZE);
+    this.orderIndex = index(DatastoreConstants.DICTIONARY_ORDER);
+  }
+
+  /**
+   * Returns the writer of a record format of the dictionary store.
+   *
+   * @param format the record format of the dictionary store
+   * @return the writer
+   */
+  public static DictionaryTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, DictionaryTupleWriter::new);
+  }
+
+  /**
+   * Creates the tuple of a dictionary.
+   *
+   * @param dictionaryId the id of the dictionary
+   * @param dictionaryClass the class of the dictionary
+   * @param dictionarySize the size of the dictionary
+   * @param dictionaryOrder the order of the dictionary
+   * @return the tuple
+   */
+  public Object[] newTuple(
+      final long dictionaryId,
+      final String dictionaryClass,
+      final int dictionarySize,
+      final int dictionaryOrder) {
+    final Object[] tuple = newTuple();
+    tuple[this.idIndex] = dictionaryId;
+    tuple[this.classIndex] = dictionaryClass;
+    tuple[this.sizeIndex] = dictionarySize;
+    tuple[this.orderIndex] = dictionaryOrder;
+    return tuple;
+  }
+}
@@ -7,10 +7,9 @@
 
 package com.activeviam.mac.statistic.memory.visitor.impl;
 
-import static com.qfs.monitoring.statistic.memory.MemoryStatisticConstants.ATTR_NAME_CREATOR_CLASS;
-
 import com.activeviam.mac.Loggers;
 import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.StreamingStatisticReader;
 import com.qfs.monitoring.statistic.IStatisticAttribute;
 import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
 import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
@@ -23,10 +22,8 @@ import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
 import com.qfs.monitoring.statistic.memory.visitor.IMemoryStatisticVisitor;
 import com.qfs.store.IDatastoreSchemaMetadata;
 import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
 import java.time.Instant;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
@@ -40,24 +37,42 @@ public class FeedVisitor implements IMemoryStatisticVisitor<Void> {
   private static final Logger LOGGER = Logger.getLogger(Loggers.LOADING);
 
   private final IDatastoreSchemaMetadata storageMetadata;
-  private final IOpenedTransaction transaction;
+  private final TupleBatcher transaction;
   private final String dumpName;
+  private final StatisticTreeForker forker;
   private static final AtomicLong chunkIdGenerator = new AtomicLong(0L);
 
   /**
    * Constructor.
    *
    * @param storageMetadata metadata of the Datastore schema
-   * @param tm ongoing transaction
+   * @param tm ongoing transaction, to which the tuples are added in batches
    * @param dumpName name of the import being currently executed
    */
   public FeedVisitor(
       final IDatastoreSchemaMetadata storageMetadata,
-      final IOpenedTransaction tm,
+      final TupleBatcher tm,
       final String dumpName) {
+    this(storageMetadata, tm, dumpName, StatisticTreeForker.SEQUENTIAL);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param storageMetadata metadata of the Datastore schema
+   * @param tm ongoing transaction, to which the tuples are added in batches
+   * @param dumpName name of the import being currently executed
+   * @param forker the forker visiting the independent subtrees of a statistic
+   */
+  public FeedVisitor(
+      final IDatastoreSchemaMetadata storageMetadata,
+      final TupleBatcher tm,
+      final String dumpName,
+      final StatisticTreeForker forker) {
     this.storageMetadata = storageMetadata;
     this.transaction = tm;
     this.dumpName = dumpName;
+    this.forker = forker;
   }
 
   /**
@@ -69,30 +84,10 @@ public class FeedVisitor implements IMemoryStatisticVisitor<Void> {
    * @param tuple tuple-ized data to add to the store
    */
   protected static void add(
-      IMemoryStatistic statistic, IOpenedTransaction transaction, String store, Object... tuple) {
+      IMemoryStatistic statistic, TupleBatcher transaction, String store, Object... tuple) {
     transaction.add(store, tuple);
   }
 
-  static Object[] buildChunkTupleFrom(final IRecordFormat format, final ChunkStatistic stat) {
-    final Object[] tuple = new Object[format.getFieldCount()];
-    tuple[format.getFieldIndex(DatastoreConstants.CHUNK_ID)] = getChunkId(stat);
-    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__CLASS)] =
-        stat.getAttribute(ATTR_NAME_CREATOR_CLASS).asText();
-    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__OFF_HEAP_SIZE)] = stat.getShallowOffHeap();
-    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__ON_HEAP_SIZE)] = stat.getShallowOnHeap();
-
-    final IStatisticAttribute sizeAttribute =
-        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_LENGTH);
-    final int chunkSize = sizeAttribute == null ? 0 : sizeAttribute.asInt();
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__SIZE, chunkSize);
-
-    // TODO(ope) we may want to do the same for chunk whenever possible
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__NON_WRITTEN_ROWS, 0);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__FREE_ROWS, 0);
-
-    return tuple;
-  }
-
   /**
    * Extracts the chunk ID from the given {@link ChunkStatistic}.
    *
@@ -107,63 +102,6 @@ public class FeedVisitor implements IMemoryStatisticVisitor<Void> {
     return stat.getChunkId();
   }
 
-  /**
-   * Writes a record into the {@link DatastoreConstants#CHUNK_STORE} for each given field using the
-   * given tuple as a base.
-   *
-   * <p>This method can modify the {@link DatastoreConstants#OWNER__FIELD} column of the given
-   * tuple.
-   *
-   * @param statistic the statistic associated with the chunk
-   * @param transaction the ongoing transaction
-   * @param fields the fields associated with the chunk statistic
-   * @param format the format of the tuple
-   * @param tuple the base tuple to write records with
-   */
-  static void writeChunkTupleForFields(
-      final ChunkStatistic statistic,
-      final IOpenedTransaction transaction,
-      final Collection<String> fields,
-      final IRecordFormat format,
-      final Object... tuple) {
-    if (fields == null || fields.isEmpty()) {
-      FeedVisitor.add(statistic, transaction, DatastoreConstants.CHUNK_STORE, tuple);
-    } else {
-      fields.forEach(
-          field -> {
-            FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.OWNER__FIELD, field);
-            FeedVisitor.add(statistic, transaction, DatastoreConstants.CHUNK_STORE, tuple);
-          });
-    }
-  }
-
-  static Object[] buildDictionaryTupleFrom(
-      final IRecordFormat format,
-      final long dictionaryId,
-      final String dictionaryClass,
-      final int dictionarySize,
-      final int dictionaryOrder) {
-    final Object[] tuple = new Object[format.getFieldCount()];
-    tuple[format.getFieldIndex(DatastoreConstants.DICTIONARY_ID)] = dictionaryId;
-    tuple[format.getFieldIndex(DatastoreConstants.DICTIONARY_CLASS)] = dictionaryClass;
-    tuple[format.getFieldIndex(DatastoreConstants.DICTIONARY_SIZE)] = dictionarySize;
-    tuple[format.getFieldIndex(DatastoreConstants.DICTIONARY_ORDER)] = dictionaryOrder;
-    return tuple;
-  }
-
-  static Object[] buildVersionTupleFrom(
-      final IRecordFormat format,
-      final IMemoryStatistic statistic,
-      final String dumpName,
-      final long epochId,
-      final String branch) {
-    final Object[] tuple = new Object[format.getFieldCount()];
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__DUMP_NAME, dumpName);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__EPOCH_ID, epochId);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__BRANCH_NAME, branch);
-    return tuple;
-  }
-
   /**
    * Visits all the children of the given {@link IMemoryStatistic}.
    *
@@ -180,10 +118,14 @@ public class FeedVisitor implements IMemoryStatisticVisitor<Void> {
   }
 
   static void includeApplicationInfoIfAny(
-      final IOpenedTransaction tm,
+      final TupleBatcher tm,
       final Instant date,
       final String dumpName,
       final IMemoryStatistic stat) {
+    if (StreamingStatisticReader.isReplayed(stat)) {
+      // Already included with the first sub-tree streamed from the file
+      return;
+    }
     final IStatisticAttribute usedHeap =
         stat.getAttribute(MemoryStatisticConstants.STAT_NAME_GLOBAL_USED_HEAP_MEMORY);
     final IStatisticAttribute maxHeap =
@@ -263,15 +205,17 @@ public class FeedVisitor implements IMemoryStatisticVisitor<Void> {
       case MemoryStatisticConstants.STAT_NAME_MULTIVERSION_STORE:
       case MemoryStatisticConstants.STAT_NAME_STORE:
         final DatastoreFeederVisitor visitor =
-            new DatastoreFeederVisitor(this.storageMetadata, this.transaction, this.dumpName);
-        visitor.startFrom(stat);
+            new DatastoreFeederVisitor(
+                this.storageMetadata, this.transaction, this.dumpName, this.forker);
+        DatastoreFeederVisitor.TIMER.record(() -> visitor.startFrom(stat));
         break;
       case MemoryStatisticConstants.STAT_NAME_MANAGER:
       case MemoryStatisticConstants.STAT_NAME_MULTIVERSION_PIVOT:
       case MemoryStatisticConstants.STAT_NAME_PIVOT:
         final PivotFeederVisitor feed =
-            new PivotFeederVisitor(this.storageMetadata, this.transaction, this.dumpName);
-        feed.startFrom(stat);
+            new PivotFeederVisitor(
+                this.storageMetadata, this.transaction, this.dumpName, this.forker);
+        PivotFeederVisitor.TIMER.record(() -> feed.startFrom(stat));
         break;
       default:
         visitChildren(this, stat);
@@ -0,0 +1,87 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
+import com.qfs.monitoring.statistic.memory.impl.IndexStatistic;
+import com.qfs.store.record.IRecordFormat;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#INDEX_STORE index store}.
+ *
+ * @author ActiveViam
+ */
+public class IndexTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<IndexTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int idIndex;
+  private final int fieldsIndex;
+  private final int classIndex;
+  private final int typeIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the index store
+   */
+  public IndexTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.idIndex = index(DatastoreConstants.INDEX_ID);
+    this.fieldsIndex = index(DatastoreConstants.INDEX__FIELDS);
+    this.classIndex = index(DatastoreConstants.INDEX_CLASS);
+    this.typeIndex = index(DatastoreConstants.INDEX_TYPE);
+  }
+
+  /**
+   * Returns the writer of a record format of the index store.
+   *
+   * @param format the record format of the index store
+   * @return the writer
+   */
+  public static IndexTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, IndexTupleWriter::new);
+  }
+
+  /**
+   * Creates a tuple filled with the attributes of an index statistic.
+   *
+   * @param statistic the index statistic
+   * @return the tuple
+   */
+  public Object[] newTuple(final IndexStatistic statistic) {
+    final Object[] tuple = newTuple();
+    tuple[this.idIndex] =
+        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_INDEX_ID).asLong();
+
+    final String[] fieldNames =
+        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_FIELDS).asStringArray();
+    assert fieldNames != null && fieldNames.length > 0
+        : "Cannot find fields in the attributes of " + statistic;
+    Arrays.sort(fieldNames);
+    tuple[this.fieldsIndex] =
+        new MemoryAnalysisDatastoreDescriptionConfig.StringArrayObject(fieldNames);
+
+    tuple[this.classIndex] = statistic.getAttribute(DatastoreConstants.INDEX_CLASS).asText();
+    return tuple;
+  }
+
+  /**
+   * Sets the type of an index.
+   *
+   * @param tuple the tuple to fill
+   * @param type the type of the index
+   */
+  public void setType(final Object[] tuple, final IndexType type) {
+    write(tuple, this.typeIndex, type);
+  }
+}
@@ -9,6 +9,7 @@ package com.activeviam.mac.statistic.memory.visitor.impl;
 
 import com.activeviam.mac.Loggers;
 import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.LoadingMetrics;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
 import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
@@ -21,8 +22,7 @@ import com.qfs.monitoring.statistic.memory.impl.IndexStatistic;
 import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
 import com.qfs.monitoring.statistic.memory.visitor.IMemoryStatisticVisitor;
 import com.qfs.store.IDatastoreSchemaMetadata;
-import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
+import io.micrometer.core.instrument.Timer;
 import java.util.logging.Logger;
 
 /**
@@ -33,11 +33,16 @@ import java.util.logging.Logger;
  */
 public class LevelStatisticVisitor extends AFeedVisitorWithDictionary<Void> {
 
+  /** Timer measuring the time spent in this visitor. */
+  static final Timer TIMER = LoadingMetrics.visitorTimer(LevelStatisticVisitor.class);
+
   private static final Logger LOGGER = Logger.getLogger(Loggers.ACTIVEPIVOT_LOADING);
 
   private final PivotFeederVisitor parent;
-  private final IOpenedTransaction transaction;
-  private final Long epochId;
+  private final TupleBatcher transaction;
+  private long epochId;
+  /** The tuple reused for all the visited chunks. */
+  private final Object[] chunkTuple;
   /** The number of members of the visited level. */
   protected Integer memberCount;
 
@@ -55,25 +60,40 @@ public class LevelStatisticVisitor extends AFeedVisitorWithDictionary<Void> {
    */
   public LevelStatisticVisitor(
       final PivotFeederVisitor parent,
-      final IOpenedTransaction transaction,
+      final TupleBatcher transaction,
       final IDatastoreSchemaMetadata storageMetadata,
       final String dumpName,
-      final Long epochId) {
+      final long epochId) {
     super(transaction, storageMetadata, dumpName);
     this.parent = parent;
-    this.owner = parent.owner;
     this.transaction = transaction;
+    this.chunkTuple = getChunkWriter(storageMetadata).newTuple();
+    reset(epochId);
+  }
+
+  /**
+   * Prepares this visitor to visit the level the parent visitor is currently on, reusing its
+   * tuple.
+   *
+   * @param epochId the epoch id of the current statistic
+   * @return this visitor
+   */
+  public LevelStatisticVisitor reset(final long epochId) {
+    this.owner = this.parent.owner;
     this.epochId = epochId;
+    this.memberCount = null;
+    this.dictionaryAttributes = DictionaryAttributes.none();
 
     this.directParentType = ParentType.LEVEL;
     this.directParentId =
-        parent.owner.getName()
+        this.parent.owner.getName()
             + "/"
-            + parent.dimension
+            + this.parent.dimension
             + "/"
-            + parent.hierarchy
+            + this.parent.hierarchy
             + "/"
-            + parent.level;
+            + this.parent.level;
+    return this;
   }
 
   /**
@@ -96,33 +116,23 @@ public class LevelStatisticVisitor extends AFeedVisitorWithDictionary<Void> {
 
     recordLevelForStructure(this.directParentType, this.directParentId);
 
-    final IRecordFormat format = getChunkFormat(this.storageMetadata);
-    final Object[] tuple = FeedVisitor.buildChunkTupleFrom(format, stat);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__EPOCH_ID, this.epochId);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.OWNER__OWNER, this.owner);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.OWNER__FIELD, this.parent.directParentId);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.OWNER__COMPONENT, ParentType.LEVEL);
-
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE, this.directParentType);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__PARENT_ID, this.directParentId);
-
-    FeedVisitor.setTupleElement(
-        tuple,
-        format,
-        DatastoreConstants.CHUNK__PARTITION_ID,
-        MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION);
-
-    final Long dictionaryId = this.dictionaryAttributes.getDictionaryId();
-    if (dictionaryId != null) {
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.CHUNK__PARENT_DICO_ID, dictionaryId);
-    }
-    FeedVisitor.writeChunkTupleForFields(stat, this.transaction, null, format, tuple);
+    final ChunkTupleWriter writer = getChunkWriter(this.storageMetadata);
+    final Object[] tuple = this.chunkTuple;
+    writer.setChunk(tuple, stat);
+    writer.setDumpName(tuple, this.dumpName);
+    writer.setEpochId(tuple, this.epochId);
+    writer.setOwner(tuple, this.owner, ParentType.LEVEL);
+
+    writer.setParent(tuple, this.directParentType, this.directParentId);
+
+    writer.setPartitionId(tuple, MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION);
+
+    writer.setParentStructures(tuple, null, null, this.dictionaryAttributes.getDictionaryId());
+    writer.addForField(
+        this.transaction,
+        getChunkToFieldWriter(this.storageMetadata),
+        this.parent.directParentId,
+        tuple);
 
     visitChildren(stat);
 
@@ -175,24 +185,19 @@ public class LevelStatisticVisitor extends AFeedVisitorWithDictionary<Void> {
   }
 
   private void recordLevelForStructure(final ParentType type, final String id) {
-    final IRecordFormat format =
-        FeedVisitor.getRecordFormat(this.storageMetadata, DatastoreConstants.CHUNK_TO_LEVEL_STORE);
-    final Object[] tuple = new Object[format.getFieldCount()];
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK_TO_LEVEL__MANAGER_ID, this.parent.manager);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK_TO_LEVEL__PIVOT_ID, this.owner.getName());
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK_TO_LEVEL__DIMENSION, this.parent.dimension);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK_TO_LEVEL__HIERARCHY, this.parent.hierarchy);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK_TO_LEVEL__LEVEL, this.parent.level);
-
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK_TO_LEVEL__PARENT_TYPE, type);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK_TO_LEVEL__PARENT_ID, id);
+    final Object[] tuple =
+        ChunkToLevelTupleWriter.of(
+                FeedVisitor.getRecordFormat(
+                    this.storageMetadata, DatastoreConstants.CHUNK_TO_LEVEL_STORE))
+            .newTuple(
+                this.dumpName,
+                this.parent.manager,
+                this.owner.getName(),
+                this.parent.dimension,
+                this.parent.hierarchy,
+                this.parent.level,
+                type,
+                id);
 
     this.transaction.add(DatastoreConstants.CHUNK_TO_LEVEL_STORE, tuple);
   }
@@ -0,0 +1,106 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#LEVEL_STORE level store}.
+ *
+ * @author ActiveViam
+ */
+public class LevelTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<LevelTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int managerIdIndex;
+  private final int pivotIdIndex;
+  private final int dimensionIndex;
+  private final int hierarchyIndex;
+  private final int levelIndex;
+  private final int onHeapSizeIndex;
+  private final int offHeapSizeIndex;
+  private final int memberCountIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the level store
+   */
+  public LevelTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.managerIdIndex = index(DatastoreConstants.LEVEL__MANAGER_ID);
+    this.pivotIdIndex = index(DatastoreConstants.LEVEL__PIVOT_ID);
+    this.dimensionIndex = index(DatastoreConstants.LEVEL__DIMENSION);
+    this.hierarchyIndex = index(DatastoreConstants.LEVEL__HIERARCHY);
+    this.levelIndex = index(DatastoreConstants.LEVEL__LEVEL);
+    this.onHeapSizeIndex = index(DatastoreConstants.LEVEL__ON_HEAP_SIZE);
+    this.offHeapSizeIndex = index(DatastoreConstants.LEVEL__OFF_HEAP_SIZE);
+    this.memberCountIndex = index(DatastoreConstants.LEVEL__MEMBER_COUNT);
+  }
+
+  /**
+   * Returns the writer of a record format of the level store.
+   *
+   * @param format the record format of the level store
+   * @return the writer
+   */
+  public static LevelTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, LevelTupleWriter::new);
+  }
+
+  /**
+   * Creates a tuple filled with the sizes of a level statistic.
+   *
+   * @param statistic the level statistic
+   * @return the tuple
+   */
+  public Object[] newTuple(final IMemoryStatistic statistic) {
+    final Object[] tuple = newTuple();
+    tuple[this.onHeapSizeIndex] = statistic.getShallowOnHeap();
+    tuple[this.offHeapSizeIndex] = statistic.getShallowOffHeap();
+    return tuple;
+  }
+
+  /**
+   * Sets the location of a level.
+   *
+   * @param tuple the tuple to fill
+   * @param managerId the id of the manager of the cube
+   * @param pivotId the id of the cube
+   * @param dimension the dimension of the level
+   * @param hierarchy the hierarchy of the level
+   * @param level the name of the level
+   */
+  public void setLevel(
+      final Object[] tuple,
+      final String managerId,
+      final String pivotId,
+      final String dimension,
+      final String hierarchy,
+      final String level) {
+    write(tuple, this.managerIdIndex, managerId);
+    write(tuple, this.pivotIdIndex, pivotId);
+    write(tuple, this.dimensionIndex, dimension);
+    write(tuple, this.hierarchyIndex, hierarchy);
+    write(tuple, this.levelIndex, level);
+  }
+
+  /**
+   * Sets the number of members of a level.
+   *
+   * @param tuple the tuple to fill
+   * @param memberCount the number of members
+   */
+  public void setMemberCount(final Object[] tuple, final Integer memberCount) {
+    write(tuple, this.memberCountIndex, memberCount);
+  }
+}
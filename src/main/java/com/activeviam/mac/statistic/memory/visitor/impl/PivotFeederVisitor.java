@@ -15,8 +15,11 @@ import com.activeviam.fwk.ActiveViamRuntimeException;
 import com.activeviam.mac.entities.CubeOwner;
 import com.activeviam.mac.entities.DistributedCubeOwner;
 import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.LoadingMetrics;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.UsedByVersion;
+import com.activeviam.mac.memory.StreamingStatisticReader;
 import com.qfs.distribution.IMultiVersionDistributedActivePivot;
 import com.qfs.monitoring.statistic.IStatisticAttribute;
 import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
@@ -29,11 +32,11 @@ import com.qfs.monitoring.statistic.memory.impl.IndexStatistic;
 import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
 import com.qfs.monitoring.statistic.memory.visitor.IMemoryStatisticVisitor;
 import com.qfs.store.IDatastoreSchemaMetadata;
-import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
 import com.quartetfs.biz.pivot.impl.ActivePivotManager;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Implementation of {@link IMemoryStatisticVisitor} for pivot statistics.
@@ -42,18 +45,43 @@ import java.util.Objects;
  */
 public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
 
+  /** Timer measuring the time spent in this visitor. */
+  static final Timer TIMER = LoadingMetrics.visitorTimer(PivotFeederVisitor.class);
+
+  /** The writer of the tuples of the store that stores the chunks. */
+  protected final ChunkTupleWriter chunkWriter;
+  /** The writer of the tuples of the store linking the chunks to their fields. */
+  protected final ChunkToFieldTupleWriter fieldWriter;
+  /** The tuple reused for all the visited chunks. */
+  protected final Object[] chunkTuple;
+  /** The forker visiting the aggregate providers and their partitions concurrently. */
+  protected final StatisticTreeForker forker;
+  /** The visitor of the chunksets, reused for all the visited chunksets. */
+  protected ChunkSetStatisticVisitor chunkSetVisitor;
+  /** The visitor of the levels, reused for all the visited levels. */
+  protected LevelStatisticVisitor levelVisitor;
+  /** The visitor of the vectors, reused for all the visited vectors. */
+  protected VectorStatisticVisitor vectorVisitor;
   /** The export date, found on the first statistics we read. */
   protected Instant current = null;
-  /** The epoch id we are currently reading statistics for. */
-  protected Long epochId = null;
+  /**
+   * The epoch id we are currently reading statistics for, {@link DatastoreConstants#NO_EPOCH_ID}
+   * if not known yet.
+   */
+  protected long epochId = DatastoreConstants.NO_EPOCH_ID;
   /** The branch of the pivot we're currently reading statistics. */
   protected String branch = null;
   /** Current {@link ActivePivotManager}. */
   protected String manager;
-  /** Aggregate provider being currently visited. */
-  protected Long providerId;
-  /** Partition being currently visited. */
-  protected Integer partition;
+  /**
+   * Aggregate provider being currently visited, {@link DatastoreConstants#NO_PROVIDER_ID} if none.
+   */
+  protected long providerId = DatastoreConstants.NO_PROVIDER_ID;
+  /**
+   * Partition being currently visited, {@link
+   * MemoryAnalysisDatastoreDescriptionConfig#NO_PARTITION} if none.
+   */
+  protected int partition = MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
   /** Dimension being currently visited. */
   protected String dimension;
   /** Hierarchy being currently visited. */
@@ -81,51 +109,74 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
    */
   public PivotFeederVisitor(
       final IDatastoreSchemaMetadata storageMetadata,
-      final IOpenedTransaction tm,
+      final TupleBatcher tm,
       final String dumpName) {
-    super(tm, storageMetadata, dumpName);
+    this(storageMetadata, tm, dumpName, StatisticTreeForker.SEQUENTIAL);
   }
 
-  private static boolean isPivotDistributed(final IMemoryStatistic pivotStat) {
-    return pivotStat.getChildren().stream()
-        .filter(stat -> stat.getName().equals(MemoryStatisticConstants.STAT_NAME_PROVIDER))
-        .anyMatch(
-            stat -> {
-              final IStatisticAttribute providerType =
-                  stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_TYPE);
-              return providerType != null
-                  && providerType.asText().equals(IMultiVersionDistributedActivePivot.PLUGIN_KEY);
-            });
+  /**
+   * Constructor.
+   *
+   * @param storageMetadata datastore schema metadata
+   * @param tm ongoing transaction
+   * @param dumpName name of the current import
+   * @param forker the forker visiting the independent subtrees of the pivot
+   */
+  public PivotFeederVisitor(
+      final IDatastoreSchemaMetadata storageMetadata,
+      final TupleBatcher tm,
+      final String dumpName,
+      final StatisticTreeForker forker) {
+    super(tm, storageMetadata, dumpName);
+    this.chunkWriter = getChunkWriter(this.storageMetadata);
+    this.fieldWriter = getChunkToFieldWriter(this.storageMetadata);
+    this.chunkTuple = this.chunkWriter.newTuple();
+    this.forker = forker;
   }
 
-  private static Object[] buildProviderTupleFrom(
-      final IRecordFormat format, final IMemoryStatistic stat) {
-    final Object[] tuple = new Object[format.getFieldCount()];
-
-    final IStatisticAttribute indexAttr =
-        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_NAME);
-    if (indexAttr != null) {
-      tuple[format.getFieldIndex(DatastoreConstants.PROVIDER__INDEX)] = indexAttr.asText();
-    }
-
-    tuple[format.getFieldIndex(DatastoreConstants.PROVIDER__PROVIDER_ID)] =
-        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_ID).asLong();
-    tuple[format.getFieldIndex(DatastoreConstants.PROVIDER__TYPE)] =
-        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_TYPE)
-            .asText(); // JIT, BITMAP, LEAF
-    tuple[format.getFieldIndex(DatastoreConstants.PROVIDER__CATEGORY)] = getProviderCategory(stat);
-
-    return tuple;
+  /**
+   * Constructor of a copy visiting a subtree of the statistic visited by another visitor.
+   *
+   * @param parent the visitor of the parent statistic, whose context is copied
+   * @param tm the batcher of the thread visiting the subtree
+   */
+  protected PivotFeederVisitor(final PivotFeederVisitor parent, final TupleBatcher tm) {
+    super(tm, parent.storageMetadata, parent.dumpName);
+    this.chunkWriter = parent.chunkWriter;
+    this.fieldWriter = parent.fieldWriter;
+    this.chunkTuple = this.chunkWriter.newTuple();
+    this.forker = parent.forker;
+    this.owner = parent.owner;
+    this.dictionaryAttributes = parent.dictionaryAttributes;
+    this.current = parent.current;
+    this.epochId = parent.epochId;
+    this.branch = parent.branch;
+    this.manager = parent.manager;
+    this.providerId = parent.providerId;
+    this.partition = parent.partition;
+    this.dimension = parent.dimension;
+    this.hierarchy = parent.hierarchy;
+    this.level = parent.level;
+    this.providerComponentType = parent.providerComponentType;
+    this.rootComponent = parent.rootComponent;
+    this.directParentType = parent.directParentType;
+    this.directParentId = parent.directParentId;
+    this.ignoreFieldSpecifications = parent.ignoreFieldSpecifications;
   }
 
-  private static Object[] buildLevelTupleFrom(
-      final IRecordFormat format, final IMemoryStatistic stat) {
-    final Object[] tuple = new Object[format.getFieldCount()];
-
-    tuple[format.getFieldIndex(DatastoreConstants.LEVEL__ON_HEAP_SIZE)] = stat.getShallowOnHeap();
-    tuple[format.getFieldIndex(DatastoreConstants.LEVEL__OFF_HEAP_SIZE)] = stat.getShallowOffHeap();
+  private static boolean isPivotDistributed(final IMemoryStatistic pivotStat) {
+    // The streaming reader flags the pivot itself, as its providers may not be attached to it
+    return isDistributedProviderType(pivotStat)
+        || pivotStat.getChildren().stream()
+            .filter(stat -> stat.getName().equals(MemoryStatisticConstants.STAT_NAME_PROVIDER))
+            .anyMatch(PivotFeederVisitor::isDistributedProviderType);
+  }
 
-    return tuple;
+  private static boolean isDistributedProviderType(final IMemoryStatistic stat) {
+    final IStatisticAttribute providerType =
+        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_TYPE);
+    return providerType != null
+        && providerType.asText().equals(IMultiVersionDistributedActivePivot.PLUGIN_KEY);
   }
 
   private static String getProviderCategory(final IMemoryStatistic stat) {
@@ -159,12 +210,12 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
           Instant.ofEpochSecond(null != dateAtt ? dateAtt.asLong() : System.currentTimeMillis());
 
       readEpochAndBranchIfAny(stat);
-      if (this.epochId == null
+      if (this.epochId == DatastoreConstants.NO_EPOCH_ID
           && stat.getName().equals(MemoryStatisticConstants.STAT_NAME_MANAGER)) {
         // Look amongst the children to find the epoch
         for (final IMemoryStatistic child : stat.getChildren()) {
           readEpochAndBranchIfAny(child);
-          if (this.epochId != null) {
+          if (this.epochId != DatastoreConstants.NO_EPOCH_ID) {
             break;
           }
         }
@@ -230,11 +281,13 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
 
   @Override
   public Void visit(final ChunkSetStatistic stat) {
-    return new ChunkSetStatisticVisitor(
-            this.storageMetadata,
-            this.transaction,
-            this.dumpName,
-            this.current,
+    if (this.chunkSetVisitor == null) {
+      this.chunkSetVisitor =
+          new ChunkSetStatisticVisitor(
+              this.storageMetadata, this.transaction, this.dumpName, this.current);
+    }
+    final ChunkSetStatisticVisitor visitor =
+        this.chunkSetVisitor.reset(
             this.owner,
             this.rootComponent,
             this.directParentType,
@@ -245,45 +298,40 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
             this.providerId,
             this.epochId,
             UsedByVersion.UNKNOWN,
-            this.ignoreFieldSpecifications)
-        .visit(stat);
+            this.ignoreFieldSpecifications);
+    final long start = System.nanoTime();
+    try {
+      return visitor.visit(stat);
+    } finally {
+      ChunkSetStatisticVisitor.TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
   }
 
   @Override
   public Void visit(final ChunkStatistic stat) {
 
-    final IRecordFormat format = getChunkFormat(this.storageMetadata);
-    final Object[] tuple = FeedVisitor.buildChunkTupleFrom(format, stat);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__EPOCH_ID, this.epochId);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.OWNER__OWNER, this.owner);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.OWNER__COMPONENT, this.rootComponent);
-
-    final IStatisticAttribute fieldAttribute =
-        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_FIELD);
-    if (fieldAttribute != null) {
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.OWNER__FIELD, fieldAttribute.asText());
-    }
+    final ChunkTupleWriter writer = this.chunkWriter;
+    final Object[] tuple = this.chunkTuple;
+    writer.setChunk(tuple, stat);
+    writer.setDumpName(tuple, this.dumpName);
+    writer.setEpochId(tuple, this.epochId);
+    writer.setOwner(tuple, this.owner, this.rootComponent);
 
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE, this.directParentType);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__PARENT_ID, this.directParentId);
+    writer.setParent(tuple, this.directParentType, this.directParentId);
 
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__PROVIDER_ID, this.providerId);
+    writer.setProviderId(tuple, this.providerId);
 
-    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID)] = this.partition;
+    writer.setPartitionId(tuple, this.partition);
 
-    final Long dictionaryId = this.dictionaryAttributes.getDictionaryId();
-    if (dictionaryId != null) {
-      FeedVisitor.setTupleElement(
-          tuple, format, DatastoreConstants.CHUNK__PARENT_DICO_ID, dictionaryId);
-    }
+    writer.setParentStructures(tuple, null, null, this.dictionaryAttributes.getDictionaryId());
 
-    this.transaction.add(DatastoreConstants.CHUNK_STORE, tuple);
+    final IStatisticAttribute fieldAttribute =
+        stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_FIELD);
+    writer.addForField(
+        this.transaction,
+        this.fieldWriter,
+        fieldAttribute == null ? null : fieldAttribute.asText(),
+        tuple);
 
     visitChildren(stat);
 
@@ -311,7 +359,7 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
     this.directParentType = cpnType != null ? this.rootComponent : ParentType.DICTIONARY;
     this.directParentId = String.valueOf(this.dictionaryAttributes.getDictionaryId());
 
-    if (this.providerId != null) {
+    if (this.providerId != DatastoreConstants.NO_PROVIDER_ID) {
       visitChildren(stat);
     } else if (this.level != null) {
       // We are processing a hierarchy/level
@@ -373,11 +421,10 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
   private void processPivot(final IMemoryStatistic stat) {
     readEpochAndBranchIfAny(stat);
 
-    if (readEpochAndBranchIfAny(stat)) {
-      final IRecordFormat versionStoreFormat = getVersionStoreFormat(this.storageMetadata);
+    if (readEpochAndBranchIfAny(stat) && !StreamingStatisticReader.isReplayed(stat)) {
       final Object[] tuple =
-          FeedVisitor.buildVersionTupleFrom(
-              versionStoreFormat, stat, this.dumpName, this.epochId, this.branch);
+          getVersionWriter(this.storageMetadata)
+              .newTuple(this.dumpName, this.epochId, this.branch);
       FeedVisitor.add(stat, this.transaction, DatastoreConstants.VERSION_STORE, tuple);
     }
 
@@ -399,32 +446,30 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
       this.manager = managerAttr.asText();
     }
 
-    visitChildren(stat);
+    this.forker.visitChildren(stat, this, PivotFeederVisitor::new);
 
     this.owner = null;
     if (managerAttr != null) {
       this.manager = null;
     }
-    this.epochId = null;
+    this.epochId = DatastoreConstants.NO_EPOCH_ID;
     this.branch = null;
   }
 
   private void processProvider(final IMemoryStatistic stat) {
-    final IRecordFormat format = getProviderFormat(this.storageMetadata);
-    final Object[] tuple = buildProviderTupleFrom(format, stat);
+    final ProviderTupleWriter writer = getProviderWriter(this.storageMetadata);
+    final Object[] tuple = writer.newTuple(stat, getProviderCategory(stat));
 
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.PROVIDER__PIVOT_ID, this.owner.getName());
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.APPLICATION__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.PROVIDER__MANAGER_ID, this.manager);
+    writer.setPivot(tuple, this.owner.getName(), this.manager);
+    writer.setDumpName(tuple, this.dumpName);
 
-    this.transaction.add(DatastoreConstants.PROVIDER_STORE, tuple);
+    if (!StreamingStatisticReader.isReplayed(stat)) {
+      this.transaction.add(DatastoreConstants.PROVIDER_STORE, tuple);
+    }
 
-    this.providerId = (Long) tuple[format.getFieldIndex(DatastoreConstants.PROVIDER__PROVIDER_ID)];
-    visitChildren(stat);
-    this.providerId = null;
+    this.providerId = writer.getProviderId(tuple);
+    this.forker.visitChildren(stat, this, PivotFeederVisitor::new);
+    this.providerId = DatastoreConstants.NO_PROVIDER_ID;
   }
 
   private void processPartition(final IMemoryStatistic stat) {
@@ -432,12 +477,12 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
         Objects.requireNonNull(
             stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_PARTITION_ID),
             () -> "No partition id in " + stat);
-    assert this.partition == null;
+    assert this.partition == MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
     this.partition = idAttr.asInt();
 
     visitChildren(stat);
 
-    this.partition = null;
+    this.partition = MemoryAnalysisDatastoreDescriptionConfig.NO_PARTITION;
   }
 
   private void processHierarchy(final IMemoryStatistic stat) {
@@ -453,20 +498,16 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
   }
 
   private void processLevel(final IMemoryStatistic stat) {
-    final IRecordFormat format = getLevelFormat(this.storageMetadata);
-    final Object[] tuple = buildLevelTupleFrom(format, stat);
+    final LevelTupleWriter writer = getLevelWriter(this.storageMetadata);
+    final Object[] tuple = writer.newTuple(stat);
 
     String levelDescription =
         stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_LEVEL_ID).asText();
     LevelIdentifier lc = LevelIdentifier.fromDescription(levelDescription);
     this.level = lc.level;
 
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.LEVEL__MANAGER_ID, this.manager);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.LEVEL__PIVOT_ID, this.owner.getName());
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.LEVEL__DIMENSION, this.dimension);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.LEVEL__HIERARCHY, this.hierarchy);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.LEVEL__LEVEL, this.level);
+    writer.setLevel(
+        tuple, this.manager, this.owner.getName(), this.dimension, this.hierarchy, this.level);
 
     final ParentType previousParentType = this.directParentType;
     final String previousParentId = this.directParentId;
@@ -474,17 +515,24 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
     this.directParentType = ParentType.LEVEL;
     this.rootComponent = ParentType.LEVEL;
 
-    final LevelStatisticVisitor levelVisitor =
-        new LevelStatisticVisitor(
-            this, this.transaction, this.storageMetadata, this.dumpName, this.epochId);
-    levelVisitor.analyze(stat);
+    if (this.levelVisitor == null) {
+      this.levelVisitor =
+          new LevelStatisticVisitor(
+              this, this.transaction, this.storageMetadata, this.dumpName, this.epochId);
+    }
+    final LevelStatisticVisitor levelVisitor = this.levelVisitor.reset(this.epochId);
+    final long start = System.nanoTime();
+    try {
+      levelVisitor.analyze(stat);
+    } finally {
+      LevelStatisticVisitor.TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
 
     this.directParentType = previousParentType;
     this.directParentId = previousParentId;
     this.rootComponent = null;
 
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.LEVEL__MEMBER_COUNT, levelVisitor.memberCount);
+    writer.setMemberCount(tuple, levelVisitor.memberCount);
 
     this.transaction.add(DatastoreConstants.LEVEL_STORE, tuple);
 
@@ -511,18 +559,19 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
 
   private void processChunkObject(final IMemoryStatistic statistic) {
     if (VectorStatisticVisitor.isVector(statistic)) {
-      final VectorStatisticVisitor subVisitor =
-          new VectorStatisticVisitor(
-              this.storageMetadata,
-              this.transaction,
-              this.dumpName,
-              this.current,
-              this.owner,
-              null,
-              this.partition,
-              this.epochId,
-              UsedByVersion.UNKNOWN);
-      subVisitor.process(statistic);
+      if (this.vectorVisitor == null) {
+        this.vectorVisitor =
+            new VectorStatisticVisitor(
+                this.storageMetadata, this.transaction, this.dumpName, this.current);
+      }
+      this.vectorVisitor.reset(
+          this.owner, null, this.partition, this.epochId, UsedByVersion.UNKNOWN);
+      final long start = System.nanoTime();
+      try {
+        this.vectorVisitor.process(statistic);
+      } finally {
+        VectorStatisticVisitor.TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
     } else {
       FeedVisitor.visitChildren(this, statistic);
     }
@@ -576,8 +625,8 @@ public class PivotFeederVisitor extends AFeedVisitorWithDictionary<Void> {
     final IStatisticAttribute epochAttr =
         stat.getAttribute(MemoryStatisticConstants.ATTR_NAME_EPOCH);
     if (epochAttr != null) {
-      final Long epoch = epochAttr.asLong();
-      assert this.epochId == null || epoch.equals(this.epochId);
+      final long epoch = epochAttr.asLong();
+      assert this.epochId == DatastoreConstants.NO_EPOCH_ID || epoch == this.epochId;
       this.epochId = epoch;
       epochOrBranchChanged = true;
     }
@@ -0,0 +1,105 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.qfs.monitoring.statistic.IStatisticAttribute;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#PROVIDER_STORE provider store}.
+ *
+ * @author ActiveViam
+ */
+public class ProviderTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<ProviderTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int providerIdIndex;
+  private final int indexIndex;
+  private final int typeIndex;
+  private final int categoryIndex;
+  private final int pivotIdIndex;
+  private final int managerIdIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the provider store
+   */
+  public ProviderTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.providerIdIndex = index(DatastoreConstants.PROVIDER__PROVIDER_ID);
+    this.indexIndex = index(DatastoreConstants.PROVIDER__INDEX);
+    this.typeIndex = index(DatastoreConstants.PROVIDER__TYPE);
+    this.categoryIndex = index(DatastoreConstants.PROVIDER__CATEGORY);
+    this.pivotIdIndex = index(DatastoreConstants.PROVIDER__PIVOT_ID);
+    this.managerIdIndex = index(DatastoreConstants.PROVIDER__MANAGER_ID);
+  }
+
+  /**
+   * Returns the writer of a record format of the provider store.
+   *
+   * @param format the record format of the provider store
+   * @return the writer
+   */
+  public static ProviderTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, ProviderTupleWriter::new);
+  }
+
+  /**
+   * Creates a tuple filled with the attributes of a provider statistic.
+   *
+   * @param statistic the provider statistic
+   * @param category the category of the provider
+   * @return the tuple
+   */
+  public Object[] newTuple(final IMemoryStatistic statistic, final String category) {
+    final Object[] tuple = newTuple();
+
+    final IStatisticAttribute indexAttr =
+        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_NAME);
+    if (indexAttr != null) {
+      tuple[this.indexIndex] = indexAttr.asText();
+    }
+
+    tuple[this.providerIdIndex] =
+        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_ID).asLong();
+    tuple[this.typeIndex] =
+        statistic
+            .getAttribute(MemoryStatisticConstants.ATTR_NAME_PROVIDER_TYPE)
+            .asText(); // JIT, BITMAP, LEAF
+    tuple[this.categoryIndex] = category;
+    return tuple;
+  }
+
+  /**
+   * Sets the cube owning a provider.
+   *
+   * @param tuple the tuple to fill
+   * @param pivotId the id of the cube
+   * @param managerId the id of the manager of the cube
+   */
+  public void setPivot(final Object[] tuple, final String pivotId, final String managerId) {
+    write(tuple, this.pivotIdIndex, pivotId);
+    write(tuple, this.managerIdIndex, managerId);
+  }
+
+  /**
+   * Returns the id of the provider of a tuple.
+   *
+   * @param tuple the tuple of the provider
+   * @return the id of the provider
+   */
+  public long getProviderId(final Object[] tuple) {
+    return (Long) tuple[this.providerIdIndex];
+  }
+}
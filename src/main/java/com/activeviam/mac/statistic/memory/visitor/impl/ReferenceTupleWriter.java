@@ -0,0 +1,91 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
+import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#REFERENCE_STORE reference store}.
+ *
+ * @author ActiveViam
+ */
+public class ReferenceTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<ReferenceTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int idIndex;
+  private final int nameIndex;
+  private final int classIndex;
+  private final int fromStoreIndex;
+  private final int fromStorePartitionIdIndex;
+  private final int toStoreIndex;
+  private final int toStorePartitionIdIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the reference store
+   */
+  public ReferenceTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.idIndex = index(DatastoreConstants.REFERENCE_ID);
+    this.nameIndex = index(DatastoreConstants.REFERENCE_NAME);
+    this.classIndex = index(DatastoreConstants.REFERENCE_CLASS);
+    this.fromStoreIndex = index(DatastoreConstants.REFERENCE_FROM_STORE);
+    this.fromStorePartitionIdIndex = index(DatastoreConstants.REFERENCE_FROM_STORE_PARTITION_ID);
+    this.toStoreIndex = index(DatastoreConstants.REFERENCE_TO_STORE);
+    this.toStorePartitionIdIndex = index(DatastoreConstants.REFERENCE_TO_STORE_PARTITION_ID);
+  }
+
+  /**
+   * Returns the writer of a record format of the reference store.
+   *
+   * @param format the record format of the reference store
+   * @return the writer
+   */
+  public static ReferenceTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, ReferenceTupleWriter::new);
+  }
+
+  /**
+   * Creates a tuple filled with the attributes of a reference statistic.
+   *
+   * @param statistic the reference statistic
+   * @return the tuple
+   */
+  public Object[] newTuple(final ReferenceStatistic statistic) {
+    final Object[] tuple = newTuple();
+    tuple[this.fromStoreIndex] =
+        statistic.getAttribute(DatastoreConstants.REFERENCE_FROM_STORE).asText();
+    tuple[this.fromStorePartitionIdIndex] =
+        statistic.getAttribute(DatastoreConstants.REFERENCE_FROM_STORE_PARTITION_ID).asInt();
+    tuple[this.toStoreIndex] =
+        statistic.getAttribute(DatastoreConstants.REFERENCE_TO_STORE).asText();
+    tuple[this.toStorePartitionIdIndex] =
+        statistic.getAttribute(DatastoreConstants.REFERENCE_TO_STORE_PARTITION_ID).asInt();
+    tuple[this.idIndex] =
+        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_REFERENCE_ID).asLong();
+    tuple[this.nameIndex] = statistic.getAttribute(DatastoreConstants.REFERENCE_NAME).asText();
+    tuple[this.classIndex] = statistic.getAttribute(DatastoreConstants.REFERENCE_CLASS).asText();
+    return tuple;
+  }
+
+  /**
+   * Returns the id of the reference of a tuple.
+   *
+   * @param tuple the tuple of the reference
+   * @return the id of the reference
+   */
+  public long getId(final Object[] tuple) {
+    return (Long) tuple[this.idIndex];
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiFunction;
+
+/**
+ * Visits the independent subtrees of a single statistic concurrently, with a fork-join pool.
+ *
+ * <p>The visitors split the tree where the visits of the children of a statistic do not depend on
+ * each other, such as the aggregate providers of a pivot or the partitions of a store. Each child
+ * is then visited by its own copy of the visitor, holding the context inherited from the parent
+ * statistic and adding its tuples to the transaction through its own {@link TupleBatcher}.
+ *
+ * <p>Nested splits are forked in the same pool, whose workers steal the pending subtrees of each
+ * other.
+ *
+ * @author ActiveViam
+ */
+public class StatisticTreeForker implements AutoCloseable {
+
+  /** Forker visiting all the subtrees on the calling thread. */
+  public static final StatisticTreeForker SEQUENTIAL = new StatisticTreeForker(1);
+
+  /** The pool visiting the subtrees, {@code null} to visit them on the calling thread. */
+  protected final ForkJoinPool pool;
+
+  /**
+   * Constructor.
+   *
+   * @param parallelism the number of threads visiting the subtrees, {@code 1} to use the calling
+   *     thread
+   */
+  public StatisticTreeForker(final int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be positive. Got " + parallelism);
+    }
+    this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+  }
+
+  /**
+   * Visits the children of a statistic, each one by its own copy of the visitor when they can be
+   * visited concurrently.
+   *
+   * <p>The copies are created on the calling thread before any child is visited. This method
+   * returns once all the children are visited, and all the tuples of the copies are added to the
+   * transaction.
+   *
+   * @param statistic the statistic whose children to visit
+   * @param visitor the visitor of the statistic
+   * @param copier the function copying the visitor, given the batcher the copy must use
+   * @param <V> the type of the visitor
+   */
+  public <V extends AFeedVisitor<?>> void visitChildren(
+      final IMemoryStatistic statistic,
+      final V visitor,
+      final BiFunction<? super V, TupleBatcher, ? extends V> copier) {
+    if (this.pool == null || statistic.getChildren().size() < 2) {
+      visitor.visitChildren(statistic);
+      return;
+    }
+
+    final List<ForkJoinTask<?>> tasks = new ArrayList<>(statistic.getChildren().size());
+    for (final IMemoryStatistic child : statistic.getChildren()) {
+      final TupleBatcher batcher = visitor.transaction.fork();
+      final V copy = copier.apply(visitor, batcher);
+      tasks.add(
+          ForkJoinTask.adapt(
+              () -> {
+                child.accept(copy);
+                batcher.flush();
+              }));
+    }
+
+    if (ForkJoinTask.getPool() == this.pool) {
+      ForkJoinTask.invokeAll(tasks);
+    } else {
+      this.pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+  }
+
+  /**
+   * Returns whether this forker visits all the subtrees on the calling thread.
+   *
+   * @return {@code true} if the subtrees are not visited concurrently
+   */
+  public boolean isSequential() {
+    return this.pool == null;
+  }
+
+  @Override
+  public void close() {
+    if (this.pool != null) {
+      this.pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,299 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.entities.ChunkOwner;
+import com.activeviam.mac.memory.ChunkSummarizer;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.OwnerEpochs;
+import com.activeviam.mac.memory.StoreRecordCounts;
+import com.activeviam.mac.memory.ValueInterner;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Buffers the tuples added to a transaction by the visitors of a statistic, adding them to each
+ * store in batches rather than one by one.
+ *
+ * <p>The tuples of a store are added in the order they were buffered. Like the transaction, the
+ * batcher copies the tuples it is given, so that visitors can reuse their tuples. The arrays of a
+ * batch are reused once it is added to the transaction.
+ *
+ * <p>When given a {@link ValueInterner}, the batcher canonicalizes the repeated values of the
+ * tuples as it copies them. When given {@link OwnerEpochs}, it records the epochs of the chunks
+ * added through it. When given {@link StoreRecordCounts}, it counts the tuples it adds to each
+ * store. When given a {@link ChunkSummarizer}, it gives it the IDs of the chunks it adds to the
+ * chunk store.
+ *
+ * <p>A batcher is used by a single thread, and must be {@link #flush() flushed} once the statistic
+ * is visited.
+ *
+ * @author ActiveViam
+ */
+public class TupleBatcher {
+
+  /** The default number of tuples added at once to a store. */
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+
+  /** The transaction the tuples are added to. */
+  protected final IOpenedTransaction transaction;
+
+  /** The number of tuples added at once to a store. */
+  protected final int batchSize;
+
+  /** The interner canonicalizing the values of the tuples, {@code null} to keep them as is. */
+  protected final ValueInterner interner;
+
+  /** The epochs of the owners of the added chunks, {@code null} not to record them. */
+  protected final OwnerEpochs epochs;
+
+  /** The counts of the records written to each store, {@code null} not to count them. */
+  protected final StoreRecordCounts recordCounts;
+
+  /** The summarizer collecting the IDs of the added chunks, {@code null} not to collect them. */
+  protected final ChunkSummarizer summarizer;
+
+  /** The owner of the epoch recorded last, to skip the chunks of the same owner and epoch. */
+  protected ChunkOwner lastOwner;
+
+  /** The epoch recorded last. */
+  protected long lastEpochId;
+
+  /** The pending tuples of each store, in the order the stores were first written. */
+  protected final Map<String, Batch> batches = new LinkedHashMap<>();
+
+  /**
+   * Constructor.
+   *
+   * @param transaction the transaction to add the tuples to
+   * @param batchSize the number of tuples added at once to a store
+   */
+  public TupleBatcher(final IOpenedTransaction transaction, final int batchSize) {
+    this(transaction, batchSize, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param transaction the transaction to add the tuples to
+   * @param batchSize the number of tuples added at once to a store
+   * @param interner the interner canonicalizing the values of the tuples, {@code null} to keep
+   *     them as is
+   */
+  public TupleBatcher(
+      final IOpenedTransaction transaction, final int batchSize, final ValueInterner interner) {
+    this(transaction, batchSize, interner, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param transaction the transaction to add the tuples to
+   * @param batchSize the number of tuples added at once to a store
+   * @param interner the interner canonicalizing the values of the tuples, {@code null} to keep
+   *     them as is
+   * @param epochs the epochs of the owners to record the epochs of the added chunks into, {@code
+   *     null} not to record them
+   */
+  public TupleBatcher(
+      final IOpenedTransaction transaction,
+      final int batchSize,
+      final ValueInterner interner,
+      final OwnerEpochs epochs) {
+    this(transaction, batchSize, interner, epochs, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param transaction the transaction to add the tuples to
+   * @param batchSize the number of tuples added at once to a store
+   * @param interner the interner canonicalizing the values of the tuples, {@code null} to keep
+   *     them as is
+   * @param epochs the epochs of the owners to record the epochs of the added chunks into, {@code
+   *     null} not to record them
+   * @param recordCounts the counts to add the number of tuples added to each store to, {@code
+   *     null} not to count them
+   */
+  public TupleBatcher(
+      final IOpenedTransaction transaction,
+      final int batchSize,
+      final ValueInterner interner,
+      final OwnerEpochs epochs,
+      final StoreRecordCounts recordCounts) {
+    this(transaction, batchSize, interner, epochs, recordCounts, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param transaction the transaction to add the tuples to
+   * @param batchSize the number of tuples added at once to a store
+   * @param interner the interner canonicalizing the values of the tuples, {@code null} to keep
+   *     them as is
+   * @param epochs the epochs of the owners to record the epochs of the added chunks into, {@code
+   *     null} not to record them
+   * @param recordCounts the counts to add the number of tuples added to each store to, {@code
+   *     null} not to count them
+   * @param summarizer the summarizer collecting the IDs of the chunks added to the chunk store,
+   *     {@code null} not to collect them
+   */
+  public TupleBatcher(
+      final IOpenedTransaction transaction,
+      final int batchSize,
+      final ValueInterner interner,
+      final OwnerEpochs epochs,
+      final StoreRecordCounts recordCounts,
+      final ChunkSummarizer summarizer) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be positive. Got " + batchSize);
+    }
+    this.transaction = transaction;
+    this.batchSize = batchSize;
+    this.interner = interner;
+    this.epochs = epochs;
+    this.recordCounts = recordCounts;
+    this.summarizer = summarizer;
+  }
+
+  /**
+   * Adds a tuple to a store, adding the pending tuples of the store to the transaction if its batch
+   * is full.
+   *
+   * @param store the name of the store
+   * @param tuple the tuple to add, copied by this method
+   */
+  public void add(final String store, final Object... tuple) {
+    final Batch batch = this.batches.computeIfAbsent(store, key -> new Batch(this.batchSize));
+    final Object[] copy = batch.add(tuple);
+    if (this.interner != null) {
+      this.interner.internAll(copy);
+    }
+    if (batch.size == this.batchSize) {
+      flush(store, batch);
+    }
+  }
+
+  /**
+   * Records that an owner has chunks in an epoch.
+   *
+   * <p>The chunks of a statistic mostly share their owner and epoch, so a pair identical to the one
+   * recorded last is skipped without reaching the shared epochs.
+   *
+   * @param owner the owner of the chunk
+   * @param epochId the epoch of the chunk
+   */
+  public void recordEpoch(final ChunkOwner owner, final long epochId) {
+    if (this.epochs != null && (owner != this.lastOwner || epochId != this.lastEpochId)) {
+      this.epochs.add(owner, epochId);
+      this.lastOwner = owner;
+      this.lastEpochId = epochId;
+    }
+  }
+
+  /** Adds all the pending tuples to the transaction. */
+  public void flush() {
+    this.batches.forEach(this::flush);
+  }
+
+  private void flush(final String store, final Batch batch) {
+    if (this.summarizer != null && DatastoreConstants.CHUNK_STORE.equals(store)) {
+      this.summarizer.addAll(
+          this.transaction
+              .getMetadata()
+              .getStoreMetadata(store)
+              .getStoreFormat()
+              .getRecordFormat(),
+          batch.tuples,
+          batch.size);
+    }
+    final int added = batch.flush(this.transaction, store);
+    if (this.recordCounts != null && added > 0) {
+      this.recordCounts.add(store, added);
+    }
+  }
+
+  /**
+   * Creates a batcher adding its tuples to the same transaction, for another thread.
+   *
+   * @return the new batcher, with the same batch size, interner, recorded epochs, record counts
+   *     and summarizer
+   */
+  public TupleBatcher fork() {
+    return new TupleBatcher(
+        this.transaction,
+        this.batchSize,
+        this.interner,
+        this.epochs,
+        this.recordCounts,
+        this.summarizer);
+  }
+
+  /**
+   * Returns the transaction the tuples are added to.
+   *
+   * @return the transaction
+   */
+  public IOpenedTransaction getTransaction() {
+    return this.transaction;
+  }
+
+  /** The pending tuples of a store. */
+  protected static class Batch {
+
+    /** The copies of the pending tuples, and the arrays reused for the next ones. */
+    protected final Object[][] tuples;
+
+    /** The number of pending tuples. */
+    protected int size;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of pending tuples
+     */
+    protected Batch(final int capacity) {
+      this.tuples = new Object[capacity][];
+    }
+
+    /**
+     * Copies a tuple into the batch.
+     *
+     * @param tuple the tuple to copy
+     * @return the copy of the tuple
+     */
+    protected Object[] add(final Object[] tuple) {
+      Object[] copy = this.tuples[this.size];
+      if (copy == null || copy.length != tuple.length) {
+        copy = new Object[tuple.length];
+        this.tuples[this.size] = copy;
+      }
+      System.arraycopy(tuple, 0, copy, 0, tuple.length);
+      ++this.size;
+      return copy;
+    }
+
+    /**
+     * Adds the pending tuples to a transaction.
+     *
+     * @param transaction the transaction to add the tuples to
+     * @param store the name of the store of the batch
+     * @return the number of added tuples
+     */
+    protected int flush(final IOpenedTransaction transaction, final String store) {
+      final int added = this.size;
+      if (added > 0) {
+        transaction.addAll(store, Arrays.asList(this.tuples).subList(0, added));
+        this.size = 0;
+      }
+      return added;
+    }
+  }
+}
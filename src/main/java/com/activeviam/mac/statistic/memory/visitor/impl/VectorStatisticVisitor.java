@@ -8,7 +8,7 @@
 package com.activeviam.mac.statistic.memory.visitor.impl;
 
 import com.activeviam.mac.entities.ChunkOwner;
-import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.LoadingMetrics;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.UsedByVersion;
@@ -21,8 +21,7 @@ import com.qfs.monitoring.statistic.memory.impl.DictionaryStatistic;
 import com.qfs.monitoring.statistic.memory.impl.IndexStatistic;
 import com.qfs.monitoring.statistic.memory.impl.ReferenceStatistic;
 import com.qfs.store.IDatastoreSchemaMetadata;
-import com.qfs.store.record.IRecordFormat;
-import com.qfs.store.transaction.IOpenedTransaction;
+import io.micrometer.core.instrument.Timer;
 import java.time.Instant;
 import java.util.Collection;
 
@@ -34,21 +33,49 @@ import java.util.Collection;
  */
 public class VectorStatisticVisitor extends AFeedVisitor<Void> {
 
-  /** The record format of the store that stores the chunks. */
-  protected final IRecordFormat chunkRecordFormat;
+  /** Timer measuring the time spent in this visitor. */
+  static final Timer TIMER = LoadingMetrics.visitorTimer(VectorStatisticVisitor.class);
+
+  /** The writer of the tuples of the store that stores the chunks. */
+  protected final ChunkTupleWriter chunkWriter;
+  /** The writer of the tuples of the store linking the chunks to their fields. */
+  protected final ChunkToFieldTupleWriter fieldWriter;
+  /** The tuple reused for all the visited vector blocks, created with the first one. */
+  protected Object[] chunkTuple;
+  /** Whether {@link #chunkTuple} holds the attributes of the current vector. */
+  protected boolean chunkTupleFilled;
 
   /** The export date, found on the first statistics we read. */
   protected final Instant current;
 
   /** The partition id of the visited statistic. */
-  protected final int partitionId;
+  protected int partitionId;
 
-  private final UsedByVersion usedByVersion;
+  private UsedByVersion usedByVersion;
   /** The epoch id we are currently reading statistics for. */
-  protected Long epochId;
+  protected long epochId;
   /** The fields corresponding to the vector block statistic. */
   protected Collection<String> fields;
 
+  /**
+   * Constructor of a visitor to {@link #reset reset} before processing each vector.
+   *
+   * @param storageMetadata metadata of the application datastore
+   * @param transaction ongoing transaction
+   * @param dumpName name of the ongoing import
+   * @param current current time
+   */
+  public VectorStatisticVisitor(
+      final IDatastoreSchemaMetadata storageMetadata,
+      final TupleBatcher transaction,
+      final String dumpName,
+      final Instant current) {
+    super(transaction, storageMetadata, dumpName);
+    this.current = current;
+    this.chunkWriter = getChunkWriter(this.storageMetadata);
+    this.fieldWriter = getChunkToFieldWriter(this.storageMetadata);
+  }
+
   /**
    * Constructor.
    *
@@ -64,27 +91,62 @@ public class VectorStatisticVisitor extends AFeedVisitor<Void> {
    */
   public VectorStatisticVisitor(
       final IDatastoreSchemaMetadata storageMetadata,
-      final IOpenedTransaction transaction,
+      final TupleBatcher transaction,
       final String dumpName,
       final Instant current,
       final ChunkOwner owner,
       final Collection<String> fields,
       final int partitionId,
-      final Long epochId,
+      final long epochId,
+      final UsedByVersion usedByVersion) {
+    this(storageMetadata, transaction, dumpName, current);
+    reset(owner, fields, partitionId, epochId, usedByVersion);
+  }
+
+  /**
+   * Prepares this visitor to process another vector, reusing its tuple.
+   *
+   * @param owner owner being visited
+   * @param fields the fields related to the current statistic
+   * @param partitionId partition id of the parent if the chunkSet
+   * @param epochId the epoch id of the current statistic
+   * @param usedByVersion the used by version flag for the current statistic
+   * @return this visitor
+   */
+  public VectorStatisticVisitor reset(
+      final ChunkOwner owner,
+      final Collection<String> fields,
+      final int partitionId,
+      final long epochId,
       final UsedByVersion usedByVersion) {
-    super(transaction, storageMetadata, dumpName);
-    this.current = current;
-    this.fields = fields;
     this.owner = owner;
+    this.fields = fields;
     this.partitionId = partitionId;
     this.epochId = epochId;
     this.usedByVersion = usedByVersion;
+    this.chunkTupleFilled = false;
+    return this;
+  }
+
+  private Object[] getChunkTuple() {
+    if (this.chunkTupleFilled) {
+      return this.chunkTuple;
+    }
+    final ChunkTupleWriter writer = this.chunkWriter;
+    if (this.chunkTuple == null) {
+      this.chunkTuple = writer.newTuple();
+    }
+    final Object[] tuple = this.chunkTuple;
+    writer.setParent(tuple, ParentType.VECTOR_BLOCK, "None");
+    writer.setOwner(tuple, this.owner, ParentType.VECTOR_BLOCK);
+
+    writer.setDumpName(tuple, this.dumpName);
+    writer.setEpochId(tuple, this.epochId);
+    writer.setUsedByVersion(tuple, this.usedByVersion);
 
-    this.chunkRecordFormat =
-        this.storageMetadata
-            .getStoreMetadata(DatastoreConstants.CHUNK_STORE)
-            .getStoreFormat()
-            .getRecordFormat();
+    writer.setPartitionId(tuple, this.partitionId);
+    this.chunkTupleFilled = true;
+    return tuple;
   }
 
   /**
@@ -175,43 +237,20 @@ public class VectorStatisticVisitor extends AFeedVisitor<Void> {
   protected void visitVectorBlock(final ChunkStatistic statistic) {
     assert statistic.getChildren().isEmpty() : "Vector statistics with children";
 
-    final IRecordFormat format = this.chunkRecordFormat;
-    final Object[] tuple = FeedVisitor.buildChunkTupleFrom(format, statistic);
-
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE, ParentType.VECTOR_BLOCK);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__PARENT_ID, "None");
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.OWNER__OWNER, this.owner);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.OWNER__COMPONENT, ParentType.VECTOR_BLOCK);
-
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.CHUNK__DUMP_NAME, this.dumpName);
-    FeedVisitor.setTupleElement(tuple, format, DatastoreConstants.VERSION__EPOCH_ID, this.epochId);
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__USED_BY_VERSION, this.usedByVersion);
-
-    FeedVisitor.setTupleElement(
-        tuple, format, DatastoreConstants.CHUNK__PARTITION_ID, this.partitionId);
-
-    FeedVisitor.setTupleElement(
-        tuple,
-        format,
-        DatastoreConstants.CHUNK__VECTOR_BLOCK_LENGTH,
-        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_LENGTH).asLong());
-    FeedVisitor.setTupleElement(
+    final ChunkTupleWriter writer = this.chunkWriter;
+    final Object[] tuple = getChunkTuple();
+    writer.setChunk(tuple, statistic);
+    writer.setVectorBlock(
         tuple,
-        format,
-        DatastoreConstants.CHUNK__VECTOR_BLOCK_REF_COUNT,
+        statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_LENGTH).asLong(),
         statistic.getAttribute(MemoryStatisticConstants.ATTR_NAME_BLOCK_REFERENCE_COUNT).asLong());
 
     // Debug
     if (MemoryAnalysisDatastoreDescriptionConfig.ADD_DEBUG_TREE) {
-      tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DEBUG_TREE)] =
-          StatisticTreePrinter.getTreeAsString(statistic);
+      writer.setDebugTree(tuple, statistic);
     }
     // Set the chunk data to be added to the Chunk store
-    FeedVisitor.writeChunkTupleForFields(
-        statistic, this.transaction, this.fields, this.chunkRecordFormat, tuple);
+    writer.addForFields(this.transaction, this.fieldWriter, this.fields, tuple);
 
     visitChildren(statistic);
   }
@@ -0,0 +1,60 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor.impl;
+
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.qfs.store.record.IRecordFormat;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writer of the tuples of the {@link DatastoreConstants#VERSION_STORE version store}.
+ *
+ * @author ActiveViam
+ */
+public class VersionTupleWriter extends ATupleWriter {
+
+  private static final AtomicReference<VersionTupleWriter> CACHE = new AtomicReference<>();
+
+  private final int branchIndex;
+
+  /**
+   * Constructor.
+   *
+   * @param format the record format of the version store
+   */
+  public VersionTupleWriter(final IRecordFormat format) {
+    super(format);
+    this.branchIndex = index(DatastoreConstants.VERSION__BRANCH_NAME);
+  }
+
+  /**
+   * Returns the writer of a record format of the version store.
+   *
+   * @param format the record format of the version store
+   * @return the writer
+   */
+  public static VersionTupleWriter of(final IRecordFormat format) {
+    return cached(CACHE, format, VersionTupleWriter::new);
+  }
+
+  /**
+   * Creates the tuple of a version.
+   *
+   * @param dumpName the name of the dump
+   * @param epochId the epoch of the version
+   * @param branch the branch of the version
+   * @return the tuple
+   */
+  public Object[] newTuple(final String dumpName, final long epochId, final String branch) {
+    final Object[] tuple = newTuple();
+    setDumpName(tuple, dumpName);
+    setEpochId(tuple, epochId);
+    write(tuple, this.branchIndex, branch);
+    return tuple;
+  }
+}
@@ -10,8 +10,15 @@ import static com.activeviam.mac.memory.DatastoreConstants.CHUNK_ID;
 import static com.activeviam.mac.memory.DatastoreConstants.CHUNK_STORE;
 import static com.activeviam.mac.memory.DatastoreConstants.CHUNK__CLASS;
 import static com.activeviam.mac.memory.DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE;
+import static com.activeviam.mac.memory.DatastoreConstants.CHUNK__DUMP_NAME;
 import static com.activeviam.mac.memory.DatastoreConstants.CHUNK__OFF_HEAP_SIZE;
 import static com.activeviam.mac.memory.DatastoreConstants.CHUNK__PARENT_ID;
+import static com.activeviam.mac.memory.DatastoreConstants.EPOCH_RANGE_STORE;
+import static com.activeviam.mac.memory.DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID;
+import static com.activeviam.mac.memory.DatastoreConstants.EPOCH_RANGE__OWNER;
+import static com.activeviam.mac.memory.DatastoreConstants.EPOCH_VIEW_STORE;
+import static com.activeviam.mac.memory.DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID;
+import static com.activeviam.mac.memory.DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID;
 import static com.activeviam.mac.memory.DatastoreConstants.OWNER__COMPONENT;
 import static com.activeviam.mac.memory.DatastoreConstants.OWNER__OWNER;
 import static com.activeviam.mac.memory.DatastoreConstants.VERSION__EPOCH_ID;
@@ -20,14 +27,17 @@ import static com.qfs.chunk.impl.MemoryTestUtils.resetAllThreadsVectorAllocator;
 import com.activeviam.builders.StartBuilding;
 import com.activeviam.copper.HierarchyIdentifier;
 import com.activeviam.copper.api.Copper;
+import com.activeviam.database.api.IDatabaseVersion;
 import com.activeviam.database.api.query.AliasedField;
 import com.activeviam.database.api.query.ListQuery;
 import com.activeviam.database.api.schema.FieldPath;
 import com.activeviam.mac.TestMemoryStatisticBuilder;
+import com.activeviam.mac.entities.ChunkOwner;
 import com.activeviam.mac.entities.NoOwner;
 import com.activeviam.mac.memory.AnalysisDatastoreFeeder;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.activeviam.mac.statistic.memory.visitor.impl.EpochView;
 import com.activeviam.pivot.utils.ApplicationInTests;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -1402,6 +1412,61 @@ public abstract class ATestMemoryStatistic {
     }
   }
 
+  /**
+   * Resolves the epoch views of the chunks of each owner, joining the epoch ranges of the owners to
+   * the views of the ranges like the cube does.
+   *
+   * @param version the version of the analysis datastore
+   * @return the views of each owner, per epoch of the owner
+   */
+  static Map<ChunkOwner, Multimap<Long, EpochView>> resolveEpochViews(
+      final IDatabaseVersion version) {
+    final Multimap<List<Object>, EpochView> viewsPerRange = HashMultimap.create();
+    final ListQuery viewQuery =
+        version
+            .getQueryManager()
+            .listQuery()
+            .forTable(EPOCH_VIEW_STORE)
+            .withoutCondition()
+            .withAliasedFields(
+                AliasedField.fromFieldName(CHUNK__DUMP_NAME),
+                AliasedField.fromFieldName(EPOCH_VIEW__BASE_EPOCH_ID),
+                AliasedField.fromFieldName(EPOCH_RANGE__END_EPOCH_ID),
+                AliasedField.fromFieldName(EPOCH_VIEW__VIEW_EPOCH_ID))
+            .toQuery();
+    try (final ICursor cursor = version.getQueryRunner().listQuery(viewQuery).run()) {
+      for (final IRecordReader reader : cursor) {
+        viewsPerRange.put(
+            List.of(reader.read(0), reader.readLong(1), reader.readLong(2)),
+            (EpochView) reader.read(3));
+      }
+    }
+
+    final Map<ChunkOwner, Multimap<Long, EpochView>> viewsPerOwner = new HashMap<>();
+    final ListQuery rangeQuery =
+        version
+            .getQueryManager()
+            .listQuery()
+            .forTable(EPOCH_RANGE_STORE)
+            .withoutCondition()
+            .withAliasedFields(
+                AliasedField.fromFieldName(EPOCH_RANGE__OWNER),
+                AliasedField.fromFieldName(CHUNK__DUMP_NAME),
+                AliasedField.fromFieldName(EPOCH_VIEW__BASE_EPOCH_ID),
+                AliasedField.fromFieldName(EPOCH_RANGE__END_EPOCH_ID))
+            .toQuery();
+    try (final ICursor cursor = version.getQueryRunner().listQuery(rangeQuery).run()) {
+      for (final IRecordReader reader : cursor) {
+        viewsPerOwner
+            .computeIfAbsent((ChunkOwner) reader.read(0), key -> HashMultimap.create())
+            .putAll(
+                reader.readLong(2),
+                viewsPerRange.get(List.of(reader.read(1), reader.readLong(2), reader.readLong(3))));
+      }
+    }
+    return viewsPerOwner;
+  }
+
   static IMemoryStatistic loadMemoryStatFromFolder(final Path folderPath) {
     return loadMemoryStatFromFolder(folderPath, __ -> true);
   }
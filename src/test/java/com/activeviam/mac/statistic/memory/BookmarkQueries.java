@@ -0,0 +1,86 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.fwk.ActiveViamRuntimeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quartetfs.biz.pivot.IActivePivotManager;
+import com.quartetfs.biz.pivot.dto.CellSetDTO;
+import com.quartetfs.biz.pivot.query.impl.MDXQuery;
+import com.quartetfs.fwk.query.QueryException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The MDX queries of the dashboards shipped with MAC.
+ *
+ * @author ActiveViam
+ */
+public class BookmarkQueries {
+
+  /** The dashboards whose queries are read. */
+  public static final List<String> DASHBOARDS =
+      List.of("overview", "fields", "vectors", "dictionaries_indexes", "aggregate_providers");
+
+  private static final Path DASHBOARD_FOLDER =
+      Path.of("src", "main", "resources", "ui", "dashboards", "content");
+
+  private static final Pattern CUBE_PATTERN = Pattern.compile("FROM \\[([^\\]]+)\\]");
+
+  private BookmarkQueries() {}
+
+  /**
+   * Reads the MDX queries of the widgets of the shipped dashboards.
+   *
+   * @return the queries, in the order of their dashboards
+   */
+  public static List<String> read() {
+    final List<String> queries = new ArrayList<>();
+    for (final String dashboard : DASHBOARDS) {
+      queries.addAll(read(dashboard));
+    }
+    return queries;
+  }
+
+  /**
+   * Reads the MDX queries of the widgets of a shipped dashboard.
+   *
+   * @param dashboard the name of the dashboard, one of {@link #DASHBOARDS}
+   * @return the queries of the dashboard
+   */
+  public static List<String> read(final String dashboard) {
+    try {
+      return new ObjectMapper()
+          .readTree(DASHBOARD_FOLDER.resolve(dashboard + ".json").toFile())
+          .findValuesAsText("mdx");
+    } catch (IOException exception) {
+      throw new ActiveViamRuntimeException(exception);
+    }
+  }
+
+  /**
+   * Executes a query on the cube it is written against.
+   *
+   * @param manager the manager of the cubes
+   * @param mdx the query
+   * @return the result of the query
+   * @throws QueryException if the query fails
+   */
+  public static CellSetDTO execute(final IActivePivotManager manager, final String mdx)
+      throws QueryException {
+    final Matcher matcher = CUBE_PATTERN.matcher(mdx);
+    if (!matcher.find()) {
+      throw new IllegalArgumentException("The query must select a cube. Got " + mdx);
+    }
+    return manager.getActivePivots().get(matcher.group(1)).execute(new MDXQuery(mdx));
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.cfg.impl.ManagerDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.pivot.utils.ApplicationInTests;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.pivot.monitoring.impl.MemoryStatisticSerializerUtil;
+import com.qfs.store.IDatastore;
+import com.quartetfs.fwk.Registry;
+import com.quartetfs.fwk.contributions.impl.ClasspathContributionProvider;
+import com.quartetfs.fwk.query.QueryException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Microbenchmark of the queries of the shipped dashboards, answered just in time or by the
+ * aggregate providers dedicated to them.
+ *
+ * <p>Each invocation executes all the queries of a dashboard on a loaded dump, as when the
+ * dashboard is opened. Run it from its main method after {@code mvn test-compile}, and compare the
+ * latencies with and without the {@link ManagerDescriptionConfig#BOOKMARK_PROVIDERS_PROPERTY
+ * bookmark providers}.
+ *
+ * @author ActiveViam
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class BookmarkQueryBenchmark {
+
+  /** Whether the cubes have the aggregate providers dedicated to the bookmarks. */
+  @Param({"false", "true"})
+  public boolean bookmarkProviders;
+
+  /** The dashboard whose queries are executed. */
+  @Param({"overview", "fields", "vectors", "dictionaries_indexes", "aggregate_providers"})
+  public String dashboard;
+
+  private ApplicationInTests<IDatastore> application;
+  private List<String> queries;
+
+  /**
+   * Loads the statistics into a new analysis application.
+   *
+   * @throws IOException if the statistics cannot be read
+   */
+  @Setup(Level.Trial)
+  public void createApplication() throws IOException {
+    Registry.setContributionProvider(new ClasspathContributionProvider());
+    final List<IMemoryStatistic> statistics = new ArrayList<>();
+    for (final File file : TestBookmarkProviders.STATISTICS_FOLDER.toFile().listFiles()) {
+      statistics.add(MemoryStatisticSerializerUtil.readStatisticFile(file));
+    }
+    this.application =
+        ApplicationInTests.builder()
+            .withDatastore(
+                new MemoryAnalysisDatastoreDescriptionConfig().datastoreSchemaDescription())
+            .withManager(new ManagerDescriptionConfig().describeManager(this.bookmarkProviders))
+            .build();
+    this.application.start();
+    ATestMemoryStatistic.feedMonitoringApplication(
+        this.application.getDatabase(), statistics, "benchmark");
+    this.queries = BookmarkQueries.read(this.dashboard);
+  }
+
+  /** Stops the analysis application. */
+  @TearDown(Level.Trial)
+  public void stopApplication() {
+    this.application.close();
+  }
+
+  /**
+   * Executes the queries of the dashboard.
+   *
+   * @param blackhole the sink of the results
+   * @throws QueryException if a query fails
+   */
+  @Benchmark
+  public void executeDashboardQueries(final Blackhole blackhole) throws QueryException {
+    for (final String query : this.queries) {
+      blackhole.consume(BookmarkQueries.execute(this.application.getManager(), query));
+    }
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args ignored
+   * @throws RunnerException if the benchmark fails
+   */
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(BookmarkQueryBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
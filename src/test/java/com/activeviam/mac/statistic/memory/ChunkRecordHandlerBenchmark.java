@@ -0,0 +1,152 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.ChunkRecordHandler;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.qfs.store.IDatastore;
+import com.qfs.store.build.impl.UnitTestDatastoreBuilder;
+import com.qfs.store.record.IRecordFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Microbenchmark of the merge of the chunks shared between partitions by the {@link
+ * ChunkRecordHandler}.
+ *
+ * <p>Each invocation adds chunks already recorded for a first partition, for all the other
+ * partitions, so that every added record is merged by the handler. Run it from its main method
+ * after {@code mvn test-compile}, on two revisions to compare their handlers.
+ *
+ * @author ActiveViam
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ChunkRecordHandlerBenchmark {
+
+  /** The number of chunks shared by all the partitions. */
+  private static final int CHUNK_COUNT = 20_000;
+
+  /** The number of partitions sharing each chunk. */
+  @Param({"2", "8"})
+  public int partitions;
+
+  private IDatastore datastore;
+  private IRecordFormat format;
+  private long epoch;
+  private List<Object[]> firstPartitionTuples;
+  private List<Object[]> otherPartitionTuples;
+
+  /** Creates the analysis datastore. */
+  @Setup(Level.Iteration)
+  public void createDatastore() {
+    this.datastore =
+        new UnitTestDatastoreBuilder()
+            .setSchemaDescription(
+                new MemoryAnalysisDatastoreDescriptionConfig().datastoreSchemaDescription())
+            .build();
+    this.format =
+        this.datastore
+            .getSchemaMetadata()
+            .getStoreMetadata(DatastoreConstants.CHUNK_STORE)
+            .getStoreFormat()
+            .getRecordFormat();
+  }
+
+  /** Records the chunks of the first partition, under a new epoch. */
+  @Setup(Level.Invocation)
+  public void addFirstPartition() {
+    ++this.epoch;
+    this.firstPartitionTuples = new ArrayList<>(CHUNK_COUNT);
+    this.otherPartitionTuples = new ArrayList<>(CHUNK_COUNT * (this.partitions - 1));
+    for (int chunk = 0; chunk < CHUNK_COUNT; ++chunk) {
+      this.firstPartitionTuples.add(newTuple(chunk, 0));
+      for (int partition = 1; partition < this.partitions; ++partition) {
+        this.otherPartitionTuples.add(newTuple(chunk, partition));
+      }
+    }
+    this.datastore.edit(
+        transaction ->
+            transaction.addAll(DatastoreConstants.CHUNK_STORE, this.firstPartitionTuples));
+  }
+
+  /** Stops the analysis datastore. */
+  @TearDown(Level.Iteration)
+  public void stopDatastore() {
+    this.datastore.stop();
+  }
+
+  private Object[] newTuple(final long chunkId, final int partition) {
+    final Object[] tuple = new Object[this.format.getFieldCount()];
+    set(tuple, DatastoreConstants.CHUNK_ID, chunkId);
+    set(tuple, DatastoreConstants.CHUNK__DUMP_NAME, "dump");
+    set(tuple, DatastoreConstants.VERSION__EPOCH_ID, this.epoch);
+    set(tuple, DatastoreConstants.OWNER__OWNER, new StoreOwner("store"));
+    set(tuple, DatastoreConstants.OWNER__COMPONENT, ParentType.RECORDS);
+    set(tuple, DatastoreConstants.CHUNK__PARTITION_ID, partition);
+    set(tuple, DatastoreConstants.CHUNK__PARENT_ID, "records");
+    set(tuple, DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE, ParentType.RECORDS);
+    set(tuple, DatastoreConstants.CHUNK__CLASS, "com.qfs.chunk.impl.ChunkSingleVector");
+    set(tuple, DatastoreConstants.CHUNK__OFF_HEAP_SIZE, 0L);
+    set(tuple, DatastoreConstants.CHUNK__ON_HEAP_SIZE, 1024L);
+    set(tuple, DatastoreConstants.CHUNK__SIZE, 256L);
+    set(tuple, DatastoreConstants.CHUNK__NON_WRITTEN_ROWS, 0L);
+    set(tuple, DatastoreConstants.CHUNK__FREE_ROWS, 0L);
+    return tuple;
+  }
+
+  private void set(final Object[] tuple, final String field, final Object value) {
+    tuple[this.format.getFieldIndex(field)] = value;
+  }
+
+  /** Adds the chunks of all the other partitions, each one merged with the existing record. */
+  @Benchmark
+  public void mergeSharedChunks() {
+    this.datastore.edit(
+        transaction ->
+            transaction.addAll(DatastoreConstants.CHUNK_STORE, this.otherPartitionTuples));
+  }
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args ignored
+   * @throws RunnerException if the benchmark fails
+   */
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(ChunkRecordHandlerBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -10,15 +10,25 @@ package com.activeviam.mac.statistic.memory;
 import com.activeviam.database.api.IDatabaseVersion;
 import com.activeviam.database.api.query.AliasedField;
 import com.activeviam.database.api.query.ListQuery;
-import com.activeviam.database.api.schema.FieldPath;
 import com.activeviam.mac.cfg.impl.ManagerDescriptionConfig;
 import com.activeviam.mac.entities.ChunkOwner;
 import com.activeviam.mac.entities.CubeOwner;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.AnalysisDatastoreFeeder;
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
 import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.LoadingMetrics;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.activeviam.mac.statistic.memory.visitor.impl.ChunkToFieldTupleWriter;
+import com.activeviam.mac.statistic.memory.visitor.impl.ChunkTupleWriter;
 import com.activeviam.mac.statistic.memory.visitor.impl.EpochView;
+import com.activeviam.mac.statistic.memory.visitor.impl.StatisticTreeForker;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
 import com.activeviam.pivot.utils.ApplicationInTests;
-import com.qfs.condition.impl.BaseConditions;
+import com.google.common.collect.Multimap;
+import com.qfs.desc.IFieldDescription;
+import com.qfs.desc.IStoreDescription;
 import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
 import com.qfs.multiversion.IEpochHistory;
 import com.qfs.server.cfg.IDatastoreSchemaDescriptionConfig;
@@ -26,6 +36,7 @@ import com.qfs.service.monitoring.IMemoryAnalysisService;
 import com.qfs.store.IDatastore;
 import com.qfs.store.query.ICursor;
 import com.qfs.store.query.impl.DatastoreQueryHelper;
+import com.qfs.store.record.IRecordFormat;
 import com.qfs.store.record.IRecordReader;
 import com.qfs.store.transaction.DatastoreTransactionException;
 import com.qfs.store.transaction.ITransactionManager;
@@ -36,7 +47,9 @@ import com.quartetfs.fwk.contributions.impl.ClasspathContributionProvider;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -98,6 +111,128 @@ public class TestAnalysisDatastoreFeeder extends ATestMemoryStatistic {
         .containsExactlyInAnyOrder("app", "app2");
   }
 
+  /** Ensures feeding the statistics with several threads produces the same content. */
+  @Test
+  public void testConcurrentFeeding() {
+    final IDatastore sequentialDatastore = createAnalysisDatastore();
+    new AnalysisDatastoreFeeder("app", 1)
+        .loadInto(sequentialDatastore, this.appStatistics.getChildren().stream());
+
+    final IDatastore concurrentDatastore = createAnalysisDatastore();
+    new AnalysisDatastoreFeeder("app", 4)
+        .loadInto(concurrentDatastore, this.appStatistics.getChildren().stream());
+
+    Assertions.assertThat(extractLatestChunkInfos(concurrentDatastore).keySet())
+        .containsExactlyInAnyOrderElementsOf(
+            extractLatestChunkInfos(sequentialDatastore).keySet());
+    Assertions.assertThat(
+            DatastoreQueryHelper.selectDistinct(
+                concurrentDatastore.getMostRecentVersion(),
+                DatastoreConstants.EPOCH_VIEW_STORE,
+                DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID))
+        .containsExactlyInAnyOrderElementsOf(
+            DatastoreQueryHelper.selectDistinct(
+                sequentialDatastore.getMostRecentVersion(),
+                DatastoreConstants.EPOCH_VIEW_STORE,
+                DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID));
+  }
+
+  /** Ensures visiting the subtrees of each statistic concurrently produces the same content. */
+  @Test
+  public void testForkedSubtreeFeeding() {
+    final IDatastore sequentialDatastore = createAnalysisDatastore();
+    new AnalysisDatastoreFeeder("app", 1)
+        .loadInto(sequentialDatastore, this.appStatistics.getChildren().stream());
+
+    final IDatastore forkedDatastore = createAnalysisDatastore();
+    try (final StatisticTreeForker forker = new StatisticTreeForker(4)) {
+      new AnalysisDatastoreFeeder(
+              "app", 1, new LoadingMetrics("app"), TupleBatcher.DEFAULT_BATCH_SIZE, forker)
+          .loadInto(forkedDatastore, this.appStatistics.getChildren().stream());
+    }
+
+    for (final IStoreDescription store :
+        new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions()) {
+      final List<List<Object>> expected = readRows(sequentialDatastore, store);
+      Assertions.assertThat(readRows(forkedDatastore, store))
+          .as("Content of " + store.getName())
+          .containsExactlyInAnyOrderElementsOf(expected);
+    }
+    Assertions.assertThat(extractLatestChunkInfos(forkedDatastore)).isNotEmpty();
+  }
+
+  /**
+   * Reads all the fields of all the records of a store.
+   *
+   * <p>The IDs of the records summing several chunks depend on the order the chunks were summed in,
+   * and are left out.
+   */
+  private static List<List<Object>> readRows(
+      final IDatastore datastore, final IStoreDescription store) {
+    final ListQuery query =
+        datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(store.getName())
+            .withoutCondition()
+            .withAliasedFields(
+                store.getFields().stream()
+                    .map(IFieldDescription::getName)
+                    .map(AliasedField::fromFieldName)
+                    .toArray(AliasedField[]::new))
+            .toQuery();
+
+    final List<List<Object>> rows = new ArrayList<>();
+    try (final ICursor cursor =
+        datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      for (final IRecordReader reader : cursor) {
+        final List<Object> row = new ArrayList<>();
+        for (int i = 0; i < store.getFields().size(); ++i) {
+          final Object value = reader.read(i);
+          row.add(isSummaryId(store.getFields().get(i), value) ? null : value);
+        }
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+
+  private static boolean isSummaryId(final IFieldDescription field, final Object value) {
+    return field.getName().equals(DatastoreConstants.CHUNK_ID)
+        && value instanceof Long
+        && (Long) value
+            < MemoryAnalysisDatastoreDescriptionConfig.FIRST_SUMMARY_ID + Integer.MAX_VALUE;
+  }
+
+  /** Ensures the batches committed before a failing batch are removed with the dump. */
+  @Test
+  public void testFailingBatchRemovesTheDump() {
+    final IDatastore datastore = createAnalysisDatastore();
+    final AnalysisDatastoreFeeder feeder = new AnalysisDatastoreFeeder("app");
+    final AnalysisDatastoreUnloader unloader =
+        new AnalysisDatastoreUnloader(
+            new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions());
+    final AtomicLong committedRecords = new AtomicLong();
+
+    Assertions.assertThatThrownBy(
+            () ->
+                feeder.loadInBatches(
+                    datastore,
+                    List.of(List.copyOf(this.appStatistics.getChildren()), List.of()),
+                    (transaction, batch) -> {
+                      if (batch.isEmpty()) {
+                        committedRecords.set(unloader.countRecords(datastore, "app"));
+                        throw new IllegalStateException("Failing batch");
+                      }
+                      batch.forEach(statistic -> feeder.feed(transaction, statistic));
+                    },
+                    unloader))
+        .hasStackTraceContaining("Failing batch");
+
+    Assertions.assertThat(committedRecords.get()).isPositive();
+    Assertions.assertThat(unloader.countRecords(datastore, "app")).isZero();
+  }
+
   /**
    * Ensures that, when adding a complete application (with multiple epochs) to an already existing
    * loaded dataset on the same dumpname, the dataset is replicated for each of the application's
@@ -130,7 +265,11 @@ public class TestAnalysisDatastoreFeeder extends ATestMemoryStatistic {
     this.monitoringApp.start();
     // Await for pivot notification to make sure everything is stable and committed before testing
     // things
-    this.monitoringApp.getSingleCube().awaitNotifications();
+    this.monitoringApp
+        .getManager()
+        .getActivePivots()
+        .get(ManagerDescriptionConfig.MONITORING_CUBE)
+        .awaitNotifications();
 
     final long newestNonDistEpoch =
         this.monitoredApp.getDatabase().getEpochManager().getHistories().values().stream()
@@ -200,25 +339,85 @@ public class TestAnalysisDatastoreFeeder extends ATestMemoryStatistic {
     Assertions.assertThat(epochs.toArray()).containsExactlyInAnyOrder(expectedReplicatedEpochs);
   }
 
+  @Test
+  public void testEpochViewsFollowTheEpochsOfEachOwner() {
+    final IDatastore monitoringDatastore = this.monitoringApp.getDatabase();
+    final ChunkOwner changing = new StoreOwner("changing");
+    final ChunkOwner stable = new StoreOwner("stable");
+    final ChunkOwner same = new StoreOwner("same");
+
+    final AnalysisDatastoreFeeder feeder = new AnalysisDatastoreFeeder("ranges");
+    monitoringDatastore.edit(
+        transaction -> {
+          final TupleBatcher batcher = feeder.newBatcher(transaction);
+          addChunk(batcher, 1L, changing, 1L);
+          addChunk(batcher, 2L, changing, 3L);
+          addChunk(batcher, 3L, changing, 4L);
+          addChunk(batcher, 4L, stable, 2L);
+          addChunk(batcher, 5L, same, 1L);
+          addChunk(batcher, 6L, same, 3L);
+          addChunk(batcher, 7L, same, 4L);
+          batcher.flush();
+          feeder.completeTransaction(transaction);
+        });
+
+    // The chunks of an epoch of an owner are viewed until its next epoch, and never before
+    Assertions.assertThat(
+            collectEpochViewsForOwner(monitoringDatastore.getMostRecentVersion(), changing)
+                .toArray())
+        .containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+    Assertions.assertThat(
+            collectEpochViewsForOwner(monitoringDatastore.getMostRecentVersion(), stable)
+                .toArray())
+        .containsExactlyInAnyOrder(2L, 3L, 4L);
+    Assertions.assertThat(
+            collectEpochViewsForOwner(monitoringDatastore.getMostRecentVersion(), same).toArray())
+        .containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+
+    // The views of the ranges are stored once for all the owners with these ranges
+    final IStoreDescription epochViewStore =
+        new MemoryAnalysisDatastoreDescriptionConfig()
+            .getStoreDescriptions().stream()
+                .filter(store -> store.getName().equals(DatastoreConstants.EPOCH_VIEW_STORE))
+                .findFirst()
+                .orElseThrow();
+    Assertions.assertThat(readRows(monitoringDatastore, epochViewStore)).hasSize(7);
+  }
+
+  private static void addChunk(
+      final TupleBatcher batcher, final long chunkId, final ChunkOwner owner, final long epochId) {
+    final IRecordFormat format = getRecordFormat(batcher, DatastoreConstants.CHUNK_STORE);
+    final Object[] tuple = new Object[format.getFieldCount()];
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK_ID)] = chunkId;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = "ranges";
+    tuple[format.getFieldIndex(DatastoreConstants.VERSION__EPOCH_ID)] = epochId;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__OWNER)] = owner;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__COMPONENT)] = ParentType.RECORDS;
+    ChunkTupleWriter.of(format)
+        .addForField(
+            batcher,
+            ChunkToFieldTupleWriter.of(
+                getRecordFormat(batcher, DatastoreConstants.CHUNK_TO_FIELD_STORE)),
+            null,
+            tuple);
+  }
+
+  private static IRecordFormat getRecordFormat(final TupleBatcher batcher, final String store) {
+    return batcher
+        .getTransaction()
+        .getMetadata()
+        .getStoreMetadata(store)
+        .getStoreFormat()
+        .getRecordFormat();
+  }
+
   private TLongSet collectEpochViewsForOwner(
       final IDatabaseVersion monitoringDatastore, final ChunkOwner owner) {
-    final ListQuery query =
-        monitoringDatastore
-            .getQueryManager()
-            .listQuery()
-            .forTable(DatastoreConstants.EPOCH_VIEW_STORE)
-            .withCondition(
-                BaseConditions.equal(FieldPath.of(DatastoreConstants.EPOCH_VIEW__OWNER), owner))
-            .withAliasedFields(
-                AliasedField.fromFieldName(DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID))
-            .toQuery();
-    final ICursor queryResult = monitoringDatastore.getQueryRunner().listQuery(query).run();
-
     final TLongSet epochs = new TLongHashSet();
-    for (final IRecordReader recordReader : queryResult) {
-      epochs.add(((EpochView) recordReader.read(0)).getEpochId());
+    final Multimap<Long, EpochView> views = resolveEpochViews(monitoringDatastore).get(owner);
+    if (views != null) {
+      views.values().forEach(view -> epochs.add(view.getEpochId()));
     }
-
     return epochs;
   }
 
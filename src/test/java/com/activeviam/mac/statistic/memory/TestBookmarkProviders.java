@@ -0,0 +1,96 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.cfg.impl.ManagerDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.pivot.utils.ApplicationInTests;
+import com.qfs.junit.LocalResourcesExtension;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.pivot.monitoring.impl.MemoryStatisticSerializerUtil;
+import com.qfs.store.IDatastore;
+import com.quartetfs.biz.pivot.dto.CellDTO;
+import com.quartetfs.biz.pivot.dto.CellSetDTO;
+import com.quartetfs.fwk.Registry;
+import com.quartetfs.fwk.contributions.impl.ClasspathContributionProvider;
+import com.quartetfs.fwk.query.QueryException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+/** Tests that the aggregate providers dedicated to the bookmarks answer like the JIT provider. */
+public class TestBookmarkProviders {
+
+  /** The folder of the statistics the queries are executed on. */
+  static final Path STATISTICS_FOLDER =
+      Path.of("src", "test", "resources", "stats_files_with_missing_chunk_id");
+
+  @RegisterExtension protected LocalResourcesExtension resources = new LocalResourcesExtension();
+
+  @BeforeAll
+  public static void setupRegistry() {
+    Registry.setContributionProvider(new ClasspathContributionProvider());
+  }
+
+  @Test
+  public void testBookmarkQueriesHaveTheSameResults() throws IOException, QueryException {
+    final List<IMemoryStatistic> statistics = new ArrayList<>();
+    final File[] files = STATISTICS_FOLDER.toFile().listFiles();
+    Assertions.assertThat(files).isNotEmpty();
+    for (final File file : files) {
+      statistics.add(MemoryStatisticSerializerUtil.readStatisticFile(file));
+    }
+
+    final ApplicationInTests<IDatastore> jitApplication = createApplication(false, statistics);
+    final ApplicationInTests<IDatastore> providerApplication = createApplication(true, statistics);
+
+    final List<String> queries = BookmarkQueries.read();
+    Assertions.assertThat(queries).isNotEmpty();
+    for (final String query : queries) {
+      Assertions.assertThat(
+              cells(BookmarkQueries.execute(providerApplication.getManager(), query)))
+          .as(query)
+          .isEqualTo(cells(BookmarkQueries.execute(jitApplication.getManager(), query)));
+    }
+  }
+
+  private ApplicationInTests<IDatastore> createApplication(
+      final boolean bookmarkProviders, final List<IMemoryStatistic> statistics) {
+    final ApplicationInTests<IDatastore> application =
+        ApplicationInTests.builder()
+            .withDatastore(
+                new MemoryAnalysisDatastoreDescriptionConfig().datastoreSchemaDescription())
+            .withManager(new ManagerDescriptionConfig().describeManager(bookmarkProviders))
+            .build();
+    this.resources.register(application).start();
+    ATestMemoryStatistic.feedMonitoringApplication(
+        application.getDatabase(), statistics, "bookmarks");
+    return application;
+  }
+
+  private static List<List<Object>> cells(final CellSetDTO cellSet) {
+    return cellSet.getCells().stream()
+        .map(cell -> Arrays.asList(cell.getOrdinal(), cellValue(cell)))
+        .collect(Collectors.toList());
+  }
+
+  private static Object cellValue(final CellDTO cell) {
+    // The ratios may differ in their last bits, the providers summing in another order
+    return cell.getValue() instanceof Double
+        ? (Object) Math.round((Double) cell.getValue() * 1e9)
+        : cell.getValue();
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.TestMemoryStatisticBuilder;
+import com.activeviam.mac.entities.ChunkOwner;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.ChunkSummarizer;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.activeviam.mac.statistic.memory.visitor.impl.ChunkToFieldTupleWriter;
+import com.activeviam.mac.statistic.memory.visitor.impl.ChunkTupleWriter;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.monitoring.statistic.memory.MemoryStatisticConstants;
+import com.qfs.monitoring.statistic.memory.impl.ChunkStatistic;
+import com.qfs.store.IDatastore;
+import com.qfs.store.build.impl.UnitTestDatastoreBuilder;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests the summary of the chunks of a dump. */
+public class TestChunkSummarizer {
+
+  private IDatastore datastore;
+
+  @BeforeEach
+  public void createDatastore() {
+    this.datastore =
+        new UnitTestDatastoreBuilder()
+            .setSchemaDescription(
+                new MemoryAnalysisDatastoreDescriptionConfig().datastoreSchemaDescription())
+            .build();
+  }
+
+  @AfterEach
+  public void stopDatastore() {
+    this.datastore.stop();
+  }
+
+  @Test
+  public void testChunksRecordedOnceAreSummed() {
+    final ChunkOwner store = new StoreOwner("store");
+    final ChunkOwner other = new StoreOwner("other");
+    this.datastore.edit(
+        transaction -> {
+          final ChunkSummarizer summarizer = new ChunkSummarizer("dump", 2);
+          final TupleBatcher batcher = newBatcher(transaction, summarizer);
+          addChunk(batcher, 1L, store, ParentType.RECORDS, 0, 100L);
+          addChunk(batcher, 2L, store, ParentType.RECORDS, 0, 20L);
+          // A dictionary shared by both stores
+          addChunk(batcher, 3L, store, ParentType.DICTIONARY, 0, 3L);
+          addChunk(batcher, 3L, other, ParentType.DICTIONARY, 0, 3L);
+          batcher.flush();
+          summarizer.summarizeWithTransaction(transaction);
+        });
+
+    final long summaryId = MemoryAnalysisDatastoreDescriptionConfig.FIRST_SUMMARY_ID;
+    Assertions.assertThat(readSummary())
+        .containsExactlyInAnyOrder(
+            Arrays.asList(summaryId, 120L, 2L),
+            Arrays.asList(3L, 3L, 1L),
+            Arrays.asList(3L, 3L, 1L));
+  }
+
+  @Test
+  public void testChunksOfSeveralPartitionsAreMerged() {
+    final ChunkOwner store = new StoreOwner("store");
+    this.datastore.edit(
+        transaction -> {
+          final ChunkSummarizer summarizer = new ChunkSummarizer("dump", 2);
+          final TupleBatcher batcher = newBatcher(transaction, summarizer);
+          addChunk(batcher, 1L, store, ParentType.RECORDS, 0, 100L);
+          addChunk(batcher, 2L, store, ParentType.RECORDS, 0, 20L);
+          // The chunk store keeps a single record of chunk 2, in the shared partition
+          addChunk(batcher, 2L, store, ParentType.RECORDS, 1, 20L);
+          batcher.flush();
+          summarizer.summarizeWithTransaction(transaction);
+        });
+
+    // Chunk 2 is recorded twice, and its merged record copied as is
+    Assertions.assertThat(readSummary())
+        .containsExactlyInAnyOrder(
+            Arrays.asList(MemoryAnalysisDatastoreDescriptionConfig.FIRST_SUMMARY_ID, 100L, 1L),
+            Arrays.asList(2L, 20L, 1L));
+  }
+
+  @Test
+  public void testSummedSizesAreExact() {
+    final ChunkOwner store = new StoreOwner("store");
+    final int chunkCount = 20_000;
+    this.datastore.edit(
+        transaction -> {
+          final ChunkSummarizer summarizer = new ChunkSummarizer("dump", 2);
+          final TupleBatcher batcher = newBatcher(transaction, summarizer);
+          for (long chunkId = 0; chunkId < chunkCount; ++chunkId) {
+            addChunk(batcher, chunkId, store, ParentType.RECORDS, 0, 1L);
+          }
+          batcher.flush();
+          summarizer.summarizeWithTransaction(transaction);
+        });
+
+    // The chunks taken for repeated ones by the filter of the IDs are copied as is
+    final List<List<Long>> summary = readSummary();
+    Assertions.assertThat(summary.stream().mapToLong(row -> row.get(1)).sum())
+        .isEqualTo(chunkCount);
+    Assertions.assertThat(summary.stream().mapToLong(row -> row.get(2)).sum())
+        .isEqualTo(chunkCount);
+    Assertions.assertThat(summary).hasSizeLessThan(1 + chunkCount / 100);
+  }
+
+  @Test
+  public void testSummaryIsReplaced() {
+    final ChunkOwner store = new StoreOwner("store");
+    this.datastore.edit(
+        transaction -> {
+          final ChunkSummarizer summarizer = new ChunkSummarizer("dump", 2);
+          final TupleBatcher batcher = newBatcher(transaction, summarizer);
+          addChunk(batcher, 1L, store, ParentType.RECORDS, 0, 100L);
+          batcher.flush();
+          summarizer.summarizeWithTransaction(transaction);
+        });
+    this.datastore.edit(
+        transaction -> {
+          final TupleBatcher batcher = newBatcher(transaction, null);
+          addChunk(batcher, 1L, new StoreOwner("other"), ParentType.RECORDS, 0, 100L);
+          batcher.flush();
+          // The IDs of the chunks loaded before are read from the chunk store
+          final ChunkSummarizer summarizer = new ChunkSummarizer("dump", 2);
+          summarizer.readChunkIds(transaction);
+          summarizer.summarizeWithTransaction(transaction);
+        });
+
+    // Chunk 1 is now recorded for both owners, and no longer summed
+    Assertions.assertThat(readSummary())
+        .containsExactly(Arrays.asList(1L, 100L, 1L), Arrays.asList(1L, 100L, 1L));
+  }
+
+  private List<List<Long>> readSummary() {
+    final ListQuery query =
+        this.datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(DatastoreConstants.CHUNK_SUMMARY_STORE)
+            .withCondition(
+                BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), "dump"))
+            .withAliasedFields(
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK_ID),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK__OFF_HEAP_SIZE),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT))
+            .toQuery();
+    final List<List<Long>> rows = new ArrayList<>();
+    try (final ICursor cursor =
+        this.datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      for (final IRecordReader reader : cursor) {
+        rows.add(Arrays.asList(reader.readLong(0), reader.readLong(1), reader.readLong(2)));
+      }
+    }
+    return rows;
+  }
+
+  private static TupleBatcher newBatcher(
+      final IOpenedTransaction transaction, final ChunkSummarizer summarizer) {
+    return new TupleBatcher(transaction, 2, null, null, null, summarizer);
+  }
+
+  private static void addChunk(
+      final TupleBatcher batcher,
+      final long chunkId,
+      final ChunkOwner owner,
+      final ParentType component,
+      final int partitionId,
+      final long offHeapSize) {
+    final ChunkTupleWriter writer =
+        ChunkTupleWriter.of(
+            batcher
+                .getTransaction()
+                .getMetadata()
+                .getStoreMetadata(DatastoreConstants.CHUNK_STORE)
+                .getStoreFormat()
+                .getRecordFormat());
+    final ChunkStatistic statistic =
+        (ChunkStatistic)
+            new TestMemoryStatisticBuilder()
+                .withName(MemoryStatisticConstants.STAT_NAME_CHUNK)
+                .withCreatorClasses(TestChunkSummarizer.class)
+                .withAttribute(MemoryStatisticConstants.ATTR_NAME_CHUNK_ID, chunkId)
+                .withAttribute(MemoryStatisticConstants.ATTR_NAME_LENGTH, 16)
+                .withMemoryFootPrint(offHeapSize, 0)
+                .build();
+    // Filled like by the visitors, which write some of the sizes as integers
+    final Object[] tuple = writer.newTuple();
+    writer.setDumpName(tuple, "dump");
+    writer.setEpochId(tuple, 1L);
+    writer.setChunk(tuple, statistic);
+    writer.setOwner(tuple, owner, component);
+    writer.setParent(tuple, component, "parent");
+    writer.setPartitionId(tuple, partitionId);
+    writer.addForField(
+        batcher,
+        ChunkToFieldTupleWriter.of(
+            batcher
+                .getTransaction()
+                .getMetadata()
+                .getStoreMetadata(DatastoreConstants.CHUNK_TO_FIELD_STORE)
+                .getStoreFormat()
+                .getRecordFormat()),
+        null,
+        tuple);
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.mac.cfg.impl.DumpQueryFilter;
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.DumpCatalog;
+import com.activeviam.mac.memory.DumpCatalog.CataloguedDump;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.qfs.service.monitoring.IMemoryAnalysisService;
+import com.qfs.store.IDatastore;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Tests the cataloguing of dumps without loading their statistics. */
+public class TestDumpCatalog extends ATestMemoryStatistic {
+
+  @Test
+  public void testCatalogReadsOnlyTheHeaders() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testCatalogReadsOnlyTheHeaders");
+          final List<Path> files;
+          try (final Stream<Path> listed = Files.list(exportPath)) {
+            files = listed.collect(Collectors.toList());
+          }
+
+          final IDatastore analysisDatastore = createAnalysisDatastore();
+          final DumpCatalog catalog = new DumpCatalog();
+          catalog.catalog(analysisDatastore, Map.of("dump", files));
+
+          Assertions.assertThat(catalog.getFiles("dump")).contains(files);
+          Assertions.assertThat(catalog.getFiles("other")).isEmpty();
+          Assertions.assertThat(catalog.getUnloadedDumpNames()).containsExactly("dump");
+
+          List<Object[]> rows = readCatalog(analysisDatastore);
+          Assertions.assertThat(rows).hasSize(1);
+          Assertions.assertThat(rows.get(0)[0]).isEqualTo("dump");
+          Assertions.assertThat(rows.get(0)[1]).isEqualTo(files.size());
+          Assertions.assertThat(rows.get(0)[2]).isEqualTo(false);
+          Assertions.assertThat(rows.get(0)[3]).isNotNull();
+          Assertions.assertThat(rows.get(0)[4]).isNotNull();
+
+          // No statistic is loaded in the other stores
+          final AnalysisDatastoreUnloader unloader =
+              new AnalysisDatastoreUnloader(
+                  new MemoryAnalysisDatastoreDescriptionConfig()
+                      .getStoreDescriptions().stream()
+                      .filter(
+                          store ->
+                              !DatastoreConstants.DUMP_CATALOG_STORE.equals(store.getName()))
+                      .collect(Collectors.toList()));
+          Assertions.assertThat(unloader.countRecords(analysisDatastore, "dump")).isZero();
+
+          catalog.setLoaded(analysisDatastore, "dump", true);
+          Assertions.assertThat(catalog.isLoaded("dump")).isTrue();
+          Assertions.assertThat(catalog.getUnloadedDumpNames()).isEmpty();
+          rows = readCatalog(analysisDatastore);
+          Assertions.assertThat(rows).hasSize(1);
+          Assertions.assertThat(rows.get(0)[2]).isEqualTo(true);
+
+          // A watcher event only holds the new files of the dump
+          catalog.catalog(analysisDatastore, Map.of("dump", files.subList(0, 1)));
+          Assertions.assertThat(catalog.getFiles("dump")).contains(files);
+          Assertions.assertThat(catalog.isLoaded("dump")).isTrue();
+          rows = readCatalog(analysisDatastore);
+          Assertions.assertThat(rows).hasSize(1);
+          Assertions.assertThat(rows.get(0)[1]).isEqualTo(files.size());
+          Assertions.assertThat(rows.get(0)[2]).isEqualTo(true);
+          final List<CataloguedDump> dumps = catalog.getDumps();
+          Assertions.assertThat(dumps).hasSize(1);
+          Assertions.assertThat(dumps.get(0).getDumpName()).isEqualTo("dump");
+          Assertions.assertThat(dumps.get(0).getFileCount()).isEqualTo(files.size());
+          Assertions.assertThat(dumps.get(0).isLoaded()).isTrue();
+          Assertions.assertThat(dumps.get(0).getDate()).isNotNull();
+        });
+  }
+
+  @Test
+  public void testDumpsAreMentionedAsMembers() {
+    Assertions.assertThat(
+            DumpQueryFilter.getMentionedDumps(
+                "SELECT [Measures].[DirectMemory.SUM] ON COLUMNS FROM [MemoryCube]"
+                    + " WHERE [Import info].[Import info].[Import info].[app/1]"))
+        .containsExactly("app/1");
+    Assertions.assertThat(
+            DumpQueryFilter.getMentionedDumps(
+                "SELECT FROM [MemoryDiffCube] WHERE ([Import info].[Import info].[a]]b],"
+                    + " [Base import info].[Base import info].&[c])"))
+        .containsExactlyInAnyOrder("a]b", "c");
+    // Names between brackets elsewhere in the query are not dumps
+    Assertions.assertThat(
+            DumpQueryFilter.getMentionedDumps(
+                "SELECT [Import info].[Import info].Members ON ROWS FROM [MemoryCube]"
+                    + " WHERE [Owners].[Owner].[app/1]"))
+        .isEmpty();
+  }
+
+  private static List<Object[]> readCatalog(final IDatastore datastore) {
+    final ListQuery query =
+        datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(DatastoreConstants.DUMP_CATALOG_STORE)
+            .withoutCondition()
+            .withAliasedFields(
+                AliasedField.fromFieldName(DatastoreConstants.APPLICATION__DUMP_NAME),
+                AliasedField.fromFieldName(DatastoreConstants.DUMP_CATALOG__FILE_COUNT),
+                AliasedField.fromFieldName(DatastoreConstants.DUMP_CATALOG__LOADED),
+                AliasedField.fromFieldName(DatastoreConstants.APPLICATION__DATE),
+                AliasedField.fromFieldName(DatastoreConstants.APPLICATION__USED_ON_HEAP))
+            .toQuery();
+    final List<Object[]> rows = new ArrayList<>();
+    try (final ICursor cursor =
+        datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      for (final IRecordReader reader : cursor) {
+        final Object[] row = new Object[reader.getFormat().getFieldCount()];
+        for (int i = 0; i < row.length; ++i) {
+          row[i] = reader.read(i);
+        }
+        rows.add(row);
+      }
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.mac.entities.ChunkOwner;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.DumpDiffer;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.DiffStatus;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.StringArrayObject;
+import com.qfs.store.IDatastore;
+import com.qfs.store.build.impl.UnitTestDatastoreBuilder;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordFormat;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests the diff between the chunks of two dumps. */
+public class TestDumpDiff {
+
+  private static final ChunkOwner STORE = new StoreOwner("store");
+
+  private static final ChunkOwner OTHER = new StoreOwner("other");
+
+  private IDatastore datastore;
+
+  @BeforeEach
+  public void createDatastore() {
+    this.datastore =
+        new UnitTestDatastoreBuilder()
+            .setSchemaDescription(
+                new MemoryAnalysisDatastoreDescriptionConfig().datastoreSchemaDescription())
+            .build();
+    this.datastore.edit(
+        transaction -> {
+          addChunk(transaction, "base", 1L, STORE, ParentType.RECORDS, 100L);
+          addChunk(transaction, "base", 2L, STORE, ParentType.RECORDS, 20L);
+          addChunk(transaction, "base", 3L, STORE, ParentType.DICTIONARY, 3L);
+          addChunk(transaction, "base", 3L, OTHER, ParentType.DICTIONARY, 3L);
+          addChunk(transaction, "base", 5L, STORE, ParentType.RECORDS, 50L);
+
+          addChunk(transaction, "target", 1L, STORE, ParentType.RECORDS, 100L);
+          addChunk(transaction, "target", 2L, STORE, ParentType.RECORDS, 40L);
+          addField(transaction, "target", 2L, STORE, ParentType.RECORDS, "b");
+          addField(transaction, "target", 2L, STORE, ParentType.RECORDS, "a");
+          addChunk(transaction, "target", 3L, STORE, ParentType.DICTIONARY, 3L);
+          addChunk(transaction, "target", 3L, OTHER, ParentType.DICTIONARY, 3L);
+          addChunk(transaction, "target", 4L, STORE, ParentType.RECORDS, 10L);
+        });
+  }
+
+  @AfterEach
+  public void stopDatastore() {
+    this.datastore.stop();
+  }
+
+  @Test
+  public void testChunksAreMatchedById() {
+    this.datastore.edit(new DumpDiffer("base", "target", 2)::diffWithTransaction);
+
+    final Object noFields = MemoryAnalysisDatastoreDescriptionConfig.NO_FIELDS;
+    Assertions.assertThat(readDiff())
+        .containsExactlyInAnyOrder(
+            Arrays.asList(false, STORE, noFields, DiffStatus.UNCHANGED, 100L, 100L, 1L),
+            Arrays.asList(
+                false, STORE, new StringArrayObject("a", "b"), DiffStatus.RESIZED, 20L, 40L, 1L),
+            Arrays.asList(false, STORE, noFields, DiffStatus.NEW, 0L, 10L, 1L),
+            Arrays.asList(false, STORE, noFields, DiffStatus.FREED, 50L, 0L, 1L),
+            // The dictionary shared by both stores is kept once per store under its own ID
+            Arrays.asList(true, STORE, noFields, DiffStatus.UNCHANGED, 3L, 3L, 1L),
+            Arrays.asList(true, OTHER, noFields, DiffStatus.UNCHANGED, 3L, 3L, 1L));
+  }
+
+  @Test
+  public void testDiffIsReplaced() {
+    this.datastore.edit(new DumpDiffer("base", "target", 2)::diffWithTransaction);
+    this.datastore.edit(
+        transaction -> {
+          addChunk(transaction, "target", 6L, STORE, ParentType.RECORDS, 10L);
+          new DumpDiffer("base", "target", 2).diffWithTransaction(transaction);
+        });
+
+    // Chunks 4 and 6 are summed as new chunks of the same owner
+    Assertions.assertThat(readDiff())
+        .hasSize(6)
+        .contains(
+            Arrays.asList(
+                false,
+                STORE,
+                MemoryAnalysisDatastoreDescriptionConfig.NO_FIELDS,
+                DiffStatus.NEW,
+                0L,
+                20L,
+                2L));
+  }
+
+  @Test
+  public void testUnloadingEitherDumpRemovesTheDiff() {
+    this.datastore.edit(new DumpDiffer("base", "target", 2)::diffWithTransaction);
+    this.datastore.edit(new DumpDiffer("target", "base", 2)::diffWithTransaction);
+
+    new AnalysisDatastoreUnloader(
+            new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions())
+        .unload(this.datastore, "base");
+
+    Assertions.assertThat(readDiff()).isEmpty();
+  }
+
+  /**
+   * Reads all the diffs.
+   *
+   * @return whether the chunk ID is an actual one, the owner, fields, status, base and target
+   *     off-heap sizes and chunk count of each record
+   */
+  private List<List<Object>> readDiff() {
+    final ListQuery query =
+        this.datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(DatastoreConstants.CHUNK_DIFF_STORE)
+            .withoutCondition()
+            .withAliasedFields(
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK_ID),
+                AliasedField.fromFieldName(DatastoreConstants.OWNER__OWNER),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK_DIFF__FIELDS),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK_DIFF__STATUS),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK_DIFF__BASE_OFF_HEAP_SIZE),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK__OFF_HEAP_SIZE),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK_SUMMARY__CHUNK_COUNT))
+            .toQuery();
+    final List<List<Object>> rows = new ArrayList<>();
+    try (final ICursor cursor =
+        this.datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      for (final IRecordReader reader : cursor) {
+        rows.add(
+            Arrays.asList(
+                reader.readLong(0) >= 0,
+                reader.read(1),
+                reader.read(2),
+                reader.read(3),
+                reader.readLong(4),
+                reader.readLong(5),
+                reader.readLong(6)));
+      }
+    }
+    return rows;
+  }
+
+  private static void addChunk(
+      final IOpenedTransaction transaction,
+      final String dumpName,
+      final long chunkId,
+      final ChunkOwner owner,
+      final ParentType component,
+      final long offHeapSize) {
+    final IRecordFormat format = recordFormat(transaction, DatastoreConstants.CHUNK_STORE);
+    final Object[] tuple = new Object[format.getFieldCount()];
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK_ID)] = chunkId;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = dumpName;
+    tuple[format.getFieldIndex(DatastoreConstants.VERSION__EPOCH_ID)] = 1L;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__OWNER)] = owner;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__COMPONENT)] = component;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID)] = 0;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE)] = component;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__CLASS)] = "chunk";
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__OFF_HEAP_SIZE)] = offHeapSize;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__ON_HEAP_SIZE)] = 0L;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__SIZE)] = 16L;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__NON_WRITTEN_ROWS)] = 0L;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__FREE_ROWS)] = 0L;
+    transaction.add(DatastoreConstants.CHUNK_STORE, tuple);
+  }
+
+  private static void addField(
+      final IOpenedTransaction transaction,
+      final String dumpName,
+      final long chunkId,
+      final ChunkOwner owner,
+      final ParentType component,
+      final String field) {
+    final IRecordFormat format = recordFormat(transaction, DatastoreConstants.CHUNK_TO_FIELD_STORE);
+    final Object[] tuple = new Object[format.getFieldCount()];
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK_ID)] = chunkId;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = dumpName;
+    tuple[format.getFieldIndex(DatastoreConstants.VERSION__EPOCH_ID)] = 1L;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__OWNER)] = owner;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__COMPONENT)] = component;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__FIELD)] = field;
+    transaction.add(DatastoreConstants.CHUNK_TO_FIELD_STORE, tuple);
+  }
+
+  private static IRecordFormat recordFormat(
+      final IOpenedTransaction transaction, final String store) {
+    return transaction.getMetadata().getStoreMetadata(store).getStoreFormat().getRecordFormat();
+  }
+}
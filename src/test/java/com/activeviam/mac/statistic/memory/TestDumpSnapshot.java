@@ -0,0 +1,140 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.mac.memory.DumpSnapshotFolder;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.qfs.desc.IFieldDescription;
+import com.qfs.desc.IStoreDescription;
+import com.qfs.service.monitoring.IMemoryAnalysisService;
+import com.qfs.store.IDatastore;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests that dump snapshots restore the content of all the analysis stores. */
+public class TestDumpSnapshot extends ATestMemoryStatistic {
+
+  @TempDir Path snapshotFolder;
+
+  @Test
+  public void testSnapshotRestoresAllStores() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testSnapshotRestoresAllStores");
+          final List<Path> files;
+          try (final Stream<Path> listed = Files.list(exportPath)) {
+            files = listed.collect(Collectors.toList());
+          }
+
+          final IDatastore loadedDatastore = createAnalysisDatastore();
+          feedMonitoringApplication(
+              loadedDatastore, loadMemoryStatFromFolder(exportPath).getChildren(), "dump");
+
+          final Collection<? extends IStoreDescription> stores =
+              new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions();
+          final DumpSnapshotFolder snapshots = new DumpSnapshotFolder(this.snapshotFolder, stores);
+          Assertions.assertThat(snapshots.hasSnapshot("dump", files)).isFalse();
+          snapshots.save(loadedDatastore, "dump", files);
+          Assertions.assertThat(snapshots.hasSnapshot("dump", files)).isTrue();
+          Assertions.assertThat(snapshots.hasSnapshot("other", files)).isFalse();
+          Assertions.assertThat(snapshots.hasSnapshot("dump", files.subList(1, files.size())))
+              .isFalse();
+
+          final IDatastore restoredDatastore = createAnalysisDatastore();
+          restoredDatastore.edit(
+              transaction -> {
+                try {
+                  snapshots.restore(transaction, "dump");
+                } catch (final IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+
+          for (final IStoreDescription store : stores) {
+            final List<List<Object>> expected = readRows(loadedDatastore, store);
+            Assertions.assertThat(readRows(restoredDatastore, store))
+                .as("Content of " + store.getName())
+                .containsExactlyInAnyOrderElementsOf(expected);
+          }
+        });
+  }
+
+  @Test
+  public void testSnapshotOfAnotherStoreLayoutIsIgnored() throws IOException {
+    final List<? extends IStoreDescription> stores =
+        List.copyOf(new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions());
+    final DumpSnapshotFolder snapshots = new DumpSnapshotFolder(this.snapshotFolder, stores);
+    snapshots.save(createAnalysisDatastore(), "dump", List.of());
+    Assertions.assertThat(snapshots.hasSnapshot("dump", List.of())).isTrue();
+
+    // A store added or removed since the snapshot was saved
+    final DumpSnapshotFolder changedSnapshots =
+        new DumpSnapshotFolder(this.snapshotFolder, stores.subList(1, stores.size()));
+    Assertions.assertThat(changedSnapshots.hasSnapshot("dump", List.of())).isFalse();
+    final IDatastore restoredDatastore = createAnalysisDatastore();
+    Assertions.assertThatThrownBy(
+            () ->
+                restoredDatastore.edit(
+                    transaction -> {
+                      try {
+                        changedSnapshots.restore(transaction, "dump");
+                      } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                      }
+                    }))
+        .hasStackTraceContaining("different layout of the stores");
+  }
+
+  private static List<List<Object>> readRows(
+      final IDatastore datastore, final IStoreDescription store) {
+    final ListQuery query =
+        datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(store.getName())
+            .withoutCondition()
+            .withAliasedFields(
+                store.getFields().stream()
+                    .map(IFieldDescription::getName)
+                    .map(AliasedField::fromFieldName)
+                    .toArray(AliasedField[]::new))
+            .toQuery();
+
+    try (final ICursor cursor =
+        datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      final List<List<Object>> rows = new ArrayList<>();
+      for (final IRecordReader reader : cursor) {
+        final List<Object> row = new ArrayList<>();
+        for (int i = 0; i < store.getFields().size(); ++i) {
+          row.add(reader.read(i));
+        }
+        rows.add(row);
+      }
+      return rows;
+    }
+  }
+}
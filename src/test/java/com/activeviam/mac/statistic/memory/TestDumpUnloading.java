@@ -0,0 +1,83 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
+import com.activeviam.mac.memory.LoadedDumpRegistry;
+import com.activeviam.mac.memory.LoadedDumpRegistry.LoadedDump;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.service.monitoring.IMemoryAnalysisService;
+import com.qfs.store.IDatastore;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.stream.Collectors;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Tests the unloading of dumps from the analysis datastore. */
+public class TestDumpUnloading extends ATestMemoryStatistic {
+
+  @Test
+  public void testUnloadRemovesOnlyTheDump() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testUnloadRemovesOnlyTheDump");
+          final Collection<IMemoryStatistic> stats =
+              loadMemoryStatFromFolder(exportPath).getChildren();
+
+          final IDatastore analysisDatastore = createAnalysisDatastore();
+          feedMonitoringApplication(analysisDatastore, stats, "kept");
+          feedMonitoringApplication(analysisDatastore, stats, "removed");
+
+          final AnalysisDatastoreUnloader unloader =
+              new AnalysisDatastoreUnloader(
+                  new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions());
+          final long keptCount = unloader.countRecords(analysisDatastore, "kept");
+          Assertions.assertThat(keptCount).isPositive();
+          Assertions.assertThat(unloader.countRecords(analysisDatastore, "removed"))
+              .isEqualTo(keptCount);
+
+          Assertions.assertThat(unloader.unload(analysisDatastore, "removed")).isPresent();
+
+          Assertions.assertThat(unloader.countRecords(analysisDatastore, "removed")).isZero();
+          Assertions.assertThat(unloader.countRecords(analysisDatastore, "kept"))
+              .isEqualTo(keptCount);
+        });
+  }
+
+  @Test
+  public void testRegistryEvictsLeastRecentlyUsedDumps() {
+    final LoadedDumpRegistry registry = new LoadedDumpRegistry();
+    registry.register("first", 10);
+    registry.register("second", 20);
+    registry.register("third", 30);
+    registry.touch("first");
+
+    Assertions.assertThat(registry.getDumps().stream().map(LoadedDump::getDumpName))
+        .containsExactly("second", "third", "first");
+    Assertions.assertThat(registry.getRecordCount()).isEqualTo(60);
+    Assertions.assertThat(registry.selectEvictions(60, "first")).isEmpty();
+    Assertions.assertThat(registry.selectEvictions(40, "first")).containsExactly("second");
+    Assertions.assertThat(registry.selectEvictions(10, "first"))
+        .containsExactly("second", "third");
+    Assertions.assertThat(registry.selectEvictions(0, "second"))
+        .containsExactly("third", "first");
+
+    Assertions.assertThat(registry.unregister("second")).isTrue();
+    Assertions.assertThat(registry.unregister("second")).isFalse();
+    Assertions.assertThat(
+            registry.getDumps().stream().map(LoadedDump::getDumpName).collect(Collectors.toList()))
+        .containsExactly("third", "first");
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.memory.IngestedFileRegistry;
+import com.activeviam.mac.memory.IngestedFileRegistry.Fingerprint;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests the identification of the statistic files already loaded. */
+public class TestIngestedFileRegistry {
+
+  @TempDir Path folder;
+
+  @Test
+  public void testIdenticalFilesShareTheirFingerprint() throws IOException {
+    final Path first = Files.writeString(this.folder.resolve("first.json"), "{\"name\": \"a\"}");
+    final Path copy = Files.writeString(this.folder.resolve("copy.json"), "{\"name\": \"a\"}");
+    final Path other = Files.writeString(this.folder.resolve("other.json"), "{\"name\": \"b\"}");
+
+    final IngestedFileRegistry registry = new IngestedFileRegistry(null);
+    final Fingerprint fingerprint = registry.fingerprint(first);
+    Assertions.assertThat(registry.fingerprint(copy)).isEqualTo(fingerprint);
+    Assertions.assertThat(registry.fingerprint(other)).isNotEqualTo(fingerprint);
+
+    Assertions.assertThat(registry.getIngestingDump(fingerprint)).isEmpty();
+    Assertions.assertThat(registry.claim("dump", Map.of(first, fingerprint)))
+        .containsExactly(first);
+    Assertions.assertThat(registry.getIngestingDump(registry.fingerprint(copy))).contains("dump");
+    Assertions.assertThat(registry.getIngestingDump(registry.fingerprint(other))).isEmpty();
+
+    registry.unregister("dump");
+    Assertions.assertThat(registry.getIngestingDump(fingerprint)).isEmpty();
+  }
+
+  @Test
+  public void testPersistedFingerprintsAreReused() throws IOException {
+    final Path fingerprints = this.folder.resolve("fingerprints.tsv");
+    final Path file = Files.writeString(this.folder.resolve("stats.json"), "{\"name\": \"a\"}");
+    final FileTime lastModified = Files.getLastModifiedTime(file);
+
+    final IngestedFileRegistry registry = new IngestedFileRegistry(fingerprints);
+    final Fingerprint fingerprint = registry.fingerprint(file);
+    registry.claim("dump", Map.of(file, fingerprint));
+    Assertions.assertThat(fingerprints).exists();
+
+    // Same size and modification time: the persisted fingerprint is trusted
+    Files.writeString(file, "{\"name\": \"b\"}");
+    Files.setLastModifiedTime(file, lastModified);
+    final IngestedFileRegistry restarted = new IngestedFileRegistry(fingerprints);
+    Assertions.assertThat(restarted.fingerprint(file)).isEqualTo(fingerprint);
+    // Ingested files are not persisted, the dumps being loaded again on restart
+    Assertions.assertThat(restarted.getIngestingDump(fingerprint)).isEmpty();
+
+    Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 1000));
+    Assertions.assertThat(restarted.fingerprint(file)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void testDumpsAreSkippedOnlyIfAllTheirFilesAreLoaded() throws IOException {
+    final IngestedFileRegistry registry = new IngestedFileRegistry(null);
+    final Map<Path, Fingerprint> first = fingerprint(registry, "first", "a", "b");
+    Assertions.assertThat(registry.claim("first", first)).containsExactlyElementsOf(first.keySet());
+    // Claiming the same files again for the same dump loads nothing
+    Assertions.assertThat(registry.claim("first", first)).isEmpty();
+
+    // A copy of the dump is skipped
+    Assertions.assertThat(registry.claim("copy", fingerprint(registry, "copy", "a", "b")))
+        .isEmpty();
+
+    // A dump sharing some of its files is loaded whole
+    final Map<Path, Fingerprint> partial = fingerprint(registry, "partial", "a", "c");
+    Assertions.assertThat(registry.claim("partial", partial))
+        .containsExactlyElementsOf(partial.keySet());
+    Assertions.assertThat(registry.getIngestingDump(partial.values().iterator().next()))
+        .isPresent();
+
+    // A failed loading releases the claimed files
+    registry.release("partial", partial.keySet());
+    Assertions.assertThat(registry.claim("other", fingerprint(registry, "other", "c")))
+        .hasSize(1);
+  }
+
+  @Test
+  public void testFingerprintsArePrunedOnUnload() throws IOException {
+    final Path fingerprints = this.folder.resolve("fingerprints.tsv");
+    final IngestedFileRegistry registry = new IngestedFileRegistry(fingerprints);
+    registry.claim("first", fingerprint(registry, "first", "a"));
+    registry.claim("second", fingerprint(registry, "second", "b"));
+    Assertions.assertThat(Files.readAllLines(fingerprints)).hasSize(2);
+
+    registry.unregister("first");
+    final List<String> lines = Files.readAllLines(fingerprints);
+    Assertions.assertThat(lines).hasSize(1);
+    Assertions.assertThat(lines.get(0)).contains("second");
+  }
+
+  private Map<Path, Fingerprint> fingerprint(
+      final IngestedFileRegistry registry, final String dumpName, final String... contents)
+      throws IOException {
+    final Path dumpFolder = Files.createDirectories(this.folder.resolve(dumpName));
+    final Map<Path, Fingerprint> files = new LinkedHashMap<>();
+    for (final String content : contents) {
+      final Path file =
+          Files.writeString(
+              dumpFolder.resolve(content + ".json"), "{\"name\": \"" + content + "\"}");
+      files.put(file, registry.fingerprint(file));
+    }
+    return files;
+  }
+}
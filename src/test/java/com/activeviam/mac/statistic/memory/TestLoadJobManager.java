@@ -0,0 +1,201 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.memory.LoadJob;
+import com.activeviam.mac.memory.LoadJob.Status;
+import com.activeviam.mac.memory.LoadJobManager;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests the asynchronous loading of statistic files through load jobs. */
+public class TestLoadJobManager {
+
+  @TempDir Path folder;
+
+  @Test
+  public void testJobsReportTheirProgress() throws Exception {
+    final Path first = Files.writeString(this.folder.resolve("first.json"), "{}");
+    final Path second = Files.writeString(this.folder.resolve("second.json"), "{\"a\": 1}");
+    final CountDownLatch firstFileDone = new CountDownLatch(1);
+    final CountDownLatch resume = new CountDownLatch(1);
+
+    try (final LoadJobManager manager = new LoadJobManager(1, 10)) {
+      final LoadJob job =
+          manager.submit(
+              "folder",
+              List.of(first, second),
+              submitted -> {
+                submitted.fileDone(first);
+                firstFileDone.countDown();
+                await(resume);
+                submitted.fileDone(second);
+                return "loaded";
+              });
+      Assertions.assertThat(job.getTotalFiles()).isEqualTo(2);
+      Assertions.assertThat(job.getTotalBytes()).isEqualTo(Files.size(first) + Files.size(second));
+
+      await(firstFileDone);
+      Assertions.assertThat(job.getStatus()).isEqualTo(Status.RUNNING);
+      Assertions.assertThat(job.getDoneFiles()).isEqualTo(1);
+      Assertions.assertThat(job.getDoneBytes()).isEqualTo(Files.size(first));
+
+      resume.countDown();
+      waitForEnd(job);
+      Assertions.assertThat(job.getStatus()).isEqualTo(Status.DONE);
+      Assertions.assertThat(job.getMessage()).isEqualTo("loaded");
+      Assertions.assertThat(job.getDoneBytes()).isEqualTo(job.getTotalBytes());
+      Assertions.assertThat(manager.getJob(job.getId())).contains(job);
+    }
+  }
+
+  @Test
+  public void testJobsAreQueuedAndCancelled() throws Exception {
+    final Path file = Files.writeString(this.folder.resolve("stats.json"), "{}");
+    final CountDownLatch started = new CountDownLatch(1);
+
+    try (final LoadJobManager manager = new LoadJobManager(1, 10)) {
+      final LoadJob running =
+          manager.submit(
+              "running",
+              List.of(file),
+              job -> {
+                started.countDown();
+                // Loads until stopped by the cancellation
+                while (true) {
+                  job.fileDone(file);
+                  LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+              });
+      final LoadJob queued = manager.submit("queued", List.of(file), job -> "loaded");
+      await(started);
+      Assertions.assertThat(queued.getStatus()).isEqualTo(Status.QUEUED);
+      Assertions.assertThat(manager.getJobs()).containsExactly(running, queued);
+
+      Assertions.assertThat(manager.cancel(queued.getId())).isTrue();
+      Assertions.assertThat(queued.getStatus()).isEqualTo(Status.CANCELLED);
+      Assertions.assertThat(manager.cancel(running.getId())).isTrue();
+      Assertions.assertThat(running.getStatus()).isEqualTo(Status.CANCELLED);
+      Assertions.assertThatThrownBy(() -> running.fileDone(file))
+          .isInstanceOf(CancellationException.class);
+      Assertions.assertThat(manager.cancel(running.getId())).isFalse();
+
+      // The slot of the cancelled job is given to the next one
+      final LoadJob next = manager.submit("next", List.of(file), job -> "loaded");
+      waitForEnd(next);
+      Assertions.assertThat(next.getStatus()).isEqualTo(Status.DONE);
+      Assertions.assertThat(queued.getMessage()).isEqualTo("Cancelled");
+    }
+  }
+
+  @Test
+  public void testCommittedJobsCannotBeCancelled() throws Exception {
+    final Path file = Files.writeString(this.folder.resolve("stats.json"), "{}");
+    final CountDownLatch committed = new CountDownLatch(1);
+    final CountDownLatch resume = new CountDownLatch(1);
+
+    try (final LoadJobManager manager = new LoadJobManager(1, 10)) {
+      final LoadJob job =
+          manager.submit(
+              "committed",
+              List.of(file),
+              submitted -> {
+                submitted.fileDone(file);
+                submitted.beforeCommit();
+                committed.countDown();
+                await(resume);
+                return "loaded";
+              });
+      await(committed);
+      Assertions.assertThat(job.getStatus()).isEqualTo(Status.COMMITTING);
+      Assertions.assertThat(manager.cancel(job.getId())).isFalse();
+
+      resume.countDown();
+      waitForEnd(job);
+      Assertions.assertThat(job.getStatus()).isEqualTo(Status.DONE);
+      Assertions.assertThat(job.getMessage()).isEqualTo("loaded");
+    }
+  }
+
+  @Test
+  public void testCancelledJobsDoNotCommit() throws Exception {
+    final Path file = Files.writeString(this.folder.resolve("stats.json"), "{}");
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch cancelled = new CountDownLatch(1);
+
+    try (final LoadJobManager manager = new LoadJobManager(1, 10)) {
+      final LoadJob job =
+          manager.submit(
+              "cancelled",
+              List.of(file),
+              submitted -> {
+                started.countDown();
+                awaitUninterruptibly(cancelled);
+                submitted.beforeCommit();
+                return "loaded";
+              });
+      await(started);
+      Assertions.assertThat(manager.cancel(job.getId())).isTrue();
+      cancelled.countDown();
+      Assertions.assertThatThrownBy(job::beforeCommit).isInstanceOf(CancellationException.class);
+
+      waitForEnd(job);
+      Assertions.assertThat(job.getStatus()).isEqualTo(Status.CANCELLED);
+      Assertions.assertThat(job.getMessage()).isEqualTo("Cancelled");
+    }
+  }
+
+  @Test
+  public void testFailedJobsKeepTheirError() throws IOException, InterruptedException {
+    final Path file = Files.writeString(this.folder.resolve("stats.json"), "{}");
+    try (final LoadJobManager manager = new LoadJobManager(1, 10)) {
+      final LoadJob job =
+          manager.submit(
+              "failing",
+              List.of(file),
+              submitted -> {
+                throw new IllegalArgumentException("Invalid statistic file");
+              });
+      waitForEnd(job);
+      Assertions.assertThat(job.getStatus()).isEqualTo(Status.FAILED);
+      Assertions.assertThat(job.getMessage()).isEqualTo("Invalid statistic file");
+    }
+  }
+
+  private static void await(final CountDownLatch latch) {
+    try {
+      Assertions.assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void awaitUninterruptibly(final CountDownLatch latch) {
+    // The cancellation interrupts the loading thread
+    while (latch.getCount() > 0) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+  }
+
+  private static void waitForEnd(final LoadJob job) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!job.getStatus().isOver() && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(10);
+    }
+  }
+}
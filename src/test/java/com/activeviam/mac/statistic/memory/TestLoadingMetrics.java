@@ -0,0 +1,109 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.memory.AnalysisDatastoreFeeder;
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.LoadingMetrics;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.StatisticLoadingPipeline;
+import com.qfs.service.monitoring.IMemoryAnalysisService;
+import com.qfs.store.IDatastore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Tests the metrics recorded while loading a dump. */
+public class TestLoadingMetrics extends ATestMemoryStatistic {
+
+  @Test
+  public void testLoadingRecordsEachPhase() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testLoadingRecordsEachPhase");
+          final List<Path> files;
+          try (final Stream<Path> listed = Files.list(exportPath)) {
+            files = listed.collect(Collectors.toList());
+          }
+
+          final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+          final LoadingMetrics metrics = new LoadingMetrics(registry, "dump");
+          final IDatastore analysisDatastore = createAnalysisDatastore();
+          try (final StatisticLoadingPipeline pipeline =
+              new StatisticLoadingPipeline(2, 16, 16, 1, true)) {
+            final AnalysisDatastoreFeeder feeder = new AnalysisDatastoreFeeder("dump", 1, metrics);
+            Assertions.assertThat(
+                    feeder.commit(
+                        analysisDatastore,
+                        transaction -> {
+                          pipeline.run(
+                              files, statistic -> feeder.feed(transaction, statistic), metrics);
+                          feeder.completeTransaction(transaction);
+                        }))
+                .isPresent();
+          }
+
+          Assertions.assertThat(registry.get("mac.loading.file.bytes").summary().count())
+              .isEqualTo(files.size());
+          Assertions.assertThat(registry.get("mac.loading.file.bytes").summary().totalAmount())
+              .isEqualTo(
+                  (double) files.stream().mapToLong(file -> file.toFile().length()).sum());
+          Assertions.assertThat(registry.get("mac.loading.file.read").timer().count())
+              .isEqualTo(files.size());
+          Assertions.assertThat(registry.get("mac.loading.file.decode").timer().count())
+              .isEqualTo(files.size());
+          Assertions.assertThat(registry.get("mac.loading.visit").timer().count()).isPositive();
+          Assertions.assertThat(registry.get("mac.loading.epochViews").timer().count())
+              .isEqualTo(1);
+          Assertions.assertThat(registry.get("mac.loading.commit").timer().count()).isEqualTo(1);
+          Assertions.assertThat(
+                  registry.get("mac.loading.commit").tag(LoadingMetrics.DUMP_TAG, "dump").timer())
+              .isNotNull();
+
+          // The batchers count all the records of the dump, some replacing others with their key
+          final Map<String, Long> added = feeder.getRecordCounts().toMap();
+          new AnalysisDatastoreUnloader(
+                  new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions())
+              .countRecordsPerStore(analysisDatastore, "dump")
+              .forEach(
+                  (store, count) ->
+                      Assertions.assertThat(added.getOrDefault(store, 0L))
+                          .as("Records added to " + store)
+                          .isGreaterThanOrEqualTo(count));
+          Assertions.assertThat(added.get(DatastoreConstants.CHUNK_STORE)).isPositive();
+        });
+  }
+
+  @Test
+  public void testMetersOfUnloadedDumpsAreRemoved() {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    new LoadingMetrics(registry, "dump").recordFile(10);
+    new LoadingMetrics(registry, "other").recordStores(Map.of("store", 1L));
+    new LoadingMetrics(registry, "dump").recordStores(Map.of("store", 1L));
+
+    LoadingMetrics.removeDumpMeters(registry, "dump");
+    Assertions.assertThat(registry.find("mac.loading.file.bytes").tag("dump", "dump").meters())
+        .isEmpty();
+    Assertions.assertThat(registry.find("mac.loading.records").tag("dump", "dump").meters())
+        .isEmpty();
+    Assertions.assertThat(registry.find("mac.loading.records").tag("dump", "other").meters())
+        .hasSize(1);
+  }
+}
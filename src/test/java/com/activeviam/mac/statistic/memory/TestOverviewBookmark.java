@@ -241,6 +241,72 @@ public class TestOverviewBookmark extends ATestMemoryStatistic {
         .isEqualTo(CellSetUtils.extractValueFromSingleCellDTO(cubeTotalResult));
   }
 
+  @Test
+  public void testSummaryCubeMatchesTheMemoryCube() throws QueryException {
+    final IMultiVersionActivePivot memoryPivot =
+        this.monitoringApp
+            .getManager()
+            .getActivePivots()
+            .get(ManagerDescriptionConfig.MONITORING_CUBE);
+    final IMultiVersionActivePivot summaryPivot =
+        this.monitoringApp
+            .getManager()
+            .getActivePivots()
+            .get(ManagerDescriptionConfig.SUMMARY_CUBE);
+
+    // The totals count the chunks shared by several owners or components once
+    final String query =
+        "SELECT NON EMPTY {"
+            + "  [Measures].[DirectMemory.SUM], [Measures].[HeapMemory.SUM],"
+            + "  [Measures].[Chunks.COUNT], [Measures].[ChunkSize.SUM]"
+            + "} ON COLUMNS, NON EMPTY Crossjoin("
+            + "  Hierarchize(DrilldownLevel([Owners].[Owner].[ALL].[AllMember])),"
+            + "  Hierarchize(DrilldownLevel([Components].[Component].[ALL].[AllMember])),"
+            + "  Hierarchize(DrilldownLevel([Chunks].[Class].[ALL].[AllMember]))"
+            + ") ON ROWS FROM ";
+
+    final Double[] summaryValues =
+        CellSetUtils.extractValuesFromCellSetDTO(
+            summaryPivot.execute(new MDXQuery(query + "[MemorySummaryCube]")));
+    Assertions.assertThat(summaryValues).isNotEmpty();
+    Assertions.assertThat(summaryValues)
+        .containsExactly(
+            CellSetUtils.extractValuesFromCellSetDTO(
+                memoryPivot.execute(new MDXQuery(query + "[MemoryCube]"))));
+  }
+
+  @Test
+  public void testSummaryCubeResolvesTheViewedEpochs() throws QueryException {
+    final IMultiVersionActivePivot memoryPivot =
+        this.monitoringApp
+            .getManager()
+            .getActivePivots()
+            .get(ManagerDescriptionConfig.MONITORING_CUBE);
+    final IMultiVersionActivePivot summaryPivot =
+        this.monitoringApp
+            .getManager()
+            .getActivePivots()
+            .get(ManagerDescriptionConfig.SUMMARY_CUBE);
+    Assertions.assertThat(summaryPivot).isNotNull();
+
+    // The summaries are joined to the epochs viewing them through the epoch ranges of their owner
+    final String query =
+        "SELECT NON EMPTY {[Measures].[DirectMemory.SUM], [Measures].[Chunks.COUNT]} ON COLUMNS,"
+            + " NON EMPTY Crossjoin("
+            + "  Hierarchize(DrilldownLevel([Versions].[Epoch Id].[ALL].[AllMember])),"
+            + "  Hierarchize(DrilldownLevel([Owners].[Owner].[ALL].[AllMember]))"
+            + ") ON ROWS FROM ";
+
+    final Double[] summaryValues =
+        CellSetUtils.extractValuesFromCellSetDTO(
+            summaryPivot.execute(new MDXQuery(query + "[MemorySummaryCube]")));
+    Assertions.assertThat(summaryValues).isNotEmpty();
+    Assertions.assertThat(summaryValues)
+        .containsExactly(
+            CellSetUtils.extractValuesFromCellSetDTO(
+                memoryPivot.execute(new MDXQuery(query + "[MemoryCube]"))));
+  }
+
   protected String ownershipCountMdxExpression(final String hierarchyUniqueName) {
     return "DistinctCount("
         + "  Generate("
@@ -0,0 +1,53 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.entities.ChunkOwner;
+import com.activeviam.mac.entities.CubeOwner;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.OwnerEpochs;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Tests the recording of the epochs of the owners of a dump. */
+public class TestOwnerEpochs {
+
+  @Test
+  public void testEpochsAreDistinctAndSorted() {
+    final OwnerEpochs epochs = new OwnerEpochs();
+    Assertions.assertThat(epochs.isEmpty()).isTrue();
+
+    epochs.add(new StoreOwner("store"), 4L);
+    epochs.add(new StoreOwner("store"), 1L);
+    epochs.add(new StoreOwner("store"), 4L);
+    epochs.add(new CubeOwner("cube"), 2L);
+
+    final Map<ChunkOwner, long[]> epochsPerOwner = new HashMap<>();
+    epochs.forEach(epochsPerOwner::put);
+    Assertions.assertThat(epochs.isEmpty()).isFalse();
+    Assertions.assertThat(epochsPerOwner)
+        .containsOnlyKeys(new StoreOwner("store"), new CubeOwner("cube"));
+    Assertions.assertThat(epochsPerOwner.get(new StoreOwner("store"))).containsExactly(1L, 4L);
+    Assertions.assertThat(epochsPerOwner.get(new CubeOwner("cube"))).containsExactly(2L);
+  }
+
+  @Test
+  public void testEpochsAreRecordedConcurrently() {
+    final OwnerEpochs epochs = new OwnerEpochs();
+    final ChunkOwner owner = new StoreOwner("store");
+    IntStream.range(0, 10_000).parallel().forEach(epoch -> epochs.add(owner, epoch % 100));
+
+    final Map<ChunkOwner, long[]> epochsPerOwner = new HashMap<>();
+    epochs.forEach(epochsPerOwner::put);
+    Assertions.assertThat(epochsPerOwner.get(owner))
+        .containsExactly(IntStream.range(0, 100).asLongStream().toArray());
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.memory.QueryResultCache;
+import com.activeviam.mac.memory.QueryResultCache.CachedResult;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Tests the cache of the query results. */
+public class TestQueryResultCache {
+
+  @Test
+  public void testNormalizationKeepsIdentifiersAndLiterals() {
+    Assertions.assertThat(
+            QueryResultCache.normalize(
+                "{\"mdx\": \"SELECT\\n  [Owners].[Owner  A] ON ROWS\\tFROM [MemoryCube]  \"}"))
+        .isEqualTo("{\"mdx\": \"SELECT [Owners].[Owner  A] ON ROWS FROM [MemoryCube] \"}");
+    Assertions.assertThat(QueryResultCache.normalize("  WITH MEMBER x AS 'a  b' "))
+        .isEqualTo("WITH MEMBER x AS 'a  b'");
+  }
+
+  @Test
+  public void testResultsAreKeyedOnTheQuery() {
+    final QueryResultCache cache = new QueryResultCache(1 << 20);
+    cache.put("SELECT", result(10), cache.getGeneration());
+
+    Assertions.assertThat(cache.get("SELECT")).isPresent();
+    Assertions.assertThat(cache.get("WHERE [first]")).isEmpty();
+  }
+
+  @Test
+  public void testInvalidationDiscardsAllTheResults() {
+    final QueryResultCache cache = new QueryResultCache(1 << 20);
+    final long generation = cache.getGeneration();
+    cache.put("WHERE [first]", result(10), generation);
+    // This query reads the second dump without naming it
+    cache.put("WHERE [Dump].[second dump]", result(10), generation);
+
+    cache.invalidate();
+
+    Assertions.assertThat(cache.get("WHERE [first]")).isEmpty();
+    Assertions.assertThat(cache.get("WHERE [Dump].[second dump]")).isEmpty();
+    Assertions.assertThat(cache.size()).isZero();
+    Assertions.assertThat(cache.getBytes()).isZero();
+  }
+
+  @Test
+  public void testResultsComputedDuringAnInvalidationAreNotCached() {
+    final QueryResultCache cache = new QueryResultCache(1 << 20);
+    final long generation = cache.getGeneration();
+    cache.invalidate();
+
+    Assertions.assertThat(cache.put("WHERE [first]", result(10), generation)).isFalse();
+    Assertions.assertThat(cache.get("WHERE [first]")).isEmpty();
+  }
+
+  @Test
+  public void testLeastRecentlyUsedResultsAreEvicted() {
+    final QueryResultCache cache = new QueryResultCache(100);
+    final long generation = cache.getGeneration();
+    cache.put("a", result(40), generation);
+    cache.put("b", result(40), generation);
+    cache.get("a");
+    cache.put("c", result(40), generation);
+
+    Assertions.assertThat(cache.get("a")).isPresent();
+    Assertions.assertThat(cache.get("b")).isEmpty();
+    Assertions.assertThat(cache.get("c")).isPresent();
+    Assertions.assertThat(cache.getBytes()).isEqualTo(84);
+    Assertions.assertThat(cache.put("d", result(200), generation)).isFalse();
+  }
+
+  private static CachedResult result(final int size) {
+    return new CachedResult("application/json", new byte[size]);
+  }
+}
@@ -0,0 +1,331 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.mac.memory.AnalysisDatastoreFeeder;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.StatisticLoadingPipeline;
+import com.activeviam.mac.memory.StreamingStatisticReader;
+import com.qfs.monitoring.statistic.memory.IMemoryStatistic;
+import com.qfs.service.monitoring.IMemoryAnalysisService;
+import com.qfs.store.IDatastore;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that streaming statistic files, directly or through the loading pipeline, produces the same
+ * datastore as reading them at once.
+ */
+public class TestStreamingStatisticLoading extends ATestMemoryStatistic {
+
+  @Test
+  public void testStreamingLoadsSameContent() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testStreamingLoadsSameContent");
+
+          final IDatastore fullDatastore = createAnalysisDatastore();
+          feedMonitoringApplication(
+              fullDatastore, loadMemoryStatFromFolder(exportPath).getChildren(), "dump");
+
+          final IDatastore streamedDatastore = createAnalysisDatastore();
+          final List<IMemoryStatistic> streamed = streamFolder(exportPath);
+          feedMonitoringApplication(streamedDatastore, streamed, "dump");
+
+          assertSameContent(
+              fullDatastore,
+              streamedDatastore,
+              DatastoreConstants.CHUNK_STORE,
+              DatastoreConstants.CHUNK_ID,
+              DatastoreConstants.VERSION__EPOCH_ID,
+              DatastoreConstants.OWNER__OWNER,
+              DatastoreConstants.OWNER__COMPONENT,
+              DatastoreConstants.CHUNK__PARENT_ID,
+              DatastoreConstants.CHUNK__CLASS,
+              DatastoreConstants.CHUNK__OFF_HEAP_SIZE);
+          assertSameContent(
+              fullDatastore,
+              streamedDatastore,
+              DatastoreConstants.CHUNK_TO_FIELD_STORE,
+              DatastoreConstants.CHUNK_ID,
+              DatastoreConstants.VERSION__EPOCH_ID,
+              DatastoreConstants.OWNER__OWNER,
+              DatastoreConstants.OWNER__COMPONENT,
+              DatastoreConstants.OWNER__FIELD);
+          assertSameContent(
+              fullDatastore,
+              streamedDatastore,
+              DatastoreConstants.PROVIDER_STORE,
+              DatastoreConstants.PROVIDER__PROVIDER_ID,
+              DatastoreConstants.PROVIDER__PIVOT_ID,
+              DatastoreConstants.PROVIDER__TYPE,
+              DatastoreConstants.PROVIDER__CATEGORY);
+          assertSameContent(
+              fullDatastore,
+              streamedDatastore,
+              DatastoreConstants.LEVEL_STORE,
+              DatastoreConstants.LEVEL__PIVOT_ID,
+              DatastoreConstants.LEVEL__LEVEL,
+              DatastoreConstants.LEVEL__MEMBER_COUNT);
+          assertSameContent(
+              fullDatastore,
+              streamedDatastore,
+              DatastoreConstants.EPOCH_RANGE_STORE,
+              DatastoreConstants.EPOCH_RANGE__OWNER,
+              DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID,
+              DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID);
+          assertSameContent(
+              fullDatastore,
+              streamedDatastore,
+              DatastoreConstants.EPOCH_VIEW_STORE,
+              DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID,
+              DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID,
+              DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID);
+        });
+  }
+
+  @Test
+  public void testStreamingWritesSameTuples() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testStreamingWritesSameTuples");
+
+          final AnalysisDatastoreFeeder fullFeeder = new AnalysisDatastoreFeeder("dump");
+          feed(fullFeeder, loadMemoryStatFromFolder(exportPath).getChildren());
+
+          final AnalysisDatastoreFeeder streamedFeeder = new AnalysisDatastoreFeeder("dump");
+          feed(streamedFeeder, streamFolder(exportPath));
+
+          // The ancestors replayed with each streamed sub-tree must not write their tuples again
+          Assertions.assertThat(streamedFeeder.getRecordCounts().toMap())
+              .isEqualTo(fullFeeder.getRecordCounts().toMap());
+        });
+  }
+
+  @Test
+  public void testPipelineLoadsSameContent() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testPipelineLoadsSameContent");
+
+          final IDatastore fullDatastore = createAnalysisDatastore();
+          feedMonitoringApplication(
+              fullDatastore, loadMemoryStatFromFolder(exportPath).getChildren(), "dump");
+
+          final List<Path> files;
+          try (final Stream<Path> listed = Files.list(exportPath)) {
+            files = listed.collect(Collectors.toList());
+          }
+          final IDatastore pipelinedDatastore = createAnalysisDatastore();
+          // Minimal capacities, so that every stage waits for the next one
+          try (final StatisticLoadingPipeline pipeline =
+              new StatisticLoadingPipeline(1, 1, 1, 2, true)) {
+            final AnalysisDatastoreFeeder feeder = new AnalysisDatastoreFeeder("dump");
+            pipelinedDatastore.edit(
+                transaction -> {
+                  pipeline.run(files, statistic -> feeder.feed(transaction, statistic));
+                  feeder.completeTransaction(transaction);
+                });
+          }
+
+          assertSameContent(
+              fullDatastore,
+              pipelinedDatastore,
+              DatastoreConstants.CHUNK_STORE,
+              DatastoreConstants.CHUNK_ID,
+              DatastoreConstants.VERSION__EPOCH_ID,
+              DatastoreConstants.OWNER__OWNER,
+              DatastoreConstants.CHUNK__CLASS,
+              DatastoreConstants.CHUNK__OFF_HEAP_SIZE);
+          assertSameContent(
+              fullDatastore,
+              pipelinedDatastore,
+              DatastoreConstants.EPOCH_RANGE_STORE,
+              DatastoreConstants.EPOCH_RANGE__OWNER,
+              DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID,
+              DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID);
+          assertSameContent(
+              fullDatastore,
+              pipelinedDatastore,
+              DatastoreConstants.EPOCH_VIEW_STORE,
+              DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID,
+              DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID,
+              DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID);
+        });
+  }
+
+  @Test
+  public void testBatchedLoadingSameContent() {
+    createApplication(
+        (monitoredDatastore, monitoredManager) -> {
+          fillApplication(monitoredDatastore);
+
+          final IMemoryAnalysisService analysisService =
+              createService(monitoredDatastore, monitoredManager);
+          final Path exportPath =
+              analysisService.exportMostRecentVersion("testBatchedLoadingSameContent");
+
+          final IDatastore fullDatastore = createAnalysisDatastore();
+          final Collection<IMemoryStatistic> stats =
+              loadMemoryStatFromFolder(exportPath).getChildren();
+          feedMonitoringApplication(fullDatastore, stats, "dump");
+
+          final IDatastore batchedDatastore = createAnalysisDatastore();
+          final AnalysisDatastoreFeeder feeder = new AnalysisDatastoreFeeder("dump");
+          for (final IMemoryStatistic stat : stats) {
+            batchedDatastore.edit(transaction -> feeder.feed(transaction, stat));
+          }
+          // The committed chunks are not viewed by any epoch until the loading completes
+          Assertions.assertThat(
+                  readRows(
+                      batchedDatastore,
+                      DatastoreConstants.EPOCH_VIEW_STORE,
+                      DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID))
+              .isEmpty();
+          Assertions.assertThat(
+                  readRows(
+                      batchedDatastore,
+                      DatastoreConstants.EPOCH_RANGE_STORE,
+                      DatastoreConstants.EPOCH_RANGE__OWNER))
+              .isEmpty();
+          Assertions.assertThat(feeder.completeLoading(batchedDatastore)).isPresent();
+
+          assertSameContent(
+              fullDatastore,
+              batchedDatastore,
+              DatastoreConstants.CHUNK_STORE,
+              DatastoreConstants.CHUNK_ID,
+              DatastoreConstants.VERSION__EPOCH_ID,
+              DatastoreConstants.OWNER__OWNER,
+              DatastoreConstants.CHUNK__CLASS,
+              DatastoreConstants.CHUNK__OFF_HEAP_SIZE);
+          assertSameContent(
+              fullDatastore,
+              batchedDatastore,
+              DatastoreConstants.EPOCH_RANGE_STORE,
+              DatastoreConstants.EPOCH_RANGE__OWNER,
+              DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID,
+              DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID);
+          assertSameContent(
+              fullDatastore,
+              batchedDatastore,
+              DatastoreConstants.EPOCH_VIEW_STORE,
+              DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID,
+              DatastoreConstants.EPOCH_RANGE__END_EPOCH_ID,
+              DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID);
+        });
+  }
+
+  @Test
+  public void testPipelineReportsDecodingFailure() throws IOException {
+    final Path folder = Files.createTempDirectory("mac-pipeline");
+    final Path invalid = Files.writeString(folder.resolve("invalid.json"), "{\"name\": [");
+    try (final StatisticLoadingPipeline pipeline =
+        new StatisticLoadingPipeline(1, 1, 1, 1, true)) {
+      Assertions.assertThatThrownBy(() -> pipeline.run(List.of(invalid), statistic -> {}))
+          .isInstanceOf(RuntimeException.class);
+    } finally {
+      Files.delete(invalid);
+      Files.delete(folder);
+    }
+  }
+
+  private void feed(
+      final AnalysisDatastoreFeeder feeder, final Collection<IMemoryStatistic> statistics) {
+    createAnalysisDatastore()
+        .edit(
+            transaction -> {
+              for (final IMemoryStatistic statistic : statistics) {
+                feeder.feed(transaction, statistic);
+              }
+              feeder.completeTransaction(transaction);
+            });
+  }
+
+  private static List<IMemoryStatistic> streamFolder(final Path folder) throws IOException {
+    try (final Stream<Path> files = Files.list(folder)) {
+      return files
+          .flatMap(
+              file -> {
+                try {
+                  return StreamingStatisticReader.stream(file);
+                } catch (final IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              })
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static void assertSameContent(
+      final IDatastore expected,
+      final IDatastore actual,
+      final String store,
+      final String... fields) {
+    final List<List<Object>> expectedRows = readRows(expected, store, fields);
+    Assertions.assertThat(expectedRows).isNotEmpty();
+    Assertions.assertThat(readRows(actual, store, fields))
+        .as("Content of " + store)
+        .containsExactlyInAnyOrderElementsOf(expectedRows);
+  }
+
+  private static List<List<Object>> readRows(
+      final IDatastore datastore, final String store, final String... fields) {
+    final ListQuery query =
+        datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(store)
+            .withoutCondition()
+            .withAliasedFields(
+                Arrays.stream(fields).map(AliasedField::fromFieldName).toArray(AliasedField[]::new))
+            .toQuery();
+
+    try (final ICursor cursor =
+        datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      final List<List<Object>> rows = new ArrayList<>();
+      for (final IRecordReader reader : cursor) {
+        final List<Object> row = new ArrayList<>(fields.length);
+        for (int i = 0; i < fields.length; ++i) {
+          row.add(reader.read(i));
+        }
+        rows.add(row);
+      }
+      return rows;
+    }
+  }
+}
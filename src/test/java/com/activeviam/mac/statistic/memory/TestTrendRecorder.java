@@ -0,0 +1,199 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.database.api.query.AliasedField;
+import com.activeviam.database.api.query.ListQuery;
+import com.activeviam.database.api.schema.FieldPath;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.activeviam.mac.memory.TrendRecorder;
+import com.qfs.condition.impl.BaseConditions;
+import com.qfs.store.IDatastore;
+import com.qfs.store.build.impl.UnitTestDatastoreBuilder;
+import com.qfs.store.query.ICursor;
+import com.qfs.store.record.IRecordFormat;
+import com.qfs.store.record.IRecordReader;
+import com.qfs.store.transaction.IOpenedTransaction;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests the recording of the time series of the applications. */
+public class TestTrendRecorder {
+
+  private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+  private final TrendRecorder recorder =
+      new TrendRecorder(Pattern.compile(TrendRecorder.DEFAULT_APPLICATION_PATTERN), 2);
+
+  private IDatastore datastore;
+
+  @BeforeEach
+  public void createDatastore() {
+    this.datastore =
+        new UnitTestDatastoreBuilder()
+            .setSchemaDescription(
+                new MemoryAnalysisDatastoreDescriptionConfig().datastoreSchemaDescription())
+            .build();
+    // The store grows by 100 bytes, and the application by 1000 bytes, per day
+    this.datastore.edit(
+        transaction -> {
+          for (int day = 0; day < 3; ++day) {
+            final String dumpName = "app/" + day;
+            transaction.add(
+                DatastoreConstants.APPLICATION_STORE,
+                dumpName,
+                START.plus(Duration.ofDays(day)),
+                0L,
+                0L,
+                1000L * (day + 1),
+                10_000L);
+            addChunk(transaction, dumpName, 1L, 100L);
+            addChunk(transaction, dumpName, 2L, 100L * day);
+          }
+        });
+  }
+
+  @AfterEach
+  public void stopDatastore() {
+    this.datastore.stop();
+  }
+
+  @Test
+  public void testApplicationIsTheParentFolder() {
+    Assertions.assertThat(this.recorder.getApplication("app/2024-01-01")).isEqualTo("app");
+    Assertions.assertThat(this.recorder.getApplication("prod\\app\\0")).isEqualTo("prod\\app");
+    Assertions.assertThat(this.recorder.getApplication("dump")).isEqualTo("dump");
+  }
+
+  @Test
+  public void testGrowthsAreComputedUpToEachDump() {
+    for (int day = 0; day < 3; ++day) {
+      record("app/" + day);
+    }
+
+    Assertions.assertThat(readTrend("app/0")).containsExactly(100.0, 0.0, 0.0);
+    Assertions.assertThat(readTrend("app/1").subList(0, 3)).containsExactly(200.0, 100.0, 1000.0);
+    final List<Object> latest = readTrend("app/2");
+    Assertions.assertThat(latest.subList(0, 3)).containsExactly(300.0, 100.0, 1000.0);
+    // 7000 bytes left at 1000 bytes per day
+    Assertions.assertThat((Double) latest.get(3)).isCloseTo(7.0, Offset.offset(1e-9));
+  }
+
+  @Test
+  public void testRecordingAnOlderDumpUpdatesTheLaterOnes() {
+    record("app/0");
+    record("app/2");
+    Assertions.assertThat(readTrend("app/2").subList(0, 3)).containsExactly(300.0, 100.0, 1000.0);
+
+    Assertions.assertThat(record("app/1")).containsExactlyInAnyOrder("app/1", "app/2");
+    Assertions.assertThat(readTrend("app/1").subList(0, 3)).containsExactly(200.0, 100.0, 1000.0);
+  }
+
+  @Test
+  public void testTrendOutlivesTheChunks() {
+    record("app/0");
+    this.datastore.edit(
+        transaction ->
+            transaction.removeWhere(
+                DatastoreConstants.CHUNK_STORE,
+                BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), "app/0")));
+    record("app/1");
+
+    Assertions.assertThat(readTrend("app/0")).containsExactly(100.0, 0.0, 0.0);
+    Assertions.assertThat(readTrend("app/1").subList(0, 3)).containsExactly(200.0, 100.0, 1000.0);
+  }
+
+  private Set<String> record(final String dumpName) {
+    final List<Set<String>> written = new ArrayList<>();
+    this.datastore.edit(
+        transaction -> written.add(this.recorder.recordWithTransaction(transaction, dumpName)));
+    return written.get(0);
+  }
+
+  /**
+   * Reads the trend of the store in a dump.
+   *
+   * @return the off-heap size and growth of the store, the growth of the used direct memory and
+   *     the number of days left if any
+   */
+  private List<Object> readTrend(final String dumpName) {
+    final ListQuery query =
+        this.datastore
+            .getQueryManager()
+            .listQuery()
+            .forTable(DatastoreConstants.TREND_STORE)
+            .withCondition(
+                BaseConditions.equal(FieldPath.of(DatastoreConstants.CHUNK__DUMP_NAME), dumpName))
+            .withAliasedFields(
+                AliasedField.fromFieldName(DatastoreConstants.TREND__APPLICATION),
+                AliasedField.fromFieldName(DatastoreConstants.CHUNK__OFF_HEAP_SIZE),
+                AliasedField.fromFieldName(DatastoreConstants.TREND__OFF_HEAP_GROWTH),
+                AliasedField.fromFieldName(DatastoreConstants.TREND__USED_OFF_HEAP_GROWTH),
+                AliasedField.fromFieldName(DatastoreConstants.TREND__DAYS_TO_MAX_OFF_HEAP))
+            .toQuery();
+    final List<List<Object>> rows = new ArrayList<>();
+    try (final ICursor cursor =
+        this.datastore.getHead("master").getQueryRunner().listQuery(query).run()) {
+      for (final IRecordReader reader : cursor) {
+        Assertions.assertThat(reader.read(0)).isEqualTo("app");
+        final List<Object> row =
+            new ArrayList<>(
+                Arrays.asList(
+                    (double) reader.readLong(1), reader.readDouble(2), reader.readDouble(3)));
+        if (reader.read(4) != null) {
+          row.add(reader.read(4));
+        }
+        rows.add(row);
+      }
+    }
+    Assertions.assertThat(rows).hasSize(1);
+    return rows.get(0);
+  }
+
+  private static void addChunk(
+      final IOpenedTransaction transaction,
+      final String dumpName,
+      final long chunkId,
+      final long offHeapSize) {
+    final IRecordFormat format =
+        transaction
+            .getMetadata()
+            .getStoreMetadata(DatastoreConstants.CHUNK_STORE)
+            .getStoreFormat()
+            .getRecordFormat();
+    final Object[] tuple = new Object[format.getFieldCount()];
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK_ID)] = chunkId;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)] = dumpName;
+    tuple[format.getFieldIndex(DatastoreConstants.VERSION__EPOCH_ID)] = 1L;
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__OWNER)] = new StoreOwner("store");
+    tuple[format.getFieldIndex(DatastoreConstants.OWNER__COMPONENT)] = ParentType.RECORDS;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARTITION_ID)] = 0;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE)] =
+        ParentType.RECORDS;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__CLASS)] = "chunk";
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__OFF_HEAP_SIZE)] = offHeapSize;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__ON_HEAP_SIZE)] = 0L;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__SIZE)] = 16L;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__NON_WRITTEN_ROWS)] = 0L;
+    tuple[format.getFieldIndex(DatastoreConstants.CHUNK__FREE_ROWS)] = 0L;
+    transaction.add(DatastoreConstants.CHUNK_STORE, tuple);
+  }
+}
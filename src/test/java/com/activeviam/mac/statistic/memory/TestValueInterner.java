@@ -0,0 +1,66 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory;
+
+import com.activeviam.mac.entities.CubeOwner;
+import com.activeviam.mac.entities.DistributedCubeOwner;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.StringArrayObject;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.UsedByVersion;
+import com.activeviam.mac.memory.ValueInterner;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/** Tests the canonicalization of the values repeated across the records of a loading. */
+public class TestValueInterner {
+
+  @Test
+  public void testEqualValuesShareAnInstance() {
+    final ValueInterner interner = new ValueInterner();
+    final String className = new String("com.qfs.chunk.impl.ChunkSingleVector");
+
+    Assertions.assertThat(interner.intern(className)).isSameAs(className);
+    Assertions.assertThat(interner.intern(new String(className))).isSameAs(className);
+
+    final StoreOwner owner = new StoreOwner("store");
+    Assertions.assertThat(interner.intern(owner)).isSameAs(owner);
+    Assertions.assertThat(interner.intern(new StoreOwner("store"))).isSameAs(owner);
+    Assertions.assertThat(interner.intern(null)).isNull();
+    Assertions.assertThat(interner.size()).isEqualTo(2);
+  }
+
+  @Test
+  public void testOwnersOfDifferentTypesAreKeptApart() {
+    final ValueInterner interner = new ValueInterner();
+    final CubeOwner cube = interner.intern(new CubeOwner("cube"));
+
+    Assertions.assertThat(interner.intern(new DistributedCubeOwner("cube")))
+        .isInstanceOf(DistributedCubeOwner.class);
+    Assertions.assertThat(interner.intern(new CubeOwner("cube"))).isSameAs(cube);
+  }
+
+  @Test
+  public void testTupleValuesAreInternedInPlace() {
+    final ValueInterner interner = new ValueInterner();
+    final String field = new String("field");
+    final StringArrayObject fields = new StringArrayObject("a", "b");
+    interner.intern(field);
+    interner.intern(fields);
+
+    final Object[] tuple = {
+      new String("field"), new StringArrayObject("a", "b"), 12L, UsedByVersion.TRUE, null
+    };
+    interner.internAll(tuple);
+
+    Assertions.assertThat(tuple[0]).isSameAs(field);
+    Assertions.assertThat(tuple[1]).isSameAs(fields);
+    Assertions.assertThat(tuple).containsExactly(field, fields, 12L, UsedByVersion.TRUE, null);
+    // Only the strings, owners and field arrays are kept by the interner
+    Assertions.assertThat(interner.size()).isEqualTo(2);
+  }
+}
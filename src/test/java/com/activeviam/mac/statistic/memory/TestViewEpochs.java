@@ -15,7 +15,6 @@ import com.activeviam.mac.entities.CubeOwner;
 import com.activeviam.mac.entities.StoreOwner;
 import com.activeviam.mac.memory.DatastoreConstants;
 import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
-import com.activeviam.mac.statistic.memory.visitor.impl.EpochView;
 import com.activeviam.pivot.utils.ApplicationInTests;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -239,29 +238,15 @@ public class TestViewEpochs extends ATestMemoryStatistic {
   }
 
   protected Map<ChunkOwner, Multimap<Long, Long>> retrieveViewEpochIdsPerOwner() {
-    final ListQuery query =
-        this.monitoringApp
-            .getDatabase()
-            .getQueryManager()
-            .listQuery()
-            .forTable(DatastoreConstants.EPOCH_VIEW_STORE)
-            .withoutCondition()
-            .withAliasedFields(
-                AliasedField.fromFieldName(DatastoreConstants.EPOCH_VIEW__OWNER),
-                AliasedField.fromFieldName(DatastoreConstants.EPOCH_VIEW__BASE_EPOCH_ID),
-                AliasedField.fromFieldName(DatastoreConstants.EPOCH_VIEW__VIEW_EPOCH_ID))
-            .toQuery();
-    final ICursor cursor =
-        this.monitoringApp.getDatabase().getHead("master").getQueryRunner().listQuery(query).run();
-
     final Map<ChunkOwner, Multimap<Long, Long>> epochs = new HashMap<>();
-    for (final IRecordReader record : cursor) {
-      epochs
-          .computeIfAbsent((ChunkOwner) record.read(0), key -> HashMultimap.create())
-          .put(record.readLong(1), ((EpochView) record.read(2)).getEpochId());
-    }
-
-    cursor.close();
+    resolveEpochViews(this.monitoringApp.getDatabase().getHead("master"))
+        .forEach(
+            (owner, views) ->
+                views.forEach(
+                    (baseEpochId, view) ->
+                        epochs
+                            .computeIfAbsent(owner, key -> HashMultimap.create())
+                            .put(baseEpochId, view.getEpochId())));
     return epochs;
   }
 }
@@ -100,7 +100,12 @@ public class TestMissingChunkId {
                 + "  ) ON ROWS"
                 + "  FROM [MemoryCube]");
 
-    final CellSetDTO totalResult = analysisApplication.getSingleCube().execute(query);
+    final CellSetDTO totalResult =
+        analysisApplication
+            .getManager()
+            .getActivePivots()
+            .get(ManagerDescriptionConfig.MONITORING_CUBE)
+            .execute(query);
     final List<String> negativeChunkIds =
         totalResult.getAxes().get(0).getPositions().stream()
             .map(p -> p.getMembers().get(0).getCaption())
@@ -256,7 +256,7 @@ public class TestMultipleFieldsDictionary extends ATestMemoryStatistic {
         this.monitoringDatastore
             .getQueryManager()
             .listQuery()
-            .forTable(DatastoreConstants.CHUNK_STORE)
+            .forTable(DatastoreConstants.CHUNK_TO_FIELD_STORE)
             .withCondition(
                 BaseConditions.and(
                     BaseConditions.equal(
@@ -0,0 +1,102 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor;
+
+import com.activeviam.mac.entities.ChunkOwner;
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.OwnerEpochs;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.activeviam.mac.statistic.memory.visitor.impl.VersionTupleWriter;
+import com.qfs.store.IDatastore;
+import com.qfs.store.build.impl.UnitTestDatastoreBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests the addition of tuples to the analysis datastore in batches. */
+public class TestTupleBatcher {
+
+  private MemoryAnalysisDatastoreDescriptionConfig description;
+  private IDatastore datastore;
+
+  @BeforeEach
+  public void createDatastore() {
+    this.description = new MemoryAnalysisDatastoreDescriptionConfig();
+    this.datastore =
+        new UnitTestDatastoreBuilder()
+            .setSchemaDescription(this.description.datastoreSchemaDescription())
+            .build();
+  }
+
+  @AfterEach
+  public void stopDatastore() {
+    this.datastore.stop();
+  }
+
+  private long countVersions(final String dumpName) {
+    return new AnalysisDatastoreUnloader(this.description.getStoreDescriptions())
+        .countRecordsPerStore(this.datastore, dumpName)
+        .get(DatastoreConstants.VERSION_STORE);
+  }
+
+  @Test
+  public void testReusedTuplesAreAddedInBatches() {
+    final VersionTupleWriter writer =
+        VersionTupleWriter.of(
+            this.datastore
+                .getSchemaMetadata()
+                .getStoreMetadata(DatastoreConstants.VERSION_STORE)
+                .getStoreFormat()
+                .getRecordFormat());
+
+    this.datastore.edit(
+        transaction -> {
+          final TupleBatcher batcher = new TupleBatcher(transaction, 2);
+          // The batcher copies the tuples, the same one can be reused for all the versions
+          final Object[] tuple = writer.newTuple("dump", 1L, "master");
+          for (long epoch = 1; epoch <= 5; ++epoch) {
+            writer.setEpochId(tuple, epoch);
+            batcher.add(DatastoreConstants.VERSION_STORE, tuple);
+          }
+          batcher.flush();
+        });
+
+    Assertions.assertThat(countVersions("dump")).isEqualTo(5);
+  }
+
+  @Test
+  public void testForkedBatchersRecordTheSameEpochs() {
+    final OwnerEpochs epochs = new OwnerEpochs();
+    final ChunkOwner owner = new StoreOwner("store");
+    this.datastore.edit(
+        transaction -> {
+          final TupleBatcher batcher = new TupleBatcher(transaction, 2, null, epochs);
+          batcher.recordEpoch(owner, 1L);
+          batcher.recordEpoch(owner, 1L);
+          batcher.fork().recordEpoch(owner, 3L);
+          batcher.recordEpoch(owner, 2L);
+        });
+
+    final Map<ChunkOwner, long[]> epochsPerOwner = new HashMap<>();
+    epochs.forEach(epochsPerOwner::put);
+    Assertions.assertThat(epochsPerOwner).containsOnlyKeys(owner);
+    Assertions.assertThat(epochsPerOwner.get(owner)).containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  public void testBatchSizeMustBePositive() {
+    Assertions.assertThatThrownBy(() -> this.datastore.edit(tx -> new TupleBatcher(tx, 0)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * (C) ActiveViam 2024
+ * ALL RIGHTS RESERVED. This material is the CONFIDENTIAL and PROPRIETARY
+ * property of ActiveViam. Any unauthorized use,
+ * reproduction or transfer of this material is strictly prohibited
+ */
+
+package com.activeviam.mac.statistic.memory.visitor;
+
+import com.activeviam.mac.entities.StoreOwner;
+import com.activeviam.mac.memory.AnalysisDatastoreUnloader;
+import com.activeviam.mac.memory.DatastoreConstants;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig;
+import com.activeviam.mac.memory.MemoryAnalysisDatastoreDescriptionConfig.ParentType;
+import com.activeviam.mac.statistic.memory.visitor.impl.ChunkToFieldTupleWriter;
+import com.activeviam.mac.statistic.memory.visitor.impl.ChunkTupleWriter;
+import com.activeviam.mac.statistic.memory.visitor.impl.TupleBatcher;
+import com.activeviam.mac.statistic.memory.visitor.impl.VersionTupleWriter;
+import com.qfs.store.IDatastore;
+import com.qfs.store.build.impl.UnitTestDatastoreBuilder;
+import com.qfs.store.record.IRecordFormat;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests the writers filling the tuples of the analysis stores. */
+public class TestTupleWriters {
+
+  private IDatastore datastore;
+
+  @BeforeEach
+  public void createDatastore() {
+    this.datastore =
+        new UnitTestDatastoreBuilder()
+            .setSchemaDescription(
+                new MemoryAnalysisDatastoreDescriptionConfig().datastoreSchemaDescription())
+            .build();
+  }
+
+  @AfterEach
+  public void stopDatastore() {
+    this.datastore.stop();
+  }
+
+  private IRecordFormat getFormat(final String store) {
+    return this.datastore
+        .getSchemaMetadata()
+        .getStoreMetadata(store)
+        .getStoreFormat()
+        .getRecordFormat();
+  }
+
+  @Test
+  public void testWritersAreSharedPerFormat() {
+    final IRecordFormat format = getFormat(DatastoreConstants.CHUNK_STORE);
+    final ChunkTupleWriter writer = ChunkTupleWriter.of(format);
+    Assertions.assertThat(ChunkTupleWriter.of(format)).isSameAs(writer);
+    Assertions.assertThat(writer.getFormat()).isSameAs(format);
+  }
+
+  @Test
+  public void testChunkWriterFillsTheFieldsOfTheFormat() {
+    final IRecordFormat format = getFormat(DatastoreConstants.CHUNK_STORE);
+    final ChunkTupleWriter writer = ChunkTupleWriter.of(format);
+    final Object[] tuple = writer.newTuple();
+    final StoreOwner owner = new StoreOwner("store");
+
+    writer.setDumpName(tuple, "dump");
+    writer.setEpochId(tuple, 2L);
+    writer.setOwner(tuple, owner, ParentType.RECORDS);
+    writer.setParent(tuple, ParentType.DICTIONARY, "parent");
+    writer.setParentStructures(tuple, null, 5L, 6L);
+    writer.setSize(tuple, 10);
+
+    Assertions.assertThat(tuple).hasSize(format.getFieldCount());
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__DUMP_NAME)])
+        .isEqualTo("dump");
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.VERSION__EPOCH_ID)])
+        .isEqualTo(2L);
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.OWNER__OWNER)])
+        .isEqualTo(owner);
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.OWNER__COMPONENT)])
+        .isEqualTo(ParentType.RECORDS);
+    Assertions.assertThat(
+            tuple[format.getFieldIndex(DatastoreConstants.CHUNK__CLOSEST_PARENT_TYPE)])
+        .isEqualTo(ParentType.DICTIONARY);
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARENT_ID)])
+        .isEqualTo("parent");
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARENT_REF_ID)])
+        .isNull();
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARENT_INDEX_ID)])
+        .isEqualTo(5L);
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARENT_DICO_ID)])
+        .isEqualTo(6L);
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__SIZE)])
+        .isEqualTo(10);
+  }
+
+  @Test
+  public void testMandatoryValuesAreChecked() {
+    final VersionTupleWriter writer =
+        VersionTupleWriter.of(getFormat(DatastoreConstants.VERSION_STORE));
+    Assertions.assertThatThrownBy(
+            () -> writer.newTuple("dump", DatastoreConstants.NO_EPOCH_ID, "master"))
+        .hasMessageContaining(DatastoreConstants.VERSION__EPOCH_ID);
+
+    final ChunkTupleWriter chunkWriter =
+        ChunkTupleWriter.of(getFormat(DatastoreConstants.CHUNK_STORE));
+    final Object[] tuple = chunkWriter.newTuple();
+    Assertions.assertThatThrownBy(
+            () -> chunkWriter.setProviderId(tuple, DatastoreConstants.NO_PROVIDER_ID))
+        .hasMessageContaining(DatastoreConstants.CHUNK__PROVIDER_ID);
+    Assertions.assertThatThrownBy(() -> chunkWriter.setDumpName(tuple, null))
+        .hasMessageContaining(DatastoreConstants.CHUNK__DUMP_NAME);
+  }
+
+  @Test
+  public void testParentStructuresAreOverwritten() {
+    final IRecordFormat format = getFormat(DatastoreConstants.CHUNK_STORE);
+    final ChunkTupleWriter writer = ChunkTupleWriter.of(format);
+    final Object[] tuple = writer.newTuple();
+
+    // The tuple of a previous chunk is reused, absent structures must not leak into the next one
+    writer.setParentStructures(tuple, 1L, 2L, 3L);
+    writer.setParentStructures(tuple, null, null, 4L);
+
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARENT_REF_ID)])
+        .isNull();
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARENT_INDEX_ID)])
+        .isNull();
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PARENT_DICO_ID)])
+        .isEqualTo(4L);
+  }
+
+  @Test
+  public void testProviderIdIsCleared() {
+    final IRecordFormat format = getFormat(DatastoreConstants.CHUNK_STORE);
+    final ChunkTupleWriter writer = ChunkTupleWriter.of(format);
+    final Object[] tuple = writer.newTuple();
+
+    // A reused visitor must not attribute the chunks outside of providers to the previous one
+    writer.setProviderId(tuple, 7L);
+    writer.clearProviderId(tuple);
+
+    Assertions.assertThat(tuple[format.getFieldIndex(DatastoreConstants.CHUNK__PROVIDER_ID)])
+        .isNull();
+  }
+
+  @Test
+  public void testChunkIsAddedOnceForAllItsFields() {
+    final ChunkTupleWriter writer = ChunkTupleWriter.of(getFormat(DatastoreConstants.CHUNK_STORE));
+    final ChunkToFieldTupleWriter fieldWriter =
+        ChunkToFieldTupleWriter.of(getFormat(DatastoreConstants.CHUNK_TO_FIELD_STORE));
+    final Object[] tuple = writer.newTuple();
+    writer.setDumpName(tuple, "dump");
+    writer.setEpochId(tuple, 1L);
+    writer.setOwner(tuple, new StoreOwner("store"), ParentType.DICTIONARY);
+    writer.setParent(tuple, ParentType.DICTIONARY, "parent");
+
+    this.datastore.edit(
+        transaction -> {
+          final TupleBatcher batcher = new TupleBatcher(transaction, 16);
+          for (long chunkId = 0; chunkId < 3; ++chunkId) {
+            tuple[writer.getFormat().getFieldIndex(DatastoreConstants.CHUNK_ID)] = chunkId;
+            writer.addForFields(batcher, fieldWriter, List.of("a", "b", "c", "d"), tuple);
+          }
+          tuple[writer.getFormat().getFieldIndex(DatastoreConstants.CHUNK_ID)] = 3L;
+          writer.addForFields(batcher, fieldWriter, null, tuple);
+          batcher.flush();
+        });
+
+    final Map<String, Long> counts =
+        new AnalysisDatastoreUnloader(
+                new MemoryAnalysisDatastoreDescriptionConfig().getStoreDescriptions())
+            .countRecordsPerStore(this.datastore, "dump");
+    Assertions.assertThat(counts.get(DatastoreConstants.CHUNK_STORE)).isEqualTo(4L);
+    Assertions.assertThat(counts.get(DatastoreConstants.CHUNK_TO_FIELD_STORE)).isEqualTo(12L);
+  }
+}